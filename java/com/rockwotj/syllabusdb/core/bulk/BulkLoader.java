@@ -0,0 +1,68 @@
+package com.rockwotj.syllabusdb.core.bulk;
+
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+
+/**
+ * Loads a large set of documents, and their index entries, into an empty or offline store.
+ *
+ * <p>Inserting keys in random order into a sorted structure is slow, so instead all the document
+ * and index keys are externally sorted with bounded memory and then handed to the store as one
+ * sorted stream via {@link KeyValueStore#ingest}, which lets the store build its structures bottom
+ * up.
+ *
+ * <p>The load is not atomic and doesn't delete the index entries of documents it overwrites, so it
+ * must not run concurrently with other writes.
+ */
+public final class BulkLoader {
+
+  /**
+   * @param spillDirectory where to write sorted runs while loading.
+   * @param maxBufferedBytes the approximate memory budget for keys waiting to be sorted.
+   */
+  public record Options(@Nonnull Path spillDirectory, long maxBufferedBytes) {
+    public Options {
+      Objects.requireNonNull(spillDirectory, "Missing required spill directory");
+      if (maxBufferedBytes <= 0) {
+        throw new IllegalArgumentException("Invalid max buffered bytes: " + maxBufferedBytes);
+      }
+    }
+  }
+
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final Indexer indexer;
+  @Nonnull private final Options options;
+
+  public BulkLoader(
+      @Nonnull KeyValueStore store, @Nonnull Indexer indexer, @Nonnull Options options) {
+    this.store = Objects.requireNonNull(store);
+    this.indexer = Objects.requireNonNull(indexer);
+    this.options = Objects.requireNonNull(options);
+  }
+
+  /** Load all the documents, returning the number loaded. */
+  public long load(@Nonnull Iterator<Document> documents) {
+    var encoder = new IndexEntryEncoder();
+    long count = 0;
+    try (var sorter = new ExternalSorter(options.spillDirectory(), options.maxBufferedBytes())) {
+      while (documents.hasNext()) {
+        var document = documents.next();
+        sorter.add(DocumentKeys.encode(document.path()), DocConverter.toBytes(document));
+        for (var entry : indexer.index(document)) {
+          sorter.add(encoder.encode(entry), encoder.encodeValue(entry));
+        }
+        ++count;
+      }
+      store.ingest(sorter.sorted());
+    }
+    return count;
+  }
+}
@@ -0,0 +1,244 @@
+package com.rockwotj.syllabusdb.core.bulk;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Sorts more key/value pairs than fit in memory.
+ *
+ * <p>Pairs are buffered until they reach a memory budget, then the buffer is sorted and spilled to
+ * a file as a sorted run. Reading the result does a k-way merge of all the runs. If the same key is
+ * added more than once the last value wins.
+ *
+ * <p>Spill files are deleted when the sorter is closed.
+ */
+@NotThreadSafe
+public final class ExternalSorter implements AutoCloseable {
+  // A rough estimate of the memory used for each buffered pair, beyond the bytes themselves.
+  private static final long ENTRY_OVERHEAD_BYTES = 64;
+
+  @Nonnull private final Path spillDirectory;
+  private final long maxBufferedBytes;
+
+  private final List<Map.Entry<ByteArray, ByteArray>> buffer = new ArrayList<>();
+  private long bufferedBytes = 0;
+  private final List<Path> runs = new ArrayList<>();
+  private final List<RunReader> readers = new ArrayList<>();
+  private boolean finished = false;
+
+  /**
+   * @param spillDirectory where sorted runs are written, which must exist.
+   * @param maxBufferedBytes the approximate memory budget for buffered pairs.
+   */
+  public ExternalSorter(@Nonnull Path spillDirectory, long maxBufferedBytes) {
+    if (maxBufferedBytes <= 0) {
+      throw new IllegalArgumentException("Invalid max buffered bytes: " + maxBufferedBytes);
+    }
+    this.spillDirectory = spillDirectory;
+    this.maxBufferedBytes = maxBufferedBytes;
+  }
+
+  public void add(@Nonnull ByteArray key, @Nonnull ByteArray value) {
+    if (finished) {
+      throw new IllegalStateException("Cannot add to a sorter that has been read");
+    }
+    buffer.add(Map.entry(key, value));
+    bufferedBytes += key.length() + value.length() + ENTRY_OVERHEAD_BYTES;
+    if (bufferedBytes >= maxBufferedBytes) {
+      spill();
+    }
+  }
+
+  /** The number of runs spilled to disk so far. */
+  public int spilledRuns() {
+    return runs.size();
+  }
+
+  /**
+   * All the added pairs in strictly increasing key order. After this is called no more pairs can be
+   * added, and the iterator is only valid until the sorter is closed.
+   */
+  public Iterator<Map.Entry<ByteArray, ByteArray>> sorted() {
+    if (finished) {
+      throw new IllegalStateException("Sorter has already been read");
+    }
+    finished = true;
+    var sources = new ArrayList<Iterator<Map.Entry<ByteArray, ByteArray>>>();
+    for (Path run : runs) {
+      var reader = new RunReader(run);
+      readers.add(reader);
+      sources.add(reader);
+    }
+    // The in memory buffer was added last, so it's the final run.
+    sources.add(sortBuffer().iterator());
+    buffer.clear();
+    bufferedBytes = 0;
+    return new MergingIterator(sources);
+  }
+
+  @Override
+  public void close() {
+    for (RunReader reader : readers) {
+      reader.close();
+    }
+    readers.clear();
+    for (Path run : runs) {
+      try {
+        Files.deleteIfExists(run);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    runs.clear();
+  }
+
+  /** Sort the buffer, keeping only the last value for each key. */
+  private List<Map.Entry<ByteArray, ByteArray>> sortBuffer() {
+    // List#sort is stable, so duplicates stay in the order they were added.
+    buffer.sort(Map.Entry.comparingByKey());
+    var sorted = new ArrayList<Map.Entry<ByteArray, ByteArray>>(buffer.size());
+    for (int i = 0; i < buffer.size(); ++i) {
+      if (i + 1 < buffer.size() && buffer.get(i).getKey().equals(buffer.get(i + 1).getKey())) {
+        continue;
+      }
+      sorted.add(buffer.get(i));
+    }
+    return sorted;
+  }
+
+  private void spill() {
+    var sorted = sortBuffer();
+    try {
+      var run = Files.createTempFile(spillDirectory, "run", ".spill");
+      runs.add(run);
+      try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+        for (var entry : sorted) {
+          out.writeInt(entry.getKey().length());
+          entry.getKey().writeTo(out);
+          out.writeInt(entry.getValue().length());
+          entry.getValue().writeTo(out);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+    bufferedBytes = 0;
+  }
+
+  /** Reads a spilled run back in order. */
+  private static final class RunReader
+      implements Iterator<Map.Entry<ByteArray, ByteArray>>, AutoCloseable {
+    private final DataInputStream in;
+    @Nullable private Map.Entry<ByteArray, ByteArray> next;
+
+    private RunReader(Path run) {
+      try {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run)));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      advance();
+    }
+
+    private void advance() {
+      try {
+        int keyLength;
+        try {
+          keyLength = in.readInt();
+        } catch (EOFException e) {
+          next = null;
+          return;
+        }
+        var key = ByteArray.wrap(in.readNBytes(keyLength));
+        var value = ByteArray.wrap(in.readNBytes(in.readInt()));
+        next = Map.entry(key, value);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<ByteArray, ByteArray> next() {
+      if (next == null) throw new NoSuchElementException();
+      var result = next;
+      advance();
+      return result;
+    }
+
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /** A k-way merge of sorted runs, where later runs win for duplicate keys. */
+  private static final class MergingIterator implements Iterator<Map.Entry<ByteArray, ByteArray>> {
+    private record Head(Map.Entry<ByteArray, ByteArray> entry, int run) {}
+
+    private final List<Iterator<Map.Entry<ByteArray, ByteArray>>> sources;
+    // Ties are broken so that the latest run comes first.
+    private final PriorityQueue<Head> heads =
+        new PriorityQueue<>(
+            Comparator.<Head, ByteArray>comparing((head) -> head.entry().getKey())
+                .thenComparing(Head::run, Comparator.reverseOrder()));
+
+    private MergingIterator(List<Iterator<Map.Entry<ByteArray, ByteArray>>> sources) {
+      this.sources = sources;
+      for (int i = 0; i < sources.size(); ++i) {
+        pull(i);
+      }
+    }
+
+    private void pull(int run) {
+      var source = sources.get(run);
+      if (source.hasNext()) {
+        heads.add(new Head(source.next(), run));
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heads.isEmpty();
+    }
+
+    @Override
+    public Map.Entry<ByteArray, ByteArray> next() {
+      var head = heads.poll();
+      if (head == null) throw new NoSuchElementException();
+      pull(head.run());
+      // Drop older values for the same key.
+      while (!heads.isEmpty() && heads.peek().entry().getKey().equals(head.entry().getKey())) {
+        pull(heads.poll().run());
+      }
+      return head.entry();
+    }
+  }
+}
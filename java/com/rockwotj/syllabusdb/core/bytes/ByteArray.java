@@ -18,6 +18,8 @@ import javax.annotation.concurrent.Immutable;
  */
 @Immutable
 public final class ByteArray implements Comparable<ByteArray> {
+  public static final ByteArray EMPTY = new ByteArray(new byte[0]);
+
   @Nonnull private final byte[] bytes;
 
   private ByteArray(@Nonnull byte[] bytes) {
@@ -53,6 +55,12 @@ public final class ByteArray implements Comparable<ByteArray> {
     return this.bytes[i];
   }
 
+  /** Returns true if the first bytes of this array are exactly `prefix`. */
+  public boolean startsWith(@Nonnull ByteArray prefix) {
+    var length = prefix.bytes.length;
+    return length <= bytes.length && Arrays.equals(bytes, 0, length, prefix.bytes, 0, length);
+  }
+
   public String toUtf8() {
     return new String(bytes, StandardCharsets.UTF_8);
   }
@@ -61,6 +69,10 @@ public final class ByteArray implements Comparable<ByteArray> {
     return new ByteArrayInputStream(bytes);
   }
 
+  public void writeTo(@Nonnull OutputStream out) throws IOException {
+    out.write(bytes);
+  }
+
   @Override
   public int compareTo(@Nonnull ByteArray o) {
     return Arrays.compareUnsigned(bytes, o.bytes);
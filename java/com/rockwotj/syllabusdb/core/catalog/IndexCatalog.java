@@ -0,0 +1,234 @@
+package com.rockwotj.syllabusdb.core.catalog;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.encoding.key.Keyspace;
+import com.rockwotj.syllabusdb.core.encoding.value.InvalidEncodingException;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueDecoder;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueEncoder;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.index.converter.IndexConverter;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The persistent set of indexes in a database, stored in the catalog keyspace of the KV store.
+ *
+ * <p>When an index is created the catalog assigns it the next {@link IndexId}, which is what
+ * prefixes all of the index's entries. Ids are never reused, even after an index is dropped, so
+ * leftover entries from a dropped index can never be mistaken for entries of a new one.
+ *
+ * <p>Layout:
+ *
+ * <ul>
+ *   <li>CATALOG 0 -> the next id to assign
+ *   <li>CATALOG {id} -> the index definition, as serialized by {@link IndexConverter}
+ * </ul>
+ */
+@ThreadSafe
+public final class IndexCatalog {
+  // Id zero is reserved, so we use its key to store the id counter.
+  private static final long NEXT_ID_KEY = 0;
+
+  @Nonnull private final KeyValueStore store;
+
+  @GuardedBy("this")
+  private final Map<IndexName, Index> indexes = new HashMap<>();
+
+  @GuardedBy("this")
+  private long nextId = 1;
+
+  private IndexCatalog(@Nonnull KeyValueStore store) {
+    this.store = store;
+  }
+
+  /** Load all the existing indexes from the store. */
+  public static IndexCatalog load(@Nonnull KeyValueStore store) {
+    var catalog = new IndexCatalog(store);
+    synchronized (catalog) {
+      catalog.loadFromStore();
+    }
+    return catalog;
+  }
+
+  @GuardedBy("this")
+  private void loadFromStore() {
+    var prefix = encodeVarint(Keyspace.CATALOG.id());
+    try (var cursor = store.cursor()) {
+      for (cursor.seek(prefix); cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+        var id = decodeCatalogId(cursor.key());
+        if (id == NEXT_ID_KEY) {
+          nextId = Math.max(nextId, decodeVarint(cursor.value()));
+        } else {
+          var index = IndexConverter.fromBytes(cursor.value());
+          if (index.id().raw() != id) {
+            throw new InvalidEncodingException(
+                "Index " + index.name() + " has id " + index.id() + " but is stored under " + id);
+          }
+          indexes.put(index.name(), index);
+          nextId = Math.max(nextId, id + 1);
+        }
+      }
+    }
+  }
+
+  /**
+   * Create a new index and assign it an id. The index starts out {@link IndexState#BUILDING}, and
+   * is marked ready once it has been backfilled.
+   *
+   * @throws IllegalArgumentException if an index with the same name already exists.
+   */
+  public synchronized Index create(
+      @Nonnull IndexName name, @Nonnull CollectionId collection, @Nonnull List<IndexField> fields) {
+    return create(name, collection, IndexKind.ORDERED, fields, List.of(), Filter.ALL);
+  }
+
+  /**
+   * Create a new index of any kind, that may include extra fields in its entries or only index
+   * documents matching a filter, see {@link Index}.
+   *
+   * @throws IllegalArgumentException if an index with the same name already exists.
+   */
+  public synchronized Index create(
+      @Nonnull IndexName name,
+      @Nonnull CollectionId collection,
+      @Nonnull IndexKind kind,
+      @Nonnull List<IndexField> fields,
+      @Nonnull List<FieldPath> included,
+      @Nonnull Filter filter) {
+    return create(name, collection, kind, fields, included, filter, null);
+  }
+
+  /**
+   * Create a new index that may also expire documents after `ttl`, see {@link Index}.
+   *
+   * @throws IllegalArgumentException if an index with the same name already exists.
+   */
+  public synchronized Index create(
+      @Nonnull IndexName name,
+      @Nonnull CollectionId collection,
+      @Nonnull IndexKind kind,
+      @Nonnull List<IndexField> fields,
+      @Nonnull List<FieldPath> included,
+      @Nonnull Filter filter,
+      @Nullable Duration ttl) {
+    if (indexes.containsKey(name)) {
+      throw new IllegalArgumentException("Index already exists: " + name);
+    }
+    var index =
+        new Index(
+            new IndexId(nextId),
+            name,
+            collection,
+            kind,
+            fields,
+            included,
+            filter,
+            IndexState.BUILDING,
+            ttl);
+    store.write(
+        KeyValueStore.Write.put(catalogKey(index.id().raw()), IndexConverter.toBytes(index)),
+        KeyValueStore.Write.put(catalogKey(NEXT_ID_KEY), encodeVarint(nextId + 1)));
+    ++nextId;
+    indexes.put(name, index);
+    return index;
+  }
+
+  /**
+   * Mark an index as ready to serve queries, after it has been backfilled.
+   *
+   * @throws IllegalArgumentException if there is no such index.
+   */
+  public synchronized Index markReady(@Nonnull IndexName name) {
+    var index = indexes.get(name);
+    if (index == null) {
+      throw new IllegalArgumentException("Unknown index: " + name);
+    }
+    if (index.state().isReady()) {
+      return index;
+    }
+    index = index.withState(IndexState.READY);
+    store.write(
+        KeyValueStore.Write.put(catalogKey(index.id().raw()), IndexConverter.toBytes(index)));
+    indexes.put(name, index);
+    return index;
+  }
+
+  /**
+   * Drop an existing index. This only removes the definition, the caller is responsible for
+   * cleaning up the index's entries.
+   *
+   * @throws IllegalArgumentException if there is no such index.
+   */
+  public synchronized Index drop(@Nonnull IndexName name) {
+    var index = indexes.get(name);
+    if (index == null) {
+      throw new IllegalArgumentException("Unknown index: " + name);
+    }
+    store.write(KeyValueStore.Write.delete(catalogKey(index.id().raw())));
+    indexes.remove(name);
+    return index;
+  }
+
+  @Nullable
+  public synchronized Index get(@Nonnull IndexName name) {
+    return indexes.get(name);
+  }
+
+  /** All the indexes in the catalog, ordered by id. */
+  public synchronized List<Index> all() {
+    var all = new ArrayList<>(indexes.values());
+    all.sort(Comparator.comparing(Index::id));
+    return List.copyOf(all);
+  }
+
+  private static ByteArray catalogKey(long id) {
+    var encoder = new ValueEncoder();
+    encoder.asc().writeVarint(Keyspace.CATALOG.id());
+    encoder.asc().writeVarint(id);
+    return encoder.toByteArray();
+  }
+
+  private static long decodeCatalogId(ByteArray key) {
+    var decoder = new ValueDecoder(key.toInputStream());
+    try {
+      decoder.asc().readVarint();
+      return decoder.asc().readVarint();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ByteArray encodeVarint(long v) {
+    var encoder = new ValueEncoder();
+    encoder.asc().writeVarint(v);
+    return encoder.toByteArray();
+  }
+
+  private static long decodeVarint(ByteArray bytes) {
+    var decoder = new ValueDecoder(bytes.toInputStream());
+    try {
+      return decoder.asc().readVarint();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
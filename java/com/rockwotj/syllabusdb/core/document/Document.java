@@ -9,7 +9,7 @@ public record Document(
   public Document {
     Objects.requireNonNull(id, "Missing required document id");
     Objects.requireNonNull(collection, "Missing required collection");
-    fields = Map.copyOf(fields);
+    fields = FieldMap.copyOf(fields);
   }
 
   public Document(@Nonnull Path path, @Nonnull Map<FieldName, Value> fields) {
@@ -0,0 +1,267 @@
+package com.rockwotj.syllabusdb.core.document;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable sorted map of field names to values, stored as a pair of parallel sorted arrays.
+ *
+ * <p>Most objects within a document only have a handful of fields, so a binary search over a flat
+ * array is both faster and much more compact than a tree of map entries. Sub-map views share the
+ * same backing arrays.
+ */
+@Immutable
+public final class FieldMap extends AbstractMap<FieldName, Value>
+    implements SortedMap<FieldName, Value> {
+
+  public static final FieldMap EMPTY = new FieldMap(new FieldName[0], new Value[0], 0, 0);
+
+  @Nonnull private final FieldName[] names;
+  @Nonnull private final Value[] values;
+  // The range of the backing arrays that this map covers, so that sub-maps don't need to copy.
+  private final int from;
+  private final int to;
+
+  private FieldMap(@Nonnull FieldName[] names, @Nonnull Value[] values, int from, int to) {
+    this.names = names;
+    this.values = values;
+    this.from = from;
+    this.to = to;
+  }
+
+  public static FieldMap of(@Nonnull FieldName name, @Nonnull Value value) {
+    return new FieldMap(
+        new FieldName[] {Objects.requireNonNull(name)},
+        new Value[] {Objects.requireNonNull(value)},
+        0,
+        1);
+  }
+
+  public static FieldMap of(
+      @Nonnull FieldName n1, @Nonnull Value v1, @Nonnull FieldName n2, @Nonnull Value v2) {
+    var cmp = n1.compareTo(n2);
+    if (cmp == 0) {
+      throw new IllegalArgumentException("Duplicate field name: " + n1);
+    }
+    return cmp < 0
+        ? new FieldMap(new FieldName[] {n1, n2}, new Value[] {v1, v2}, 0, 2)
+        : new FieldMap(new FieldName[] {n2, n1}, new Value[] {v2, v1}, 0, 2);
+  }
+
+  /** Copy a map into a FieldMap, this is a no-op if the map is already a FieldMap. */
+  public static FieldMap copyOf(@Nonnull Map<FieldName, Value> map) {
+    if (map instanceof FieldMap fieldMap) {
+      return fieldMap;
+    }
+    var size = map.size();
+    var names = new FieldName[size];
+    var values = new Value[size];
+    var i = 0;
+    for (var entry : map.entrySet()) {
+      names[i] = Objects.requireNonNull(entry.getKey());
+      values[i] = Objects.requireNonNull(entry.getValue());
+      ++i;
+    }
+    return sortAndWrap(names, values, size);
+  }
+
+  /**
+   * Copy the fields in the range [from, to) of the given parallel arrays into a new FieldMap. The
+   * arrays do not need to be sorted, and if a name is repeated the last value wins (the same as
+   * repeatedly calling {@link Map#put}).
+   *
+   * <p>This allows callers to reuse scratch arrays when building many objects.
+   */
+  public static FieldMap copyOf(
+      @Nonnull FieldName[] names, @Nonnull Value[] values, int from, int to) {
+    Objects.checkFromToIndex(from, to, names.length);
+    Objects.checkFromToIndex(from, to, values.length);
+    if (from == to) {
+      return EMPTY;
+    }
+    return sortAndWrap(
+        Arrays.copyOfRange(names, from, to), Arrays.copyOfRange(values, from, to), to - from);
+  }
+
+  /** Sort the given arrays in place, dropping any earlier duplicates. The arrays are then owned. */
+  private static FieldMap sortAndWrap(FieldName[] names, Value[] values, int size) {
+    // Objects are usually tiny and often already sorted, so a stable insertion sort is the fastest
+    // option in practice.
+    for (int i = 1; i < size; ++i) {
+      var name = names[i];
+      if (names[i - 1].compareTo(name) <= 0) continue;
+      var value = values[i];
+      int j = i - 1;
+      while (j >= 0 && names[j].compareTo(name) > 0) {
+        names[j + 1] = names[j];
+        values[j + 1] = values[j];
+        --j;
+      }
+      names[j + 1] = name;
+      values[j + 1] = value;
+    }
+    // The sort is stable, so for duplicates the last occurrence is the one to keep.
+    int length = 0;
+    for (int i = 0; i < size; ++i) {
+      if (i + 1 < size && names[i].equals(names[i + 1])) continue;
+      names[length] = Objects.requireNonNull(names[i]);
+      values[length] = Objects.requireNonNull(values[i]);
+      ++length;
+    }
+    return new FieldMap(names, values, 0, length);
+  }
+
+  /** The field name at position `i` in sorted order. */
+  public FieldName nameAt(int i) {
+    Objects.checkIndex(i, size());
+    return names[from + i];
+  }
+
+  /** The value at position `i` in sorted order. */
+  public Value valueAt(int i) {
+    Objects.checkIndex(i, size());
+    return values[from + i];
+  }
+
+  @Override
+  public int size() {
+    return to - from;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return from == to;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof FieldName name && indexOf(name) >= 0;
+  }
+
+  @Override
+  @Nullable
+  public Value get(Object key) {
+    if (key instanceof FieldName name) {
+      var idx = indexOf(name);
+      return idx >= 0 ? values[idx] : null;
+    }
+    return null;
+  }
+
+  /** The absolute index in the backing arrays, or `-(insertion point) - 1` like binary search. */
+  private int indexOf(FieldName name) {
+    return Arrays.binarySearch(names, from, to, name);
+  }
+
+  /** The absolute index of the first name >= `name`. */
+  private int lowerBound(FieldName name) {
+    var idx = indexOf(Objects.requireNonNull(name));
+    return idx >= 0 ? idx : -idx - 1;
+  }
+
+  @Override
+  @Nullable
+  public Comparator<? super FieldName> comparator() {
+    // Natural ordering.
+    return null;
+  }
+
+  @Override
+  public FieldMap subMap(FieldName fromKey, FieldName toKey) {
+    if (fromKey.compareTo(toKey) > 0) {
+      throw new IllegalArgumentException("fromKey > toKey");
+    }
+    return slice(lowerBound(fromKey), lowerBound(toKey));
+  }
+
+  @Override
+  public FieldMap headMap(FieldName toKey) {
+    return slice(from, lowerBound(toKey));
+  }
+
+  @Override
+  public FieldMap tailMap(FieldName fromKey) {
+    return slice(lowerBound(fromKey), to);
+  }
+
+  private FieldMap slice(int sliceFrom, int sliceTo) {
+    if (sliceFrom == from && sliceTo == to) {
+      return this;
+    }
+    return sliceFrom == sliceTo ? EMPTY : new FieldMap(names, values, sliceFrom, sliceTo);
+  }
+
+  @Override
+  public FieldName firstKey() {
+    if (isEmpty()) throw new NoSuchElementException();
+    return names[from];
+  }
+
+  @Override
+  public FieldName lastKey() {
+    if (isEmpty()) throw new NoSuchElementException();
+    return names[to - 1];
+  }
+
+  @Override
+  @Nonnull
+  public Set<Entry<FieldName, Value>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Entry<FieldName, Value>> iterator() {
+        return new Iterator<>() {
+          private int i = from;
+
+          @Override
+          public boolean hasNext() {
+            return i < to;
+          }
+
+          @Override
+          public Entry<FieldName, Value> next() {
+            if (i >= to) throw new NoSuchElementException();
+            var entry = Map.entry(names[i], values[i]);
+            ++i;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return FieldMap.this.size();
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o instanceof FieldMap other) {
+      return Arrays.equals(names, from, to, other.names, other.from, other.to)
+          && Arrays.equals(values, from, to, other.values, other.from, other.to);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    // Must match the contract of Map#hashCode.
+    int hash = 0;
+    for (int i = from; i < to; ++i) {
+      hash += names[i].hashCode() ^ values[i].hashCode();
+    }
+    return hash;
+  }
+}
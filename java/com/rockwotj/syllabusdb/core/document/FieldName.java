@@ -1,19 +1,59 @@
 package com.rockwotj.syllabusdb.core.document;
 
 import com.rockwotj.syllabusdb.core.util.compare.CodepointComparator;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /** A name within a document. */
 public record FieldName(@Nonnull String raw) implements Comparable<FieldName> {
   private static final Pattern VALID_ID_REGEX = Pattern.compile("^[a-zA-Z][a-zA-Z0-9_]*$");
 
+  // Collections tend to reuse the same small set of field names across every document, so we keep
+  // a shared dictionary of canonical instances. It's bounded so that documents with arbitrary user
+  // defined keys can't grow it forever, once full new names are just not interned.
+  private static final int MAX_INTERNED_NAMES = 1 << 16;
+  private static final ConcurrentHashMap<String, FieldName> INTERNED = new ConcurrentHashMap<>();
+
   public FieldName {
     if (raw == null || !VALID_ID_REGEX.matcher(raw).matches()) {
       throw new IllegalArgumentException("Invalid field name: " + raw);
     }
   }
 
+  /**
+   * Return the canonical instance for a field name, names that have been seen before skip
+   * validation and share a single String.
+   *
+   * @throws IllegalArgumentException if the name is invalid.
+   */
+  public static FieldName of(@Nonnull String raw) {
+    var name = raw == null ? null : INTERNED.get(raw);
+    if (name != null) {
+      return name;
+    }
+    name = new FieldName(raw);
+    if (INTERNED.size() < MAX_INTERNED_NAMES) {
+      var existing = INTERNED.putIfAbsent(raw, name);
+      if (existing != null) {
+        return existing;
+      }
+    }
+    return name;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) return true;
+    return o instanceof FieldName other && raw.equals(other.raw);
+  }
+
+  @Override
+  public int hashCode() {
+    return raw.hashCode();
+  }
+
   @Override
   public String toString() {
     return raw;
@@ -21,6 +61,8 @@ public record FieldName(@Nonnull String raw) implements Comparable<FieldName> {
 
   @Override
   public int compareTo(FieldName other) {
+    // Interned names are the common case, so avoid the string comparison entirely.
+    if (this == other) return 0;
     return CodepointComparator.INSTANCE.compare(this.raw, other.raw);
   }
 }
@@ -3,6 +3,7 @@ package com.rockwotj.syllabusdb.core.document;
 import com.rockwotj.syllabusdb.core.util.compare.LexicographicalComparator;
 import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 
 /** A path to a value within a document. */
@@ -19,6 +20,16 @@ public record FieldPath(@Nonnull List<FieldName> segments) implements Comparable
     segments = List.copyOf(segments);
   }
 
+  /**
+   * Parse a path of `.` separated field names, such as `address.city`.
+   *
+   * @throws IllegalArgumentException if any segment is an invalid field name.
+   */
+  public static FieldPath parse(@Nonnull String dotted) {
+    return new FieldPath(
+        Arrays.stream(dotted.split(Pattern.quote("."), -1)).map(FieldName::of).toList());
+  }
+
   @Override
   public String toString() {
     return String.join(".", segments.stream().map(FieldName::raw).toList());
@@ -26,6 +37,7 @@ public record FieldPath(@Nonnull List<FieldName> segments) implements Comparable
 
   @Override
   public int compareTo(FieldPath other) {
+    if (this == other) return 0;
     return LexicographicalComparator.<FieldName>naturalOrder()
         .compare(this.segments, other.segments);
   }
@@ -1,15 +1,11 @@
 package com.rockwotj.syllabusdb.core.document;
 
-import com.google.common.collect.ImmutableSortedMap;
 import com.rockwotj.syllabusdb.core.util.compare.CodepointComparator;
-import com.rockwotj.syllabusdb.core.util.compare.LexicographicalComparator;
 import com.rockwotj.syllabusdb.core.util.compare.TotalOrderDoubleComparator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.SortedMap;
 import javax.annotation.Nonnull;
@@ -33,23 +29,38 @@ import javax.annotation.concurrent.Immutable;
 @Immutable
 public final class Value implements Comparable<Value> {
 
-  private static final Comparator<Iterable<Map.Entry<FieldName, Value>>> OBJECT_COMPARATOR =
-      LexicographicalComparator.create(
-          Map.Entry.<FieldName, Value>comparingByKey().thenComparing(Map.Entry.comparingByValue()));
-
-  public static final Value NULL = new Value(null);
-  public static final Value FALSE = new Value(Boolean.FALSE);
-  public static final Value TRUE = new Value(Boolean.TRUE);
-  public static final Value NAN = new Value(Double.NaN);
-  public static final Value EMPTY_LIST = new Value(List.of());
-  public static final Value EMPTY_OBJECT = new Value(ImmutableSortedMap.of());
+  public static final Value NULL = new Value(Type.Null, 0, null);
+  public static final Value FALSE = new Value(Type.Boolean, 0, null);
+  public static final Value TRUE = new Value(Type.Boolean, 1, null);
+  public static final Value NAN = new Value(Type.Number, Double.NaN, null);
+  public static final Value EMPTY_STRING = new Value(Type.String, 0, "");
+  public static final Value EMPTY_LIST = new Value(Type.List, 0, List.of());
+  public static final Value EMPTY_OBJECT = new Value(Type.Object, 0, FieldMap.EMPTY);
+
+  // Small integers are by far the most common numbers in documents (counts, ages, codes, etc), so
+  // like Integer#valueOf we keep a cache of them.
+  private static final int MIN_CACHED_INTEGER = -128;
+  private static final int MAX_CACHED_INTEGER = 1024;
+  private static final Value[] CACHED_INTEGERS =
+      new Value[MAX_CACHED_INTEGER - MIN_CACHED_INTEGER + 1];
+  private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+
+  static {
+    for (int i = 0; i < CACHED_INTEGERS.length; ++i) {
+      CACHED_INTEGERS[i] = new Value(Type.Number, i + MIN_CACHED_INTEGER, null);
+    }
+  }
 
-  // This class is an unsafe wrapper around an arbitrary object.
-  // This does box primitives, but we're not trying to micro optimize here.
-  private final @Nullable Object data;
+  // Values are a tagged union: the type is stored explicitly so dispatching on it is a single
+  // switch. Booleans and numbers are stored unboxed in `number` and everything else in `ref`.
+  @Nonnull private final Type type;
+  private final double number;
+  @Nullable private final Object ref;
 
-  private Value(@Nullable Object data) {
-    this.data = data;
+  private Value(@Nonnull Type type, double number, @Nullable Object ref) {
+    this.type = type;
+    this.number = number;
+    this.ref = ref;
   }
 
   public static Value of(boolean val) {
@@ -59,77 +70,96 @@ public final class Value implements Comparable<Value> {
   public static Value of(double val) {
     if (Double.isNaN(val)) {
       // Canonicalize to a single NaN value (yes there are different kinds of NaN).
-      return new Value(Double.NaN);
+      return NAN;
     }
-    return new Value(val);
+    if (val >= MIN_CACHED_INTEGER
+        && val <= MAX_CACHED_INTEGER
+        && val == (int) val
+        && Double.doubleToRawLongBits(val) != NEGATIVE_ZERO_BITS) {
+      return CACHED_INTEGERS[(int) val - MIN_CACHED_INTEGER];
+    }
+    return new Value(Type.Number, val, null);
   }
 
-  public static Value of(String val) {
-    return new Value(val);
+  public static Value of(@Nonnull String val) {
+    if (val.isEmpty()) {
+      return EMPTY_STRING;
+    }
+    return new Value(Type.String, 0, val);
   }
 
   public static Value ofList(Value v1, Value... rest) {
     var list = new ArrayList<Value>();
     list.add(v1);
     list.addAll(Arrays.asList(rest));
-    return new Value(Collections.unmodifiableList(list));
+    return new Value(Type.List, 0, Collections.unmodifiableList(list));
   }
 
   public static Value of(List<Value> val) {
-    return new Value(List.copyOf(val));
+    return new Value(Type.List, 0, List.copyOf(val));
+  }
+
+  /** Create a list value from the range [from, to) of `values`, copying it exactly once. */
+  public static Value copyOfRange(Value[] values, int from, int to) {
+    if (from == to) {
+      return EMPTY_LIST;
+    }
+    var copy = Arrays.copyOfRange(values, from, to);
+    return new Value(Type.List, 0, Collections.unmodifiableList(Arrays.asList(copy)));
   }
 
   public static Value of(FieldName name, Value value) {
-    return new Value(ImmutableSortedMap.of(name, value));
+    return new Value(Type.Object, 0, FieldMap.of(name, value));
   }
 
   public static Value of(FieldName n1, Value v1, FieldName n2, Value v2) {
-    return new Value(ImmutableSortedMap.of(n1, v1, n2, v2));
+    return new Value(Type.Object, 0, FieldMap.of(n1, v1, n2, v2));
   }
 
+  /** Create an object value, this does not copy if `val` is already a {@link FieldMap}. */
   public static Value of(SortedMap<FieldName, Value> val) {
-    return new Value(ImmutableSortedMap.copyOfSorted(val));
+    return new Value(Type.Object, 0, FieldMap.copyOf(val));
   }
 
   public Type type() {
-    if (data == null) {
-      return Type.Null;
-    } else if (data instanceof Double) {
-      return Type.Number;
-    } else if (data instanceof Boolean) {
-      return Type.Boolean;
-    } else if (data instanceof String) {
-      return Type.String;
-    } else if (data instanceof List<?>) {
-      return Type.List;
-    } else {
-      return Type.Object;
-    }
+    return type;
   }
 
   public boolean isNaN() {
-    return (data instanceof Double d) && d.isNaN();
+    return type == Type.Number && Double.isNaN(number);
   }
 
   public boolean asBoolean() {
-    return (Boolean) Objects.requireNonNull(data);
+    checkType(Type.Boolean);
+    return number != 0;
   }
 
   public double asDouble() {
-    return (double) Objects.requireNonNull(data);
+    checkType(Type.Number);
+    return number;
   }
 
   @Nonnull
   public String asString() {
-    return (String) Objects.requireNonNull(data);
+    checkType(Type.String);
+    return (String) Objects.requireNonNull(ref);
   }
 
-  public SortedMap<FieldName, Value> asObject() {
-    return (SortedMap<FieldName, Value>) Objects.requireNonNull(data);
+  public FieldMap asObject() {
+    checkType(Type.Object);
+    return (FieldMap) Objects.requireNonNull(ref);
   }
 
+  @SuppressWarnings("unchecked")
   public List<Value> asList() {
-    return (List<Value>) Objects.requireNonNull(data);
+    checkType(Type.List);
+    return (List<Value>) Objects.requireNonNull(ref);
+  }
+
+  private void checkType(Type expected) {
+    if (type != expected) {
+      throw new IllegalStateException("Expected a " + expected + " value, but was: " + type);
+    }
   }
 
   @Override
@@ -143,31 +173,64 @@ public final class Value implements Comparable<Value> {
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(data);
+    return switch (type) {
+      case Null -> 0;
+      case Boolean -> Boolean.hashCode(number != 0);
+      case Number -> Double.hashCode(number);
+      case String, List, Object -> Objects.requireNonNull(ref).hashCode();
+    };
   }
 
   @Override
   public String toString() {
-    return Objects.toString(data);
+    return switch (type) {
+      case Null -> "null";
+      case Boolean -> Boolean.toString(number != 0);
+      case Number -> Double.toString(number);
+      case String, List, Object -> Objects.requireNonNull(ref).toString();
+    };
   }
 
   @Override
   public int compareTo(Value other) {
-    var myType = type();
-    var cmp = myType.compareTo(other.type());
-    if (cmp != 0) return cmp;
-    return switch (myType) {
+    if (this == other) return 0;
+    if (type != other.type) {
+      return Integer.compare(type.ordinal(), other.type.ordinal());
+    }
+    return switch (type) {
       case Null -> 0;
-      case Boolean -> Boolean.compare(asBoolean(), other.asBoolean());
-      case Number -> TotalOrderDoubleComparator.INSTANCE.compareDouble(
-          asDouble(), other.asDouble());
+      case Boolean -> Double.compare(number, other.number);
+      case Number -> TotalOrderDoubleComparator.INSTANCE.compareDouble(number, other.number);
       case String -> CodepointComparator.INSTANCE.compare(asString(), other.asString());
-      case List -> LexicographicalComparator.<Value>naturalOrder()
-          .compare(asList(), other.asList());
-      case Object -> OBJECT_COMPARATOR.compare(asObject().entrySet(), other.asObject().entrySet());
+      case List -> compareLists(asList(), other.asList());
+      case Object -> compareObjects(asObject(), other.asObject());
     };
   }
 
+  // Lists and objects are compared lexicographically by index, which avoids allocating iterators or
+  // entries for every comparison.
+
+  private static int compareLists(List<Value> a, List<Value> b) {
+    int size = Math.min(a.size(), b.size());
+    for (int i = 0; i < size; ++i) {
+      var cmp = a.get(i).compareTo(b.get(i));
+      if (cmp != 0) return cmp;
+    }
+    return Integer.compare(a.size(), b.size());
+  }
+
+  private static int compareObjects(FieldMap a, FieldMap b) {
+    int size = Math.min(a.size(), b.size());
+    for (int i = 0; i < size; ++i) {
+      var cmp = a.nameAt(i).compareTo(b.nameAt(i));
+      if (cmp != 0) return cmp;
+      cmp = a.valueAt(i).compareTo(b.valueAt(i));
+      if (cmp != 0) return cmp;
+    }
+    return Integer.compare(a.size(), b.size());
+  }
+
+  /** The type of a value, in the order that values of different types sort. */
   public enum Type {
     Null,
     Boolean,
@@ -11,21 +11,20 @@ import com.rockwotj.syllabusdb.core.document.FieldName;
 import com.rockwotj.syllabusdb.core.document.Path;
 import com.rockwotj.syllabusdb.core.document.Value;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.TreeMap;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 
 /** A converter to/from serialized JSON from our in memory models for a JSON object. */
 public final class DocConverter {
   private static final Gson gson;
+  private static final ThreadLocal<Utf8JsonParser> parser =
+      ThreadLocal.withInitial(Utf8JsonParser::new);
 
   static {
     GsonBuilder builder = new GsonBuilder();
+    // Null is a valid value for a field, so don't drop those fields when writing.
+    builder.serializeNulls();
     builder.registerTypeAdapter(Document.class, new DocAdapter());
     builder.registerTypeAdapter(Value.class, new ValueAdapter());
     gson = builder.create();
@@ -34,8 +33,11 @@ public final class DocConverter {
   private DocConverter() {}
 
   public static Document fromBytes(@Nonnull ByteArray bytes) {
-    var reader = new InputStreamReader(bytes.toInputStream(), StandardCharsets.UTF_8);
-    return gson.fromJson(reader, Document.class);
+    return parser.get().parseDocument(bytes);
+  }
+
+  public static Value valueFromBytes(@Nonnull ByteArray bytes) {
+    return parser.get().parseValue(bytes);
   }
 
   public static ByteArray toBytes(@Nonnull Document doc) {
@@ -68,10 +70,10 @@ public final class DocConverter {
       while (reader.hasNext()) {
         var name = reader.nextName();
         if (name.equals("_id")) {
-          path = IdConverter.pathFromString(name);
+          path = IdConverter.pathFromString(reader.nextString());
           continue;
         }
-        var field = new FieldName(name);
+        var field = FieldName.of(name);
         var value = valueAdapter.read(reader);
         fields.put(field, value);
       }
@@ -82,65 +84,4 @@ public final class DocConverter {
       return new Document(path, fields);
     }
   }
-
-  private static class ValueAdapter extends TypeAdapter<Value> {
-    @Override
-    public void write(JsonWriter writer, Value value) throws IOException {
-      switch (value.type()) {
-        case Number -> writer.value(value.asDouble());
-        case String -> writer.value(value.asString());
-        case Boolean -> writer.value(value.asBoolean());
-        case Null -> writer.nullValue();
-        case List -> {
-          writer.beginArray();
-          for (var elem : value.asList()) {
-            write(writer, elem);
-          }
-          writer.endArray();
-        }
-        case Object -> {
-          writer.beginObject();
-          for (var entry : value.asObject().entrySet()) {
-            writer.name(entry.getKey().raw());
-            write(writer, entry.getValue());
-          }
-          writer.endObject();
-        }
-      }
-    }
-
-    @Override
-    @Nullable
-    public Value read(JsonReader reader) throws IOException {
-      return switch (reader.peek()) {
-        case BEGIN_ARRAY -> {
-          reader.beginArray();
-          var list = new ArrayList<Value>();
-          while (reader.hasNext()) {
-            list.add(read(reader));
-          }
-          reader.endArray();
-          yield Value.of(list);
-        }
-        case BEGIN_OBJECT -> {
-          reader.beginObject();
-          var map = new TreeMap<FieldName, Value>();
-          while (reader.hasNext()) {
-            var name = reader.nextName();
-            map.put(new FieldName(name), read(reader));
-          }
-          reader.endObject();
-          yield Value.of(map);
-        }
-        case STRING -> Value.of(reader.nextString());
-        case NUMBER -> Value.of(reader.nextDouble());
-        case BOOLEAN -> Value.of(reader.nextBoolean());
-        case NULL -> {
-          reader.nextNull();
-          yield Value.NULL;
-        }
-        default -> null;
-      };
-    }
-  }
 }
@@ -0,0 +1,422 @@
+package com.rockwotj.syllabusdb.core.document.converter;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldMap;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A single pass JSON parser that reads UTF-8 bytes directly into our {@link Value} and {@link
+ * Document} models.
+ *
+ * <p>Going through Gson means decoding into a Reader, building a String per token and a TreeMap per
+ * object, which then all get copied again into our immutable models. Instead, this parser keeps a
+ * single stack of parsed values (and field names for objects), and when a list or object ends the
+ * range on top of the stack is copied exactly once into the final value.
+ *
+ * <p>Parsers hold scratch buffers that are reused between calls, so they're not thread safe, but
+ * should be reused where possible.
+ */
+@NotThreadSafe
+public final class Utf8JsonParser {
+  private static final String ID_FIELD = "_id";
+  // The largest integer where every smaller integer is exactly representable as a double.
+  private static final long MAX_EXACT_LONG = 1L << 53;
+  private static final double[] EXACT_POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+  };
+
+  private ByteArray input;
+  private int pos;
+
+  // The stack of values for the lists and objects currently being parsed. For objects the
+  // corresponding slot in `nameStack` holds the field name.
+  private Value[] valueStack = new Value[64];
+  private FieldName[] nameStack = new FieldName[64];
+  private int stackSize = 0;
+
+  private char[] chars = new char[64];
+  private int charsLength = 0;
+
+  // A small direct mapped cache of recently parsed field names, so that field names that repeat
+  // across documents don't allocate a String (or even a lookup in the shared FieldName dictionary).
+  private static final int NAME_CACHE_SIZE = 256;
+  private final FieldName[] nameCache = new FieldName[NAME_CACHE_SIZE];
+
+  /**
+   * Parse a document that contains its path in the `_id` field.
+   *
+   * @throws IllegalArgumentException if the bytes are not a valid document.
+   */
+  public Document parseDocument(@Nonnull ByteArray bytes) {
+    reset(bytes);
+    skipWhitespace();
+    expect('{');
+    Path path = null;
+    int start = stackSize;
+    skipWhitespace();
+    if (peek() != '}') {
+      do {
+        skipWhitespace();
+        readChars();
+        var isId = contentEquals(ID_FIELD);
+        var name = isId ? null : internChars();
+        skipWhitespace();
+        expect(':');
+        skipWhitespace();
+        if (isId) {
+          if (peek() != '"' || (path = IdConverter.pathFromString(readString())) == null) {
+            throw error("Invalid _id");
+          }
+        } else {
+          push(name, readValue());
+        }
+        skipWhitespace();
+      } while (tryConsume(','));
+    }
+    expect('}');
+    var fields = popObject(start);
+    expectEnd();
+    if (path == null) {
+      throw new IllegalArgumentException("Invalid _id");
+    }
+    return new Document(path, fields);
+  }
+
+  /**
+   * Parse a single JSON value.
+   *
+   * @throws IllegalArgumentException if the bytes are not valid JSON.
+   */
+  public Value parseValue(@Nonnull ByteArray bytes) {
+    reset(bytes);
+    skipWhitespace();
+    var value = readValue();
+    expectEnd();
+    return value;
+  }
+
+  private void reset(ByteArray bytes) {
+    input = bytes;
+    pos = 0;
+    // Don't hold onto references from previous documents.
+    Arrays.fill(valueStack, 0, stackSize, null);
+    Arrays.fill(nameStack, 0, stackSize, null);
+    stackSize = 0;
+  }
+
+  private Value readValue() {
+    return switch (peek()) {
+      case '{' -> readObject();
+      case '[' -> readList();
+      case '"' -> Value.of(readString());
+      case 't' -> {
+        expectLiteral("true");
+        yield Value.TRUE;
+      }
+      case 'f' -> {
+        expectLiteral("false");
+        yield Value.FALSE;
+      }
+      case 'n' -> {
+        expectLiteral("null");
+        yield Value.NULL;
+      }
+      default -> Value.of(readNumber());
+    };
+  }
+
+  private Value readObject() {
+    expect('{');
+    int start = stackSize;
+    skipWhitespace();
+    if (peek() != '}') {
+      do {
+        skipWhitespace();
+        var name = readFieldName();
+        skipWhitespace();
+        expect(':');
+        skipWhitespace();
+        push(name, readValue());
+        skipWhitespace();
+      } while (tryConsume(','));
+    }
+    expect('}');
+    return Value.of(popObject(start));
+  }
+
+  private Value readList() {
+    expect('[');
+    int start = stackSize;
+    skipWhitespace();
+    if (peek() != ']') {
+      do {
+        skipWhitespace();
+        push(null, readValue());
+        skipWhitespace();
+      } while (tryConsume(','));
+    }
+    expect(']');
+    var list = Value.copyOfRange(valueStack, start, stackSize);
+    pop(start);
+    return list;
+  }
+
+  private FieldMap popObject(int start) {
+    var fields = FieldMap.copyOf(nameStack, valueStack, start, stackSize);
+    pop(start);
+    return fields;
+  }
+
+  private void push(FieldName name, Value value) {
+    if (stackSize == valueStack.length) {
+      valueStack = Arrays.copyOf(valueStack, stackSize * 2);
+      nameStack = Arrays.copyOf(nameStack, stackSize * 2);
+    }
+    nameStack[stackSize] = name;
+    valueStack[stackSize] = value;
+    ++stackSize;
+  }
+
+  private void pop(int start) {
+    Arrays.fill(valueStack, start, stackSize, null);
+    Arrays.fill(nameStack, start, stackSize, null);
+    stackSize = start;
+  }
+
+  private FieldName readFieldName() {
+    readChars();
+    return internChars();
+  }
+
+  /** Convert the string currently in the char buffer into a field name. */
+  private FieldName internChars() {
+    int hash = 0;
+    for (int i = 0; i < charsLength; ++i) {
+      hash = 31 * hash + chars[i];
+    }
+    // This is the same as String#hashCode, so spread the bits like HashMap does.
+    int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+    var cached = nameCache[slot];
+    if (cached != null && contentEquals(cached.raw())) {
+      return cached;
+    }
+    var name = FieldName.of(new String(chars, 0, charsLength));
+    nameCache[slot] = name;
+    return name;
+  }
+
+  private boolean contentEquals(String str) {
+    if (str.length() != charsLength) return false;
+    for (int i = 0; i < charsLength; ++i) {
+      if (str.charAt(i) != chars[i]) return false;
+    }
+    return true;
+  }
+
+  private String readString() {
+    readChars();
+    return new String(chars, 0, charsLength);
+  }
+
+  /** Read a string, decoding UTF-8 and escapes into the reusable char buffer. */
+  private void readChars() {
+    expect('"');
+    int length = 0;
+    while (true) {
+      int b = next();
+      if (b == '"') {
+        break;
+      }
+      // Make sure there's always space for a surrogate pair.
+      if (length + 2 > chars.length) {
+        chars = Arrays.copyOf(chars, chars.length * 2);
+      }
+      if (b == '\\') {
+        chars[length++] = readEscape();
+      } else if (b >= 0x20 && b < 0x80) {
+        chars[length++] = (char) b;
+      } else if (b < 0x20) {
+        throw error("Unescaped control character in string");
+      } else {
+        length += Character.toChars(readMultiByteCodepoint(b), chars, length);
+      }
+    }
+    charsLength = length;
+  }
+
+  private char readEscape() {
+    int b = next();
+    return switch (b) {
+      case '"' -> '"';
+      case '\\' -> '\\';
+      case '/' -> '/';
+      case 'b' -> '\b';
+      case 'f' -> '\f';
+      case 'n' -> '\n';
+      case 'r' -> '\r';
+      case 't' -> '\t';
+      case 'u' -> {
+        int c = 0;
+        for (int i = 0; i < 4; ++i) {
+          int digit = Character.digit(next(), 16);
+          if (digit < 0) throw error("Invalid unicode escape");
+          c = (c << 4) | digit;
+        }
+        // Surrogate pairs are escaped as two separate escapes, so each is copied over as is.
+        yield (char) c;
+      }
+      default -> throw error("Invalid escape character");
+    };
+  }
+
+  /** Decode the rest of a multi-byte UTF-8 sequence that starts with `lead`. */
+  private int readMultiByteCodepoint(int lead) {
+    int continuations;
+    int codepoint;
+    int min;
+    if ((lead & 0xE0) == 0xC0) {
+      continuations = 1;
+      codepoint = lead & 0x1F;
+      min = 0x80;
+    } else if ((lead & 0xF0) == 0xE0) {
+      continuations = 2;
+      codepoint = lead & 0x0F;
+      min = 0x800;
+    } else if ((lead & 0xF8) == 0xF0) {
+      continuations = 3;
+      codepoint = lead & 0x07;
+      min = 0x10000;
+    } else {
+      throw error("Invalid UTF-8 lead byte");
+    }
+    for (int i = 0; i < continuations; ++i) {
+      int b = next();
+      if ((b & 0xC0) != 0x80) throw error("Invalid UTF-8 continuation byte");
+      codepoint = (codepoint << 6) | (b & 0x3F);
+    }
+    if (codepoint < min
+        || codepoint > Character.MAX_CODE_POINT
+        || (codepoint >= Character.MIN_SURROGATE && codepoint <= Character.MAX_SURROGATE)) {
+      throw error("Invalid UTF-8 sequence");
+    }
+    return codepoint;
+  }
+
+  /**
+   * Read a JSON number.
+   *
+   * <p>Most numbers in documents are small integers or have a few decimal places, these can be
+   * computed exactly from their digits, and only the rest need to go through {@link
+   * Double#parseDouble}.
+   */
+  private double readNumber() {
+    int start = pos;
+    boolean negative = tryConsume('-');
+    // Only accumulate up to 18 digits so the mantissa can never overflow.
+    long mantissa = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean exact = true;
+    int b = peek();
+    if (b == '0') {
+      ++pos;
+    } else if (isDigit(b)) {
+      while (pos < input.length() && isDigit(b = input.get(pos))) {
+        if (++digits > 18) exact = false;
+        if (exact) mantissa = mantissa * 10 + (b - '0');
+        ++pos;
+      }
+    } else {
+      throw error("Unexpected character");
+    }
+    if (tryConsume('.')) {
+      if (pos >= input.length() || !isDigit(input.get(pos))) throw error("Invalid number");
+      while (pos < input.length() && isDigit(b = input.get(pos))) {
+        if (++digits > 18) exact = false;
+        if (exact) {
+          mantissa = mantissa * 10 + (b - '0');
+          ++fractionDigits;
+        }
+        ++pos;
+      }
+    }
+    if (pos < input.length() && (input.get(pos) == 'e' || input.get(pos) == 'E')) {
+      ++pos;
+      if (!tryConsume('+')) tryConsume('-');
+      if (pos >= input.length() || !isDigit(input.get(pos))) throw error("Invalid number");
+      while (pos < input.length() && isDigit(input.get(pos))) {
+        ++pos;
+      }
+      exact = false;
+    }
+    if (exact && mantissa <= MAX_EXACT_LONG && fractionDigits < EXACT_POWERS_OF_TEN.length) {
+      // Both the mantissa and power of ten are exact doubles, so a single division is correctly
+      // rounded.
+      double value =
+          fractionDigits == 0 ? mantissa : mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+      return negative ? -value : value;
+    }
+    var text = new char[pos - start];
+    for (int i = 0; i < text.length; ++i) {
+      text[i] = (char) input.get(start + i);
+    }
+    return Double.parseDouble(new String(text));
+  }
+
+  private static boolean isDigit(int b) {
+    return b >= '0' && b <= '9';
+  }
+
+  private void skipWhitespace() {
+    while (pos < input.length()) {
+      var b = input.get(pos);
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t') return;
+      ++pos;
+    }
+  }
+
+  private void expectLiteral(String literal) {
+    for (int i = 0; i < literal.length(); ++i) {
+      if (next() != literal.charAt(i)) throw error("Invalid literal");
+    }
+  }
+
+  private void expect(char c) {
+    if (next() != c) throw error("Expected '" + c + "'");
+  }
+
+  private void expectEnd() {
+    skipWhitespace();
+    if (pos != input.length()) throw error("Unexpected trailing data");
+  }
+
+  private boolean tryConsume(char c) {
+    if (pos < input.length() && input.get(pos) == c) {
+      ++pos;
+      return true;
+    }
+    return false;
+  }
+
+  private int peek() {
+    if (pos >= input.length()) throw error("Unexpected end of input");
+    return Byte.toUnsignedInt(input.get(pos));
+  }
+
+  private int next() {
+    int b = peek();
+    ++pos;
+    return b;
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(message + " at offset " + pos);
+  }
+}
@@ -0,0 +1,73 @@
+package com.rockwotj.syllabusdb.core.document.converter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/** Converts values to/from JSON, for the converters of the models that contain them. */
+public final class ValueAdapter extends TypeAdapter<Value> {
+  @Override
+  public void write(JsonWriter writer, Value value) throws IOException {
+    switch (value.type()) {
+      case Number -> writer.value(value.asDouble());
+      case String -> writer.value(value.asString());
+      case Boolean -> writer.value(value.asBoolean());
+      case Null -> writer.nullValue();
+      case List -> {
+        writer.beginArray();
+        for (var elem : value.asList()) {
+          write(writer, elem);
+        }
+        writer.endArray();
+      }
+      case Object -> {
+        writer.beginObject();
+        for (var entry : value.asObject().entrySet()) {
+          writer.name(entry.getKey().raw());
+          write(writer, entry.getValue());
+        }
+        writer.endObject();
+      }
+    }
+  }
+
+  @Override
+  @Nullable
+  public Value read(JsonReader reader) throws IOException {
+    return switch (reader.peek()) {
+      case BEGIN_ARRAY -> {
+        reader.beginArray();
+        var list = new ArrayList<Value>();
+        while (reader.hasNext()) {
+          list.add(read(reader));
+        }
+        reader.endArray();
+        yield Value.of(list);
+      }
+      case BEGIN_OBJECT -> {
+        reader.beginObject();
+        var map = new TreeMap<FieldName, Value>();
+        while (reader.hasNext()) {
+          var name = reader.nextName();
+          map.put(FieldName.of(name), read(reader));
+        }
+        reader.endObject();
+        yield Value.of(map);
+      }
+      case STRING -> Value.of(reader.nextString());
+      case NUMBER -> Value.of(reader.nextDouble());
+      case BOOLEAN -> Value.of(reader.nextBoolean());
+      case NULL -> {
+        reader.nextNull();
+        yield Value.NULL;
+      }
+      default -> null;
+    };
+  }
+}
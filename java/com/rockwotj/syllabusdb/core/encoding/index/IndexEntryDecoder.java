@@ -0,0 +1,131 @@
+package com.rockwotj.syllabusdb.core.encoding.index;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.key.Keyspace;
+import com.rockwotj.syllabusdb.core.encoding.value.InvalidEncodingException;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueDecoder;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Decodes the key and value written by {@link IndexEntryEncoder} back into an IndexEntry.
+ *
+ * <p>Keys don't record the direction of each value, so decoding needs the index they belong to.
+ * Entries of {@link IndexKind#WILDCARD} indexes have two values, the path and the value at it.
+ * Entries of {@link IndexKind#HASH} indexes only store a fingerprint of their values, so only their
+ * document id can be decoded. Entries of {@link IndexKind#TEXT} indexes are decoded by {@link
+ * TextKeys}.
+ */
+@Immutable
+public final class IndexEntryDecoder {
+  @Nonnull private final Index index;
+
+  public IndexEntryDecoder(@Nonnull Index index) {
+    this.index = index;
+  }
+
+  /**
+   * @throws IllegalStateException if the index is a hash or text index.
+   */
+  public IndexEntry decode(@Nonnull ByteArray key, @Nonnull ByteArray value) {
+    if (index.kind() != IndexKind.ORDERED && index.kind() != IndexKind.WILDCARD) {
+      throw new IllegalStateException("Cannot decode the values of " + index.name());
+    }
+    var decoder = new ValueDecoder(key.toInputStream());
+    try {
+      readPrefix(decoder, key);
+      var values = readValues(decoder);
+      var docId = new DocId(decoder.asc().readString());
+      return new IndexEntry(index.id(), index.kind(), values, docId, decodeProjection(value));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The id of the document an entry of an ordered or hash index belongs to, text indexes are
+   * decoded with {@link TextKeys}.
+   */
+  public DocId decodeDocId(@Nonnull ByteArray key) {
+    if (index.kind() == IndexKind.TEXT) {
+      throw new IllegalStateException("Cannot decode the document ids of " + index.name());
+    }
+    var decoder = new ValueDecoder(key.toInputStream());
+    try {
+      readPrefix(decoder, key);
+      if (index.kind() == IndexKind.HASH) {
+        decoder.readFixed64();
+      } else {
+        readValues(decoder);
+      }
+      return new DocId(decoder.asc().readString());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The fingerprint of the values of a hash index entry.
+   *
+   * @throws IllegalStateException if the index is not a hash index.
+   */
+  public long decodeFingerprint(@Nonnull ByteArray key) {
+    if (index.kind() != IndexKind.HASH) {
+      throw new IllegalStateException("Index " + index.name() + " is not a hash index");
+    }
+    var decoder = new ValueDecoder(key.toInputStream());
+    try {
+      readPrefix(decoder, key);
+      return decoder.readFixed64();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void readPrefix(ValueDecoder decoder, ByteArray key) throws IOException {
+    if (decoder.asc().readVarint() != Keyspace.INDEX.id()) {
+      throw new InvalidEncodingException("Not an index key: " + key);
+    }
+    if (decoder.asc().readVarint() != index.id().raw()) {
+      throw new InvalidEncodingException("Not a key of index " + index.name() + ": " + key);
+    }
+  }
+
+  private List<IndexValue> readValues(ValueDecoder decoder) throws IOException {
+    if (index.kind() == IndexKind.WILDCARD) {
+      var path = decoder.asc().readValue();
+      var direction = index.wildcardDirection();
+      var directional = direction.isAsc() ? decoder.asc() : decoder.desc();
+      return List.of(
+          new IndexValue(path, Direction.ASCENDING),
+          new IndexValue(directional.readValue(), direction));
+    }
+    List<IndexValue> values = new ArrayList<>(index.fields().size());
+    for (IndexField field : index.fields()) {
+      var directional = field.direction().isAsc() ? decoder.asc() : decoder.desc();
+      values.add(new IndexValue(directional.readValue(), field.direction()));
+    }
+    return values;
+  }
+
+  @Nullable
+  private static Value decodeProjection(ByteArray value) throws IOException {
+    if (value.length() == 0) {
+      return null;
+    }
+    return new ValueDecoder(value.toInputStream()).asc().readValue();
+  }
+}
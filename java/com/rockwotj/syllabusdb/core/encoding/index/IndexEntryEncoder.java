@@ -1,21 +1,147 @@
 package com.rockwotj.syllabusdb.core.encoding.index;
 
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.key.Keyspace;
 import com.rockwotj.syllabusdb.core.encoding.value.ValueEncoder;
+import com.rockwotj.syllabusdb.core.index.Direction;
 import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
 import com.rockwotj.syllabusdb.core.index.IndexValue;
+import java.util.List;
 
-/** Encode an IndexEntry into bytes for insertion into a KV Store for the proper sorted order. */
+/**
+ * Encode an IndexEntry into bytes for insertion into a KV Store for the proper sorted order.
+ *
+ * <p>Keys are prefixed by the index keyspace and the index's id as varints, which is usually only
+ * two bytes in total, followed by the index values and finally the document's id. The value stored
+ * under the key is empty, unless the index includes other fields in which case it's the entry's
+ * projection.
+ *
+ * <p>Entries of {@link IndexKind#HASH} indexes replace the values with a fixed width 64 bit
+ * fingerprint of them, so keys are the same short length no matter how large the values are.
+ * Entries of {@link IndexKind#TEXT} indexes are postings, see {@link TextKeys}.
+ */
 public class IndexEntryEncoder {
+  // Fingerprints are persisted, so this must be a hash function that's stable across releases.
+  private static final HashFunction FINGERPRINT = Hashing.farmHashFingerprint64();
+
   private final ValueEncoder encoder = new ValueEncoder();
+  private final ValueEncoder hashEncoder = new ValueEncoder();
 
   public ByteArray encode(IndexEntry entry) {
+    if (entry.kind() == IndexKind.TEXT) {
+      return encodePosting(entry, TextKeys.Section.ADDED);
+    }
+    encoder.reset();
+    writePrefix(entry.id());
+    if (entry.kind() == IndexKind.HASH) {
+      encoder.writeFixed64(fingerprint(entry.values().stream().map(IndexValue::value).toList()));
+    } else {
+      for (IndexValue value : entry.values()) {
+        var directional = value.direction().isAsc() ? encoder.asc() : encoder.desc();
+        directional.writeValue(value.value());
+      }
+    }
+    // Always ascending, so documents with the same values are in id order.
+    encoder.asc().writeString(entry.docId().raw());
+    return encoder.toByteArray();
+  }
+
+  /**
+   * The key recording that a text index entry was removed. Postings may be in a compressed block,
+   * so removing one is a write rather than a delete.
+   */
+  public ByteArray encodeRemoved(IndexEntry entry) {
+    if (entry.kind() != IndexKind.TEXT) {
+      throw new IllegalArgumentException("Only text index entries are removed with a write");
+    }
+    return encodePosting(entry, TextKeys.Section.REMOVED);
+  }
+
+  private static ByteArray encodePosting(IndexEntry entry, TextKeys.Section section) {
+    var term = entry.values().get(0).value().asString();
+    return TextKeys.encode(entry.id(), term, section, entry.docId());
+  }
+
+  /** The value to store under the entry's key. */
+  public ByteArray encodeValue(IndexEntry entry) {
+    if (entry.projection() == null) {
+      return ByteArray.EMPTY;
+    }
+    encoder.reset();
+    encoder.asc().writeValue(entry.projection());
+    return encoder.toByteArray();
+  }
+
+  /** The prefix shared by every entry in the index, useful for scanning the whole index. */
+  public ByteArray encodePrefix(IndexId id) {
+    encoder.reset();
+    writePrefix(id);
+    return encoder.toByteArray();
+  }
+
+  /**
+   * The prefix shared by every entry in an ordered index whose leading values are `values`, which
+   * is also where a scan for entries at or after those values starts.
+   */
+  public ByteArray encodeValuesPrefix(IndexId id, List<IndexValue> values) {
+    encoder.reset();
+    writePrefix(id);
+    for (IndexValue value : values) {
+      var directional = value.direction().isAsc() ? encoder.asc() : encoder.desc();
+      directional.writeValue(value.value());
+    }
+    return encoder.toByteArray();
+  }
+
+  /**
+   * Where the entries in an ordered index whose leading values are `values`, followed by a value of
+   * `type` in `direction`, start.
+   */
+  public ByteArray encodeTypeStart(
+      IndexId id, List<IndexValue> values, Value.Type type, Direction direction) {
     encoder.reset();
-    encoder.asc().writeString(entry.name().raw());
-    for (IndexValue value : entry.values()) {
+    writePrefix(id);
+    for (IndexValue value : values) {
       var directional = value.direction().isAsc() ? encoder.asc() : encoder.desc();
       directional.writeValue(value.value());
     }
+    (direction.isAsc() ? encoder.asc() : encoder.desc()).writeTypeStart(type);
     return encoder.toByteArray();
   }
+
+  /**
+   * The prefix shared by every entry in a hash index for the given values, which are all the
+   * documents that may be equal to them (or whose values collide).
+   */
+  public ByteArray encodeHashPrefix(IndexId id, List<Value> values) {
+    encoder.reset();
+    writePrefix(id);
+    encoder.writeFixed64(fingerprint(values));
+    return encoder.toByteArray();
+  }
+
+  /** The fingerprint of the values that a hash index stores instead of the values themselves. */
+  public long fingerprint(List<Value> values) {
+    // Hash the ordered encoding, which is already a canonical form of the values.
+    hashEncoder.reset();
+    for (Value value : values) {
+      hashEncoder.asc().writeValue(value);
+    }
+    var bytes = hashEncoder.toByteArray();
+    var hasher = FINGERPRINT.newHasher(bytes.length());
+    for (int i = 0; i < bytes.length(); ++i) {
+      hasher.putByte(bytes.get(i));
+    }
+    return hasher.hash().asLong();
+  }
+
+  private void writePrefix(IndexId id) {
+    encoder.asc().writeVarint(Keyspace.INDEX.id());
+    encoder.asc().writeVarint(id.raw());
+  }
 }
@@ -0,0 +1,102 @@
+package com.rockwotj.syllabusdb.core.encoding.index;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.encoding.key.Keyspace;
+import com.rockwotj.syllabusdb.core.encoding.value.InvalidEncodingException;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueDecoder;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueEncoder;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.annotation.Nonnull;
+
+/**
+ * The key layout of {@link IndexKind#TEXT} indexes, which store a posting list of document ids for
+ * each term.
+ *
+ * <p>Every key of a term starts with the index prefix and the term, followed by a section:
+ *
+ * <ul>
+ *   <li>- BLOCK keys end with the first document id of a compressed block of postings.
+ *   <li>- ADDED keys end with a single document id that was added since the blocks were written.
+ *   <li>- REMOVED keys end with a single document id that was removed since the blocks were
+ *       written, and may still be in a block.
+ * </ul>
+ *
+ * <p>The write path only writes ADDED and REMOVED keys, so it never has to read a block, and
+ * compaction periodically folds them into the blocks. The postings of a term are (blocks + added) -
+ * removed.
+ */
+public final class TextKeys {
+  /** The sections of a term's keys, the ids are persisted so must never change. */
+  public enum Section {
+    BLOCK(1),
+    ADDED(2),
+    REMOVED(3);
+
+    private final int id;
+
+    Section(int id) {
+      this.id = id;
+    }
+
+    static Section fromId(long id) {
+      for (var section : values()) {
+        if (section.id == id) return section;
+      }
+      throw new InvalidEncodingException("Unknown text index section: " + id);
+    }
+  }
+
+  /** A decoded key, where `docId` is the first document in the block for BLOCK keys. */
+  public record Key(@Nonnull String term, @Nonnull Section section, @Nonnull DocId docId) {}
+
+  // Larger than any section id, so it's after every key of a term.
+  private static final int TERM_END = 4;
+
+  private TextKeys() {}
+
+  public static ByteArray encode(
+      @Nonnull IndexId id, @Nonnull String term, @Nonnull Section section, @Nonnull DocId docId) {
+    var encoder = termEncoder(id, term);
+    encoder.asc().writeVarint(section.id);
+    encoder.asc().writeString(docId.raw());
+    return encoder.toByteArray();
+  }
+
+  /** The prefix shared by every key of a term. */
+  public static ByteArray encodeTermPrefix(@Nonnull IndexId id, @Nonnull String term) {
+    return termEncoder(id, term).toByteArray();
+  }
+
+  /** A key after every key of `term` and before every key of the following term. */
+  public static ByteArray encodeTermEnd(@Nonnull IndexId id, @Nonnull String term) {
+    var encoder = termEncoder(id, term);
+    encoder.asc().writeVarint(TERM_END);
+    return encoder.toByteArray();
+  }
+
+  public static Key decode(@Nonnull IndexId id, @Nonnull ByteArray key) {
+    var decoder = new ValueDecoder(key.toInputStream()).asc();
+    try {
+      if (decoder.readVarint() != Keyspace.INDEX.id() || decoder.readVarint() != id.raw()) {
+        throw new InvalidEncodingException("Not a key of text index " + id.raw() + ": " + key);
+      }
+      var term = decoder.readString();
+      var section = Section.fromId(decoder.readVarint());
+      return new Key(term, section, new DocId(decoder.readString()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ValueEncoder termEncoder(IndexId id, String term) {
+    var encoder = new ValueEncoder();
+    encoder.asc().writeVarint(Keyspace.INDEX.id());
+    encoder.asc().writeVarint(id.raw());
+    encoder.asc().writeString(term);
+    return encoder;
+  }
+}
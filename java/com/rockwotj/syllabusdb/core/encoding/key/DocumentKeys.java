@@ -0,0 +1,50 @@
+package com.rockwotj.syllabusdb.core.encoding.key;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.encoding.value.InvalidEncodingException;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueDecoder;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueEncoder;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.annotation.Nonnull;
+
+/**
+ * The keys for documents in the KV store: DOCUMENT {collection} {id}.
+ *
+ * <p>All the documents in a collection are contiguous and in id order.
+ */
+public final class DocumentKeys {
+  private DocumentKeys() {}
+
+  public static ByteArray encode(@Nonnull Path path) {
+    var encoder = new ValueEncoder();
+    encoder.asc().writeVarint(Keyspace.DOCUMENT.id());
+    encoder.asc().writeString(path.collection().raw());
+    encoder.asc().writeString(path.id().raw());
+    return encoder.toByteArray();
+  }
+
+  /** The prefix shared by the keys of every document in the collection. */
+  public static ByteArray encodePrefix(@Nonnull CollectionId collection) {
+    var encoder = new ValueEncoder();
+    encoder.asc().writeVarint(Keyspace.DOCUMENT.id());
+    encoder.asc().writeString(collection.raw());
+    return encoder.toByteArray();
+  }
+
+  public static Path decode(@Nonnull ByteArray key) {
+    var decoder = new ValueDecoder(key.toInputStream()).asc();
+    try {
+      if (decoder.readVarint() != Keyspace.DOCUMENT.id()) {
+        throw new InvalidEncodingException("Not a document key: " + key);
+      }
+      var collection = new CollectionId(decoder.readString());
+      return new Path(collection, new DocId(decoder.readString()));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
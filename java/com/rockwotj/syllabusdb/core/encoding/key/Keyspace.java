@@ -0,0 +1,28 @@
+package com.rockwotj.syllabusdb.core.encoding.key;
+
+/**
+ * Every key in the KV store starts with the keyspace it belongs to, written as a varint, so that
+ * different kinds of data never collide and each can be scanned as a single contiguous range.
+ *
+ * <p>The ids are persisted, so they must never be changed or reused.
+ */
+public enum Keyspace {
+  /** Database metadata, such as index definitions. */
+  CATALOG(1),
+  /** Index entries, prefixed by the id of the index. */
+  INDEX(2),
+  /** Documents, keyed by their collection and then id. */
+  DOCUMENT(3),
+  /** Statistics used for query planning, keyed by the id of the index they describe. */
+  STATISTICS(4);
+
+  private final long id;
+
+  Keyspace(long id) {
+    this.id = id;
+  }
+
+  public long id() {
+    return id;
+  }
+}
@@ -15,8 +15,9 @@ package com.rockwotj.syllabusdb.core.encoding.value;
  *   <li>MAX_VALUE -> 0xFF 0xFF
  * </ul>
  *
- * <p>There are more 2 byte sequences we could encode with the 0x00 and 0xFF prefixes, but those
- * slots are unused.
+ * <p>There are more 2 byte sequences we could encode with the 0x00 and 0xFF prefixes. We use one
+ * pair of them as a marker for the variable length number encoding (see ValueTag#NUMBER), 0x00 0x02
+ * in ascending order and 0xFF 0xFD in descending order, the rest are unused.
  *
  * <p>This is essentially the exact same encoding used as OrderedCode. The implementation of which
  * is open sourced from Google under an Apache 2.0 License.
@@ -39,6 +40,11 @@ final class Constants {
         MAX_UNSIGNED_BYTE, 0x0,
       };
   public static byte[] ENCODED_MAX_VALUE = new byte[] {MAX_UNSIGNED_BYTE, MAX_UNSIGNED_BYTE};
+  public static byte[] ASC_NUMBER_MARKER = new byte[] {0x0, 0x2};
+  public static byte[] DESC_NUMBER_MARKER = new byte[] {MAX_UNSIGNED_BYTE, (byte) 0xFD};
+
+  /** Varints smaller than this are written as a single byte, see ValueEncoder#writeVarint. */
+  public static final int VARINT_MAX_SINGLE_BYTE = 0xF8;
 
   private Constants() {}
 }
@@ -22,6 +22,7 @@ public final class ValueDecoder {
   private static final int EOF_MARKER = -1;
   private static final int MIN_VALUE_MARKER = Integer.MIN_VALUE;
   private static final int MAX_VALUE_MARKER = Integer.MAX_VALUE;
+  private static final int NUMBER_MARKER = Integer.MIN_VALUE + 1;
   private final InputStream stream;
   private final Asc asc = new Asc();
   private final Desc desc = new Desc();
@@ -39,6 +40,19 @@ public final class ValueDecoder {
     return desc;
   }
 
+  /** Read an integer written by ValueEncoder#writeFixed64. */
+  public long readFixed64() throws IOException {
+    long v = 0;
+    for (int i = 0; i < Long.BYTES; ++i) {
+      var b = stream.read();
+      if (b == EOF_MARKER) {
+        throw new InvalidEncodingException("Unexpected end of fixed width integer");
+      }
+      v = (v << Byte.SIZE) | b;
+    }
+    return v;
+  }
+
   private int readAscByte() throws IOException {
     var r = stream.read();
     return switch (r) {
@@ -47,6 +61,7 @@ public final class ValueDecoder {
         var v = stream.read();
         yield switch (v) {
           case 0x01 -> MIN_VALUE_MARKER;
+          case 0x02 -> NUMBER_MARKER;
           case 0xFF -> 0x00;
           default -> throw new InvalidEncodingException("Invalid lower escape byte value: " + v);
         };
@@ -55,6 +70,7 @@ public final class ValueDecoder {
         var v = stream.read();
         yield switch (v) {
           case 0x00 -> Byte.toUnsignedInt(MAX_UNSIGNED_BYTE);
+          case 0xFD -> NUMBER_MARKER;
           case 0xFF -> MAX_VALUE_MARKER;
           default -> throw new InvalidEncodingException("Invalid upper escape byte value: " + v);
         };
@@ -89,7 +105,10 @@ public final class ValueDecoder {
         case FALSE -> Value.FALSE;
         case TRUE -> Value.TRUE;
         case NAN -> Value.NAN;
-        case DOUBLE -> Value.of(readDouble());
+        case DOUBLE, NUMBER -> {
+          var next = readByte();
+          yield Value.of(next == NUMBER_MARKER ? readNumber() : readDouble(next));
+        }
         case STRING -> Value.of(readString());
         case LIST -> {
           var list = new ArrayList<Value>();
@@ -103,7 +122,7 @@ public final class ValueDecoder {
           while ((peek = readByte()) != separatorMarker()) {
             // Seed readString() with the value we just read
             buffer.write(peek);
-            var name = new FieldName(readString());
+            var name = FieldName.of(readString());
             peek = readByte();
             var value = readValueInternal();
             object.put(name, value);
@@ -123,12 +142,54 @@ public final class ValueDecoder {
       return str;
     }
 
-    private Double readDouble() throws IOException {
-      // See IndexEncoder.Directional.writeDouble for a full explaination of the encoding format.
-      // We apply the reverse operation here to get back to our original double.
+    /** Read an integer written by ValueEncoder.Directional#writeVarint. */
+    public long readVarint() throws IOException {
+      var first = Byte.toUnsignedInt(readByteChecked());
+      if (first < Constants.VARINT_MAX_SINGLE_BYTE) {
+        return first;
+      }
+      int length = first - Constants.VARINT_MAX_SINGLE_BYTE + 1;
+      long v = 0;
+      for (int i = 0; i < length; ++i) {
+        v = (v << Byte.SIZE) | Byte.toUnsignedInt(readByteChecked());
+      }
+      if (v < 0) {
+        throw new InvalidEncodingException("Varint overflow: " + Long.toUnsignedString(v));
+      }
+      return v;
+    }
+
+    /** Read the variable length encoding of a number, after the tag and marker. */
+    private double readNumber() throws IOException {
+      // See ValueEncoder.Directional.writeNumber for the encoding format, we read bytes until the
+      // separator and then fill in the padding that was dropped.
+      long raw = 0;
+      int length = 0;
+      int b;
+      while ((b = readByte()) != MIN_VALUE_MARKER && b != MAX_VALUE_MARKER) {
+        if (length == Long.BYTES) {
+          throw new InvalidEncodingException("Number is longer than " + Long.BYTES + " bytes");
+        }
+        raw = (raw << Byte.SIZE) | Byte.toUnsignedInt(UnsignedBytes.checkedCast(b));
+        ++length;
+      }
+      if (length == 0) {
+        throw new InvalidEncodingException("Empty number encoding");
+      }
+      var paddingBits = (Long.BYTES - length) * Byte.SIZE;
+      raw <<= paddingBits;
+      if (b != separatorMarker()) {
+        // Negative numbers are padded with 0xFF
+        raw |= (1L << paddingBits) - 1;
+      }
+      return fromOrderedBits(raw);
+    }
+
+    /** Read the fixed width ValueTag#DOUBLE encoding, given the first byte that was peeked. */
+    private double readDouble(int first) throws IOException {
       var raw =
           Longs.fromBytes(
-              readByteChecked(),
+              UnsignedBytes.checkedCast(first),
               readByteChecked(),
               readByteChecked(),
               readByteChecked(),
@@ -136,7 +197,12 @@ public final class ValueDecoder {
               readByteChecked(),
               readByteChecked(),
               readByteChecked());
-      // Invert the operations from encoding
+      return fromOrderedBits(raw);
+    }
+
+    private static double fromOrderedBits(long raw) {
+      // See ValueEncoder.Directional.toOrderedBits for a full explaination of the encoding format.
+      // We apply the reverse operation here to get back to our original double.
       if (Long.signum(raw) == -1) {
         raw ^= 0x8000_0000_0000_0000L;
       } else {
@@ -180,6 +246,7 @@ public final class ValueDecoder {
         case EOF_MARKER -> EOF_MARKER;
         case MAX_VALUE_MARKER -> MAX_VALUE_MARKER;
         case MIN_VALUE_MARKER -> MIN_VALUE_MARKER;
+        case NUMBER_MARKER -> NUMBER_MARKER;
         default -> ~r & 0xFF;
       };
     }
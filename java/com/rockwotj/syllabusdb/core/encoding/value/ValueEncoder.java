@@ -32,6 +32,17 @@ public final class ValueEncoder {
     return output.toByteArray();
   }
 
+  /**
+   * Write `v` as exactly 8 big endian bytes, without any escaping. This sorts as an unsigned
+   * integer, but it's only decodable if the reader knows to expect it, so it can't be mixed into a
+   * sequence of values that are decoded generically.
+   */
+  public void writeFixed64(long v) {
+    for (int i = Long.SIZE - Byte.SIZE; i >= 0; i -= Byte.SIZE) {
+      output.write((byte) (v >> i));
+    }
+  }
+
   /**
    * Write byte `b` in ascending order such that it respects the various escapes for 0x00 and 0xFF.
    */
@@ -67,8 +78,9 @@ public final class ValueEncoder {
           if (v.isNaN()) {
             writeTag(ValueTag.NAN);
           } else {
-            writeTag(ValueTag.DOUBLE);
-            writeDouble(v.asDouble());
+            writeTag(ValueTag.NUMBER);
+            writeNumberMarker();
+            writeNumber(v.asDouble());
           }
         }
         case String -> {
@@ -93,6 +105,21 @@ public final class ValueEncoder {
       }
     }
 
+    /**
+     * Write the start of the values of `type` in this direction, which is a prefix of the smallest
+     * of them in this direction and sorts after every value of the types before it.
+     */
+    public void writeTypeStart(Value.Type type) {
+      switch (type) {
+        case Null -> writeTag(ValueTag.NULL);
+        case Boolean -> writeTag(first(ValueTag.FALSE, ValueTag.TRUE));
+        case Number -> writeTag(first(ValueTag.NAN, ValueTag.NUMBER));
+        case String -> writeTag(ValueTag.STRING);
+        case List -> writeTag(ValueTag.LIST);
+        case Object -> writeTag(ValueTag.OBJECT);
+      }
+    }
+
     /** Write `s` in corresponding direction in codepoint order. */
     public void writeString(String s) {
       // UTF-8 preserves the ordering of individual codepoints.
@@ -105,7 +132,53 @@ public final class ValueEncoder {
       writeSeparator();
     }
 
-    private void writeDouble(double d) {
+    /**
+     * Write a non-negative integer using as few bytes as possible, such that the encoded bytes sort
+     * in the same order as the integers.
+     *
+     * <p>Values less than 0xF8 are written as a single byte. Larger values are written as a length
+     * byte of 0xF7 + N followed by the value as N big endian bytes. Since there are no leading zero
+     * bytes, longer encodings are always larger values.
+     */
+    public void writeVarint(long v) {
+      if (v < 0) {
+        throw new IllegalArgumentException("Varints must be non-negative: " + v);
+      }
+      if (v < Constants.VARINT_MAX_SINGLE_BYTE) {
+        writeByte((byte) v);
+        return;
+      }
+      int length = (Long.SIZE - Long.numberOfLeadingZeros(v) + Byte.SIZE - 1) / Byte.SIZE;
+      writeByte((byte) (Constants.VARINT_MAX_SINGLE_BYTE - 1 + length));
+      for (int i = (length - 1) * Byte.SIZE; i >= 0; i -= Byte.SIZE) {
+        writeByte((byte) ((v >> i) & 0xFF));
+      }
+    }
+
+    private void writeNumber(double d) {
+      var raw = toOrderedBits(d);
+      // Integers and other "round" numbers only use the first few bytes of the mantissa, so the
+      // ordered bits end in a run of padding bytes, 0x00 for positive numbers and 0xFF for negative
+      // numbers (as their bits are inverted). We drop that padding and instead end the number with
+      // a separator that sorts in the padding's place: MIN sorts before any 0x00 byte that follows
+      // in a longer number, and MAX after any byte that isn't 0xFF.
+      //
+      // There is always at least one byte left, as the top byte is never padding.
+      var negative = raw >= 0;
+      var padding = Long.numberOfTrailingZeros(negative ? ~raw : raw) / Byte.SIZE;
+      // Write in big endian form, but by using writeByte we ensure it's still written in the
+      // correct {asc,desc} direction.
+      for (int i = Long.SIZE - Byte.SIZE; i >= padding * Byte.SIZE; i -= Byte.SIZE) {
+        writeByte((byte) ((raw >> i) & 0xFF));
+      }
+      if (negative) {
+        writeInverseSeparator();
+      } else {
+        writeSeparator();
+      }
+    }
+
+    private static long toOrderedBits(double d) {
       // This is the encoding of IEEE 754 single precision floating point numbers. The encoding for
       // doubles is the same, but with more bits. To encode doubles into a total order from smallest
       // to largest (we assume NANs are handled elsewhere) we need to always invert the sign bit so
@@ -144,11 +217,7 @@ public final class ValueEncoder {
         // it.
         raw ^= 0x8000_0000_0000_0000L;
       }
-      // Write in big endian form, but by using writeByte we ensure it's still written in the
-      // correct {asc,desc} direction.
-      for (int i = Long.SIZE - Byte.SIZE; i >= 0; i -= Byte.SIZE) {
-        writeByte((byte) ((raw >> i) & 0xFF));
-      }
+      return raw;
     }
 
     private void writeTag(ValueTag tag) {
@@ -158,6 +227,15 @@ public final class ValueEncoder {
     protected abstract void writeByte(byte b);
 
     protected abstract void writeSeparator();
+
+    /** Write the separator of the opposite direction. */
+    protected abstract void writeInverseSeparator();
+
+    /** Write the marker that distinguishes ValueTag#NUMBER from ValueTag#DOUBLE. */
+    protected abstract void writeNumberMarker();
+
+    /** Whichever of the tags, which are in ascending order, sorts first in this direction. */
+    protected abstract ValueTag first(ValueTag lower, ValueTag higher);
   }
 
   /**
@@ -174,6 +252,21 @@ public final class ValueEncoder {
     protected void writeSeparator() {
       output.write(Constants.ENCODED_MIN_VALUE);
     }
+
+    @Override
+    protected void writeInverseSeparator() {
+      output.write(Constants.ENCODED_MAX_VALUE);
+    }
+
+    @Override
+    protected void writeNumberMarker() {
+      output.write(Constants.ASC_NUMBER_MARKER);
+    }
+
+    @Override
+    protected ValueTag first(ValueTag lower, ValueTag higher) {
+      return lower;
+    }
   }
 
   /**
@@ -191,5 +284,20 @@ public final class ValueEncoder {
     protected void writeSeparator() {
       output.write(Constants.ENCODED_MAX_VALUE);
     }
+
+    @Override
+    protected void writeInverseSeparator() {
+      output.write(Constants.ENCODED_MIN_VALUE);
+    }
+
+    @Override
+    protected void writeNumberMarker() {
+      output.write(Constants.DESC_NUMBER_MARKER);
+    }
+
+    @Override
+    protected ValueTag first(ValueTag lower, ValueTag higher) {
+      return higher;
+    }
   }
 }
@@ -8,11 +8,31 @@ enum ValueTag {
   FALSE(0x2),
   TRUE(0x3),
   NAN(0x4),
+  /** The original fixed width encoding of a double, which is still supported for decoding. */
   DOUBLE(0x5),
+  /**
+   * The variable length encoding of a number. This shares the tag byte of DOUBLE, so numbers in
+   * either encoding stay in the same region relative to other types, and is followed by a marker
+   * that can't start a DOUBLE payload. The marker means NUMBER keys don't sort by value against
+   * DOUBLE keys, so keys still in the DOUBLE encoding must be rewritten before range scans over
+   * them are correct.
+   */
+  NUMBER(0x5),
   STRING(0x6),
   LIST(0x7),
   OBJECT(0x8);
 
+  // Indexed by the unsigned tag byte, so decoding a tag doesn't need to search.
+  private static final ValueTag[] BY_VALUE = new ValueTag[256];
+
+  static {
+    for (var tag : ValueTag.values()) {
+      // NUMBER shares a byte with DOUBLE, and is told apart by the marker that follows.
+      if (tag == NUMBER) continue;
+      BY_VALUE[Byte.toUnsignedInt(tag.value)] = tag;
+    }
+  }
+
   private final byte value;
 
   ValueTag(int i) {
@@ -20,10 +40,11 @@ enum ValueTag {
   }
 
   public static ValueTag fromValue(int b) {
-    for (var tag : ValueTag.values()) {
-      if (tag.value == b) return tag;
+    var tag = b >= 0 && b < BY_VALUE.length ? BY_VALUE[b] : null;
+    if (tag == null) {
+      throw new InvalidEncodingException("Unknown tag value: " + b);
     }
-    throw new InvalidEncodingException("Unknown tag value: " + b);
+    return tag;
   }
 
   public byte value() {
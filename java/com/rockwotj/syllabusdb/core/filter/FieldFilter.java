@@ -0,0 +1,83 @@
+package com.rockwotj.syllabusdb.core.filter;
+
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A predicate comparing a single field to a constant, such as `age >= 18`.
+ *
+ * <p>Range comparisons only match values of the same type as the constant, so `age >= 18` doesn't
+ * match a string age even though strings sort after numbers. Missing fields never match.
+ *
+ * <p>{@link Operator#ARRAY_CONTAINS} matches lists with an element equal to the constant, which is
+ * how indexes with an entry per element (multikey fields and wildcard indexes) match lists.
+ */
+public record FieldFilter(@Nonnull FieldPath path, @Nonnull Operator op, @Nonnull Value value) {
+  public FieldFilter {
+    Objects.requireNonNull(path, "Missing required filter path");
+    Objects.requireNonNull(op, "Missing required filter operator");
+    Objects.requireNonNull(value, "Missing required filter value");
+  }
+
+  /** If the field's value, which is null when the field is missing, satisfies this filter. */
+  public boolean matches(@Nullable Value field) {
+    if (field == null) {
+      return false;
+    }
+    if (op == Operator.ARRAY_CONTAINS) {
+      return field.type() == Value.Type.List && field.asList().stream().anyMatch(this::isValue);
+    }
+    if (field.type() != value.type()) {
+      return false;
+    }
+    int cmp = field.compareTo(value);
+    return switch (op) {
+      case EQUAL -> cmp == 0;
+      case LESS_THAN -> cmp < 0;
+      case LESS_THAN_OR_EQUAL -> cmp <= 0;
+      case GREATER_THAN -> cmp > 0;
+      case GREATER_THAN_OR_EQUAL -> cmp >= 0;
+      case ARRAY_CONTAINS -> throw new AssertionError("Handled above");
+    };
+  }
+
+  private boolean isValue(Value element) {
+    return element.type() == value.type() && element.compareTo(value) == 0;
+  }
+
+  /**
+   * If every value matching this filter also matches `other`. This is conservative, it may return
+   * false for some filters that do imply `other`.
+   */
+  public boolean implies(@Nonnull FieldFilter other) {
+    if (!path.equals(other.path)) {
+      return false;
+    }
+    if (op == Operator.EQUAL) {
+      return other.matches(value);
+    }
+    if (op == Operator.ARRAY_CONTAINS || other.op == Operator.ARRAY_CONTAINS) {
+      return op == other.op && isValue(other.value);
+    }
+    if (value.type() != other.value.type()) {
+      return false;
+    }
+    int cmp = value.compareTo(other.value);
+    if (op.isUpperBound() && other.op.isUpperBound()) {
+      // x < 5 implies x < 10, and x < 5 implies x <= 5 but not the other way around.
+      return cmp < 0 || (cmp == 0 && (other.op.isInclusive() || !op.isInclusive()));
+    }
+    if (op.isLowerBound() && other.op.isLowerBound()) {
+      return cmp > 0 || (cmp == 0 && (other.op.isInclusive() || !op.isInclusive()));
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return path + " " + op.symbol() + " " + value;
+  }
+}
@@ -0,0 +1,61 @@
+package com.rockwotj.syllabusdb.core.filter;
+
+import com.rockwotj.syllabusdb.core.document.Document;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/** A conjunction of field filters, which matches documents that match all of them. */
+@Immutable
+public record Filter(@Nonnull List<FieldFilter> conjuncts) {
+  /** The filter that matches every document. */
+  public static final Filter ALL = new Filter(List.of());
+
+  public Filter {
+    Objects.requireNonNull(conjuncts, "Missing required filter conjuncts");
+    conjuncts = List.copyOf(conjuncts);
+  }
+
+  public Filter(@Nonnull FieldFilter... conjuncts) {
+    this(List.of(conjuncts));
+  }
+
+  public boolean isAll() {
+    return conjuncts.isEmpty();
+  }
+
+  public boolean matches(@Nonnull Document document) {
+    for (FieldFilter conjunct : conjuncts) {
+      if (!conjunct.matches(document.get(conjunct.path()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * If every document matching this filter also matches `other`, which is when each of `other`'s
+   * conjuncts is implied by one of ours. For example `status == "active" && age > 30` implies `age
+   * >= 18`.
+   *
+   * <p>A query can only use a partial index when the query's filter implies the index's filter.
+   */
+  public boolean implies(@Nonnull Filter other) {
+    for (FieldFilter required : other.conjuncts) {
+      if (conjuncts.stream().noneMatch((conjunct) -> conjunct.implies(required))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    if (isAll()) {
+      return "true";
+    }
+    return conjuncts.stream().map(FieldFilter::toString).collect(Collectors.joining(" && "));
+  }
+}
@@ -0,0 +1,55 @@
+package com.rockwotj.syllabusdb.core.filter;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A comparison between a field and a constant value.
+ *
+ * <p>Every operator but {@link #ARRAY_CONTAINS} compares the field's whole value, so `tags ==
+ * "red"` doesn't match `tags: ["red", "blue"]`, while `tags array-contains "red"` does.
+ */
+public enum Operator {
+  EQUAL("=="),
+  LESS_THAN("<"),
+  LESS_THAN_OR_EQUAL("<="),
+  GREATER_THAN(">"),
+  GREATER_THAN_OR_EQUAL(">="),
+  /** The field is a list with an element equal to the constant. */
+  ARRAY_CONTAINS("array-contains");
+
+  @Nonnull private final String symbol;
+
+  Operator(@Nonnull String symbol) {
+    this.symbol = symbol;
+  }
+
+  /** The symbol for the operator, such as `<=`. */
+  public String symbol() {
+    return symbol;
+  }
+
+  /**
+   * @throws IllegalArgumentException if there is no operator with the symbol.
+   */
+  public static Operator fromSymbol(@Nonnull String symbol) {
+    for (var op : values()) {
+      if (op.symbol.equals(symbol)) return op;
+    }
+    throw new IllegalArgumentException("Unknown operator: " + symbol);
+  }
+
+  /** If the operator bounds values from above. */
+  public boolean isUpperBound() {
+    return this == LESS_THAN || this == LESS_THAN_OR_EQUAL;
+  }
+
+  /** If the operator bounds values from below. */
+  public boolean isLowerBound() {
+    return this == GREATER_THAN || this == GREATER_THAN_OR_EQUAL;
+  }
+
+  /** If the operator includes its bound. */
+  public boolean isInclusive() {
+    return this == LESS_THAN_OR_EQUAL || this == GREATER_THAN_OR_EQUAL;
+  }
+}
@@ -1,20 +1,155 @@
 package com.rockwotj.syllabusdb.core.index;
 
 import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-/** A specification for an index. */
+/**
+ * A specification for an index.
+ *
+ * <p>Besides the indexed `fields`, an index may `include` other fields whose values are stored in
+ * each entry (but are not part of the sort order), so queries that only need those fields can be
+ * answered from the index without fetching documents.
+ *
+ * <p>The `kind` of the index determines how entries are keyed, see {@link IndexKind}.
+ *
+ * <p>An index with a `filter` is partial: only documents matching the filter get entries, so a
+ * query may only use the index if its own filter implies the index's filter.
+ *
+ * <p>An index with a `ttl` expires documents: its leading field is a timestamp (a number of
+ * milliseconds since the epoch), and a document is deleted once `ttl` has passed since that time.
+ * Since the index is ordered by the timestamp, the expired documents are always at the start.
+ *
+ * <p>A {@link IndexKind#WILDCARD} index has at most one field, which is the path whose subtree is
+ * indexed (its direction orders the values); with no fields the whole document is indexed.
+ */
 public record Index(
-    @Nonnull IndexName name, @Nonnull CollectionId collection, @Nonnull List<IndexField> fields) {
+    @Nonnull IndexId id,
+    @Nonnull IndexName name,
+    @Nonnull CollectionId collection,
+    @Nonnull IndexKind kind,
+    @Nonnull List<IndexField> fields,
+    @Nonnull List<FieldPath> included,
+    @Nonnull Filter filter,
+    @Nonnull IndexState state,
+    @Nullable Duration ttl) {
   public Index {
+    Objects.requireNonNull(id, "Missing required index id");
     Objects.requireNonNull(name, "Missing required index name");
     Objects.requireNonNull(collection, "Missing required index collection");
+    Objects.requireNonNull(kind, "Missing required index kind");
     Objects.requireNonNull(fields, "Missing required index fields");
-    if (fields.isEmpty()) {
+    Objects.requireNonNull(included, "Missing required index included fields");
+    Objects.requireNonNull(filter, "Missing required index filter");
+    Objects.requireNonNull(state, "Missing required index state");
+    if (fields.isEmpty() && kind != IndexKind.WILDCARD) {
       throw new IllegalArgumentException("Missing required index fields");
     }
     fields = List.copyOf(fields);
+    included = List.copyOf(included);
+    // Allowing multiple multikey fields would require an entry for every combination of the lists'
+    // elements, which can explode the size of the index.
+    if (fields.stream().filter(IndexField::multikey).count() > 1) {
+      throw new IllegalArgumentException("Indexes may have at most one multikey field");
+    }
+    // Hash entries are always checked against the document, so there's no point covering fields.
+    if (kind == IndexKind.HASH && !included.isEmpty()) {
+      throw new IllegalArgumentException("Hash indexes cannot include fields");
+    }
+    if (kind == IndexKind.TEXT && (fields.size() != 1 || !included.isEmpty())) {
+      throw new IllegalArgumentException("Text indexes must have a single field and no includes");
+    }
+    if (kind == IndexKind.WILDCARD
+        && (fields.size() > 1 || fields.stream().anyMatch(IndexField::multikey))) {
+      throw new IllegalArgumentException(
+          "Wildcard indexes may only have a single, non multikey, field");
+    }
+    if (kind == IndexKind.WILDCARD && !included.isEmpty()) {
+      throw new IllegalArgumentException("Wildcard indexes cannot include fields");
+    }
+    if (ttl != null) {
+      if (ttl.isNegative()) {
+        throw new IllegalArgumentException("Invalid index ttl: " + ttl);
+      }
+      if (kind != IndexKind.ORDERED
+          || !fields.get(0).direction().isAsc()
+          || fields.get(0).multikey()) {
+        throw new IllegalArgumentException(
+            "TTL indexes must be ordered with an ascending, non multikey leading field");
+      }
+    }
+  }
+
+  public Index(
+      @Nonnull IndexId id,
+      @Nonnull IndexName name,
+      @Nonnull CollectionId collection,
+      @Nonnull IndexKind kind,
+      @Nonnull List<IndexField> fields,
+      @Nonnull List<FieldPath> included,
+      @Nonnull Filter filter,
+      @Nonnull IndexState state) {
+    this(id, name, collection, kind, fields, included, filter, state, null);
+  }
+
+  public Index(
+      @Nonnull IndexId id,
+      @Nonnull IndexName name,
+      @Nonnull CollectionId collection,
+      @Nonnull List<IndexField> fields) {
+    this(id, name, collection, IndexKind.ORDERED, fields, List.of(), Filter.ALL, IndexState.READY);
+  }
+
+  public Index withState(@Nonnull IndexState state) {
+    return new Index(id, name, collection, kind, fields, included, filter, state, ttl);
+  }
+
+  /** If the index has entries for every document matching `query`. */
+  public boolean isUsableFor(@Nonnull Filter query) {
+    return query.implies(filter);
+  }
+
+  /** If the index has exactly one entry for each document that has its fields. */
+  public boolean hasEntryPerDocument() {
+    return filter.isAll()
+        && (kind == IndexKind.ORDERED || kind == IndexKind.HASH)
+        && fields.stream().noneMatch(IndexField::multikey);
+  }
+
+  /** If this is a wildcard index with entries for the values at `path`. */
+  public boolean indexesPath(@Nonnull FieldPath path) {
+    if (kind != IndexKind.WILDCARD) {
+      return false;
+    }
+    if (fields.isEmpty()) {
+      return true;
+    }
+    var prefix = fields.get(0).path().segments();
+    var segments = path.segments();
+    return segments.size() >= prefix.size() && segments.subList(0, prefix.size()).equals(prefix);
+  }
+
+  /**
+   * If this is a wildcard index with entries for the values `filter` matches. Only the values that
+   * aren't lists or objects have entries, so filters comparing a whole list or object can't use it.
+   */
+  public boolean indexesFilter(@Nonnull FieldFilter filter) {
+    var type = filter.value().type();
+    return indexesPath(filter.path()) && type != Value.Type.List && type != Value.Type.Object;
+  }
+
+  /** The direction values are ordered in by a wildcard index. */
+  public Direction wildcardDirection() {
+    if (kind != IndexKind.WILDCARD) {
+      throw new IllegalStateException("Index " + name + " is not a wildcard index");
+    }
+    return fields.isEmpty() ? Direction.ASCENDING : fields.get(0).direction();
   }
 }
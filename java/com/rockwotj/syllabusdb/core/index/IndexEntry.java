@@ -1,16 +1,48 @@
 package com.rockwotj.syllabusdb.core.index;
 
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Value;
 import java.util.List;
 import java.util.Objects;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-/** The entry of index values for a document. */
-public record IndexEntry(@Nonnull IndexName name, @Nonnull List<IndexValue> values) {
+/**
+ * The entry of index values for a document.
+ *
+ * <p>The document's id is part of the entry so that documents with the same values still have
+ * distinct entries. If the index includes other fields, `projection` is an object of those fields
+ * (in the same structure as the document), otherwise it's null. The `kind` of the index decides how
+ * the entry is encoded.
+ */
+public record IndexEntry(
+    @Nonnull IndexId id,
+    @Nonnull IndexKind kind,
+    @Nonnull List<IndexValue> values,
+    @Nonnull DocId docId,
+    @Nullable Value projection) {
   public IndexEntry {
-    Objects.requireNonNull(name, "Missing required name for index entry's index");
+    Objects.requireNonNull(id, "Missing required id for index entry's index");
+    Objects.requireNonNull(kind, "Missing required index kind for index entry");
+    Objects.requireNonNull(docId, "Missing required id for index entry's document");
     if (values.isEmpty()) {
       throw new IllegalArgumentException("Missing required index entry values");
     }
     values = List.copyOf(values);
+    if (projection != null && projection.type() != Value.Type.Object) {
+      throw new IllegalArgumentException("Index entry projections must be objects: " + projection);
+    }
+  }
+
+  public IndexEntry(
+      @Nonnull IndexId id,
+      @Nonnull List<IndexValue> values,
+      @Nonnull DocId docId,
+      @Nullable Value projection) {
+    this(id, IndexKind.ORDERED, values, docId, projection);
+  }
+
+  public IndexEntry(@Nonnull IndexId id, @Nonnull List<IndexValue> values, @Nonnull DocId docId) {
+    this(id, IndexKind.ORDERED, values, docId, null);
   }
 }
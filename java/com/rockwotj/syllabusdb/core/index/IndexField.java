@@ -4,10 +4,21 @@ import com.rockwotj.syllabusdb.core.document.FieldPath;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 
-/** A specification for how a single field will be indexed within a document. */
-public record IndexField(@Nonnull FieldPath path, @Nonnull Direction direction) {
+/**
+ * A specification for how a single field will be indexed within a document.
+ *
+ * <p>If the field is `multikey` and its value is a list, then the document gets an entry for each
+ * distinct element of the list instead of a single entry for the whole list. This allows finding
+ * all the documents where a list contains a value with a single seek. Values that are not lists are
+ * indexed as usual, and an empty list produces no entries.
+ */
+public record IndexField(@Nonnull FieldPath path, @Nonnull Direction direction, boolean multikey) {
   public IndexField {
     Objects.requireNonNull(path, "Missing required index field path");
     Objects.requireNonNull(direction, "Missing required index field direction");
   }
+
+  public IndexField(@Nonnull FieldPath path, @Nonnull Direction direction) {
+    this(path, direction, false);
+  }
 }
@@ -0,0 +1,25 @@
+package com.rockwotj.syllabusdb.core.index;
+
+/**
+ * A compact identifier for an index, assigned by the catalog when the index is created.
+ *
+ * <p>The id (instead of the name) prefixes every entry in the index, so ids are kept small and are
+ * never reused. Zero is reserved.
+ */
+public record IndexId(long raw) implements Comparable<IndexId> {
+  public IndexId {
+    if (raw <= 0) {
+      throw new IllegalArgumentException("Invalid index id: " + raw);
+    }
+  }
+
+  @Override
+  public int compareTo(IndexId other) {
+    return Long.compare(raw, other.raw);
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(raw);
+  }
+}
@@ -0,0 +1,32 @@
+package com.rockwotj.syllabusdb.core.index;
+
+/** How an index organizes its entries, which determines the queries it can serve. */
+public enum IndexKind {
+  /**
+   * Entries are sorted by the indexed values, so the index can serve equality and range queries on
+   * a prefix of its fields, and return documents in the index's order.
+   */
+  ORDERED,
+  /**
+   * Entries are keyed by a fixed width hash of the indexed values, so the index can only serve
+   * equality on all of its fields, but keys are short no matter how large the values are. Hashes
+   * can collide, so matches must be verified against the document.
+   */
+  HASH,
+  /**
+   * Entries are the terms (lowercased words) of a string field, or of the strings in a list, so the
+   * index can find the documents containing words. Entries are stored as compressed posting lists
+   * rather than a key per entry.
+   */
+  TEXT,
+  /**
+   * Entries are (path, value) pairs for every scalar value in the document, or under the path of
+   * the index's only field if it has one, so the index can serve equality and range queries on
+   * fields that weren't known when the index was created. Lists are indexed like multikey fields.
+   */
+  WILDCARD;
+
+  public boolean isOrdered() {
+    return this == ORDERED;
+  }
+}
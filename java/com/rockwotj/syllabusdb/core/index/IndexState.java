@@ -0,0 +1,16 @@
+package com.rockwotj.syllabusdb.core.index;
+
+/** The lifecycle of an index. */
+public enum IndexState {
+  /**
+   * The index is being backfilled. Writes must keep it up to date, but it can't be used to answer
+   * queries as it may be missing entries for existing documents.
+   */
+  BUILDING,
+  /** The index is complete and can be used for queries. */
+  READY;
+
+  public boolean isReady() {
+    return this == READY;
+  }
+}
@@ -11,21 +11,26 @@ import com.rockwotj.syllabusdb.core.document.CollectionId;
 import com.rockwotj.syllabusdb.core.document.FieldName;
 import com.rockwotj.syllabusdb.core.document.FieldPath;
 import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.ValueAdapter;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
 import com.rockwotj.syllabusdb.core.index.Direction;
 import com.rockwotj.syllabusdb.core.index.Index;
 import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
 import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.TreeMap;
-import java.util.regex.Pattern;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
-import javax.annotation.Nullable;
 
 /** A converter to/from serialized JSON from our in memory models for a JSON object. */
 public final class IndexConverter {
@@ -54,8 +59,13 @@ public final class IndexConverter {
     @Override
     public void write(JsonWriter writer, Index index) throws IOException {
       writer.beginObject();
+      writer.name("id").value(index.id().raw());
       writer.name("name").value(index.name().raw());
       writer.name("collection").value(index.collection().raw());
+      // Indexes written before kinds existed were always ordered.
+      if (index.kind() != IndexKind.ORDERED) {
+        writer.name("kind").value(index.kind().name().toLowerCase(Locale.ROOT));
+      }
       writer.name("fields");
       writer.beginArray();
       for (IndexField field : index.fields()) {
@@ -67,123 +77,152 @@ public final class IndexConverter {
             .value(
                 field.path().segments().stream()
                     .map(FieldName::raw)
-                    .collect(Collectors.joining(".")))
-            .endObject();
+                    .collect(Collectors.joining(".")));
+        // Only written when set, so that existing indexes serialize the same as before.
+        if (field.multikey()) {
+          writer.name("multikey").value(true);
+        }
+        writer.endObject();
       }
       writer.endArray();
+      // Like multikey, omitted unless set.
+      if (!index.included().isEmpty()) {
+        writer.name("include");
+        writer.beginArray();
+        for (FieldPath path : index.included()) {
+          writer.value(path.toString());
+        }
+        writer.endArray();
+      }
+      if (!index.filter().isAll()) {
+        writer.name("filter");
+        writer.beginArray();
+        for (FieldFilter conjunct : index.filter().conjuncts()) {
+          writer.beginObject();
+          writer.name("field").value(conjunct.path().toString());
+          writer.name("op").value(conjunct.op().symbol());
+          writer.name("value");
+          valueAdapter.write(writer, conjunct.value());
+          writer.endObject();
+        }
+        writer.endArray();
+      }
+      if (index.ttl() != null) {
+        writer.name("ttl").value(index.ttl().toString());
+      }
+      writer.name("state").value(index.state().isReady() ? "ready" : "building");
       writer.endObject();
     }
 
     @Override
     public Index read(JsonReader reader) throws IOException {
       reader.beginObject();
+      IndexId id = null;
       IndexName indexName = null;
       CollectionId collection = null;
+      var kind = IndexKind.ORDERED;
       List<IndexField> fields = null;
-      var name = reader.nextName();
-      switch (name) {
-        case "name" -> indexName = new IndexName(reader.nextString());
-        case "collection" -> collection = new CollectionId(reader.nextString());
-        case "fields" -> {
-          fields = new ArrayList<>();
-          reader.beginArray();
-          while (reader.peek() != JsonToken.END_ARRAY) {
-            reader.beginObject();
-            Direction direction = null;
-            FieldPath path = null;
-            while (reader.peek() != JsonToken.END_OBJECT) {
-              name = reader.nextName();
-              switch (name) {
-                case "type" -> {
-                  name = reader.nextString();
-                  direction =
-                      switch (name) {
-                        case "asc" -> Direction.ASCENDING;
-                        case "desc" -> Direction.DESCENDING;
-                        default -> throw new IllegalArgumentException("Unknown direction: " + name);
-                      };
-                }
-                case "field" -> {
-                  var raw = reader.nextString();
-                  path =
-                      new FieldPath(
-                          Arrays.stream(raw.split(Pattern.quote(".")))
-                              .map(FieldName::new)
-                              .toList());
+      List<FieldPath> included = new ArrayList<>();
+      List<FieldFilter> filter = new ArrayList<>();
+      // Indexes written before states existed were always ready.
+      var state = IndexState.READY;
+      Duration ttl = null;
+      while (reader.peek() != JsonToken.END_OBJECT) {
+        var name = reader.nextName();
+        switch (name) {
+          case "id" -> id = new IndexId(reader.nextLong());
+          case "name" -> indexName = new IndexName(reader.nextString());
+          case "collection" -> collection = new CollectionId(reader.nextString());
+          case "kind" -> {
+            var raw = reader.nextString();
+            kind =
+                switch (raw) {
+                  case "ordered" -> IndexKind.ORDERED;
+                  case "hash" -> IndexKind.HASH;
+                  case "text" -> IndexKind.TEXT;
+                  case "wildcard" -> IndexKind.WILDCARD;
+                  default -> throw new IllegalArgumentException("Unknown index kind: " + raw);
+                };
+          }
+          case "include" -> {
+            reader.beginArray();
+            while (reader.peek() != JsonToken.END_ARRAY) {
+              included.add(FieldPath.parse(reader.nextString()));
+            }
+            reader.endArray();
+          }
+          case "filter" -> {
+            reader.beginArray();
+            while (reader.peek() != JsonToken.END_ARRAY) {
+              filter.add(readFieldFilter(reader));
+            }
+            reader.endArray();
+          }
+          case "ttl" -> ttl = Duration.parse(reader.nextString());
+          case "state" -> {
+            var raw = reader.nextString();
+            state =
+                switch (raw) {
+                  case "building" -> IndexState.BUILDING;
+                  case "ready" -> IndexState.READY;
+                  default -> throw new IllegalArgumentException("Unknown index state: " + raw);
+                };
+          }
+          case "fields" -> {
+            fields = new ArrayList<>();
+            reader.beginArray();
+            while (reader.peek() != JsonToken.END_ARRAY) {
+              reader.beginObject();
+              Direction direction = null;
+              FieldPath path = null;
+              var multikey = false;
+              while (reader.peek() != JsonToken.END_OBJECT) {
+                name = reader.nextName();
+                switch (name) {
+                  case "type" -> {
+                    name = reader.nextString();
+                    direction =
+                        switch (name) {
+                          case "asc" -> Direction.ASCENDING;
+                          case "desc" -> Direction.DESCENDING;
+                          default -> throw new IllegalArgumentException(
+                              "Unknown direction: " + name);
+                        };
+                  }
+                  case "field" -> path = FieldPath.parse(reader.nextString());
+                  case "multikey" -> multikey = reader.nextBoolean();
+                  default -> throw new IllegalArgumentException("Unknown field: " + name);
                 }
-                default -> throw new IllegalArgumentException("Unknown field: " + name);
               }
+              fields.add(new IndexField(path, direction, multikey));
+              reader.endObject();
             }
-            fields.add(new IndexField(path, direction));
-            reader.endObject();
+            reader.endArray();
           }
-          reader.endArray();
+          default -> throw new IllegalArgumentException("Unknown field: " + name);
         }
-        default -> throw new IllegalArgumentException("Unknown field: " + name);
       }
       reader.endObject();
-      return new Index(indexName, collection, fields);
+      return new Index(
+          id, indexName, collection, kind, fields, included, new Filter(filter), state, ttl);
     }
-  }
 
-  private static class ValueAdapter extends TypeAdapter<Value> {
-    @Override
-    public void write(JsonWriter writer, Value value) throws IOException {
-      switch (value.type()) {
-        case Number -> writer.value(value.asDouble());
-        case String -> writer.value(value.asString());
-        case Boolean -> writer.value(value.asBoolean());
-        case Null -> writer.nullValue();
-        case List -> {
-          writer.beginArray();
-          for (var elem : value.asList()) {
-            write(writer, elem);
-          }
-          writer.endArray();
-        }
-        case Object -> {
-          writer.beginObject();
-          for (var entry : value.asObject().entrySet()) {
-            writer.name(entry.getKey().raw());
-            write(writer, entry.getValue());
-          }
-          writer.endObject();
+    private FieldFilter readFieldFilter(JsonReader reader) throws IOException {
+      reader.beginObject();
+      FieldPath path = null;
+      Operator op = null;
+      Value value = null;
+      while (reader.peek() != JsonToken.END_OBJECT) {
+        var name = reader.nextName();
+        switch (name) {
+          case "field" -> path = FieldPath.parse(reader.nextString());
+          case "op" -> op = Operator.fromSymbol(reader.nextString());
+          case "value" -> value = valueAdapter.read(reader);
+          default -> throw new IllegalArgumentException("Unknown field: " + name);
         }
       }
-    }
-
-    @Override
-    @Nullable
-    public Value read(JsonReader reader) throws IOException {
-      return switch (reader.peek()) {
-        case BEGIN_ARRAY -> {
-          reader.beginArray();
-          var list = new ArrayList<Value>();
-          while (reader.hasNext()) {
-            list.add(read(reader));
-          }
-          reader.endArray();
-          yield Value.of(list);
-        }
-        case BEGIN_OBJECT -> {
-          reader.beginObject();
-          var map = new TreeMap<FieldName, Value>();
-          while (reader.hasNext()) {
-            var name = reader.nextName();
-            map.put(new FieldName(name), read(reader));
-          }
-          reader.endObject();
-          yield Value.of(map);
-        }
-        case STRING -> Value.of(reader.nextString());
-        case NUMBER -> Value.of(reader.nextDouble());
-        case BOOLEAN -> Value.of(reader.nextBoolean());
-        case NULL -> {
-          reader.nextNull();
-          yield Value.NULL;
-        }
-        default -> null;
-      };
+      reader.endObject();
+      return new FieldFilter(path, op, value);
     }
   }
 }
@@ -0,0 +1,86 @@
+package com.rockwotj.syllabusdb.core.index.scan;
+
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Finds the documents whose indexed fields equal some values using a {@link IndexKind#HASH} index.
+ *
+ * <p>The index only narrows the search to the documents whose values have the same fingerprint, so
+ * each candidate is fetched and checked against the values, which filters out hash collisions.
+ */
+@ThreadSafe
+public final class HashIndexLookup {
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final Index index;
+  @Nonnull private final IndexEntryDecoder decoder;
+
+  public HashIndexLookup(@Nonnull KeyValueStore store, @Nonnull Index index) {
+    if (index.kind() != IndexKind.HASH) {
+      throw new IllegalArgumentException("Index " + index.name() + " is not a hash index");
+    }
+    this.store = Objects.requireNonNull(store);
+    this.index = index;
+    this.decoder = new IndexEntryDecoder(index);
+  }
+
+  /**
+   * The documents where each indexed field equals the corresponding value in `values`, in document
+   * id order. For a multikey field the document matches if the list contains the value.
+   */
+  public List<Document> lookup(@Nonnull List<Value> values) {
+    if (values.size() != index.fields().size()) {
+      throw new IllegalArgumentException(
+          "Expected " + index.fields().size() + " values for index " + index.name());
+    }
+    var prefix = new IndexEntryEncoder().encodeHashPrefix(index.id(), values);
+    List<Document> documents = new ArrayList<>();
+    // Use a single cursor so the index and documents are read from the same snapshot.
+    try (var cursor = store.cursor()) {
+      List<DocId> candidates = new ArrayList<>();
+      for (cursor.seek(prefix); cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+        candidates.add(decoder.decodeDocId(cursor.key()));
+      }
+      for (DocId id : candidates) {
+        var key = DocumentKeys.encode(new Path(index.collection(), id));
+        cursor.seek(key);
+        if (!cursor.valid() || !cursor.key().equals(key)) continue;
+        var document = DocConverter.fromBytes(cursor.value());
+        if (matches(document, values)) {
+          documents.add(document);
+        }
+      }
+    }
+    return documents;
+  }
+
+  private boolean matches(Document document, List<Value> values) {
+    for (int i = 0; i < values.size(); ++i) {
+      IndexField field = index.fields().get(i);
+      var actual = document.get(field.path());
+      if (actual == null) return false;
+      var expected = values.get(i);
+      boolean equal =
+          field.multikey() && actual.type() == Value.Type.List
+              ? actual.asList().contains(expected)
+              : actual.equals(expected);
+      if (!equal) return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,119 @@
+package com.rockwotj.syllabusdb.core.index.scan;
+
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Finds the documents matching a filter on any field using a {@link IndexKind#WILDCARD} index.
+ *
+ * <p>The entries for a path are sorted by value, and the values matching a filter are contiguous,
+ * so the scan seeks as close to the first match as it can and stops after the last one. Lists have
+ * an entry per element, so entries are matched against the elements of {@link
+ * Operator#ARRAY_CONTAINS} filters, and against whole values otherwise. Either way an entry can
+ * come from a document that doesn't match, such as an element matching an equality, so the
+ * documents are checked against the filter.
+ */
+@ThreadSafe
+public final class WildcardIndexScan {
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final Index index;
+  @Nonnull private final IndexEntryDecoder decoder;
+
+  public WildcardIndexScan(@Nonnull KeyValueStore store, @Nonnull Index index) {
+    if (index.kind() != IndexKind.WILDCARD) {
+      throw new IllegalArgumentException("Index " + index.name() + " is not a wildcard index");
+    }
+    this.store = Objects.requireNonNull(store);
+    this.index = index;
+    this.decoder = new IndexEntryDecoder(index);
+  }
+
+  /** The documents with a value at the filter's path that matches it, in document id order. */
+  public List<Document> find(@Nonnull FieldFilter filter) {
+    List<Document> documents = new ArrayList<>();
+    // Use a single cursor so the index and documents are read from the same snapshot.
+    try (var cursor = store.cursor()) {
+      for (DocId id : findIds(cursor, index, filter)) {
+        var key = DocumentKeys.encode(new Path(index.collection(), id));
+        cursor.seek(key);
+        if (!cursor.valid() || !cursor.key().equals(key)) continue;
+        var document = DocConverter.fromBytes(cursor.value());
+        if (filter.matches(document.get(filter.path()))) {
+          documents.add(document);
+        }
+      }
+    }
+    return documents;
+  }
+
+  /**
+   * The ids of the documents with an entry at the filter's path that matches it, read from `cursor`
+   * and deduplicated, since a list can have several matching elements. These are a superset of the
+   * matching documents, which callers must check against the filter.
+   */
+  public static TreeSet<DocId> findIds(
+      @Nonnull KeyValueStore.Cursor cursor, @Nonnull Index index, @Nonnull FieldFilter filter) {
+    if (index.kind() != IndexKind.WILDCARD) {
+      throw new IllegalArgumentException("Index " + index.name() + " is not a wildcard index");
+    }
+    if (!index.indexesFilter(filter)) {
+      throw new IllegalArgumentException("Index " + index.name() + " cannot find " + filter);
+    }
+    var decoder = new IndexEntryDecoder(index);
+    var encoder = new IndexEntryEncoder();
+    var path = new IndexValue(Value.of(filter.path().toString()), Direction.ASCENDING);
+    var prefix = encoder.encodeValuesPrefix(index.id(), List.of(path));
+    var direction = index.wildcardDirection();
+    // Each entry is a single element, which a containment filter matches by equality.
+    var entries =
+        filter.op() == Operator.ARRAY_CONTAINS
+            ? new FieldFilter(filter.path(), Operator.EQUAL, filter.value())
+            : filter;
+    var op = entries.op();
+    // Matches start at the filter's value unless they're all before it in the index's order, in
+    // which case they start with the first value of its type.
+    boolean startsAtValue = op == Operator.EQUAL || direction.isAsc() == op.isLowerBound();
+    var start =
+        startsAtValue
+            ? encoder.encodeValuesPrefix(
+                index.id(), List.of(path, new IndexValue(filter.value(), direction)))
+            : encoder.encodeTypeStart(index.id(), List.of(path), filter.value().type(), direction);
+    var ids = new TreeSet<DocId>();
+    for (cursor.seek(start); cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+      var entry = decoder.decode(cursor.key(), cursor.value());
+      var value = entry.values().get(1).value();
+      if (entries.matches(value)) {
+        ids.add(entry.docId());
+      } else if (startsAtValue && isBound(entries, value)) {
+        // Entries at an exclusive bound come before the matches.
+        continue;
+      } else {
+        break;
+      }
+    }
+    return ids;
+  }
+
+  private static boolean isBound(FieldFilter filter, Value value) {
+    return value.type() == filter.value().type() && value.compareTo(filter.value()) == 0;
+  }
+}
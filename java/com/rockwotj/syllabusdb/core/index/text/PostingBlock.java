@@ -0,0 +1,92 @@
+package com.rockwotj.syllabusdb.core.index.text;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.encoding.value.InvalidEncodingException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The compressed encoding of a block of sorted document ids.
+ *
+ * <p>Document ids are strings, so instead of storing the numeric delta from the previous id each id
+ * is front coded: the length of the prefix it shares with the previous id, then the remaining
+ * suffix. Sorted ids usually share long prefixes, so most ids take a few bytes. Lengths are LEB128
+ * varints, so small lengths take a single byte.
+ */
+final class PostingBlock {
+  private PostingBlock() {}
+
+  static ByteArray encode(List<DocId> ids) {
+    var out = ByteArray.newOutput();
+    writeVarint(out, ids.size());
+    String previous = "";
+    for (DocId id : ids) {
+      var raw = id.raw();
+      int shared = sharedPrefixLength(previous, raw);
+      var suffix = raw.substring(shared).getBytes(StandardCharsets.UTF_8);
+      writeVarint(out, shared);
+      writeVarint(out, suffix.length);
+      out.write(suffix);
+      previous = raw;
+    }
+    return out.toByteArray();
+  }
+
+  static List<DocId> decode(ByteArray block) {
+    try (var in = block.toInputStream()) {
+      int count = readVarint(in);
+      var ids = new ArrayList<DocId>(count);
+      String previous = "";
+      for (int i = 0; i < count; ++i) {
+        int shared = readVarint(in);
+        var suffix = in.readNBytes(readVarint(in));
+        if (shared > previous.length()) {
+          throw new InvalidEncodingException("Invalid shared prefix length: " + shared);
+        }
+        var raw = previous.substring(0, shared) + new String(suffix, StandardCharsets.UTF_8);
+        ids.add(new DocId(raw));
+        previous = raw;
+      }
+      return ids;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static int sharedPrefixLength(String a, String b) {
+    int length = Math.min(a.length(), b.length());
+    int i = 0;
+    while (i < length && a.charAt(i) == b.charAt(i)) {
+      ++i;
+    }
+    return i;
+  }
+
+  private static void writeVarint(ByteArray.Output out, int v) {
+    while ((v & ~0x7F) != 0) {
+      out.write((byte) ((v & 0x7F) | 0x80));
+      v >>>= 7;
+    }
+    out.write((byte) v);
+  }
+
+  private static int readVarint(InputStream in) throws IOException {
+    int v = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new InvalidEncodingException("Unexpected end of posting block");
+      }
+      v |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return v;
+      }
+    }
+    throw new InvalidEncodingException("Varint is too long in posting block");
+  }
+}
@@ -0,0 +1,137 @@
+package com.rockwotj.syllabusdb.core.index.text;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.index.TextKeys;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.util.concurrent.AcquiredLock;
+import com.rockwotj.syllabusdb.core.util.concurrent.Lock;
+import com.rockwotj.syllabusdb.core.util.concurrent.LockAcquisitionTimeoutException;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Folds the ADDED and REMOVED keys of a {@link IndexKind#TEXT} index into compressed blocks.
+ *
+ * <p>The write path maintains a text index with a key per posting, which is cheap to write but
+ * large and slow to read. Compaction rewrites each term's postings as blocks of up to `blockSize`
+ * ids, each keyed by its first id. A term is compacted while holding `writeLock`, which the write
+ * path must hold while maintaining the index, so a posting can't change between being read and
+ * being rewritten.
+ */
+@ThreadSafe
+public final class PostingListCompactor {
+  public static final int DEFAULT_BLOCK_SIZE = 128;
+
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final Index index;
+  @Nonnull private final Lock writeLock;
+  private final int blockSize;
+
+  public PostingListCompactor(
+      @Nonnull KeyValueStore store, @Nonnull Index index, @Nonnull Lock writeLock, int blockSize) {
+    if (index.kind() != IndexKind.TEXT) {
+      throw new IllegalArgumentException("Index " + index.name() + " is not a text index");
+    }
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Invalid block size: " + blockSize);
+    }
+    this.store = Objects.requireNonNull(store);
+    this.index = index;
+    this.writeLock = Objects.requireNonNull(writeLock);
+    this.blockSize = blockSize;
+  }
+
+  /**
+   * Compact every term in the index on the calling thread. The lock is only held for one term at a
+   * time, so foreground writes can interleave.
+   *
+   * @return the number of terms that were rewritten.
+   */
+  public int run() {
+    int rewritten = 0;
+    String term = firstTerm();
+    while (term != null) {
+      String next;
+      AcquiredLock acquired = acquireWriteLock();
+      try (var cursor = store.cursor()) {
+        if (compact(cursor, term)) {
+          ++rewritten;
+        }
+        cursor.seek(TextKeys.encodeTermEnd(index.id(), term));
+        next = termAt(cursor);
+      } finally {
+        acquired.release();
+      }
+      term = next;
+    }
+    return rewritten;
+  }
+
+  /** Rewrite the postings of `term`, returning false if it was already compact. */
+  private boolean compact(KeyValueStore.Cursor cursor, String term) {
+    var prefix = TextKeys.encodeTermPrefix(index.id(), term);
+    var existing = new ArrayList<ByteArray>();
+    boolean compacted = true;
+    for (cursor.seek(prefix); cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+      existing.add(cursor.key());
+      var section = TextKeys.decode(index.id(), cursor.key()).section();
+      compacted &= section == TextKeys.Section.BLOCK;
+    }
+    if (compacted) {
+      return false;
+    }
+    var postings = TextIndexReader.readPostings(cursor, index, term);
+    var batch = new ArrayList<KeyValueStore.Write>();
+    var written = new HashSet<ByteArray>();
+    for (int start = 0; start < postings.size(); start += blockSize) {
+      List<DocId> block = postings.subList(start, Math.min(start + blockSize, postings.size()));
+      var key = TextKeys.encode(index.id(), term, TextKeys.Section.BLOCK, block.get(0));
+      batch.add(KeyValueStore.Write.put(key, PostingBlock.encode(block)));
+      written.add(key);
+    }
+    for (ByteArray key : existing) {
+      if (!written.contains(key)) {
+        batch.add(KeyValueStore.Write.delete(key));
+      }
+    }
+    store.write(batch);
+    return true;
+  }
+
+  @Nullable
+  private String firstTerm() {
+    try (var cursor = store.cursor()) {
+      cursor.seek(new IndexEntryEncoder().encodePrefix(index.id()));
+      return termAt(cursor);
+    }
+  }
+
+  @Nullable
+  private String termAt(KeyValueStore.Cursor cursor) {
+    var prefix = new IndexEntryEncoder().encodePrefix(index.id());
+    if (!cursor.valid() || !cursor.key().startsWith(prefix)) {
+      return null;
+    }
+    return TextKeys.decode(index.id(), cursor.key()).term();
+  }
+
+  private AcquiredLock acquireWriteLock() {
+    // Timing out just means foreground traffic is busy, so keep waiting our turn.
+    while (true) {
+      try {
+        return writeLock.lock();
+      } catch (LockAcquisitionTimeoutException e) {
+        // Retry
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.rockwotj.syllabusdb.core.index.text;
+
+import com.rockwotj.syllabusdb.core.document.DocId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** Set operations on posting lists, which are sorted lists of distinct document ids. */
+public final class PostingLists {
+  private PostingLists() {}
+
+  /**
+   * The ids in both lists.
+   *
+   * <p>Each id of the shorter list is found in the longer list by galloping: probing 1, 2, 4, ...
+   * ids ahead of the last match until passing it, then binary searching that range. This takes O(m
+   * log(n / m)) comparisons, so intersecting a rare term with a common one is much cheaper than a
+   * linear merge.
+   */
+  public static List<DocId> intersect(@Nonnull List<DocId> a, @Nonnull List<DocId> b) {
+    var shorter = a.size() <= b.size() ? a : b;
+    var longer = a.size() <= b.size() ? b : a;
+    List<DocId> result = new ArrayList<>();
+    int low = 0;
+    for (int i = 0; i < shorter.size() && low < longer.size(); ++i) {
+      var id = shorter.get(i);
+      int step = 1;
+      while (low + step < longer.size() && longer.get(low + step).compareTo(id) < 0) {
+        step <<= 1;
+      }
+      int high = Math.min(low + step + 1, longer.size());
+      int found = Collections.binarySearch(longer.subList(low, high), id);
+      if (found >= 0) {
+        result.add(id);
+        low += found + 1;
+      } else {
+        low += -(found + 1);
+      }
+    }
+    return result;
+  }
+
+  /** The ids in either list. */
+  public static List<DocId> union(@Nonnull List<DocId> a, @Nonnull List<DocId> b) {
+    List<DocId> result = new ArrayList<>(a.size() + b.size());
+    int i = 0;
+    int j = 0;
+    while (i < a.size() && j < b.size()) {
+      int cmp = a.get(i).compareTo(b.get(j));
+      if (cmp <= 0) {
+        result.add(a.get(i++));
+        if (cmp == 0) ++j;
+      } else {
+        result.add(b.get(j++));
+      }
+    }
+    result.addAll(a.subList(i, a.size()));
+    result.addAll(b.subList(j, b.size()));
+    return result;
+  }
+}
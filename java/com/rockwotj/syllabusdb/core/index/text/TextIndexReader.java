@@ -0,0 +1,120 @@
+package com.rockwotj.syllabusdb.core.index.text;
+
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.index.TextKeys;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Answers term queries against a {@link IndexKind#TEXT} index.
+ *
+ * <p>The results are document ids in order, which callers fetch themselves. Each query reads from a
+ * single cursor, so it sees a consistent snapshot of the index.
+ */
+@ThreadSafe
+public final class TextIndexReader {
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final Index index;
+
+  public TextIndexReader(@Nonnull KeyValueStore store, @Nonnull Index index) {
+    if (index.kind() != IndexKind.TEXT) {
+      throw new IllegalArgumentException("Index " + index.name() + " is not a text index");
+    }
+    this.store = Objects.requireNonNull(store);
+    this.index = index;
+  }
+
+  /** The documents containing `term`, which must already be tokenized. */
+  public List<DocId> postings(@Nonnull String term) {
+    try (var cursor = store.cursor()) {
+      return readPostings(cursor, term);
+    }
+  }
+
+  /** The documents containing every term in `text`, or none if `text` has no terms. */
+  public List<DocId> matchAll(@Nonnull String text) {
+    var terms = Tokenizer.tokenize(text);
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+    var lists = new ArrayList<List<DocId>>(terms.size());
+    try (var cursor = store.cursor()) {
+      for (String term : terms) {
+        var postings = readPostings(cursor, term);
+        if (postings.isEmpty()) {
+          return List.of();
+        }
+        lists.add(postings);
+      }
+    }
+    // Starting from the rarest term keeps every intermediate result as small as possible.
+    lists.sort(Comparator.comparingInt(List::size));
+    var result = lists.get(0);
+    for (int i = 1; i < lists.size() && !result.isEmpty(); ++i) {
+      result = PostingLists.intersect(result, lists.get(i));
+    }
+    return result;
+  }
+
+  /** The documents containing any term in `text`. */
+  public List<DocId> matchAny(@Nonnull String text) {
+    List<DocId> result = List.of();
+    try (var cursor = store.cursor()) {
+      for (String term : Tokenizer.tokenize(text)) {
+        result = PostingLists.union(result, readPostings(cursor, term));
+      }
+    }
+    return result;
+  }
+
+  /** Calls `consumer` with the postings of every term in the index, in term order. */
+  public void forEachTerm(@Nonnull BiConsumer<String, List<DocId>> consumer) {
+    var prefix = new IndexEntryEncoder().encodePrefix(index.id());
+    try (var cursor = store.cursor()) {
+      cursor.seek(prefix);
+      while (cursor.valid() && cursor.key().startsWith(prefix)) {
+        var term = TextKeys.decode(index.id(), cursor.key()).term();
+        consumer.accept(term, readPostings(cursor, term));
+      }
+    }
+  }
+
+  /**
+   * Read the postings of `term`, leaving the cursor positioned after the term's keys. Package
+   * private so compaction reads postings the same way.
+   */
+  static List<DocId> readPostings(KeyValueStore.Cursor cursor, Index index, String term) {
+    var prefix = TextKeys.encodeTermPrefix(index.id(), term);
+    List<DocId> blocks = new ArrayList<>();
+    List<DocId> added = new ArrayList<>();
+    Set<DocId> removed = new HashSet<>();
+    for (cursor.seek(prefix); cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+      var key = TextKeys.decode(index.id(), cursor.key());
+      switch (key.section()) {
+        case BLOCK -> blocks.addAll(PostingBlock.decode(cursor.value()));
+        case ADDED -> added.add(key.docId());
+        case REMOVED -> removed.add(key.docId());
+      }
+    }
+    var postings = PostingLists.union(blocks, added);
+    if (!removed.isEmpty()) {
+      postings.removeIf(removed::contains);
+    }
+    return postings;
+  }
+
+  private List<DocId> readPostings(KeyValueStore.Cursor cursor, String term) {
+    return readPostings(cursor, index, term);
+  }
+}
@@ -0,0 +1,72 @@
+package com.rockwotj.syllabusdb.core.index.text;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.Locale;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Splits text into terms for a text index.
+ *
+ * <p>A term is a maximal run of letters and digits, lowercased, so punctuation and whitespace
+ * separate terms and searches are case insensitive. Overly long terms (such as encoded blobs) are
+ * dropped so that keys stay small.
+ */
+public final class Tokenizer {
+  public static final int MAX_TERM_LENGTH = 64;
+
+  private Tokenizer() {}
+
+  /**
+   * The distinct terms of a document's value: the terms of a string, or of every string in a list.
+   * Other values have no terms.
+   */
+  public static SortedSet<String> terms(@Nullable Value value) {
+    var terms = new TreeSet<String>();
+    if (value == null) {
+      return terms;
+    }
+    switch (value.type()) {
+      case String -> addTerms(value.asString(), terms);
+      case List -> {
+        for (Value element : value.asList()) {
+          if (element.type() == Value.Type.String) {
+            addTerms(element.asString(), terms);
+          }
+        }
+      }
+      default -> {}
+    }
+    return terms;
+  }
+
+  /** The distinct terms of some text. */
+  public static SortedSet<String> tokenize(@Nonnull String text) {
+    var terms = new TreeSet<String>();
+    addTerms(text, terms);
+    return terms;
+  }
+
+  private static void addTerms(String text, SortedSet<String> terms) {
+    var term = new StringBuilder();
+    for (int i = 0; i < text.length(); ) {
+      int codepoint = text.codePointAt(i);
+      i += Character.charCount(codepoint);
+      if (Character.isLetterOrDigit(codepoint)) {
+        term.appendCodePoint(codepoint);
+      } else {
+        addTerm(term, terms);
+      }
+    }
+    addTerm(term, terms);
+  }
+
+  private static void addTerm(StringBuilder term, SortedSet<String> terms) {
+    if (term.length() > 0 && term.length() <= MAX_TERM_LENGTH) {
+      terms.add(term.toString().toLowerCase(Locale.ROOT));
+    }
+    term.setLength(0);
+  }
+}
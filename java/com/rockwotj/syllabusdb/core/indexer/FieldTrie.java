@@ -0,0 +1,112 @@
+package com.rockwotj.syllabusdb.core.indexer;
+
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A set of field paths compiled into a trie, so that all of them can be resolved against a document
+ * in a single walk. Paths that share a prefix (`address.city` and `address.zip`) only look up the
+ * shared part once.
+ *
+ * <p>Each distinct path is assigned a slot, and resolving a document fills in an array of values
+ * indexed by slot.
+ */
+@Immutable
+final class FieldTrie {
+  private final Node root;
+  private final List<FieldPath> paths;
+
+  private FieldTrie(Node root, List<FieldPath> paths) {
+    this.root = root;
+    this.paths = paths;
+  }
+
+  /** Builds a trie from the given paths, duplicate paths share a slot. */
+  static Builder builder() {
+    return new Builder();
+  }
+
+  /** The number of slots, which is the number of distinct paths. */
+  int size() {
+    return paths.size();
+  }
+
+  /**
+   * Resolve every path against the fields of a document. The value at each slot is null if the path
+   * doesn't exist in the document.
+   */
+  Value[] resolve(@Nonnull Map<FieldName, Value> fields) {
+    var resolved = new Value[paths.size()];
+    root.resolve(fields, resolved);
+    return resolved;
+  }
+
+  static final class Builder {
+    private final MutableNode root = new MutableNode();
+    private final List<FieldPath> paths = new ArrayList<>();
+
+    private Builder() {}
+
+    /** Add a path to the trie, returning its slot. */
+    int add(@Nonnull FieldPath path) {
+      var node = root;
+      for (FieldName segment : path.segments()) {
+        node = node.children.computeIfAbsent(segment, (name) -> new MutableNode());
+      }
+      if (node.slot < 0) {
+        node.slot = paths.size();
+        paths.add(path);
+      }
+      return node.slot;
+    }
+
+    FieldTrie build() {
+      return new FieldTrie(root.freeze(), List.copyOf(paths));
+    }
+  }
+
+  private static final class MutableNode {
+    private final TreeMap<FieldName, MutableNode> children = new TreeMap<>();
+    private int slot = -1;
+
+    private Node freeze() {
+      var names = new FieldName[children.size()];
+      var nodes = new Node[children.size()];
+      int i = 0;
+      for (var entry : children.entrySet()) {
+        names[i] = entry.getKey();
+        nodes[i] = entry.getValue().freeze();
+        ++i;
+      }
+      return new Node(names, nodes, slot);
+    }
+  }
+
+  /** A node in the trie, flattened into arrays as it's walked for every document. */
+  private record Node(@Nonnull FieldName[] names, @Nonnull Node[] children, int slot) {
+    private void resolve(@Nonnull Map<FieldName, Value> fields, @Nonnull Value[] resolved) {
+      for (int i = 0; i < names.length; ++i) {
+        var value = fields.get(names[i]);
+        if (value != null) {
+          children[i].resolveValue(value, resolved);
+        }
+      }
+    }
+
+    private void resolveValue(@Nonnull Value value, @Nonnull Value[] resolved) {
+      if (slot >= 0) {
+        resolved[slot] = value;
+      }
+      if (names.length > 0 && value.type() == Value.Type.Object) {
+        resolve(value.asObject(), resolved);
+      }
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package com.rockwotj.syllabusdb.core.indexer;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.catalog.IndexCatalog;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.util.concurrent.AcquiredLock;
+import com.rockwotj.syllabusdb.core.util.concurrent.Lock;
+import com.rockwotj.syllabusdb.core.util.concurrent.LockAcquisitionTimeoutException;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Builds the entries of a new index for all the existing documents in its collection, while the
+ * database keeps serving traffic.
+ *
+ * <p>The index must already be in the catalog in the {@link IndexState#BUILDING} state. The
+ * backfill walks the collection in key order, a batch at a time. Each batch is read from a fresh
+ * cursor and written while holding `writeLock`, so it always sees the latest version of each
+ * document. Once the whole collection has been walked the index is marked ready.
+ *
+ * <p>The index is only consistent when it's marked ready if every write to the collection while the
+ * backfill runs also maintains the building index (via {@link Indexer#diff}) while holding
+ * `writeLock`, so that documents written behind the backfill's position are indexed too. That's a
+ * contract for the caller: nothing in this class enforces it, and the server has no write path that
+ * does it yet.
+ *
+ * <p>The lock is only held for a single batch, and batches are rate limited, so the backfill of a
+ * large collection doesn't stall foreground writes.
+ */
+@ThreadSafe
+public final class IndexBackfill {
+
+  /**
+   * @param batchSize the max number of documents indexed in a single write batch.
+   * @param documentsPerSecond the max rate at which documents are indexed.
+   */
+  public record Options(int batchSize, double documentsPerSecond) {
+    public Options {
+      if (batchSize <= 0) {
+        throw new IllegalArgumentException("Invalid backfill batch size: " + batchSize);
+      }
+      if (!(documentsPerSecond > 0)) {
+        throw new IllegalArgumentException("Invalid backfill rate: " + documentsPerSecond);
+      }
+    }
+  }
+
+  /**
+   * A snapshot of the backfill's progress.
+   *
+   * @param total the estimated number of documents in the collection, or zero if unknown. It's only
+   *     an estimate, so `processed` can exceed it.
+   * @param eta the estimated time remaining, or null if not yet known.
+   */
+  public record Progress(
+      long processed, long total, boolean done, @Nonnull Duration elapsed, @Nullable Duration eta) {
+    public double fraction() {
+      if (done) return 1.0;
+      return total == 0 ? 0.0 : Math.min(1.0, (double) processed / total);
+    }
+  }
+
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final IndexCatalog catalog;
+  @Nonnull private final Index index;
+  @Nonnull private final Lock writeLock;
+  @Nonnull private final Options options;
+  @Nonnull private final Indexer indexer;
+  private final long total;
+
+  private final AtomicLong processed = new AtomicLong();
+  private volatile boolean finished = false;
+  // Zero until the backfill starts.
+  private final AtomicLong startNanos = new AtomicLong();
+
+  /**
+   * @param listener notified of every entry the backfill adds, such as the statistics store, so the
+   *     index has statistics as soon as it's ready. Entries the write path already added aren't
+   *     notified again.
+   * @param estimatedTotal the estimated number of documents in the collection, or zero if unknown,
+   *     which is only used to report progress. Counting them exactly would mean reading the whole
+   *     collection an extra time.
+   */
+  public IndexBackfill(
+      @Nonnull KeyValueStore store,
+      @Nonnull IndexCatalog catalog,
+      @Nonnull Index index,
+      @Nonnull Lock writeLock,
+      @Nonnull Options options,
+      @Nonnull Indexer.Listener listener,
+      long estimatedTotal) {
+    if (index.state() != IndexState.BUILDING) {
+      throw new IllegalArgumentException("Index " + index.name() + " is not building");
+    }
+    if (estimatedTotal < 0) {
+      throw new IllegalArgumentException("Invalid estimated total: " + estimatedTotal);
+    }
+    this.store = Objects.requireNonNull(store);
+    this.catalog = Objects.requireNonNull(catalog);
+    this.index = index;
+    this.writeLock = Objects.requireNonNull(writeLock);
+    this.options = Objects.requireNonNull(options);
+    // Only this index needs entries, any others are already up to date.
+    this.indexer = new Indexer(List.of(index), listener);
+    this.total = estimatedTotal;
+  }
+
+  /**
+   * Run the backfill to completion on the calling thread, then mark the index ready.
+   *
+   * @return the ready index.
+   */
+  public Index run() {
+    startNanos.set(System.nanoTime());
+    var prefix = DocumentKeys.encodePrefix(index.collection());
+    var rateLimiter = RateLimiter.create(options.documentsPerSecond());
+    ByteArray resumeAfter = null;
+    boolean done = false;
+    while (!done) {
+      var batch = new ArrayList<KeyValueStore.Write>();
+      int documents;
+      AcquiredLock acquired = acquireWriteLock();
+      try (var cursor = store.cursor();
+          var entryCursor = store.cursor()) {
+        seekAfter(cursor, prefix, resumeAfter);
+        documents = 0;
+        for (; cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+          if (documents == options.batchSize()) break;
+          var document = DocConverter.fromBytes(cursor.value());
+          // Entries the write path already added are skipped, so they aren't counted twice.
+          batch.addAll(indexer.addMissing(document, entryCursor));
+          resumeAfter = cursor.key();
+          ++documents;
+        }
+        done = !cursor.valid() || !cursor.key().startsWith(prefix);
+        if (!batch.isEmpty()) {
+          store.write(batch);
+        }
+      } finally {
+        acquired.release();
+      }
+      processed.addAndGet(documents);
+      if (!done) {
+        // Pay for the batch outside of the lock, so foreground writes can proceed.
+        rateLimiter.acquire(Math.max(1, documents));
+      }
+    }
+    var ready = catalog.markReady(index.name());
+    finished = true;
+    return ready;
+  }
+
+  public Progress progress() {
+    var start = startNanos.get();
+    var elapsed = start == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - start);
+    var count = processed.get();
+    var done = finished;
+    Duration eta = null;
+    if (done) {
+      eta = Duration.ZERO;
+    } else if (count > 0 && total > 0) {
+      var remaining = Math.max(0, total - count);
+      eta = Duration.ofNanos((long) ((double) elapsed.toNanos() / count * remaining));
+    }
+    return new Progress(count, total, done, elapsed, eta);
+  }
+
+  private static void seekAfter(
+      KeyValueStore.Cursor cursor, ByteArray prefix, @Nullable ByteArray resumeAfter) {
+    if (resumeAfter == null) {
+      cursor.seek(prefix);
+      return;
+    }
+    cursor.seek(resumeAfter);
+    if (cursor.valid() && cursor.key().equals(resumeAfter)) {
+      cursor.next();
+    }
+  }
+
+  private AcquiredLock acquireWriteLock() {
+    // Timing out just means foreground traffic is busy, so keep waiting our turn.
+    while (true) {
+      try {
+        return writeLock.lock();
+      } catch (LockAcquisitionTimeoutException e) {
+        // Retry
+      }
+    }
+  }
+}
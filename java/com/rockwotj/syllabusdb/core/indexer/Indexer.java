@@ -1,54 +1,496 @@
 package com.rockwotj.syllabusdb.core.indexer;
 
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
 import com.rockwotj.syllabusdb.core.document.CollectionId;
 import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
 import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.index.Direction;
 import com.rockwotj.syllabusdb.core.index.Index;
 import com.rockwotj.syllabusdb.core.index.IndexEntry;
 import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
 import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.core.index.text.Tokenizer;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
-/** Given all the indexes for a database create the index entries for a document. */
+/**
+ * Given all the indexes for a database create the index entries for a document.
+ *
+ * <p>The indexes of each collection are compiled into a single {@link FieldTrie}, so every distinct
+ * field path is looked up once per document no matter how many indexes use it, and the resolved
+ * values are shared by each index.
+ */
 @Immutable
 public class Indexer {
-  private final Map<CollectionId, List<Index>> indexes = new HashMap<>();
+  /**
+   * Notified of the entries that {@link #diff} adds to or removes from an index, such as to keep
+   * statistics up to date. Entries that are rewritten in place (because only their projection
+   * changed) are not reported. Implementations must be thread safe.
+   */
+  public interface Listener {
+    Listener NONE =
+        new Listener() {
+          @Override
+          public void added(@Nonnull IndexEntry entry) {}
+
+          @Override
+          public void removed(@Nonnull IndexEntry entry) {}
+        };
+
+    void added(@Nonnull IndexEntry entry);
+
+    void removed(@Nonnull IndexEntry entry);
+  }
+
+  private final Map<CollectionId, CompiledIndexes> indexes = new HashMap<>();
+  @Nonnull private final Listener listener;
 
   public Indexer(@Nonnull List<Index> indexes) {
+    this(indexes, Listener.NONE);
+  }
+
+  public Indexer(@Nonnull List<Index> indexes, @Nonnull Listener listener) {
+    this.listener = Objects.requireNonNull(listener);
+    Map<CollectionId, List<Index>> byCollection = new HashMap<>();
     for (Index index : indexes) {
       var collectionIndexes =
-          this.indexes.computeIfAbsent(index.collection(), (collection) -> new ArrayList<>());
+          byCollection.computeIfAbsent(index.collection(), (collection) -> new ArrayList<>());
       collectionIndexes.add(index);
     }
+    for (var entry : byCollection.entrySet()) {
+      this.indexes.put(entry.getKey(), CompiledIndexes.compile(entry.getValue()));
+    }
   }
 
   public List<IndexEntry> index(Document document) {
     List<IndexEntry> entries = new ArrayList<>();
-    for (Index index : indexes.getOrDefault(document.collection(), List.of())) {
-      IndexEntry entry = indexOne(index, document);
-      // We support sparse indexes - if the field isn't in the supplied document, then we don't
-      // write an
-      // entry in the index.
-      if (entry == null) continue;
-      entries.add(entry);
+    var compiled = indexes.get(document.collection());
+    if (compiled == null) {
+      return entries;
+    }
+    var resolved = compiled.trie.resolve(document.fields());
+    for (int i = 0; i < compiled.indexes.size(); ++i) {
+      indexOne(
+          compiled.indexes.get(i),
+          compiled.slots[i],
+          compiled.includedSlots[i],
+          compiled.filterSlots[i],
+          resolved,
+          document,
+          entries);
     }
     return entries;
   }
 
-  @Nullable
-  private IndexEntry indexOne(Index index, Document document) {
+  /**
+   * Index a batch of documents in parallel, such as for an initial bulk load, returning the encoded
+   * keys and values for each index in key order, ready to be ingested.
+   *
+   * <p>The work runs on the stream's fork join pool, which is the common pool unless this is called
+   * from within another pool. Each worker uses its own encoder, and the workers' results are merged
+   * and sorted at the end.
+   */
+  public Map<IndexId, List<Map.Entry<ByteArray, ByteArray>>> indexAll(
+      @Nonnull Stream<Document> documents) {
+    return documents
+        .parallel()
+        .collect(
+            Collector.of(
+                BatchAccumulator::new,
+                BatchAccumulator::add,
+                BatchAccumulator::merge,
+                BatchAccumulator::finish,
+                Collector.Characteristics.UNORDERED));
+  }
+
+  /** The encoded entries from a single worker, which may only be used by one thread at a time. */
+  private final class BatchAccumulator {
+    private final IndexEntryEncoder encoder = new IndexEntryEncoder();
+    private final Map<IndexId, List<Map.Entry<ByteArray, ByteArray>>> keys = new HashMap<>();
+
+    private void add(Document document) {
+      for (IndexEntry entry : index(document)) {
+        keys.computeIfAbsent(entry.id(), (id) -> new ArrayList<>())
+            .add(Map.entry(encoder.encode(entry), encoder.encodeValue(entry)));
+      }
+    }
+
+    private BatchAccumulator merge(BatchAccumulator other) {
+      for (var entry : other.keys.entrySet()) {
+        keys.merge(
+            entry.getKey(),
+            entry.getValue(),
+            (a, b) -> {
+              a.addAll(b);
+              return a;
+            });
+      }
+      return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<IndexId, List<Map.Entry<ByteArray, ByteArray>>> finish() {
+      Map<IndexId, List<Map.Entry<ByteArray, ByteArray>>> runs = new TreeMap<>();
+      for (var entry : keys.entrySet()) {
+        Map.Entry<ByteArray, ByteArray>[] sorted = entry.getValue().toArray(Map.Entry[]::new);
+        Arrays.parallelSort(sorted, Map.Entry.comparingByKey());
+        // The same document may appear more than once, which would produce duplicate keys.
+        int length = 0;
+        for (int i = 0; i < sorted.length; ++i) {
+          if (length > 0 && sorted[length - 1].getKey().equals(sorted[i].getKey())) continue;
+          sorted[length++] = sorted[i];
+        }
+        runs.put(entry.getKey(), List.of(sorted).subList(0, length));
+      }
+      return runs;
+    }
+  }
+
+  /**
+   * The writes needed to update the indexes when a document changes from `before` to `after`.
+   *
+   * <p>Either document may be null for an insert or delete. Indexes where none of the indexed or
+   * included fields changed are skipped, otherwise only the entries that are not in both versions
+   * (or whose projection changed) are deleted or written.
+   */
+  public List<KeyValueStore.Write> diff(@Nullable Document before, @Nullable Document after) {
+    if (before == null && after == null) {
+      return List.of();
+    }
+    if (before != null && after != null && !before.path().equals(after.path())) {
+      throw new IllegalArgumentException(
+          "Cannot diff different documents: " + before.path() + " and " + after.path());
+    }
+    var collection = before != null ? before.collection() : after.collection();
+    var compiled = indexes.get(collection);
+    if (compiled == null) {
+      return List.of();
+    }
+    var beforeValues = before == null ? null : compiled.trie.resolve(before.fields());
+    var afterValues = after == null ? null : compiled.trie.resolve(after.fields());
+    // The encoder is not thread safe, so use a new one for each diff.
+    var encoder = new IndexEntryEncoder();
+    List<KeyValueStore.Write> writes = new ArrayList<>();
+    for (int i = 0; i < compiled.indexes.size(); ++i) {
+      var index = compiled.indexes.get(i);
+      var slots = compiled.slots[i];
+      var includedSlots = compiled.includedSlots[i];
+      var filterSlots = compiled.filterSlots[i];
+      if (beforeValues != null
+          && afterValues != null
+          && !fieldsChanged(slots, beforeValues, afterValues)
+          && !fieldsChanged(includedSlots, beforeValues, afterValues)
+          && !fieldsChanged(filterSlots, beforeValues, afterValues)
+          // A wildcard index without fields covers the whole document.
+          && !(isWholeDocument(index) && !before.fields().equals(after.fields()))) {
+        continue;
+      }
+      var deletes =
+          encodeAll(encoder, index, slots, includedSlots, filterSlots, beforeValues, before);
+      var puts = encodeAll(encoder, index, slots, includedSlots, filterSlots, afterValues, after);
+      var text = index.kind() == IndexKind.TEXT;
+      for (var delete : deletes.entrySet()) {
+        if (!puts.containsKey(delete.getKey())) {
+          writes.add(KeyValueStore.Write.delete(delete.getKey()));
+          // The posting may also be in a compacted block, which has to be masked.
+          if (text) {
+            var removed = encoder.encodeRemoved(delete.getValue());
+            writes.add(KeyValueStore.Write.put(removed, ByteArray.EMPTY));
+          }
+          listener.removed(delete.getValue());
+        }
+      }
+      for (var put : puts.entrySet()) {
+        var entry = put.getValue();
+        var existing = deletes.get(put.getKey());
+        if (existing == null) {
+          writes.add(KeyValueStore.Write.put(put.getKey(), encoder.encodeValue(entry)));
+          // Unmask the posting in case it was removed since the last compaction.
+          if (text) {
+            writes.add(KeyValueStore.Write.delete(encoder.encodeRemoved(entry)));
+          }
+          listener.added(entry);
+        } else if (!Objects.equals(existing.projection(), entry.projection())) {
+          writes.add(KeyValueStore.Write.put(put.getKey(), encoder.encodeValue(entry)));
+        }
+      }
+    }
+    return writes;
+  }
+
+  /**
+   * The writes that add the entries of `document` which aren't already in the store as seen by
+   * `cursor`, such as when backfilling an index that the write path may have already indexed the
+   * document in. Only the added entries are reported to the listener.
+   */
+  public List<KeyValueStore.Write> addMissing(
+      @Nonnull Document document, @Nonnull KeyValueStore.Cursor cursor) {
+    // The encoder is not thread safe, so use a new one for each call.
+    var encoder = new IndexEntryEncoder();
+    List<KeyValueStore.Write> writes = new ArrayList<>();
+    for (IndexEntry entry : index(document)) {
+      var key = encoder.encode(entry);
+      cursor.seek(key);
+      if (cursor.valid() && cursor.key().equals(key)) continue;
+      writes.add(KeyValueStore.Write.put(key, encoder.encodeValue(entry)));
+      // Unmask the posting in case it was removed since the last compaction.
+      if (entry.kind() == IndexKind.TEXT) {
+        writes.add(KeyValueStore.Write.delete(encoder.encodeRemoved(entry)));
+      }
+      listener.added(entry);
+    }
+    return writes;
+  }
+
+  private static boolean isWholeDocument(Index index) {
+    return index.kind() == IndexKind.WILDCARD && index.fields().isEmpty();
+  }
+
+  private static boolean fieldsChanged(int[] slots, Value[] before, Value[] after) {
+    for (int slot : slots) {
+      if (!Objects.equals(before[slot], after[slot])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Map<ByteArray, IndexEntry> encodeAll(
+      IndexEntryEncoder encoder,
+      Index index,
+      int[] slots,
+      int[] includedSlots,
+      int[] filterSlots,
+      @Nullable Value[] resolved,
+      @Nullable Document document) {
+    if (document == null) {
+      return Map.of();
+    }
+    List<IndexEntry> entries = new ArrayList<>();
+    indexOne(index, slots, includedSlots, filterSlots, resolved, document, entries);
+    // Keep the keys sorted, so writes are emitted in key order.
+    Map<ByteArray, IndexEntry> encoded = new TreeMap<>();
+    for (IndexEntry entry : entries) {
+      encoded.put(encoder.encode(entry), entry);
+    }
+    return encoded;
+  }
+
+  /**
+   * Add the entries of `document` for `index` to `entries`, where `slots`, `includedSlots` and
+   * `filterSlots` are the positions of the index's fields, included fields and filtered fields in
+   * `resolved`.
+   */
+  private static void indexOne(
+      Index index,
+      int[] slots,
+      int[] includedSlots,
+      int[] filterSlots,
+      Value[] resolved,
+      Document document,
+      List<IndexEntry> entries) {
+    // Partial indexes skip documents that don't match their filter.
+    var conjuncts = index.filter().conjuncts();
+    for (int i = 0; i < conjuncts.size(); ++i) {
+      if (!conjuncts.get(i).matches(resolved[filterSlots[i]])) return;
+    }
+    if (index.kind() == IndexKind.WILDCARD) {
+      indexWildcard(index, slots, resolved, document, entries);
+      return;
+    }
+    if (index.kind() == IndexKind.TEXT) {
+      // Text indexes have a single field, with an entry for each distinct term in it.
+      var direction = index.fields().get(0).direction();
+      for (String term : Tokenizer.terms(resolved[slots[0]])) {
+        var values = List.of(new IndexValue(Value.of(term), direction));
+        entries.add(new IndexEntry(index.id(), index.kind(), values, document.id(), null));
+      }
+      return;
+    }
     List<IndexValue> values = new ArrayList<>();
-    for (IndexField field : index.fields()) {
-      Value value = document.get(field.path());
-      if (value == null) return null;
+    int multikeyPosition = -1;
+    Collection<Value> elements = null;
+    var fields = index.fields();
+    for (int i = 0; i < fields.size(); ++i) {
+      IndexField field = fields.get(i);
+      Value value = resolved[slots[i]];
+      // We support sparse indexes - if the field isn't in the supplied document, then we don't
+      // write an entry in the index.
+      if (value == null) return;
+      if (field.multikey() && value.type() == Value.Type.List) {
+        // Duplicate elements would produce identical entries, so only index each one once.
+        elements = new TreeSet<>(value.asList());
+        multikeyPosition = values.size();
+      }
       values.add(new IndexValue(value, field.direction()));
     }
-    return new IndexEntry(index.name(), values);
+    // Every entry of a multikey index shares the same projection.
+    var projection = project(index.included(), includedSlots, resolved);
+    if (elements == null) {
+      entries.add(new IndexEntry(index.id(), index.kind(), values, document.id(), projection));
+      return;
+    }
+    var direction = values.get(multikeyPosition).direction();
+    for (Value element : elements) {
+      values.set(multikeyPosition, new IndexValue(element, direction));
+      entries.add(new IndexEntry(index.id(), index.kind(), values, document.id(), projection));
+    }
+  }
+
+  /** Add an entry for every distinct (path, value) pair of scalars indexed by a wildcard index. */
+  private static void indexWildcard(
+      Index index, int[] slots, Value[] resolved, Document document, List<IndexEntry> entries) {
+    var leaves = new TreeMap<String, TreeSet<Value>>();
+    if (isWholeDocument(index)) {
+      for (var field : document.fields().entrySet()) {
+        collectLeaves(field.getKey().raw(), field.getValue(), leaves);
+      }
+    } else {
+      var value = resolved[slots[0]];
+      if (value == null) return;
+      collectLeaves(index.fields().get(0).path().toString(), value, leaves);
+    }
+    var direction = index.wildcardDirection();
+    for (var leaf : leaves.entrySet()) {
+      var path = new IndexValue(Value.of(leaf.getKey()), Direction.ASCENDING);
+      for (Value value : leaf.getValue()) {
+        var values = List.of(path, new IndexValue(value, direction));
+        entries.add(new IndexEntry(index.id(), index.kind(), values, document.id(), null));
+      }
+    }
+  }
+
+  private static void collectLeaves(
+      String path, Value value, TreeMap<String, TreeSet<Value>> leaves) {
+    switch (value.type()) {
+      case Object -> {
+        for (var field : value.asObject().entrySet()) {
+          collectLeaves(path + "." + field.getKey().raw(), field.getValue(), leaves);
+        }
+      }
+        // The elements of a list are indexed under the list's path, like a multikey field.
+      case List -> {
+        for (Value element : value.asList()) {
+          collectLeaves(path, element, leaves);
+        }
+      }
+      default -> leaves.computeIfAbsent(path, (unused) -> new TreeSet<>()).add(value);
+    }
+  }
+
+  /**
+   * Build an object of the included fields that exist in the document, nested in the same way as
+   * the document. Returns null if the index doesn't include any fields.
+   */
+  @Nullable
+  private static Value project(List<FieldPath> included, int[] slots, Value[] resolved) {
+    if (included.isEmpty()) {
+      return null;
+    }
+    var root = new TreeMap<FieldName, Object>();
+    for (int i = 0; i < included.size(); ++i) {
+      var value = resolved[slots[i]];
+      if (value == null) continue;
+      var segments = included.get(i).segments();
+      var node = root;
+      for (int j = 0; j < segments.size() - 1 && node != null; ++j) {
+        node = childNode(node, segments.get(j));
+      }
+      // If a shorter included path already holds a value, that value contains this one.
+      if (node != null) {
+        node.put(segments.get(segments.size() - 1), value);
+      }
+    }
+    return toValue(root);
+  }
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  private static TreeMap<FieldName, Object> childNode(
+      TreeMap<FieldName, Object> node, FieldName name) {
+    var child = node.computeIfAbsent(name, (unused) -> new TreeMap<FieldName, Object>());
+    return child instanceof TreeMap<?, ?> map ? (TreeMap<FieldName, Object>) map : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Value toValue(TreeMap<FieldName, Object> node) {
+    var fields = new TreeMap<FieldName, Value>();
+    for (var entry : node.entrySet()) {
+      var value =
+          entry.getValue() instanceof Value v
+              ? v
+              : toValue((TreeMap<FieldName, Object>) entry.getValue());
+      fields.put(entry.getKey(), value);
+    }
+    return Value.of(fields);
+  }
+
+  /** The indexes of a single collection, and where each of their fields is in the trie. */
+  private static final class CompiledIndexes {
+    private final List<Index> indexes;
+    private final FieldTrie trie;
+    // slots[i][j] is the trie slot of the jth field of the ith index.
+    private final int[][] slots;
+    // includedSlots[i][j] is the trie slot of the jth included field of the ith index.
+    private final int[][] includedSlots;
+    // filterSlots[i][j] is the trie slot of the field of the jth filter conjunct of the ith index.
+    private final int[][] filterSlots;
+
+    private CompiledIndexes(
+        List<Index> indexes,
+        FieldTrie trie,
+        int[][] slots,
+        int[][] includedSlots,
+        int[][] filterSlots) {
+      this.indexes = indexes;
+      this.trie = trie;
+      this.slots = slots;
+      this.includedSlots = includedSlots;
+      this.filterSlots = filterSlots;
+    }
+
+    private static CompiledIndexes compile(List<Index> indexes) {
+      var builder = FieldTrie.builder();
+      var slots = new int[indexes.size()][];
+      var includedSlots = new int[indexes.size()][];
+      var filterSlots = new int[indexes.size()][];
+      for (int i = 0; i < indexes.size(); ++i) {
+        var fields = indexes.get(i).fields();
+        slots[i] = new int[fields.size()];
+        for (int j = 0; j < fields.size(); ++j) {
+          slots[i][j] = builder.add(fields.get(j).path());
+        }
+        var included = indexes.get(i).included();
+        includedSlots[i] = new int[included.size()];
+        for (int j = 0; j < included.size(); ++j) {
+          includedSlots[i][j] = builder.add(included.get(j));
+        }
+        var conjuncts = indexes.get(i).filter().conjuncts();
+        filterSlots[i] = new int[conjuncts.size()];
+        for (int j = 0; j < conjuncts.size(); ++j) {
+          filterSlots[i][j] = builder.add(conjuncts.get(j).path());
+        }
+      }
+      return new CompiledIndexes(
+          List.copyOf(indexes), builder.build(), slots, includedSlots, filterSlots);
+    }
   }
 }
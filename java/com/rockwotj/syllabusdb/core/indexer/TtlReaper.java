@@ -0,0 +1,172 @@
+package com.rockwotj.syllabusdb.core.indexer;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.catalog.IndexCatalog;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.core.util.concurrent.AcquiredLock;
+import com.rockwotj.syllabusdb.core.util.concurrent.Lock;
+import com.rockwotj.syllabusdb.core.util.concurrent.LockAcquisitionTimeoutException;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Deletes the documents that have expired according to an index with a ttl, see {@link Index}.
+ *
+ * <p>The index is ordered by expiry time, so the expired documents are exactly the entries from the
+ * first number up to the cutoff. Each batch is read from a fresh cursor and deleted (along with all
+ * the document's index entries) while holding `writeLock`, which the write path must hold while
+ * writing documents. A run stops at the first entry that hasn't expired, so its cost is
+ * proportional to the number of expired documents rather than the size of the collection.
+ *
+ * <p>Batches are rate limited so that a large backlog of expired documents doesn't stall foreground
+ * writes. It's meant to be run periodically on a background thread, for example via a {@link
+ * java.util.concurrent.ScheduledExecutorService}.
+ */
+@ThreadSafe
+public final class TtlReaper {
+
+  /**
+   * @param batchSize the max number of documents deleted in a single write batch.
+   * @param documentsPerSecond the max rate at which documents are deleted.
+   */
+  public record Options(int batchSize, double documentsPerSecond) {
+    public Options {
+      if (batchSize <= 0) {
+        throw new IllegalArgumentException("Invalid reaper batch size: " + batchSize);
+      }
+      if (!(documentsPerSecond > 0)) {
+        throw new IllegalArgumentException("Invalid reaper rate: " + documentsPerSecond);
+      }
+    }
+  }
+
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final IndexCatalog catalog;
+  @Nonnull private final Index index;
+  @Nonnull private final Lock writeLock;
+  @Nonnull private final Options options;
+  @Nonnull private final Clock clock;
+  @Nonnull private final Indexer.Listener listener;
+  @Nonnull private final RateLimiter rateLimiter;
+  @Nonnull private final ByteArray prefix;
+
+  public TtlReaper(
+      @Nonnull KeyValueStore store,
+      @Nonnull IndexCatalog catalog,
+      @Nonnull Index index,
+      @Nonnull Lock writeLock,
+      @Nonnull Options options,
+      @Nonnull Clock clock,
+      @Nonnull Indexer.Listener listener) {
+    if (index.ttl() == null) {
+      throw new IllegalArgumentException("Index " + index.name() + " does not have a ttl");
+    }
+    this.store = Objects.requireNonNull(store);
+    this.catalog = Objects.requireNonNull(catalog);
+    this.index = index;
+    this.writeLock = Objects.requireNonNull(writeLock);
+    this.options = Objects.requireNonNull(options);
+    this.clock = Objects.requireNonNull(clock);
+    this.listener = Objects.requireNonNull(listener);
+    this.rateLimiter = RateLimiter.create(options.documentsPerSecond());
+    this.prefix = new IndexEntryEncoder().encodePrefix(index.id());
+  }
+
+  /**
+   * Delete every document that has expired as of now on the calling thread.
+   *
+   * @return the number of documents deleted.
+   */
+  public long run() {
+    // Documents that expire while running are left for the next run, so a run always ends.
+    double cutoff = clock.millis() - (double) index.ttl().toMillis();
+    var direction = index.fields().get(0).direction();
+    // Other types sort before numbers, and those documents never expire.
+    var start =
+        new IndexEntryEncoder()
+            .encodeValuesPrefix(
+                index.id(), List.of(new IndexValue(Value.of(Double.NEGATIVE_INFINITY), direction)));
+    var decoder = new IndexEntryDecoder(index);
+    // Deleting a document removes it from every index, including those created since we started.
+    var indexer = new Indexer(catalog.all(), listener);
+    long deleted = 0;
+    boolean done = false;
+    while (!done) {
+      var batch = new ArrayList<KeyValueStore.Write>();
+      // A compound index with a multikey field has several entries per document, and the cursor
+      // doesn't see this batch's deletes, so each document must only be deleted once.
+      var reaped = new HashSet<DocId>();
+      int documents = 0;
+      AcquiredLock acquired = acquireWriteLock();
+      try (var cursor = store.cursor();
+          var documentCursor = store.cursor()) {
+        for (cursor.seek(start); ; cursor.next()) {
+          if (!cursor.valid() || !isExpired(decoder, cursor, cutoff)) {
+            done = true;
+            break;
+          }
+          if (documents == options.batchSize()) break;
+          var docId = decoder.decodeDocId(cursor.key());
+          if (reaped.contains(docId)) continue;
+          var key = DocumentKeys.encode(new Path(index.collection(), docId));
+          documentCursor.seek(key);
+          if (documentCursor.valid() && documentCursor.key().equals(key)) {
+            var document = DocConverter.fromBytes(documentCursor.value());
+            reaped.add(docId);
+            batch.add(KeyValueStore.Write.delete(key));
+            batch.addAll(indexer.diff(document, null));
+          } else {
+            // An entry for a missing document can only be garbage, so don't get stuck on it.
+            batch.add(KeyValueStore.Write.delete(cursor.key()));
+          }
+          ++documents;
+        }
+        if (!batch.isEmpty()) {
+          store.write(batch);
+        }
+      } finally {
+        acquired.release();
+      }
+      deleted += documents;
+      if (!done) {
+        // Pay for the batch outside of the lock, so foreground writes can proceed.
+        rateLimiter.acquire(Math.max(1, documents));
+      }
+    }
+    return deleted;
+  }
+
+  private boolean isExpired(IndexEntryDecoder decoder, KeyValueStore.Cursor cursor, double cutoff) {
+    if (!cursor.key().startsWith(prefix)) {
+      return false;
+    }
+    var expiresAt = decoder.decode(cursor.key(), cursor.value()).values().get(0).value();
+    return expiresAt.type() == Value.Type.Number && expiresAt.asDouble() <= cutoff;
+  }
+
+  private AcquiredLock acquireWriteLock() {
+    // Timing out just means foreground traffic is busy, so keep waiting our turn.
+    while (true) {
+      try {
+        return writeLock.lock();
+      } catch (LockAcquisitionTimeoutException e) {
+        // Retry
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Computes `functions` over the rows of its input, grouped by their value at `groupBy` if it's set.
+ *
+ * <p>A `streaming` aggregate relies on its input producing the rows of each group together, so it
+ * only holds the current group and returns each one as soon as it ends. Otherwise every group is
+ * held until the input is exhausted.
+ */
+public record Aggregate(
+    @Nonnull PlanNode input,
+    @Nullable FieldPath groupBy,
+    @Nonnull List<AggregateFunction> functions,
+    boolean streaming,
+    double rows,
+    double cost)
+    implements PlanNode {
+  public Aggregate {
+    functions = List.copyOf(functions);
+  }
+
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of(input);
+  }
+
+  @Override
+  public String describe() {
+    var builder =
+        new StringBuilder("Aggregate ")
+            .append(functions.stream().map(Object::toString).collect(Collectors.joining(", ")));
+    if (groupBy != null) {
+      builder.append(" by ").append(groupBy).append(streaming ? " streaming" : " hashed");
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,52 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import java.util.Locale;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A function computed over the documents of each group of an {@link AggregateQuery}.
+ *
+ * <p>Only documents with a value at `path` contribute: COUNT counts them, SUM adds up the ones that
+ * are numbers, and MIN and MAX compare values in the same order as indexes, across types. COUNT
+ * without a path counts every document.
+ */
+@Immutable
+public record AggregateFunction(@Nonnull Kind kind, @Nullable FieldPath path) {
+  public enum Kind {
+    COUNT,
+    SUM,
+    MIN,
+    MAX;
+
+    /**
+     * @throws IllegalArgumentException if there is no function with the name.
+     */
+    public static Kind fromName(@Nonnull String name) {
+      for (var kind : values()) {
+        if (kind.name().equalsIgnoreCase(name)) return kind;
+      }
+      throw new IllegalArgumentException("Unknown aggregate function: " + name);
+    }
+  }
+
+  public AggregateFunction {
+    Objects.requireNonNull(kind, "Missing required aggregate function");
+    if (path == null && kind != Kind.COUNT) {
+      throw new IllegalArgumentException("Missing required field for " + kind);
+    }
+  }
+
+  /** Counts every document. */
+  public static AggregateFunction count() {
+    return new AggregateFunction(Kind.COUNT, null);
+  }
+
+  @Override
+  public String toString() {
+    return kind.name().toLowerCase(Locale.ROOT) + "(" + (path == null ? "*" : path) + ")";
+  }
+}
@@ -0,0 +1,54 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Aggregates the documents of a single collection that match `filter`, either all together or in a
+ * group for each distinct value at `groupBy`.
+ *
+ * <p>Like an order, grouping only matches documents that have the grouped field, so documents
+ * without it are not counted. Groups are returned in an order that depends on the plan. Without a
+ * `groupBy` there is always exactly one group, even if no documents match.
+ */
+@Immutable
+public record AggregateQuery(
+    @Nonnull CollectionId collection,
+    @Nonnull Filter filter,
+    @Nullable FieldPath groupBy,
+    @Nonnull List<AggregateFunction> functions) {
+  public AggregateQuery {
+    Objects.requireNonNull(collection, "Missing required aggregate collection");
+    Objects.requireNonNull(filter, "Missing required aggregate filter");
+    functions = List.copyOf(functions);
+    if (functions.isEmpty()) {
+      throw new IllegalArgumentException("Missing required aggregate functions");
+    }
+  }
+
+  /** Every path the aggregation reads: those filtered on, grouped by and aggregated. */
+  public Set<FieldPath> paths() {
+    Set<FieldPath> paths = new LinkedHashSet<>();
+    for (FieldFilter conjunct : filter.conjuncts()) {
+      paths.add(conjunct.path());
+    }
+    if (groupBy != null) {
+      paths.add(groupBy);
+    }
+    for (AggregateFunction function : functions) {
+      if (function.path() != null) {
+        paths.add(function.path());
+      }
+    }
+    return paths;
+  }
+}
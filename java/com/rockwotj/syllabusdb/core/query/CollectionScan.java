@@ -0,0 +1,19 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** Reads every document in a collection, in document id order. */
+public record CollectionScan(@Nonnull CollectionId collection, double rows, double cost)
+    implements PlanNode {
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of();
+  }
+
+  @Override
+  public String describe() {
+    return "CollectionScan " + collection;
+  }
+}
@@ -0,0 +1,45 @@
+package com.rockwotj.syllabusdb.core.query;
+
+/**
+ * The constants of the planner's cost model, relative to reading the next entry from a cursor.
+ *
+ * <p>They only need to be roughly right relative to each other: seeking is much more expensive than
+ * reading the next key, and fetching a document by id is a seek plus decoding the document.
+ */
+final class Costs {
+  /** Positioning a cursor on a key. */
+  static final double SEEK = 8;
+
+  /** Reading the next index entry. */
+  static final double ENTRY = 1;
+
+  /** Reading and decoding the next document of a collection scan. */
+  static final double SCAN_DOCUMENT = 3;
+
+  /** Seeking to and decoding a document by id. */
+  static final double FETCH = SEEK + SCAN_DOCUMENT;
+
+  /** Evaluating a filter against a document. */
+  static final double FILTER = 0.2;
+
+  /** Adding a row's values to its group. */
+  static final double AGGREGATE = 0.2;
+
+  /** A single comparison while sorting. */
+  static final double COMPARE = 0.1;
+
+  /** Used when there are no statistics for an equality filter. */
+  static final double EQUALITY_SELECTIVITY = 0.1;
+
+  /** Used when there are no statistics for a range filter. */
+  static final double RANGE_SELECTIVITY = 1.0 / 3;
+
+  /** Used when there are no statistics to estimate the size of a collection. */
+  static final long DEFAULT_COLLECTION_SIZE = 1000;
+
+  private Costs() {}
+
+  static double sort(double rows) {
+    return rows <= 1 ? 0 : COMPARE * rows * (Math.log(rows) / Math.log(2));
+  }
+}
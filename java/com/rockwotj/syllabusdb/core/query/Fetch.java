@@ -0,0 +1,20 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** Reads the documents for the ids produced by an access path, skipping any that don't exist. */
+public record Fetch(
+    @Nonnull PlanNode input, @Nonnull CollectionId collection, double rows, double cost)
+    implements PlanNode {
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of(input);
+  }
+
+  @Override
+  public String describe() {
+    return "Fetch " + collection;
+  }
+}
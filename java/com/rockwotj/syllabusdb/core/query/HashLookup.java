@@ -0,0 +1,29 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Reads the entries of a {@link IndexKind#HASH} index that may equal `values`. Hashes can collide,
+ * so the documents must be checked against the values after they're fetched.
+ */
+public record HashLookup(
+    @Nonnull Index index, @Nonnull List<Value> values, double rows, double cost)
+    implements PlanNode {
+  public HashLookup {
+    values = List.copyOf(values);
+  }
+
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of();
+  }
+
+  @Override
+  public String describe() {
+    return "HashLookup " + index.name() + " " + values;
+  }
+}
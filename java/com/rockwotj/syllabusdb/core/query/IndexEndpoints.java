@@ -0,0 +1,48 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Reads only the `first` and/or `last` entries of an {@link IndexKind#ORDERED} index whose leading
+ * fields equal `equalities`. Those hold the smallest and largest values of the next field, in the
+ * field's direction, so each is found with a single seek.
+ */
+public record IndexEndpoints(
+    @Nonnull Index index,
+    @Nonnull List<Value> equalities,
+    boolean first,
+    boolean last,
+    double rows,
+    double cost)
+    implements PlanNode {
+  public IndexEndpoints {
+    equalities = List.copyOf(equalities);
+    if (equalities.size() >= index.fields().size()) {
+      throw new IllegalArgumentException("Index " + index.name() + " has too few fields");
+    }
+    if (!first && !last) {
+      throw new IllegalArgumentException("Index endpoints must read an entry");
+    }
+  }
+
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of();
+  }
+
+  @Override
+  public String describe() {
+    var builder = new StringBuilder("IndexEndpoints ").append(index.name()).append(" ");
+    var fields = index.fields();
+    for (int i = 0; i < equalities.size(); ++i) {
+      builder.append(fields.get(i).path()).append(" == ").append(equalities.get(i)).append(" ");
+    }
+    if (first) builder.append("first ");
+    if (last) builder.append("last");
+    return builder.toString().strip();
+  }
+}
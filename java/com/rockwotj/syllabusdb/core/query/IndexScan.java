@@ -0,0 +1,46 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the entries of an {@link IndexKind#ORDERED} index whose leading fields equal `equalities`,
+ * and whose next field is in `range` if there is one, in index order.
+ */
+public record IndexScan(
+    @Nonnull Index index,
+    @Nonnull List<Value> equalities,
+    @Nullable KeyRange range,
+    double rows,
+    double cost)
+    implements PlanNode {
+  public IndexScan {
+    equalities = List.copyOf(equalities);
+    int used = equalities.size() + (range == null ? 0 : 1);
+    if (used > index.fields().size()) {
+      throw new IllegalArgumentException("Index " + index.name() + " has too few fields");
+    }
+  }
+
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of();
+  }
+
+  @Override
+  public String describe() {
+    var builder = new StringBuilder("IndexScan ").append(index.name()).append(" ");
+    var fields = index.fields();
+    for (int i = 0; i < equalities.size(); ++i) {
+      builder.append(fields.get(i).path()).append(" == ").append(equalities.get(i)).append(" ");
+    }
+    if (range != null) {
+      builder.append(fields.get(equalities.size()).path()).append(" in ").append(range);
+    }
+    return builder.toString().strip();
+  }
+}
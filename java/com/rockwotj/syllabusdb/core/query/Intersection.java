@@ -0,0 +1,20 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** The document ids produced by every one of its inputs, which are access paths. */
+public record Intersection(@Nonnull List<PlanNode> inputs, double rows, double cost)
+    implements PlanNode {
+  public Intersection {
+    inputs = List.copyOf(inputs);
+    if (inputs.size() < 2) {
+      throw new IllegalArgumentException("An intersection needs at least two inputs");
+    }
+  }
+
+  @Override
+  public String describe() {
+    return "Intersection";
+  }
+}
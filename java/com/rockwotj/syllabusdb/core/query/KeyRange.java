@@ -0,0 +1,52 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A range of values of a single field, where a null bound is unbounded. Like a {@link
+ * com.rockwotj.syllabusdb.core.filter.FieldFilter}, a range only contains values of the same type
+ * as its bounds, which must have the same type.
+ */
+@Immutable
+public record KeyRange(
+    @Nullable Value lower, boolean lowerInclusive, @Nullable Value upper, boolean upperInclusive) {
+  public KeyRange {
+    if (lower != null && upper != null && lower.type() != upper.type()) {
+      throw new IllegalArgumentException(
+          "Range bounds have different types: " + lower + ", " + upper);
+    }
+    if (lower == null && upper == null) {
+      throw new IllegalArgumentException("A range needs at least one bound");
+    }
+  }
+
+  public Value.Type type() {
+    return lower != null ? lower.type() : upper.type();
+  }
+
+  public boolean contains(@Nullable Value value) {
+    if (value == null || value.type() != type()) {
+      return false;
+    }
+    if (lower != null) {
+      int cmp = value.compareTo(lower);
+      if (cmp < 0 || (cmp == 0 && !lowerInclusive)) return false;
+    }
+    if (upper != null) {
+      int cmp = value.compareTo(upper);
+      if (cmp > 0 || (cmp == 0 && !upperInclusive)) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return (lowerInclusive ? "[" : "(")
+        + (lower == null ? "-inf" : lower)
+        + ", "
+        + (upper == null ? "+inf" : upper)
+        + (upperInclusive ? "]" : ")");
+  }
+}
@@ -0,0 +1,21 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * Reads the ids of every document of a collection from their keys, without reading the documents.
+ */
+public record KeyScan(@Nonnull CollectionId collection, double rows, double cost)
+    implements PlanNode {
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of();
+  }
+
+  @Override
+  public String describe() {
+    return "KeyScan " + collection;
+  }
+}
@@ -0,0 +1,18 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** The first `limit` documents of its input. */
+public record Limit(@Nonnull PlanNode input, int limit, double rows, double cost)
+    implements PlanNode {
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of(input);
+  }
+
+  @Override
+  public String describe() {
+    return "Limit " + limit;
+  }
+}
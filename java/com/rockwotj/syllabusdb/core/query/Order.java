@@ -0,0 +1,24 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * The order of a query's results. Documents with equal values are returned in an order that is
+ * deterministic for a given plan, but otherwise unspecified.
+ */
+@Immutable
+public record Order(@Nonnull FieldPath path, @Nonnull Direction direction) {
+  public Order {
+    Objects.requireNonNull(path, "Missing required order path");
+    Objects.requireNonNull(direction, "Missing required order direction");
+  }
+
+  @Override
+  public String toString() {
+    return path + (direction.isAsc() ? " asc" : " desc");
+  }
+}
@@ -0,0 +1,57 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A node of a physical query plan.
+ *
+ * <p>Access paths ({@link IndexScan}, {@link HashLookup}, {@link WildcardScan}, {@link
+ * Intersection}, {@link ZigZagJoin}, {@link KeyScan} and {@link IndexEndpoints}) produce document
+ * ids, which a {@link Fetch} turns into documents. The remaining nodes consume and produce
+ * documents, except for an {@link Aggregate}, which produces groups. An aggregate that only needs
+ * the values of an ordered index's fields reads them from its scan directly, without a fetch.
+ *
+ * <p>Every node carries the planner's estimates: the number of rows it produces, and the total cost
+ * of producing them including its inputs, where reading a single index entry costs 1.
+ */
+public sealed interface PlanNode
+    permits CollectionScan,
+        IndexScan,
+        HashLookup,
+        WildcardScan,
+        Intersection,
+        ZigZagJoin,
+        KeyScan,
+        IndexEndpoints,
+        Fetch,
+        Select,
+        Sort,
+        Limit,
+        Aggregate {
+  double rows();
+
+  double cost();
+
+  List<PlanNode> inputs();
+
+  /** A single line description of this node, without its inputs. */
+  String describe();
+
+  /** A multiline description of the plan rooted at this node, for debugging. */
+  default String explain() {
+    var builder = new StringBuilder();
+    explain(this, 0, builder);
+    return builder.toString();
+  }
+
+  private static void explain(PlanNode node, int depth, StringBuilder builder) {
+    builder
+        .append("  ".repeat(depth))
+        .append(node.describe())
+        .append(String.format(Locale.ROOT, " (rows=%.1f cost=%.1f)%n", node.rows(), node.cost()));
+    for (PlanNode input : node.inputs()) {
+      explain(input, depth + 1, builder);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A query over the documents of a single collection.
+ *
+ * <p>Like a filter, an `order` only matches documents that have the ordered field, so documents
+ * without it are not returned. Without an order, results are in an order that depends on the plan.
+ */
+@Immutable
+public record Query(
+    @Nonnull CollectionId collection, @Nonnull Filter filter, @Nullable Order order, int limit) {
+  public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+  public Query {
+    Objects.requireNonNull(collection, "Missing required query collection");
+    Objects.requireNonNull(filter, "Missing required query filter");
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Invalid query limit: " + limit);
+    }
+  }
+
+  public Query(@Nonnull CollectionId collection, @Nonnull Filter filter) {
+    this(collection, filter, null, NO_LIMIT);
+  }
+
+  public boolean hasLimit() {
+    return limit != NO_LIMIT;
+  }
+}
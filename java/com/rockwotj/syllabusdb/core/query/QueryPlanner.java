@@ -0,0 +1,648 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.stats.IndexStatistics;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Chooses how to execute a query.
+ *
+ * <p>The planner enumerates the candidate plans for a query: a collection scan, an access path for
+ * each usable index (using the longest prefix of its fields the filter constrains), and
+ * intersections of the most selective access paths. Each is costed using the index statistics,
+ * falling back to fixed selectivities for indexes without statistics, and the cheapest is chosen.
+ *
+ * <p>Every plan re-checks the whole filter against the fetched documents, so access paths only need
+ * to return a superset of the matching documents. This keeps hash collisions, multikey entries and
+ * type mismatches from ever producing wrong results. When only some fields of each result are
+ * needed, a plan over an index that has all of them, as keys or included fields, checks the filter
+ * against the values in the index instead and doesn't fetch the documents.
+ */
+@ThreadSafe
+public final class QueryPlanner {
+  @Nonnull private final List<Index> indexes;
+  @Nonnull private final Function<IndexId, IndexStatistics.Snapshot> statistics;
+
+  /**
+   * @param indexes every index in the database, only those that are ready are used.
+   * @param statistics the current statistics of an index, or null if there are none.
+   */
+  public QueryPlanner(
+      @Nonnull List<Index> indexes,
+      @Nonnull Function<IndexId, IndexStatistics.Snapshot> statistics) {
+    this.indexes = List.copyOf(indexes);
+    this.statistics = Objects.requireNonNull(statistics);
+  }
+
+  /** The cheapest plan for `query`. */
+  public PlanNode plan(@Nonnull Query query) {
+    return candidates(query).get(0);
+  }
+
+  /** Every plan considered for `query`, cheapest first. */
+  public List<PlanNode> candidates(@Nonnull Query query) {
+    var context = new Context(query);
+    List<PlanNode> plans = new ArrayList<>();
+    var scan =
+        new CollectionScan(
+            query.collection(),
+            context.collectionSize,
+            Costs.SEEK + context.collectionSize * Costs.SCAN_DOCUMENT);
+    plans.add(finish(context, scan, /* ordered= */ false, /* blocking= */ false));
+    var paths = accessPaths(context);
+    for (AccessPath path : paths) {
+      plans.add(finish(context, fetch(context, path.node), path.ordered, /* blocking= */ false));
+    }
+    for (PlanNode intersection : intersections(context, paths)) {
+      // Only an intersection has to read all of its inputs before producing anything.
+      boolean blocking = intersection instanceof Intersection;
+      plans.add(finish(context, fetch(context, intersection), false, blocking));
+    }
+    plans.sort(Comparator.comparingDouble(PlanNode::cost));
+    return plans;
+  }
+
+  /** The cheapest plan for `query` when only the values at `projection` are needed. */
+  public PlanNode plan(@Nonnull Query query, @Nonnull Collection<FieldPath> projection) {
+    return candidates(query, projection).get(0);
+  }
+
+  /**
+   * Every plan considered for `query` when only the values at `projection` of each result are
+   * needed, rather than the whole documents, cheapest first. Plans that read from an index scan
+   * whose index has every filtered, ordered and projected field don't fetch the documents, so their
+   * results only have those values. Sorting needs the documents, so sorted plans still fetch them.
+   */
+  public List<PlanNode> candidates(
+      @Nonnull Query query, @Nonnull Collection<FieldPath> projection) {
+    var paths = new HashSet<FieldPath>(projection);
+    for (FieldFilter conjunct : query.filter().conjuncts()) {
+      paths.add(conjunct.path());
+    }
+    if (query.order() != null) {
+      paths.add(query.order().path());
+    }
+    List<PlanNode> plans = new ArrayList<>();
+    for (PlanNode plan : candidates(query)) {
+      plans.add(keysOnly(plan, paths));
+    }
+    plans.sort(Comparator.comparingDouble(PlanNode::cost));
+    return plans;
+  }
+
+  /** The cheapest plan for `aggregation`. */
+  public PlanNode plan(@Nonnull AggregateQuery aggregation) {
+    return candidates(aggregation).get(0);
+  }
+
+  /**
+   * Every plan considered for `aggregation`, cheapest first.
+   *
+   * <p>Each plan for the matching documents can be aggregated, and those that produce them in group
+   * order without a sort are aggregated as a stream. On top of those: plans that read from an index
+   * scan skip fetching the documents if the index has every field the aggregation reads, as keys or
+   * included fields, counting every document only reads their keys, and MIN and MAX read the ends
+   * of an index on the field.
+   */
+  public List<PlanNode> candidates(@Nonnull AggregateQuery aggregation) {
+    var collection = aggregation.collection();
+    var filter = aggregation.filter();
+    var groupBy = aggregation.groupBy();
+    var paths = aggregation.paths();
+    List<PlanNode> plans = new ArrayList<>();
+    for (PlanNode plan : candidates(new Query(collection, filter))) {
+      plans.add(aggregate(aggregation, keysOnly(plan, paths), groupBy == null));
+    }
+    if (groupBy != null) {
+      for (Direction direction : Direction.values()) {
+        var query = new Query(collection, filter, new Order(groupBy, direction), Query.NO_LIMIT);
+        for (PlanNode plan : candidates(query)) {
+          if (plan instanceof Sort) continue;
+          plans.add(aggregate(aggregation, keysOnly(plan, paths), true));
+        }
+      }
+    } else if (filter.isAll() && paths.isEmpty()) {
+      var context = new Context(new Query(collection, filter));
+      var size = context.collectionSize;
+      plans.add(aggregate(aggregation, new KeyScan(collection, size, Costs.SEEK + size), true));
+    }
+    if (groupBy == null) {
+      plans.addAll(endpoints(aggregation));
+    }
+    plans.sort(Comparator.comparingDouble(PlanNode::cost));
+    return plans;
+  }
+
+  private static Aggregate aggregate(
+      AggregateQuery aggregation, PlanNode input, boolean streaming) {
+    var groupBy = aggregation.groupBy();
+    var rows = groupBy == null ? 1 : Math.max(1, input.rows() * Costs.EQUALITY_SELECTIVITY);
+    var cost = input.cost() + input.rows() * Costs.AGGREGATE;
+    if (!streaming) {
+      // Finding each row's group in a table of all of them.
+      cost += input.rows() * Costs.COMPARE * Math.max(1, Math.log(rows) / Math.log(2));
+    }
+    return new Aggregate(input, groupBy, aggregation.functions(), streaming, rows, cost);
+  }
+
+  /**
+   * Drop the fetch from a plan that reads the documents of an index scan, if the values at every
+   * one of `paths` can be decoded from the index's entries instead. The filters and limit above the
+   * fetch are kept.
+   */
+  private static PlanNode keysOnly(PlanNode plan, Set<FieldPath> paths) {
+    if (plan instanceof Fetch fetch
+        && fetch.input() instanceof IndexScan scan
+        && decodes(scan.index(), paths)) {
+      return scan;
+    }
+    if (plan instanceof Select select) {
+      var input = keysOnly(select.input(), paths);
+      if (input == select.input()) return plan;
+      var cost = select.cost() - select.input().cost() + input.cost();
+      return new Select(input, select.filter(), select.rows(), cost);
+    }
+    if (plan instanceof Limit limit) {
+      var input = keysOnly(limit.input(), paths);
+      if (input == limit.input()) return plan;
+      // A limit only pays for the part of its input it reads.
+      var cost = limit.cost() * input.cost() / limit.input().cost();
+      return new Limit(input, limit.limit(), limit.rows(), cost);
+    }
+    return plan;
+  }
+
+  /**
+   * If every one of `paths` is a field of `index` with a single value per entry, or one of the
+   * fields it includes.
+   */
+  private static boolean decodes(Index index, Set<FieldPath> paths) {
+    var decoded = new HashSet<FieldPath>(index.included());
+    for (IndexField field : index.fields()) {
+      if (!field.multikey()) decoded.add(field.path());
+    }
+    return decoded.containsAll(paths);
+  }
+
+  /**
+   * Aggregations that are only the MIN and MAX of a single field, and whose filter only has
+   * equalities, read the ends of each index on the equal fields followed by that field.
+   */
+  private List<PlanNode> endpoints(AggregateQuery aggregation) {
+    FieldPath path = null;
+    boolean min = false;
+    boolean max = false;
+    for (AggregateFunction function : aggregation.functions()) {
+      switch (function.kind()) {
+        case MIN -> min = true;
+        case MAX -> max = true;
+        default -> {
+          return List.of();
+        }
+      }
+      if (path != null && !path.equals(function.path())) {
+        return List.of();
+      }
+      path = function.path();
+    }
+    Map<FieldPath, Value> equalities = new HashMap<>();
+    for (FieldFilter conjunct : aggregation.filter().conjuncts()) {
+      if (conjunct.op() != Operator.EQUAL) {
+        return List.of();
+      }
+      var previous = equalities.putIfAbsent(conjunct.path(), conjunct.value());
+      // Conflicting equalities match nothing, which the plans that filter documents handle.
+      if (previous != null && !previous.equals(conjunct.value())) {
+        return List.of();
+      }
+    }
+    List<PlanNode> plans = new ArrayList<>();
+    for (Index index : indexes) {
+      if (!index.collection().equals(aggregation.collection())) continue;
+      if (index.state() != IndexState.READY || index.kind() != IndexKind.ORDERED) continue;
+      if (!index.isUsableFor(aggregation.filter())) continue;
+      // Indexes are sparse, so an index with any other field would miss documents.
+      var fields = index.fields();
+      if (fields.size() != equalities.size() + 1) continue;
+      if (fields.stream().anyMatch(IndexField::multikey)) continue;
+      var field = fields.get(fields.size() - 1);
+      if (!field.path().equals(path)) continue;
+      List<Value> values = new ArrayList<>();
+      for (int i = 0; i < equalities.size(); ++i) {
+        var value = equalities.get(fields.get(i).path());
+        if (value == null) break;
+        values.add(value);
+      }
+      if (values.size() != equalities.size()) continue;
+      boolean asc = field.direction().isAsc();
+      boolean first = asc ? min : max;
+      boolean last = asc ? max : min;
+      int reads = (first ? 1 : 0) + (last ? 1 : 0);
+      var node = new IndexEndpoints(index, values, first, last, reads, reads * Costs.SEEK);
+      plans.add(aggregate(aggregation, node, true));
+    }
+    return plans;
+  }
+
+  /** An access path, the filters it applies, and if it produces documents in the query's order. */
+  private record AccessPath(PlanNode node, Set<FieldFilter> consumed, boolean ordered) {}
+
+  /** What's needed to plan a single query. */
+  private final class Context {
+    private final Query query;
+    // The usable indexes of the query's collection.
+    private final List<Index> usable = new ArrayList<>();
+    private final Map<IndexId, IndexStatistics.Snapshot> snapshots = new LinkedHashMap<>();
+    private final double collectionSize;
+    private final double resultRows;
+    // The paths every result must have a value at.
+    private final Set<FieldPath> required = new HashSet<>();
+
+    private Context(Query query) {
+      this.query = query;
+      long size = -1;
+      for (Index index : indexes) {
+        if (!index.collection().equals(query.collection())) continue;
+        if (index.state() != IndexState.READY) continue;
+        var snapshot = statistics.apply(index.id());
+        if (snapshot != null) {
+          snapshots.put(index.id(), snapshot);
+          if (index.hasEntryPerDocument()) {
+            size = Math.max(size, snapshot.entryCount());
+          }
+        }
+        if (index.isUsableFor(query.filter())) {
+          usable.add(index);
+        }
+      }
+      for (FieldFilter conjunct : query.filter().conjuncts()) {
+        required.add(conjunct.path());
+      }
+      if (query.order() != null) {
+        required.add(query.order().path());
+      }
+      this.collectionSize = size < 0 ? Costs.DEFAULT_COLLECTION_SIZE : Math.max(1, size);
+      double rows = collectionSize;
+      for (FieldFilter conjunct : query.filter().conjuncts()) {
+        rows *= selectivity(conjunct);
+      }
+      this.resultRows = rows;
+    }
+
+    /** The estimated fraction of the collection matching `conjunct`. */
+    private double selectivity(FieldFilter conjunct) {
+      for (Index index : indexes) {
+        var snapshot = snapshots.get(index.id());
+        if (snapshot == null || snapshot.entryCount() == 0 || !index.hasEntryPerDocument())
+          continue;
+        var leading = index.fields().get(0).path();
+        if (!leading.equals(conjunct.path())) continue;
+        if (conjunct.op() == Operator.EQUAL
+            && (index.kind() == IndexKind.ORDERED || index.fields().size() == 1)) {
+          return 1.0 / Math.max(1, snapshot.distinctCount(1));
+        }
+        if (isRange(conjunct) && index.kind() == IndexKind.ORDERED) {
+          return snapshot.selectivity(conjunct.op(), conjunct.value());
+        }
+      }
+      return isRange(conjunct) ? Costs.RANGE_SELECTIVITY : Costs.EQUALITY_SELECTIVITY;
+    }
+
+    @Nullable
+    private IndexStatistics.Snapshot snapshot(Index index) {
+      var snapshot = snapshots.get(index.id());
+      return snapshot == null || snapshot.entryCount() == 0 ? null : snapshot;
+    }
+  }
+
+  private static boolean isRange(FieldFilter conjunct) {
+    return conjunct.op().isLowerBound() || conjunct.op().isUpperBound();
+  }
+
+  private List<AccessPath> accessPaths(Context context) {
+    // The first equality and containment on each path, and all the range filters on each path.
+    Map<FieldPath, FieldFilter> equalities = new LinkedHashMap<>();
+    Map<FieldPath, FieldFilter> containments = new LinkedHashMap<>();
+    Map<FieldPath, List<FieldFilter>> ranges = new LinkedHashMap<>();
+    for (FieldFilter conjunct : context.query.filter().conjuncts()) {
+      if (conjunct.op() == Operator.EQUAL) {
+        equalities.putIfAbsent(conjunct.path(), conjunct);
+      } else if (conjunct.op() == Operator.ARRAY_CONTAINS) {
+        containments.putIfAbsent(conjunct.path(), conjunct);
+      } else {
+        ranges.computeIfAbsent(conjunct.path(), (path) -> new ArrayList<>()).add(conjunct);
+      }
+    }
+    List<AccessPath> paths = new ArrayList<>();
+    for (Index index : context.usable) {
+      switch (index.kind()) {
+        case ORDERED -> {
+          var path = orderedPath(context, index, equalities, containments, ranges);
+          if (path != null) paths.add(path);
+        }
+        case HASH -> {
+          var path = hashPath(context, index, equalities);
+          if (path != null) paths.add(path);
+        }
+        case WILDCARD -> {
+          for (FieldFilter conjunct : context.query.filter().conjuncts()) {
+            if (index.indexesFilter(conjunct)) {
+              paths.add(wildcardPath(context, index, conjunct));
+            }
+          }
+        }
+        case TEXT -> {
+          // Text indexes can't serve field filters.
+        }
+      }
+    }
+    return paths;
+  }
+
+  @Nullable
+  private AccessPath orderedPath(
+      Context context,
+      Index index,
+      Map<FieldPath, FieldFilter> equalities,
+      Map<FieldPath, FieldFilter> containments,
+      Map<FieldPath, List<FieldFilter>> ranges) {
+    var fields = index.fields();
+    // Indexes are sparse, so only documents with every indexed field have entries. That's only all
+    // the matching documents when the query requires each of the fields to exist.
+    for (IndexField field : fields) {
+      if (!context.required.contains(field.path())) {
+        return null;
+      }
+    }
+    var consumed = new HashSet<FieldFilter>();
+    List<Value> values = new ArrayList<>();
+    int k = 0;
+    for (; k < fields.size(); ++k) {
+      var field = fields.get(k);
+      var equality = equalities.get(field.path());
+      if (field.multikey()) {
+        // A multikey field's entries are its elements, which is what a containment matches. They
+        // never equal a whole list, but can equal a value that isn't a list.
+        var containment = containments.get(field.path());
+        if (containment != null) {
+          equality = containment;
+        } else if (equality != null && equality.value().type() == Value.Type.List) {
+          equality = null;
+        }
+      }
+      if (equality == null) {
+        break;
+      }
+      values.add(equality.value());
+      consumed.add(equality);
+    }
+    KeyRange range = null;
+    if (k < fields.size() && !fields.get(k).multikey()) {
+      var bounds = ranges.getOrDefault(fields.get(k).path(), List.of());
+      range = toRange(bounds, consumed);
+    }
+    boolean ordered = providesOrder(context.query.order(), fields, k);
+    if (consumed.isEmpty() && !ordered) {
+      return null;
+    }
+    double rows;
+    var snapshot = context.snapshot(index);
+    if (snapshot != null) {
+      rows = snapshot.entryCount();
+      if (k > 0) {
+        rows /= Math.max(1, snapshot.distinctCount(k));
+      }
+      if (range != null) {
+        rows *= k == 0 ? rangeSelectivity(snapshot, consumed) : Costs.RANGE_SELECTIVITY;
+      }
+    } else {
+      rows =
+          context.collectionSize
+              * Math.pow(Costs.EQUALITY_SELECTIVITY, k)
+              * (range == null ? 1 : Costs.RANGE_SELECTIVITY);
+    }
+    var node = new IndexScan(index, values, range, rows, Costs.SEEK + rows * Costs.ENTRY);
+    return new AccessPath(node, consumed, ordered);
+  }
+
+  /**
+   * If scanning an index whose first `k` fields are fixed by equalities returns documents in
+   * `order`. Either the ordered field is fixed, or it's the next field in the same direction.
+   */
+  private static boolean providesOrder(@Nullable Order order, List<IndexField> fields, int k) {
+    if (order == null) {
+      return false;
+    }
+    // Multikey fields have an entry per element, so don't order the documents.
+    for (int i = 0; i <= k && i < fields.size(); ++i) {
+      if (fields.get(i).multikey()) return false;
+    }
+    for (int i = 0; i < k; ++i) {
+      if (fields.get(i).path().equals(order.path())) return true;
+    }
+    return k < fields.size()
+        && fields.get(k).path().equals(order.path())
+        && fields.get(k).direction() == order.direction();
+  }
+
+  /**
+   * The tightest range of the same type as the first bound, adding the filters it applies to
+   * `consumed`. Bounds of other types can't match anything, which the residual filter handles.
+   */
+  @Nullable
+  private static KeyRange toRange(List<FieldFilter> bounds, Set<FieldFilter> consumed) {
+    if (bounds.isEmpty()) {
+      return null;
+    }
+    var type = bounds.get(0).value().type();
+    FieldFilter lower = null;
+    FieldFilter upper = null;
+    for (FieldFilter bound : bounds) {
+      if (bound.value().type() != type) continue;
+      var op = bound.op();
+      if (op == Operator.GREATER_THAN || op == Operator.GREATER_THAN_OR_EQUAL) {
+        if (lower == null || tighterLower(bound, lower)) lower = bound;
+      } else if (upper == null || tighterUpper(bound, upper)) {
+        upper = bound;
+      }
+    }
+    if (lower != null) consumed.add(lower);
+    if (upper != null) consumed.add(upper);
+    return new KeyRange(
+        lower == null ? null : lower.value(),
+        lower != null && lower.op() == Operator.GREATER_THAN_OR_EQUAL,
+        upper == null ? null : upper.value(),
+        upper != null && upper.op() == Operator.LESS_THAN_OR_EQUAL);
+  }
+
+  private static boolean tighterLower(FieldFilter a, FieldFilter b) {
+    int cmp = a.value().compareTo(b.value());
+    return cmp > 0 || (cmp == 0 && a.op() == Operator.GREATER_THAN);
+  }
+
+  private static boolean tighterUpper(FieldFilter a, FieldFilter b) {
+    int cmp = a.value().compareTo(b.value());
+    return cmp < 0 || (cmp == 0 && a.op() == Operator.LESS_THAN);
+  }
+
+  /** The fraction of the index's entries whose leading field is in the range of `bounds`. */
+  private static double rangeSelectivity(
+      IndexStatistics.Snapshot snapshot, Set<FieldFilter> bounds) {
+    double selectivity = 0;
+    for (FieldFilter bound : bounds) {
+      selectivity += snapshot.selectivity(bound.op(), bound.value());
+    }
+    // With both bounds the values between them are counted twice and the rest once, assuming the
+    // field mostly holds values of a single type.
+    selectivity -= bounds.size() - 1;
+    return Math.max(selectivity, 1.0 / Math.max(1, snapshot.entryCount()));
+  }
+
+  @Nullable
+  private AccessPath hashPath(
+      Context context, Index index, Map<FieldPath, FieldFilter> equalities) {
+    var consumed = new HashSet<FieldFilter>();
+    List<Value> values = new ArrayList<>();
+    for (IndexField field : index.fields()) {
+      var equality = equalities.get(field.path());
+      if (equality == null) {
+        return null;
+      }
+      values.add(equality.value());
+      consumed.add(equality);
+    }
+    var snapshot = context.snapshot(index);
+    double rows =
+        snapshot != null
+            ? (double) snapshot.entryCount()
+                / Math.max(1, snapshot.distinctCount(index.fields().size()))
+            : context.collectionSize * Math.pow(Costs.EQUALITY_SELECTIVITY, values.size());
+    var node = new HashLookup(index, values, rows, Costs.SEEK + rows * Costs.ENTRY);
+    return new AccessPath(node, consumed, false);
+  }
+
+  private AccessPath wildcardPath(Context context, Index index, FieldFilter conjunct) {
+    boolean equality = !isRange(conjunct);
+    var snapshot = context.snapshot(index);
+    double rows;
+    if (snapshot != null) {
+      rows =
+          equality
+              ? (double) snapshot.entryCount() / Math.max(1, snapshot.distinctCount(2))
+              : (double) snapshot.entryCount()
+                  / Math.max(1, snapshot.distinctCount(1))
+                  * Costs.RANGE_SELECTIVITY;
+    } else {
+      rows =
+          context.collectionSize
+              * (equality ? Costs.EQUALITY_SELECTIVITY : Costs.RANGE_SELECTIVITY);
+    }
+    // Matching ids are sorted, since the entries are in value order.
+    var node =
+        new WildcardScan(index, conjunct, rows, Costs.SEEK + rows * Costs.ENTRY + Costs.sort(rows));
+    return new AccessPath(node, Set.of(conjunct), false);
+  }
+
+  /**
+   * Intersections of the most selective access paths that apply different filters, with up to three
+   * inputs, ordered by selectivity. Each input's ids are either sorted and then merged, or if every
+   * input produces ordered ids, zig-zag joined.
+   */
+  private List<PlanNode> intersections(Context context, List<AccessPath> paths) {
+    var candidates = new ArrayList<>(paths);
+    candidates.removeIf((path) -> path.consumed.isEmpty());
+    candidates.sort(Comparator.comparingDouble((AccessPath path) -> path.node.rows()));
+    List<PlanNode> intersections = new ArrayList<>();
+    List<PlanNode> inputs = new ArrayList<>();
+    var consumed = new HashSet<FieldFilter>();
+    double fraction = 1;
+    double cost = 0;
+    for (AccessPath path : candidates) {
+      if (inputs.size() == 3) break;
+      if (path.consumed.stream().anyMatch(consumed::contains)) continue;
+      inputs.add(path.node);
+      consumed.addAll(path.consumed);
+      var rows = path.node.rows();
+      fraction *= Math.min(1, rows / context.collectionSize);
+      cost += path.node.cost() + Costs.sort(rows) + rows * Costs.ENTRY;
+      if (inputs.size() < 2) continue;
+      var estimate = context.collectionSize * fraction;
+      intersections.add(new Intersection(inputs, estimate, cost));
+      if (inputs.stream().allMatch(ZigZagJoin::producesOrderedIds)) {
+        intersections.add(new ZigZagJoin(inputs, estimate, zigZagCost(inputs)));
+      }
+    }
+    return intersections;
+  }
+
+  /**
+   * A zig-zag join positions a cursor in each input, then in the worst case seeks every input once
+   * for each id of the smallest input. Each input's cursor only moves forwards, so those seeks
+   * never cost more than reading every entry of the inputs would.
+   */
+  private static double zigZagCost(List<PlanNode> inputs) {
+    double smallest = Double.MAX_VALUE;
+    double entries = 0;
+    for (PlanNode input : inputs) {
+      smallest = Math.min(smallest, input.rows());
+      entries += input.rows();
+    }
+    double seeks = inputs.size() * (smallest + 1);
+    return inputs.size() * Costs.SEEK + Math.min(seeks * Costs.SEEK, entries * Costs.ENTRY);
+  }
+
+  private static Fetch fetch(Context context, PlanNode ids) {
+    return new Fetch(
+        ids, context.query.collection(), ids.rows(), ids.cost() + ids.rows() * Costs.FETCH);
+  }
+
+  /**
+   * Add the residual filter, sort and limit on top of a plan that produces documents. A `blocking`
+   * plan has to read all of its input before producing anything, so a limit doesn't save any work.
+   */
+  private static PlanNode finish(
+      Context context, PlanNode documents, boolean ordered, boolean blocking) {
+    var query = context.query;
+    PlanNode node = documents;
+    if (!query.filter().isAll()) {
+      var rows = Math.min(node.rows(), context.resultRows);
+      node = new Select(node, query.filter(), rows, node.cost() + node.rows() * Costs.FILTER);
+    }
+    if (query.order() != null && !ordered) {
+      node = new Sort(node, query.order(), node.rows(), node.cost() + Costs.sort(node.rows()));
+      blocking = true;
+    }
+    if (query.hasLimit()) {
+      var rows = Math.min(node.rows(), query.limit());
+      var cost = node.cost();
+      if (!blocking && node.rows() > 0) {
+        // A pipelined plan stops as soon as it has produced enough rows.
+        cost = Math.max(Costs.SEEK, cost * rows / node.rows());
+      }
+      node = new Limit(node, query.limit(), rows, cost);
+    }
+    return node;
+  }
+}
@@ -0,0 +1,19 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** The documents of its input that match `filter`. */
+public record Select(@Nonnull PlanNode input, @Nonnull Filter filter, double rows, double cost)
+    implements PlanNode {
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of(input);
+  }
+
+  @Override
+  public String describe() {
+    return "Select " + filter;
+  }
+}
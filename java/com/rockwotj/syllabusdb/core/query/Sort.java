@@ -0,0 +1,21 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * The documents of its input in `order`, dropping those without the ordered field. This has to read
+ * all of its input before producing anything.
+ */
+public record Sort(@Nonnull PlanNode input, @Nonnull Order order, double rows, double cost)
+    implements PlanNode {
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of(input);
+  }
+
+  @Override
+  public String describe() {
+    return "Sort " + order;
+  }
+}
@@ -0,0 +1,22 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** Reads the entries of a {@link IndexKind#WILDCARD} index matching `filter`. */
+public record WildcardScan(
+    @Nonnull Index index, @Nonnull FieldFilter filter, double rows, double cost)
+    implements PlanNode {
+  @Override
+  public List<PlanNode> inputs() {
+    return List.of();
+  }
+
+  @Override
+  public String describe() {
+    return "WildcardScan " + index.name() + " " + filter;
+  }
+}
@@ -0,0 +1,45 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/**
+ * The document ids produced by every one of its inputs, found by a zig-zag merge join.
+ *
+ * <p>Each input must produce its ids in order, which is when all of an index's values are fixed so
+ * its entries only differ by document id. The join repeatedly seeks each input to the largest id
+ * seen so far, so it skips over the runs of ids that other inputs don't have instead of reading
+ * them, and produces ids in order without buffering.
+ */
+public record ZigZagJoin(@Nonnull List<PlanNode> inputs, double rows, double cost)
+    implements PlanNode {
+  public ZigZagJoin {
+    inputs = List.copyOf(inputs);
+    if (inputs.size() < 2) {
+      throw new IllegalArgumentException("A zig-zag join needs at least two inputs");
+    }
+    for (PlanNode input : inputs) {
+      if (!producesOrderedIds(input)) {
+        throw new IllegalArgumentException(
+            "Input doesn't produce ordered ids: " + input.describe());
+      }
+    }
+  }
+
+  /** If `node` is an access path that produces document ids in order. */
+  public static boolean producesOrderedIds(@Nonnull PlanNode node) {
+    if (node instanceof IndexScan scan) {
+      return scan.range() == null && scan.equalities().size() == scan.index().fields().size();
+    }
+    if (node instanceof WildcardScan scan) {
+      return scan.filter().op() == Operator.EQUAL || scan.filter().op() == Operator.ARRAY_CONTAINS;
+    }
+    return node instanceof HashLookup;
+  }
+
+  @Override
+  public String describe() {
+    return "ZigZagJoin";
+  }
+}
@@ -0,0 +1,313 @@
+package com.rockwotj.syllabusdb.core.query.converter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.ValueAdapter;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.query.AggregateFunction;
+import com.rockwotj.syllabusdb.core.query.AggregateQuery;
+import com.rockwotj.syllabusdb.core.query.Order;
+import com.rockwotj.syllabusdb.core.query.Query;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.annotation.Nonnull;
+
+/**
+ * A converter to/from serialized JSON for a query, such as:
+ *
+ * <pre>{@code
+ * {
+ *   "collection": "users",
+ *   "filter": [{"field": "age", "op": ">=", "value": 18}],
+ *   "order": {"field": "age", "type": "desc"},
+ *   "limit": 10
+ * }
+ * }</pre>
+ *
+ * <p>Only the collection is required. An aggregation has the same collection and filter, and the
+ * functions to compute over each group instead of an order and limit:
+ *
+ * <pre>{@code
+ * {
+ *   "collection": "users",
+ *   "filter": [{"field": "age", "op": ">=", "value": 18}],
+ *   "group": "country",
+ *   "aggregate": [{"op": "count"}, {"op": "max", "field": "age"}]
+ * }
+ * }</pre>
+ */
+public final class QueryConverter {
+  private static final Gson gson;
+
+  static {
+    GsonBuilder builder = new GsonBuilder();
+    builder.registerTypeAdapter(Query.class, new QueryAdapter());
+    builder.registerTypeAdapter(AggregateQuery.class, new AggregateAdapter());
+    gson = builder.create();
+  }
+
+  private QueryConverter() {}
+
+  /**
+   * @throws IllegalArgumentException if the bytes are not a valid query.
+   */
+  public static Query fromBytes(@Nonnull ByteArray bytes) {
+    var reader = new InputStreamReader(bytes.toInputStream(), StandardCharsets.UTF_8);
+    Query query;
+    try {
+      query = gson.fromJson(reader, Query.class);
+    } catch (JsonParseException | IllegalStateException e) {
+      throw new IllegalArgumentException("Invalid query: " + e.getMessage(), e);
+    }
+    if (query == null) {
+      throw new IllegalArgumentException("Missing query");
+    }
+    return query;
+  }
+
+  public static ByteArray toBytes(@Nonnull Query query) {
+    return ByteArray.copyUtf8(gson.toJson(query));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the bytes are not a valid aggregation.
+   */
+  public static AggregateQuery aggregateFromBytes(@Nonnull ByteArray bytes) {
+    var reader = new InputStreamReader(bytes.toInputStream(), StandardCharsets.UTF_8);
+    AggregateQuery aggregation;
+    try {
+      aggregation = gson.fromJson(reader, AggregateQuery.class);
+    } catch (JsonParseException | IllegalStateException e) {
+      throw new IllegalArgumentException("Invalid aggregation: " + e.getMessage(), e);
+    }
+    if (aggregation == null) {
+      throw new IllegalArgumentException("Missing aggregation");
+    }
+    return aggregation;
+  }
+
+  public static ByteArray toBytes(@Nonnull AggregateQuery aggregation) {
+    return ByteArray.copyUtf8(gson.toJson(aggregation));
+  }
+
+  private static void writeFilter(JsonWriter writer, Filter filter, ValueAdapter valueAdapter)
+      throws IOException {
+    writer.name("filter");
+    writer.beginArray();
+    for (FieldFilter conjunct : filter.conjuncts()) {
+      writer.beginObject();
+      writer.name("field").value(conjunct.path().toString());
+      writer.name("op").value(conjunct.op().symbol());
+      writer.name("value");
+      valueAdapter.write(writer, conjunct.value());
+      writer.endObject();
+    }
+    writer.endArray();
+  }
+
+  private static Filter readFilter(JsonReader reader, ValueAdapter valueAdapter)
+      throws IOException {
+    List<FieldFilter> filter = new ArrayList<>();
+    reader.beginArray();
+    while (reader.peek() != JsonToken.END_ARRAY) {
+      reader.beginObject();
+      FieldPath path = null;
+      Operator op = null;
+      Value value = null;
+      while (reader.peek() != JsonToken.END_OBJECT) {
+        var name = reader.nextName();
+        switch (name) {
+          case "field" -> path = FieldPath.parse(reader.nextString());
+          case "op" -> op = Operator.fromSymbol(reader.nextString());
+          case "value" -> value = valueAdapter.read(reader);
+          default -> throw new IllegalArgumentException("Unknown field: " + name);
+        }
+      }
+      reader.endObject();
+      if (path == null) {
+        throw new IllegalArgumentException("Missing required filter field");
+      }
+      if (op == null) {
+        throw new IllegalArgumentException("Missing required filter op for " + path);
+      }
+      if (value == null) {
+        throw new IllegalArgumentException("Missing required filter value for " + path);
+      }
+      filter.add(new FieldFilter(path, op, value));
+    }
+    reader.endArray();
+    return new Filter(filter);
+  }
+
+  private static class QueryAdapter extends TypeAdapter<Query> {
+    private final ValueAdapter valueAdapter = new ValueAdapter();
+
+    @Override
+    public void write(JsonWriter writer, Query query) throws IOException {
+      writer.beginObject();
+      writer.name("collection").value(query.collection().raw());
+      if (!query.filter().isAll()) {
+        writeFilter(writer, query.filter(), valueAdapter);
+      }
+      var order = query.order();
+      if (order != null) {
+        writer.name("order");
+        writer.beginObject();
+        writer.name("field").value(order.path().toString());
+        writer.name("type").value(order.direction().isAsc() ? "asc" : "desc");
+        writer.endObject();
+      }
+      if (query.hasLimit()) {
+        writer.name("limit").value(query.limit());
+      }
+      writer.endObject();
+    }
+
+    @Override
+    public Query read(JsonReader reader) throws IOException {
+      reader.beginObject();
+      CollectionId collection = null;
+      var filter = Filter.ALL;
+      Order order = null;
+      int limit = Query.NO_LIMIT;
+      while (reader.peek() != JsonToken.END_OBJECT) {
+        var name = reader.nextName();
+        switch (name) {
+          case "collection" -> collection = new CollectionId(reader.nextString());
+          case "filter" -> filter = readFilter(reader, valueAdapter);
+          case "order" -> order = readOrder(reader);
+          case "limit" -> limit = reader.nextInt();
+          default -> throw new IllegalArgumentException("Unknown field: " + name);
+        }
+      }
+      reader.endObject();
+      if (collection == null) {
+        throw new IllegalArgumentException("Missing required query collection");
+      }
+      return new Query(collection, filter, order, limit);
+    }
+
+    private Order readOrder(JsonReader reader) throws IOException {
+      reader.beginObject();
+      FieldPath path = null;
+      Direction direction = Direction.ASCENDING;
+      while (reader.peek() != JsonToken.END_OBJECT) {
+        var name = reader.nextName();
+        switch (name) {
+          case "field" -> path = FieldPath.parse(reader.nextString());
+          case "type" -> {
+            name = reader.nextString();
+            direction =
+                switch (name) {
+                  case "asc" -> Direction.ASCENDING;
+                  case "desc" -> Direction.DESCENDING;
+                  default -> throw new IllegalArgumentException("Unknown direction: " + name);
+                };
+          }
+          default -> throw new IllegalArgumentException("Unknown field: " + name);
+        }
+      }
+      reader.endObject();
+      if (path == null) {
+        throw new IllegalArgumentException("Missing required order field");
+      }
+      return new Order(path, direction);
+    }
+  }
+
+  private static class AggregateAdapter extends TypeAdapter<AggregateQuery> {
+    private final ValueAdapter valueAdapter = new ValueAdapter();
+
+    @Override
+    public void write(JsonWriter writer, AggregateQuery aggregation) throws IOException {
+      writer.beginObject();
+      writer.name("collection").value(aggregation.collection().raw());
+      if (!aggregation.filter().isAll()) {
+        writeFilter(writer, aggregation.filter(), valueAdapter);
+      }
+      if (aggregation.groupBy() != null) {
+        writer.name("group").value(aggregation.groupBy().toString());
+      }
+      writer.name("aggregate");
+      writer.beginArray();
+      for (AggregateFunction function : aggregation.functions()) {
+        writer.beginObject();
+        writer.name("op").value(function.kind().name().toLowerCase(Locale.ROOT));
+        if (function.path() != null) {
+          writer.name("field").value(function.path().toString());
+        }
+        writer.endObject();
+      }
+      writer.endArray();
+      writer.endObject();
+    }
+
+    @Override
+    public AggregateQuery read(JsonReader reader) throws IOException {
+      reader.beginObject();
+      CollectionId collection = null;
+      var filter = Filter.ALL;
+      FieldPath groupBy = null;
+      List<AggregateFunction> functions = new ArrayList<>();
+      while (reader.peek() != JsonToken.END_OBJECT) {
+        var name = reader.nextName();
+        switch (name) {
+          case "collection" -> collection = new CollectionId(reader.nextString());
+          case "filter" -> filter = readFilter(reader, valueAdapter);
+          case "group" -> groupBy = FieldPath.parse(reader.nextString());
+          case "aggregate" -> {
+            reader.beginArray();
+            while (reader.peek() != JsonToken.END_ARRAY) {
+              functions.add(readFunction(reader));
+            }
+            reader.endArray();
+          }
+          default -> throw new IllegalArgumentException("Unknown field: " + name);
+        }
+      }
+      reader.endObject();
+      if (collection == null) {
+        throw new IllegalArgumentException("Missing required aggregate collection");
+      }
+      return new AggregateQuery(collection, filter, groupBy, functions);
+    }
+
+    private AggregateFunction readFunction(JsonReader reader) throws IOException {
+      reader.beginObject();
+      AggregateFunction.Kind kind = null;
+      FieldPath path = null;
+      while (reader.peek() != JsonToken.END_OBJECT) {
+        var name = reader.nextName();
+        switch (name) {
+          case "op" -> kind = AggregateFunction.Kind.fromName(reader.nextString());
+          case "field" -> path = FieldPath.parse(reader.nextString());
+          default -> throw new IllegalArgumentException("Unknown field: " + name);
+        }
+      }
+      reader.endObject();
+      if (kind == null) {
+        throw new IllegalArgumentException("Missing required aggregate op");
+      }
+      if (path == null && kind != AggregateFunction.Kind.COUNT) {
+        throw new IllegalArgumentException("Missing required aggregate field for " + kind);
+      }
+      return new AggregateFunction(kind, path);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.query.AggregateFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/** The running value of an {@link AggregateFunction} over the documents of a group. */
+@NotThreadSafe
+final class Accumulator {
+  private final AggregateFunction.Kind kind;
+  private long count = 0;
+  private double sum = 0;
+  @Nullable private Value extreme = null;
+
+  Accumulator(@Nonnull AggregateFunction.Kind kind) {
+    this.kind = kind;
+  }
+
+  /** Add a document's value, which is any value when counting every document. */
+  void add(@Nonnull Value value) {
+    switch (kind) {
+      case COUNT -> ++count;
+      case SUM -> {
+        if (value.type() == Value.Type.Number) sum += value.asDouble();
+      }
+      case MIN -> {
+        if (extreme == null || value.compareTo(extreme) < 0) extreme = value;
+      }
+      case MAX -> {
+        if (extreme == null || value.compareTo(extreme) > 0) extreme = value;
+      }
+    }
+  }
+
+  /** The function's value, or null for MIN and MAX if nothing was added. */
+  @Nullable
+  Value result() {
+    return switch (kind) {
+      case COUNT -> Value.of(count);
+      case SUM -> Value.of(sum);
+      case MIN, MAX -> extreme;
+    };
+  }
+}
@@ -0,0 +1,189 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.query.Aggregate;
+import com.rockwotj.syllabusdb.core.query.AggregateFunction;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * The groups of an executing {@link Aggregate}, read a group at a time.
+ *
+ * <p>A streaming aggregate returns each group as soon as its input moves on to the next one, so
+ * only one group is held at a time. Otherwise the first call reads the whole input into a table of
+ * groups, which are then returned in order of their values.
+ *
+ * <p>Results hold a cursor open on a snapshot of the store until they are closed.
+ */
+@NotThreadSafe
+public final class AggregateResults implements AutoCloseable {
+  /**
+   * A group and the values of the aggregation's functions over it, in the same order.
+   *
+   * @param key the group's value, or null if the aggregation isn't grouped.
+   * @param values the values, where MIN and MAX are null if no document had the field.
+   */
+  public record Group(@Nullable Value key, @Nonnull List<Value> values) {}
+
+  private final BatchOperator root;
+  private final KeyValueStore.Cursor cursor;
+  private final Aggregate aggregate;
+  private final List<AggregateFunction> functions;
+  // The batch being read and the position in it, while streaming.
+  @Nullable private Batch batch = null;
+  private int position = 0;
+  @Nullable private Value currentKey = null;
+  @Nullable private Accumulator[] current = null;
+  @Nullable private Iterator<Map.Entry<Value, Accumulator[]>> table = null;
+  private boolean done = false;
+  private boolean closed = false;
+
+  AggregateResults(
+      @Nonnull BatchOperator root, @Nonnull KeyValueStore.Cursor cursor, @Nonnull Aggregate plan) {
+    this.root = root;
+    this.cursor = cursor;
+    this.aggregate = plan;
+    this.functions = plan.functions();
+  }
+
+  /** The next group, or null once there are no more. */
+  @Nullable
+  public Group next() {
+    if (closed) {
+      throw new IllegalStateException("Aggregate results are closed");
+    }
+    if (done) {
+      return null;
+    }
+    if (aggregate.groupBy() == null) {
+      done = true;
+      var accumulators = accumulators();
+      for (var next = root.next(); next != null; next = root.next()) {
+        var columns = columns(next);
+        for (int i = 0; i < next.size(); ++i) {
+          add(accumulators, columns, next.selection[i]);
+        }
+      }
+      return group(null, accumulators);
+    }
+    return aggregate.streaming() ? nextStreamed() : nextHashed();
+  }
+
+  @Nullable
+  private Group nextStreamed() {
+    var groupBy = aggregate.groupBy();
+    while (true) {
+      if (batch == null || position == batch.size()) {
+        batch = root.next();
+        position = 0;
+        if (batch == null) {
+          done = true;
+          return current == null ? null : group(currentKey, current);
+        }
+      }
+      var keys = batch.materialize(groupBy);
+      var columns = columns(batch);
+      for (; position < batch.size(); ++position) {
+        int row = batch.selection[position];
+        var key = keys.get(row);
+        if (key == null) continue;
+        if (current != null && !key.equals(currentKey)) {
+          var group = group(currentKey, current);
+          currentKey = null;
+          current = null;
+          return group;
+        }
+        if (current == null) {
+          currentKey = key;
+          current = accumulators();
+        }
+        add(current, columns, row);
+      }
+    }
+  }
+
+  @Nullable
+  private Group nextHashed() {
+    if (table == null) {
+      var groups = new TreeMap<Value, Accumulator[]>();
+      var groupBy = aggregate.groupBy();
+      for (var next = root.next(); next != null; next = root.next()) {
+        var keys = next.materialize(groupBy);
+        var columns = columns(next);
+        for (int i = 0; i < next.size(); ++i) {
+          int row = next.selection[i];
+          var key = keys.get(row);
+          if (key == null) continue;
+          add(groups.computeIfAbsent(key, (unused) -> accumulators()), columns, row);
+        }
+      }
+      table = groups.entrySet().iterator();
+    }
+    if (!table.hasNext()) {
+      done = true;
+      return null;
+    }
+    var entry = table.next();
+    return group(entry.getKey(), entry.getValue());
+  }
+
+  private Accumulator[] accumulators() {
+    var accumulators = new Accumulator[functions.size()];
+    for (int i = 0; i < accumulators.length; ++i) {
+      accumulators[i] = new Accumulator(functions.get(i).kind());
+    }
+    return accumulators;
+  }
+
+  /** The column of each function's values, or null for a function of every document. */
+  private Column[] columns(Batch batch) {
+    var columns = new Column[functions.size()];
+    for (int i = 0; i < columns.length; ++i) {
+      var path = functions.get(i).path();
+      columns[i] = path == null ? null : batch.materialize(path);
+    }
+    return columns;
+  }
+
+  private static void add(Accumulator[] accumulators, Column[] columns, int row) {
+    for (int i = 0; i < accumulators.length; ++i) {
+      if (columns[i] == null) {
+        accumulators[i].add(Value.NULL);
+        continue;
+      }
+      var value = columns[i].get(row);
+      if (value != null) {
+        accumulators[i].add(value);
+      }
+    }
+  }
+
+  private static Group group(@Nullable Value key, Accumulator[] accumulators) {
+    var values = new Value[accumulators.length];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = accumulators[i].result();
+    }
+    return new Group(key, Collections.unmodifiableList(Arrays.asList(values)));
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      root.close();
+    } finally {
+      cursor.close();
+    }
+  }
+}
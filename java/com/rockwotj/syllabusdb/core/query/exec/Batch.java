@@ -0,0 +1,195 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A batch of rows passed between the operators of a query, where each row is a document.
+ *
+ * <p>Every row has the key it was read from and its document's id. Rows produced by an index also
+ * have a {@link Column} for each of the index's fields decoded from the key, and rows get their
+ * document once it has been fetched. Rows are removed by narrowing a selection vector instead of
+ * copying the survivors, and the arrays are reused for every batch an operator produces.
+ *
+ * <p>Only the selected rows are visible outside of the executor, where the `i`th row is the `i`th
+ * selected one.
+ */
+@NotThreadSafe
+public final class Batch {
+  private final int capacity;
+  private final ByteArray[] keys;
+  private final DocId[] ids;
+  private final Document[] documents;
+  private final Map<FieldPath, Column> columns = new HashMap<>();
+  // The columns that have been filled for the current rows.
+  private final Map<FieldPath, Column> filled = new HashMap<>();
+
+  // The number of rows, and the indexes of the selected ones in order.
+  private int rows = 0;
+  final int[] selection;
+  int selected = 0;
+
+  Batch(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Invalid batch capacity: " + capacity);
+    }
+    this.capacity = capacity;
+    this.keys = new ByteArray[capacity];
+    this.ids = new DocId[capacity];
+    this.documents = new Document[capacity];
+    this.selection = new int[capacity];
+  }
+
+  /** The number of selected rows. */
+  public int size() {
+    return selected;
+  }
+
+  public boolean isEmpty() {
+    return selected == 0;
+  }
+
+  /**
+   * The key the row was read from, which is the index entry's key for rows read from an index, the
+   * encoded value and id for sorted rows, and otherwise the document's key. Keys always increase
+   * along a query's results, so a query can be resumed after one, see {@link Continuation}.
+   */
+  @Nonnull
+  public ByteArray key(int i) {
+    return keys[row(i)];
+  }
+
+  @Nonnull
+  public DocId id(int i) {
+    return ids[row(i)];
+  }
+
+  /** The row's document, or null if it hasn't been fetched. */
+  @Nullable
+  public Document document(int i) {
+    return documents[row(i)];
+  }
+
+  /**
+   * The row's value at `path`, or null if the document doesn't have it.
+   *
+   * @throws IllegalStateException if `path` wasn't projected.
+   */
+  @Nullable
+  public Value value(@Nonnull FieldPath path, int i) {
+    var column = filled.get(path);
+    if (column == null) {
+      throw new IllegalStateException("Field " + path + " is not in the batch");
+    }
+    return column.get(row(i));
+  }
+
+  private int row(int i) {
+    if (i < 0 || i >= selected) {
+      throw new IndexOutOfBoundsException("Row " + i + " of " + selected);
+    }
+    return selection[i];
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  boolean isFull() {
+    return rows == capacity;
+  }
+
+  void clear() {
+    // Drop references to the previous rows, so they can be collected.
+    for (int i = 0; i < rows; ++i) {
+      keys[i] = null;
+      ids[i] = null;
+      documents[i] = null;
+    }
+    rows = 0;
+    selected = 0;
+    filled.clear();
+  }
+
+  /** Add a selected row, returning its index. */
+  int add(@Nonnull ByteArray key, @Nonnull DocId id, @Nullable Document document) {
+    int row = rows++;
+    keys[row] = key;
+    ids[row] = id;
+    documents[row] = document;
+    selection[selected++] = row;
+    return row;
+  }
+
+  /** Add rows for the next ids in `ids` until the batch is full, with their document keys. */
+  void addAll(@Nonnull Iterator<DocId> ids, @Nonnull CollectionId collection) {
+    while (!isFull() && ids.hasNext()) {
+      var id = ids.next();
+      add(DocumentKeys.encode(new Path(collection, id)), id, null);
+    }
+  }
+
+  ByteArray rowKey(int row) {
+    return keys[row];
+  }
+
+  DocId rowId(int row) {
+    return ids[row];
+  }
+
+  @Nullable
+  Document rowDocument(int row) {
+    return documents[row];
+  }
+
+  void setDocument(int row, @Nonnull Document document) {
+    documents[row] = document;
+  }
+
+  /** The column for `path` if it's been filled for the current rows. */
+  @Nullable
+  Column column(@Nonnull FieldPath path) {
+    return filled.get(path);
+  }
+
+  /** A column for `path`, which the caller must fill for every row. */
+  Column fill(@Nonnull FieldPath path) {
+    var column = columns.computeIfAbsent(path, (unused) -> new Column(capacity));
+    filled.put(path, column);
+    return column;
+  }
+
+  /**
+   * The column for `path`, filling it from the selected rows' documents if needed.
+   *
+   * @throws IllegalStateException if the documents haven't been fetched.
+   */
+  Column materialize(@Nonnull FieldPath path) {
+    var column = filled.get(path);
+    if (column != null) {
+      return column;
+    }
+    column = fill(path);
+    for (int i = 0; i < selected; ++i) {
+      int row = selection[i];
+      var document = documents[row];
+      if (document == null) {
+        throw new IllegalStateException("Field " + path + " needs documents to be fetched");
+      }
+      column.set(row, document.get(path));
+    }
+    return column;
+  }
+}
@@ -0,0 +1,22 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import javax.annotation.Nullable;
+
+/**
+ * An operator of an executing query, which produces its results a batch at a time.
+ *
+ * <p>Operators over the store share a single cursor, so every batch is read from the same snapshot.
+ * An operator doesn't rely on where the cursor was left between calls, it remembers the last key it
+ * read and seeks back past it, which costs one seek per batch instead of one per row.
+ */
+interface BatchOperator extends AutoCloseable {
+  /**
+   * The next non-empty batch, or null once there are no more. The batch is only valid until the
+   * next call, and the caller may narrow its selection or add columns to it.
+   */
+  @Nullable
+  Batch next();
+
+  @Override
+  default void close() {}
+}
@@ -0,0 +1,54 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/** Reads every document of a collection in id order. */
+@NotThreadSafe
+final class CollectionScanOperator implements BatchOperator {
+  private final KeyValueStore.Cursor cursor;
+  private final ByteArray prefix;
+  private final Batch batch;
+  @Nullable private ByteArray resumeAfter;
+  private boolean done = false;
+
+  /**
+   * @param resumeAfter the key of a document to start after, or null to start at the beginning.
+   */
+  CollectionScanOperator(
+      @Nonnull KeyValueStore.Cursor cursor,
+      @Nonnull CollectionId collection,
+      int batchSize,
+      @Nullable ByteArray resumeAfter) {
+    this.cursor = cursor;
+    this.prefix = DocumentKeys.encodePrefix(collection);
+    this.batch = new Batch(batchSize);
+    this.resumeAfter = Cursors.checkResumeAfter(prefix, resumeAfter);
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (done) {
+      return null;
+    }
+    batch.clear();
+    Cursors.seekAfter(cursor, prefix, resumeAfter);
+    for (; !batch.isFull() && Cursors.hasPrefix(cursor, prefix); cursor.next()) {
+      var document = DocConverter.fromBytes(cursor.value());
+      batch.add(cursor.key(), document.id(), document);
+    }
+    done = !Cursors.hasPrefix(cursor, prefix);
+    if (batch.isEmpty()) {
+      return null;
+    }
+    resumeAfter = batch.key(batch.size() - 1);
+    return batch;
+  }
+}
@@ -0,0 +1,154 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.util.compare.TotalOrderDoubleComparator;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * The values of a single field for every row of a {@link Batch}.
+ *
+ * <p>Each row's type is stored in a byte array, and numbers and booleans are also stored unboxed in
+ * a double array, so filters over them are tight loops over primitive arrays that never touch the
+ * values themselves.
+ */
+@NotThreadSafe
+final class Column {
+  /** The type of a row that doesn't have the field. */
+  static final byte MISSING = -1;
+
+  private final byte[] types;
+  private final double[] numbers;
+  private final Value[] values;
+
+  Column(int capacity) {
+    this.types = new byte[capacity];
+    this.numbers = new double[capacity];
+    this.values = new Value[capacity];
+  }
+
+  void set(int row, @Nullable Value value) {
+    values[row] = value;
+    if (value == null) {
+      types[row] = MISSING;
+      return;
+    }
+    types[row] = (byte) value.type().ordinal();
+    switch (value.type()) {
+      case Number -> numbers[row] = value.asDouble();
+      case Boolean -> numbers[row] = value.asBoolean() ? 1 : 0;
+      default -> {
+        // Only compared as values.
+      }
+    }
+  }
+
+  @Nullable
+  Value get(int row) {
+    return values[row];
+  }
+
+  /**
+   * Narrow `selection`, the first `selected` of which are the rows that are still selected, to the
+   * rows matching `filter`. Returns how many rows are still selected, which are moved to the front
+   * of `selection` in the same order.
+   */
+  int select(@Nonnull FieldFilter filter, @Nonnull int[] selection, int selected) {
+    // A comparison matches when its sign is within [min, max], which avoids switching on the
+    // operator for every row.
+    if (filter.op() == Operator.ARRAY_CONTAINS) {
+      return selectContaining(filter, selection, selected);
+    }
+    int min;
+    int max;
+    switch (filter.op()) {
+      case EQUAL -> {
+        min = 0;
+        max = 0;
+      }
+      case LESS_THAN -> {
+        min = -1;
+        max = -1;
+      }
+      case LESS_THAN_OR_EQUAL -> {
+        min = -1;
+        max = 0;
+      }
+      case GREATER_THAN -> {
+        min = 1;
+        max = 1;
+      }
+      case GREATER_THAN_OR_EQUAL -> {
+        min = 0;
+        max = 1;
+      }
+      default -> throw new IllegalArgumentException("Unknown operator: " + filter.op());
+    }
+    var constant = filter.value();
+    var type = (byte) constant.type().ordinal();
+    return switch (constant.type()) {
+      case Null -> selectType(type, min <= 0 && max >= 0, selection, selected);
+      case Boolean -> selectNumbers(
+          type, constant.asBoolean() ? 1 : 0, min, max, selection, selected);
+      case Number -> selectNumbers(type, constant.asDouble(), min, max, selection, selected);
+      case String, List, Object -> selectValues(type, constant, min, max, selection, selected);
+    };
+  }
+
+  private int selectContaining(FieldFilter filter, int[] selection, int selected) {
+    var list = (byte) Value.Type.List.ordinal();
+    int kept = 0;
+    for (int i = 0; i < selected; ++i) {
+      int row = selection[i];
+      if (types[row] == list && filter.matches(values[row])) {
+        selection[kept++] = row;
+      }
+    }
+    return kept;
+  }
+
+  private int selectType(byte type, boolean matches, int[] selection, int selected) {
+    if (!matches) {
+      return 0;
+    }
+    int kept = 0;
+    for (int i = 0; i < selected; ++i) {
+      int row = selection[i];
+      if (types[row] == type) {
+        selection[kept++] = row;
+      }
+    }
+    return kept;
+  }
+
+  private int selectNumbers(
+      byte type, double constant, int min, int max, int[] selection, int selected) {
+    var comparator = TotalOrderDoubleComparator.INSTANCE;
+    int kept = 0;
+    for (int i = 0; i < selected; ++i) {
+      int row = selection[i];
+      int cmp = Integer.signum(comparator.compareDouble(numbers[row], constant));
+      if (types[row] == type && cmp >= min && cmp <= max) {
+        selection[kept++] = row;
+      }
+    }
+    return kept;
+  }
+
+  private int selectValues(
+      byte type, Value constant, int min, int max, int[] selection, int selected) {
+    int kept = 0;
+    for (int i = 0; i < selected; ++i) {
+      int row = selection[i];
+      if (types[row] != type) continue;
+      int cmp = Integer.signum(values[row].compareTo(constant));
+      if (cmp >= min && cmp <= max) {
+        selection[kept++] = row;
+      }
+    }
+    return kept;
+  }
+}
@@ -0,0 +1,83 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.google.common.hash.Hashing;
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.query.Limit;
+import com.rockwotj.syllabusdb.core.query.PlanNode;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Where a query's results stopped, so a later execution of the same plan can seek straight past it
+ * instead of reading and skipping everything before it.
+ *
+ * <p>It's the {@link Batch#key key} of the last row returned, which always increases along a plan's
+ * results, and a fingerprint of the plan, since a key is only meaningful to the plan that produced
+ * it.
+ *
+ * @param plan the {@link #fingerprint} of the plan.
+ */
+@Immutable
+public record Continuation(long plan, @Nonnull ByteArray key) {
+  private static final byte VERSION = 1;
+
+  public Continuation {
+    Objects.requireNonNull(key, "Missing required continuation key");
+  }
+
+  /**
+   * A fingerprint of the plan's nodes and their arguments, ignoring the planner's estimates. Limits
+   * are ignored too, as they don't change where any row is, so pages can have different sizes.
+   */
+  public static long fingerprint(@Nonnull PlanNode plan) {
+    var builder = new StringBuilder();
+    describe(plan, builder);
+    return Hashing.farmHashFingerprint64().hashString(builder, StandardCharsets.UTF_8).asLong();
+  }
+
+  private static void describe(PlanNode node, StringBuilder builder) {
+    if (node instanceof Limit limit) {
+      describe(limit.input(), builder);
+      return;
+    }
+    builder.append(node.describe()).append('(');
+    for (PlanNode input : node.inputs()) {
+      describe(input, builder);
+    }
+    builder.append(')');
+  }
+
+  public ByteArray toBytes() {
+    var output = ByteArray.newOutput(key.length() + 16);
+    try (var out = new DataOutputStream(output)) {
+      out.writeByte(VERSION);
+      out.writeLong(plan);
+      key.writeTo(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return output.toByteArray();
+  }
+
+  /**
+   * @throws IllegalArgumentException if the bytes are not a continuation.
+   */
+  public static Continuation fromBytes(@Nonnull ByteArray bytes) {
+    try (var in = new DataInputStream(bytes.toInputStream())) {
+      var version = in.readByte();
+      if (version != VERSION) {
+        throw new IllegalArgumentException("Unknown continuation version: " + version);
+      }
+      var plan = in.readLong();
+      return new Continuation(plan, ByteArray.wrap(in.readAllBytes()));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid continuation: " + bytes, e);
+    }
+  }
+}
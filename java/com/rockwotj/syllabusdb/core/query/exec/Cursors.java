@@ -0,0 +1,70 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/** Helpers for operators resuming a scan on a shared cursor. */
+final class Cursors {
+  private Cursors() {}
+
+  /** Position `cursor` at `start`, or just after `resumeAfter` if a previous batch ended there. */
+  static void seekAfter(
+      @Nonnull KeyValueStore.Cursor cursor,
+      @Nonnull ByteArray start,
+      @Nullable ByteArray resumeAfter) {
+    if (resumeAfter == null) {
+      cursor.seek(start);
+      return;
+    }
+    cursor.seek(resumeAfter);
+    if (cursor.valid() && cursor.key().equals(resumeAfter)) {
+      cursor.next();
+    }
+  }
+
+  /**
+   * Check that `resumeAfter`, from a {@link Continuation}, is a key from the scan of `prefix`.
+   *
+   * @throws IllegalArgumentException if it isn't.
+   */
+  @Nullable
+  static ByteArray checkResumeAfter(@Nonnull ByteArray prefix, @Nullable ByteArray resumeAfter) {
+    if (resumeAfter != null && !resumeAfter.startsWith(prefix)) {
+      throw new IllegalArgumentException("Cannot resume a scan after " + resumeAfter);
+    }
+    return resumeAfter;
+  }
+
+  /**
+   * Position `cursor` at the last key starting with `prefix`, or somewhere without the prefix if
+   * there isn't one.
+   */
+  static void seekToLast(@Nonnull KeyValueStore.Cursor cursor, @Nonnull ByteArray prefix) {
+    // The first key after every key with the prefix increments its last byte that isn't 0xFF.
+    int end = prefix.length();
+    while (end > 0 && prefix.get(end - 1) == (byte) 0xFF) {
+      --end;
+    }
+    if (end == 0) {
+      cursor.seekToEnd();
+      return;
+    }
+    var output = ByteArray.newOutput(end);
+    for (int i = 0; i < end - 1; ++i) {
+      output.write(prefix.get(i));
+    }
+    output.write(prefix.get(end - 1) + 1);
+    cursor.seek(output.toByteArray());
+    if (cursor.valid()) {
+      cursor.previous();
+    } else {
+      cursor.seekToEnd();
+    }
+  }
+
+  static boolean hasPrefix(@Nonnull KeyValueStore.Cursor cursor, @Nonnull ByteArray prefix) {
+    return cursor.valid() && cursor.key().startsWith(prefix);
+  }
+}
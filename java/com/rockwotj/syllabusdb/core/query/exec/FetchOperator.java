@@ -0,0 +1,57 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Adds the document to each row of its input, in place. Rows whose document doesn't exist are
+ * removed, which can't happen for ids read from an index in the same snapshot, but keeps the
+ * executor from trusting an inconsistent index.
+ */
+@NotThreadSafe
+final class FetchOperator implements BatchOperator {
+  private final KeyValueStore.Cursor cursor;
+  private final BatchOperator input;
+  private final CollectionId collection;
+
+  FetchOperator(
+      @Nonnull KeyValueStore.Cursor cursor,
+      @Nonnull BatchOperator input,
+      @Nonnull CollectionId collection) {
+    this.cursor = cursor;
+    this.input = input;
+    this.collection = collection;
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    for (var batch = input.next(); batch != null; batch = input.next()) {
+      int kept = 0;
+      for (int i = 0; i < batch.selected; ++i) {
+        int row = batch.selection[i];
+        var key = DocumentKeys.encode(new Path(collection, batch.rowId(row)));
+        cursor.seek(key);
+        if (!cursor.valid() || !cursor.key().equals(key)) continue;
+        batch.setDocument(row, DocConverter.fromBytes(cursor.value()));
+        batch.selection[kept++] = row;
+      }
+      batch.selected = kept;
+      if (!batch.isEmpty()) {
+        return batch;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() {
+    input.close();
+  }
+}
@@ -0,0 +1,46 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Removes the rows of its input that don't match a filter, in place.
+ *
+ * <p>Each conjunct is applied to a whole column at a time, narrowing the selection before the next
+ * one, using the columns decoded from an index where there are any and otherwise extracting them
+ * from the documents.
+ */
+@NotThreadSafe
+final class FilterOperator implements BatchOperator {
+  private final BatchOperator input;
+  private final Filter filter;
+
+  FilterOperator(@Nonnull BatchOperator input, @Nonnull Filter filter) {
+    this.input = input;
+    this.filter = filter;
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    for (var batch = input.next(); batch != null; batch = input.next()) {
+      for (FieldFilter conjunct : filter.conjuncts()) {
+        var column = batch.materialize(conjunct.path());
+        batch.selected = column.select(conjunct, batch.selection, batch.selected);
+        if (batch.isEmpty()) break;
+      }
+      if (!batch.isEmpty()) {
+        return batch;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() {
+    input.close();
+  }
+}
@@ -0,0 +1,58 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.query.HashLookup;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Reads the ids of the documents whose values have the same fingerprint as a {@link HashLookup}'s,
+ * in id order. Collisions are removed by the filter applied to the fetched documents.
+ */
+@NotThreadSafe
+final class HashLookupOperator implements BatchOperator {
+  private final KeyValueStore.Cursor cursor;
+  private final IndexEntryDecoder decoder;
+  private final ByteArray prefix;
+  private final Batch batch;
+  @Nullable private ByteArray resumeAfter;
+  private boolean done = false;
+
+  /**
+   * @param resumeAfter the key of an entry to start after, or null to start at the beginning.
+   */
+  HashLookupOperator(
+      @Nonnull KeyValueStore.Cursor cursor,
+      @Nonnull HashLookup lookup,
+      int batchSize,
+      @Nullable ByteArray resumeAfter) {
+    this.cursor = cursor;
+    this.decoder = new IndexEntryDecoder(lookup.index());
+    this.prefix = new IndexEntryEncoder().encodeHashPrefix(lookup.index().id(), lookup.values());
+    this.batch = new Batch(batchSize);
+    this.resumeAfter = Cursors.checkResumeAfter(prefix, resumeAfter);
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (done) {
+      return null;
+    }
+    batch.clear();
+    Cursors.seekAfter(cursor, prefix, resumeAfter);
+    for (; !batch.isFull() && Cursors.hasPrefix(cursor, prefix); cursor.next()) {
+      batch.add(cursor.key(), decoder.decodeDocId(cursor.key()), null);
+    }
+    done = !Cursors.hasPrefix(cursor, prefix);
+    if (batch.isEmpty()) {
+      return null;
+    }
+    resumeAfter = batch.key(batch.size() - 1);
+    return batch;
+  }
+}
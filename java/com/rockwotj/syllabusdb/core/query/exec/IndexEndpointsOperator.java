@@ -0,0 +1,79 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.core.query.IndexEndpoints;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Reads the first and/or last entries of an {@link IndexEndpoints}, with a seek for each, and
+ * decodes their fields into columns.
+ */
+@NotThreadSafe
+final class IndexEndpointsOperator implements BatchOperator {
+  private final KeyValueStore.Cursor cursor;
+  private final IndexEndpoints endpoints;
+  private final IndexEntryDecoder decoder;
+  private final ByteArray prefix;
+  // At most two rows, whatever the executor's batch size.
+  private final Batch batch = new Batch(2);
+  private boolean done = false;
+
+  IndexEndpointsOperator(@Nonnull KeyValueStore.Cursor cursor, @Nonnull IndexEndpoints endpoints) {
+    this.cursor = cursor;
+    this.endpoints = endpoints;
+    var index = endpoints.index();
+    this.decoder = new IndexEntryDecoder(index);
+    List<IndexValue> values = new ArrayList<>();
+    for (int i = 0; i < endpoints.equalities().size(); ++i) {
+      values.add(new IndexValue(endpoints.equalities().get(i), index.fields().get(i).direction()));
+    }
+    this.prefix = new IndexEntryEncoder().encodeValuesPrefix(index.id(), values);
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (done) {
+      return null;
+    }
+    done = true;
+    batch.clear();
+    var fields = endpoints.index().fields();
+    var columns = new Column[fields.size()];
+    for (int i = 0; i < columns.length; ++i) {
+      columns[i] = batch.fill(fields.get(i).path());
+    }
+    ByteArray first = null;
+    if (endpoints.first()) {
+      cursor.seek(prefix);
+      if (Cursors.hasPrefix(cursor, prefix)) {
+        first = cursor.key();
+        add(columns);
+      }
+    }
+    if (endpoints.last()) {
+      Cursors.seekToLast(cursor, prefix);
+      // With a single entry, it's both the first and the last.
+      if (Cursors.hasPrefix(cursor, prefix) && !cursor.key().equals(first)) {
+        add(columns);
+      }
+    }
+    return batch.isEmpty() ? null : batch;
+  }
+
+  private void add(Column[] columns) {
+    var entry = decoder.decode(cursor.key(), cursor.value());
+    int row = batch.add(cursor.key(), entry.docId(), null);
+    for (int i = 0; i < columns.length; ++i) {
+      columns[i].set(row, entry.values().get(i).value());
+    }
+  }
+}
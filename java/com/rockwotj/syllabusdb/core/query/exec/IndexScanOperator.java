@@ -0,0 +1,183 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.core.query.IndexScan;
+import com.rockwotj.syllabusdb.core.query.KeyRange;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Reads the entries of an ordered index for an {@link IndexScan} in index order.
+ *
+ * <p>The values of each non-multikey field, and of each included field from the entry's projection,
+ * are decoded into a column, so filters on them can run before the documents are fetched, or
+ * without fetching them at all. A multikey field that isn't fixed by an equality has an entry per
+ * element, so those documents are only returned for their first entry. That can't be resumed after
+ * a key, since a document's first entry may have been before it, see {@link #hasDuplicates}.
+ */
+@NotThreadSafe
+final class IndexScanOperator implements BatchOperator {
+  private final KeyValueStore.Cursor cursor;
+  private final IndexScan scan;
+  private final IndexEntryDecoder decoder;
+  private final ByteArray prefix;
+  private final ByteArray start;
+  private final Batch batch;
+  // The fields decoded into columns, by position in the index.
+  private final List<Integer> columns = new ArrayList<>();
+  // The included fields decoded into columns, which aren't also fields of the index.
+  private final List<FieldPath> included = new ArrayList<>();
+  @Nullable private final Set<DocId> seen;
+  @Nullable private ByteArray resumeAfter;
+  private boolean done = false;
+
+  /**
+   * @param resumeAfter the key of an entry to start after, or null to start at the beginning.
+   */
+  IndexScanOperator(
+      @Nonnull KeyValueStore.Cursor cursor,
+      @Nonnull IndexScan scan,
+      int batchSize,
+      @Nullable ByteArray resumeAfter) {
+    if (resumeAfter != null && hasDuplicates(scan)) {
+      throw new IllegalArgumentException(
+          "Cannot resume a scan with duplicates: " + scan.describe());
+    }
+    this.cursor = cursor;
+    this.scan = scan;
+    var index = scan.index();
+    this.decoder = new IndexEntryDecoder(index);
+    var fields = index.fields();
+    List<IndexValue> values = new ArrayList<>();
+    for (int i = 0; i < scan.equalities().size(); ++i) {
+      values.add(new IndexValue(scan.equalities().get(i), fields.get(i).direction()));
+    }
+    var encoder = new IndexEntryEncoder();
+    this.prefix = encoder.encodeValuesPrefix(index.id(), values);
+    var range = scan.range();
+    if (range != null) {
+      // Start at the bound that comes first in the index's order, if there is one.
+      var direction = fields.get(values.size()).direction();
+      var first = direction.isAsc() ? range.lower() : range.upper();
+      if (first != null) {
+        values.add(new IndexValue(first, direction));
+      }
+    }
+    this.start = encoder.encodeValuesPrefix(index.id(), values);
+    this.batch = new Batch(batchSize);
+    this.resumeAfter = Cursors.checkResumeAfter(prefix, resumeAfter);
+    var paths = new HashSet<FieldPath>();
+    for (int i = 0; i < fields.size(); ++i) {
+      paths.add(fields.get(i).path());
+      if (!fields.get(i).multikey()) {
+        columns.add(i);
+      }
+    }
+    for (FieldPath path : index.included()) {
+      if (paths.add(path)) {
+        included.add(path);
+      }
+    }
+    this.seen = hasDuplicates(scan) ? new HashSet<>() : null;
+  }
+
+  /** If the scan can read more than one entry for a document. */
+  static boolean hasDuplicates(@Nonnull IndexScan scan) {
+    var fields = scan.index().fields();
+    for (int i = scan.equalities().size(); i < fields.size(); ++i) {
+      if (fields.get(i).multikey()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (done) {
+      return null;
+    }
+    batch.clear();
+    Cursors.seekAfter(cursor, start, resumeAfter);
+    var fields = scan.index().fields();
+    var filled = new Column[columns.size()];
+    for (int i = 0; i < filled.length; ++i) {
+      filled[i] = batch.fill(fields.get(columns.get(i)).path());
+    }
+    var projected = new Column[included.size()];
+    for (int i = 0; i < projected.length; ++i) {
+      projected[i] = batch.fill(included.get(i));
+    }
+    int position = scan.equalities().size();
+    for (; !batch.isFull() && Cursors.hasPrefix(cursor, prefix); cursor.next()) {
+      var entry = decoder.decode(cursor.key(), cursor.value());
+      var range = scan.range();
+      if (range != null) {
+        var value = entry.values().get(position).value();
+        if (isPastEnd(range, fields.get(position), value)) {
+          done = true;
+          break;
+        }
+        if (!range.contains(value)) continue;
+      }
+      if (seen != null && !seen.add(entry.docId())) continue;
+      int row = batch.add(cursor.key(), entry.docId(), null);
+      for (int i = 0; i < filled.length; ++i) {
+        filled[i].set(row, entry.values().get(columns.get(i)).value());
+      }
+      for (int i = 0; i < projected.length; ++i) {
+        projected[i].set(row, valueAt(entry.projection(), included.get(i)));
+      }
+    }
+    done |= !Cursors.hasPrefix(cursor, prefix);
+    if (batch.isEmpty()) {
+      return null;
+    }
+    resumeAfter = batch.key(batch.size() - 1);
+    return batch;
+  }
+
+  /** The value at `path` of an entry's projection, or null if the document doesn't have it. */
+  @Nullable
+  private static Value valueAt(@Nullable Value projection, FieldPath path) {
+    var value = projection;
+    for (FieldName segment : path.segments()) {
+      if (value == null || value.type() != Value.Type.Object) {
+        return null;
+      }
+      value = value.asObject().get(segment);
+    }
+    return value;
+  }
+
+  /** If `value`, and every entry after it, comes after the end of `range` in the field's order. */
+  private static boolean isPastEnd(KeyRange range, IndexField field, Value value) {
+    boolean asc = field.direction().isAsc();
+    var type = range.type();
+    if (value.type() != type) {
+      return asc ? value.type().compareTo(type) > 0 : value.type().compareTo(type) < 0;
+    }
+    var end = asc ? range.upper() : range.lower();
+    if (end == null) {
+      return false;
+    }
+    int cmp = value.compareTo(end);
+    boolean inclusive = asc ? range.upperInclusive() : range.lowerInclusive();
+    return asc ? cmp > 0 || (cmp == 0 && !inclusive) : cmp < 0 || (cmp == 0 && !inclusive);
+  }
+}
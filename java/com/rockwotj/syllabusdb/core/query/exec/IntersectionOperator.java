@@ -0,0 +1,75 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * The ids produced by every one of its inputs, in id order.
+ *
+ * <p>The first call reads every input, so this is a blocking operator.
+ */
+@NotThreadSafe
+final class IntersectionOperator implements BatchOperator {
+  private final List<BatchOperator> inputs;
+  private final CollectionId collection;
+  private final Batch batch;
+  @Nullable private final DocId resumeAfter;
+  @Nullable private Iterator<DocId> ids = null;
+
+  /**
+   * @param resumeAfter the id to start after, or null to start at the beginning.
+   */
+  IntersectionOperator(
+      @Nonnull List<BatchOperator> inputs,
+      @Nonnull CollectionId collection,
+      int batchSize,
+      @Nullable DocId resumeAfter) {
+    this.inputs = List.copyOf(inputs);
+    this.collection = collection;
+    this.batch = new Batch(batchSize);
+    this.resumeAfter = resumeAfter;
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (ids == null) {
+      ids = intersect().iterator();
+    }
+    batch.clear();
+    batch.addAll(ids, collection);
+    return batch.isEmpty() ? null : batch;
+  }
+
+  private TreeSet<DocId> intersect() {
+    TreeSet<DocId> result = null;
+    for (BatchOperator input : inputs) {
+      var ids = new TreeSet<DocId>();
+      for (var next = input.next(); next != null; next = input.next()) {
+        for (int i = 0; i < next.size(); ++i) {
+          var id = next.id(i);
+          if (resumeAfter != null && id.compareTo(resumeAfter) <= 0) continue;
+          if (result == null || result.contains(id)) {
+            ids.add(id);
+          }
+        }
+      }
+      result = ids;
+      if (result.isEmpty()) break;
+    }
+    return result;
+  }
+
+  @Override
+  public void close() {
+    for (BatchOperator input : inputs) {
+      input.close();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/** Reads the ids of every document of a collection in id order, without decoding the documents. */
+@NotThreadSafe
+final class KeyScanOperator implements BatchOperator {
+  private final KeyValueStore.Cursor cursor;
+  private final ByteArray prefix;
+  private final Batch batch;
+  @Nullable private ByteArray resumeAfter = null;
+  private boolean done = false;
+
+  KeyScanOperator(
+      @Nonnull KeyValueStore.Cursor cursor, @Nonnull CollectionId collection, int batchSize) {
+    this.cursor = cursor;
+    this.prefix = DocumentKeys.encodePrefix(collection);
+    this.batch = new Batch(batchSize);
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (done) {
+      return null;
+    }
+    batch.clear();
+    Cursors.seekAfter(cursor, prefix, resumeAfter);
+    for (; !batch.isFull() && Cursors.hasPrefix(cursor, prefix); cursor.next()) {
+      var key = cursor.key();
+      batch.add(key, DocumentKeys.decode(key).id(), null);
+    }
+    done = !Cursors.hasPrefix(cursor, prefix);
+    if (batch.isEmpty()) {
+      return null;
+    }
+    resumeAfter = batch.key(batch.size() - 1);
+    return batch;
+  }
+}
@@ -0,0 +1,40 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/** The first rows of its input, which stops reading its input once it has enough. */
+@NotThreadSafe
+final class LimitOperator implements BatchOperator {
+  private final BatchOperator input;
+  private int remaining;
+
+  LimitOperator(@Nonnull BatchOperator input, int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Invalid limit: " + limit);
+    }
+    this.input = input;
+    this.remaining = limit;
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (remaining == 0) {
+      return null;
+    }
+    var batch = input.next();
+    if (batch == null) {
+      return null;
+    }
+    batch.selected = Math.min(batch.selected, remaining);
+    remaining -= batch.selected;
+    return batch;
+  }
+
+  @Override
+  public void close() {
+    input.close();
+  }
+}
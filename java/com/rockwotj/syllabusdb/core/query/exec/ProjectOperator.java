@@ -0,0 +1,36 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/** Makes the values at some paths available through {@link Batch#value}. */
+@NotThreadSafe
+final class ProjectOperator implements BatchOperator {
+  private final BatchOperator input;
+  private final List<FieldPath> paths;
+
+  ProjectOperator(@Nonnull BatchOperator input, @Nonnull List<FieldPath> paths) {
+    this.input = input;
+    this.paths = List.copyOf(paths);
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    var batch = input.next();
+    if (batch != null) {
+      for (FieldPath path : paths) {
+        batch.materialize(path);
+      }
+    }
+    return batch;
+  }
+
+  @Override
+  public void close() {
+    input.close();
+  }
+}
@@ -0,0 +1,249 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.encoding.value.InvalidEncodingException;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.query.Aggregate;
+import com.rockwotj.syllabusdb.core.query.CollectionScan;
+import com.rockwotj.syllabusdb.core.query.Fetch;
+import com.rockwotj.syllabusdb.core.query.HashLookup;
+import com.rockwotj.syllabusdb.core.query.IndexEndpoints;
+import com.rockwotj.syllabusdb.core.query.IndexScan;
+import com.rockwotj.syllabusdb.core.query.Intersection;
+import com.rockwotj.syllabusdb.core.query.KeyScan;
+import com.rockwotj.syllabusdb.core.query.Limit;
+import com.rockwotj.syllabusdb.core.query.PlanNode;
+import com.rockwotj.syllabusdb.core.query.Select;
+import com.rockwotj.syllabusdb.core.query.Sort;
+import com.rockwotj.syllabusdb.core.query.WildcardScan;
+import com.rockwotj.syllabusdb.core.query.ZigZagJoin;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Executes query plans against a key value store.
+ *
+ * <p>Each plan node becomes an operator, and operators exchange {@link Batch batches} of rows
+ * instead of a row at a time, so the per row work is a few array accesses rather than a chain of
+ * virtual calls. Filters are evaluated a column at a time over primitive arrays, and rows are
+ * removed by narrowing a selection vector rather than by copying them.
+ *
+ * <p>A filter over a fetch from an index scan is split: conjuncts on the index's fields are
+ * evaluated against the values decoded from the index keys, so documents that can't match are never
+ * fetched.
+ */
+@ThreadSafe
+public final class QueryExecutor {
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+  public static final long DEFAULT_SORT_BUFFER_BYTES = 64L << 20;
+
+  @Nonnull private final KeyValueStore store;
+  private final int batchSize;
+  private final long sortBufferBytes;
+
+  public QueryExecutor(@Nonnull KeyValueStore store) {
+    this(store, DEFAULT_BATCH_SIZE);
+  }
+
+  public QueryExecutor(@Nonnull KeyValueStore store, int batchSize) {
+    this(store, batchSize, DEFAULT_SORT_BUFFER_BYTES);
+  }
+
+  /**
+   * @param batchSize the max number of rows in a batch.
+   * @param sortBufferBytes the approximate memory each sort can use before spilling to disk.
+   */
+  public QueryExecutor(@Nonnull KeyValueStore store, int batchSize, long sortBufferBytes) {
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+    }
+    if (sortBufferBytes <= 0) {
+      throw new IllegalArgumentException("Invalid sort buffer size: " + sortBufferBytes);
+    }
+    this.store = Objects.requireNonNull(store);
+    this.batchSize = batchSize;
+    this.sortBufferBytes = sortBufferBytes;
+  }
+
+  /** Start executing `plan` on a snapshot of the store. The results must be closed. */
+  public QueryResults execute(@Nonnull PlanNode plan) {
+    return execute(plan, List.of());
+  }
+
+  /**
+   * Start executing `plan`, making the values at `projection` available from each batch with {@link
+   * Batch#value}.
+   */
+  public QueryResults execute(@Nonnull PlanNode plan, @Nonnull List<FieldPath> projection) {
+    return execute(plan, projection, null);
+  }
+
+  /**
+   * Resume executing `plan` right after the row `after` was returned by an earlier execution of it.
+   * The earlier rows aren't read again: each scan seeks straight past the row's key, except for
+   * blocking operators that read their whole input anyway.
+   *
+   * @throws IllegalArgumentException if `after` is not from this plan, or the plan {@link
+   *     #canResume can't be resumed}.
+   */
+  public QueryResults execute(
+      @Nonnull PlanNode plan, @Nonnull List<FieldPath> projection, @Nullable Continuation after) {
+    var fingerprint = Continuation.fingerprint(plan);
+    if (after != null && after.plan() != fingerprint) {
+      throw new IllegalArgumentException("Continuation is from a different plan");
+    }
+    var cursor = store.cursor();
+    try {
+      var root = build(plan, cursor, after == null ? null : after.key());
+      if (!projection.isEmpty()) {
+        root = new ProjectOperator(root, projection);
+      }
+      return new QueryResults(root, cursor, fingerprint);
+    } catch (RuntimeException e) {
+      cursor.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Start executing an {@link Aggregate} plan on a snapshot of the store. The results must be
+   * closed.
+   */
+  public AggregateResults aggregate(@Nonnull PlanNode plan) {
+    if (!(plan instanceof Aggregate aggregate)) {
+      throw new IllegalArgumentException("Not an aggregate plan: " + plan.describe());
+    }
+    var cursor = store.cursor();
+    try {
+      return new AggregateResults(build(aggregate.input(), cursor, null), cursor, aggregate);
+    } catch (RuntimeException e) {
+      cursor.close();
+      throw e;
+    }
+  }
+
+  /**
+   * If an execution of `plan` can be resumed from a {@link Continuation}. Scans of a multikey field
+   * that isn't fixed by an equality can't be, as they drop documents they've already returned.
+   */
+  public static boolean canResume(@Nonnull PlanNode plan) {
+    if (plan instanceof IndexScan scan) {
+      return !IndexScanOperator.hasDuplicates(scan);
+    } else if (plan instanceof Intersection || plan instanceof Sort) {
+      // These resume from their own output, after reading all of their inputs.
+      return true;
+    }
+    for (PlanNode input : plan.inputs()) {
+      if (!canResume(input)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * @param after the key of the row to resume after, which is passed down to the node that produces
+   *     the keys.
+   */
+  private BatchOperator build(
+      PlanNode node, KeyValueStore.Cursor cursor, @Nullable ByteArray after) {
+    if (node instanceof CollectionScan scan) {
+      return new CollectionScanOperator(cursor, scan.collection(), batchSize, after);
+    } else if (node instanceof IndexScan scan) {
+      return new IndexScanOperator(cursor, scan, batchSize, after);
+    } else if (node instanceof HashLookup lookup) {
+      return new HashLookupOperator(cursor, lookup, batchSize, after);
+    } else if (node instanceof WildcardScan scan) {
+      var id = resumeId(scan.index().collection(), after);
+      return new WildcardScanOperator(cursor, scan, batchSize, id);
+    } else if (node instanceof Intersection intersection) {
+      var collection = collection(intersection);
+      List<BatchOperator> inputs = new ArrayList<>();
+      for (PlanNode input : intersection.inputs()) {
+        inputs.add(build(input, cursor, null));
+      }
+      return new IntersectionOperator(inputs, collection, batchSize, resumeId(collection, after));
+    } else if (node instanceof ZigZagJoin join) {
+      var id = resumeId(collection(join), after);
+      return new ZigZagJoinOperator(cursor, join, batchSize, id);
+    } else if (node instanceof KeyScan scan) {
+      return new KeyScanOperator(cursor, scan.collection(), batchSize);
+    } else if (node instanceof IndexEndpoints endpoints) {
+      return new IndexEndpointsOperator(cursor, endpoints);
+    } else if (node instanceof Fetch fetch) {
+      return new FetchOperator(cursor, build(fetch.input(), cursor, after), fetch.collection());
+    } else if (node instanceof Select select) {
+      return buildSelect(select, cursor, after);
+    } else if (node instanceof Sort sort) {
+      var input = build(sort.input(), cursor, null);
+      return new SortOperator(input, sort.order(), batchSize, sortBufferBytes, after);
+    } else if (node instanceof Limit limit) {
+      return new LimitOperator(build(limit.input(), cursor, after), limit.limit());
+    } else if (node instanceof Aggregate) {
+      throw new IllegalArgumentException("Aggregate plans must be run with aggregate()");
+    }
+    throw new IllegalArgumentException("Unknown plan node: " + node.describe());
+  }
+
+  /** The id of the document key `after`, for operators that produce ids in order. */
+  @Nullable
+  private static DocId resumeId(CollectionId collection, @Nullable ByteArray after) {
+    if (Cursors.checkResumeAfter(DocumentKeys.encodePrefix(collection), after) == null) {
+      return null;
+    }
+    try {
+      return DocumentKeys.decode(after).id();
+    } catch (InvalidEncodingException | UncheckedIOException e) {
+      throw new IllegalArgumentException("Cannot resume after " + after, e);
+    }
+  }
+
+  private BatchOperator buildSelect(
+      Select select, KeyValueStore.Cursor cursor, @Nullable ByteArray after) {
+    if (!(select.input() instanceof Fetch fetch) || !(fetch.input() instanceof IndexScan scan)) {
+      return new FilterOperator(build(select.input(), cursor, after), select.filter());
+    }
+    // Multikey fields are decoded as a single element, not the document's value.
+    Set<FieldPath> decoded = new HashSet<>(scan.index().included());
+    for (IndexField field : scan.index().fields()) {
+      if (!field.multikey()) decoded.add(field.path());
+    }
+    List<FieldFilter> pushed = new ArrayList<>();
+    List<FieldFilter> residual = new ArrayList<>();
+    for (FieldFilter conjunct : select.filter().conjuncts()) {
+      (decoded.contains(conjunct.path()) ? pushed : residual).add(conjunct);
+    }
+    BatchOperator node = new IndexScanOperator(cursor, scan, batchSize, after);
+    if (!pushed.isEmpty()) {
+      node = new FilterOperator(node, new Filter(pushed));
+    }
+    node = new FetchOperator(cursor, node, fetch.collection());
+    if (!residual.isEmpty()) {
+      node = new FilterOperator(node, new Filter(residual));
+    }
+    return node;
+  }
+
+  /** The collection of the documents an access path produces the ids of. */
+  private static CollectionId collection(PlanNode node) {
+    while (node instanceof Intersection || node instanceof ZigZagJoin) {
+      node = node.inputs().get(0);
+    }
+    if (node instanceof IndexScan scan) return scan.index().collection();
+    if (node instanceof HashLookup lookup) return lookup.index().collection();
+    if (node instanceof WildcardScan scan) return scan.index().collection();
+    throw new IllegalArgumentException("Not an access path: " + node.describe());
+  }
+}
@@ -0,0 +1,65 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * The results of an executing query, read a batch at a time.
+ *
+ * <p>Results hold a cursor open on a snapshot of the store until they are closed.
+ */
+@NotThreadSafe
+public final class QueryResults implements AutoCloseable {
+  private final BatchOperator root;
+  private final KeyValueStore.Cursor cursor;
+  private final long plan;
+  @Nullable private ByteArray lastKey = null;
+  private boolean closed = false;
+
+  QueryResults(@Nonnull BatchOperator root, @Nonnull KeyValueStore.Cursor cursor, long plan) {
+    this.root = root;
+    this.cursor = cursor;
+    this.plan = plan;
+  }
+
+  /**
+   * The next non-empty batch of documents, or null once there are no more. The batch is only valid
+   * until the next call.
+   */
+  @Nullable
+  public Batch next() {
+    if (closed) {
+      throw new IllegalStateException("Query results are closed");
+    }
+    var batch = root.next();
+    if (batch != null) {
+      lastKey = batch.key(batch.size() - 1);
+    }
+    return batch;
+  }
+
+  /**
+   * Where the results returned so far end, which a later execution of the same plan can resume
+   * after, or null if none have been returned.
+   */
+  @Nullable
+  public Continuation continuation() {
+    return lastKey == null ? null : new Continuation(plan, lastKey);
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      root.close();
+    } finally {
+      cursor.close();
+    }
+  }
+}
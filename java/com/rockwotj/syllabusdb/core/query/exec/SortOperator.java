@@ -0,0 +1,114 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bulk.ExternalSorter;
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueEncoder;
+import com.rockwotj.syllabusdb.core.query.Order;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Sorts the documents of its input, removing those without the ordered field. Documents with equal
+ * values are in id order.
+ *
+ * <p>The first call reads the whole input, so this is a blocking operator. Documents are sorted by
+ * an {@link ExternalSorter} keyed by the encoded value and id, so a sort only buffers up to its
+ * memory budget and spills the rest to temporary files, which are deleted when it's closed. That
+ * encoded key is also each row's key, so a sort resumes by dropping the rows up to the one it
+ * stopped at before they're buffered.
+ */
+@NotThreadSafe
+final class SortOperator implements BatchOperator {
+  private final BatchOperator input;
+  private final Order order;
+  private final long bufferBytes;
+  @Nullable private final ByteArray resumeAfter;
+  private final Batch batch;
+  @Nullable private Path spillDirectory = null;
+  @Nullable private ExternalSorter sorter = null;
+  @Nullable private Iterator<Map.Entry<ByteArray, ByteArray>> sorted = null;
+
+  /**
+   * @param resumeAfter the key of a row to start after, or null to start at the beginning.
+   */
+  SortOperator(
+      @Nonnull BatchOperator input,
+      @Nonnull Order order,
+      int batchSize,
+      long bufferBytes,
+      @Nullable ByteArray resumeAfter) {
+    this.input = input;
+    this.order = order;
+    this.bufferBytes = bufferBytes;
+    this.resumeAfter = resumeAfter;
+    this.batch = new Batch(batchSize);
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (sorted == null) {
+      sorted = sort();
+    }
+    batch.clear();
+    while (!batch.isFull() && sorted.hasNext()) {
+      var row = sorted.next();
+      var document = DocConverter.fromBytes(row.getValue());
+      batch.add(row.getKey(), document.id(), document);
+    }
+    return batch.isEmpty() ? null : batch;
+  }
+
+  private Iterator<Map.Entry<ByteArray, ByteArray>> sort() {
+    try {
+      spillDirectory = Files.createTempDirectory("sort");
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    sorter = new ExternalSorter(spillDirectory, bufferBytes);
+    var encoder = new ValueEncoder();
+    var path = order.path();
+    for (var next = input.next(); next != null; next = input.next()) {
+      var column = next.materialize(path);
+      for (int i = 0; i < next.size(); ++i) {
+        var value = column.get(next.selection[i]);
+        if (value == null) continue;
+        encoder.reset();
+        var directional = order.direction().isAsc() ? encoder.asc() : encoder.desc();
+        directional.writeValue(value);
+        // Always ascending, so equal values are in id order.
+        encoder.asc().writeString(next.id(i).raw());
+        var key = encoder.toByteArray();
+        if (resumeAfter != null && key.compareTo(resumeAfter) <= 0) continue;
+        sorter.add(key, DocConverter.toBytes(next.document(i)));
+      }
+    }
+    return sorter.sorted();
+  }
+
+  @Override
+  public void close() {
+    try {
+      input.close();
+    } finally {
+      if (sorter != null) {
+        sorter.close();
+      }
+      if (spillDirectory != null) {
+        try {
+          Files.deleteIfExists(spillDirectory);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+  }
+}
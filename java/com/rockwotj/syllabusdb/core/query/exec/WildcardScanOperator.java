@@ -0,0 +1,56 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.index.scan.WildcardIndexScan;
+import com.rockwotj.syllabusdb.core.query.WildcardScan;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.Iterator;
+import java.util.SortedSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Reads the ids of the documents matching a {@link WildcardScan}'s filter, in id order.
+ *
+ * <p>A document can have several matching entries, so the ids are all read and deduplicated by the
+ * first call, which makes this a blocking operator.
+ */
+@NotThreadSafe
+final class WildcardScanOperator implements BatchOperator {
+  private final KeyValueStore.Cursor cursor;
+  private final WildcardScan scan;
+  private final Batch batch;
+  @Nullable private final DocId resumeAfter;
+  @Nullable private Iterator<DocId> ids = null;
+
+  /**
+   * @param resumeAfter the id to start after, or null to start at the beginning.
+   */
+  WildcardScanOperator(
+      @Nonnull KeyValueStore.Cursor cursor,
+      @Nonnull WildcardScan scan,
+      int batchSize,
+      @Nullable DocId resumeAfter) {
+    this.cursor = cursor;
+    this.scan = scan;
+    this.batch = new Batch(batchSize);
+    this.resumeAfter = resumeAfter;
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    if (ids == null) {
+      ids = readIds().iterator();
+    }
+    batch.clear();
+    batch.addAll(ids, scan.index().collection());
+    return batch.isEmpty() ? null : batch;
+  }
+
+  private SortedSet<DocId> readIds() {
+    var ids = WildcardIndexScan.findIds(cursor, scan.index(), scan.filter());
+    return resumeAfter == null ? ids : ids.tailSet(resumeAfter, false);
+  }
+}
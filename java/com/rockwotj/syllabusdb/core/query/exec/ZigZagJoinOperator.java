@@ -0,0 +1,208 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.core.query.HashLookup;
+import com.rockwotj.syllabusdb.core.query.IndexScan;
+import com.rockwotj.syllabusdb.core.query.PlanNode;
+import com.rockwotj.syllabusdb.core.query.WildcardScan;
+import com.rockwotj.syllabusdb.core.query.ZigZagJoin;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Finds the ids in every input of a {@link ZigZagJoin}, in id order.
+ *
+ * <p>Each input is a run of index entries that share a prefix and are sorted by document id, read
+ * with its own cursor forked from the executor's, so all of them see the same snapshot. The join
+ * advances each input in turn to the largest id seen so far. An input that has it agrees, and one
+ * that doesn't lands on its next id, which becomes the new largest. Once every input agrees the id
+ * is a match. An input only seeks when it's behind, so runs of ids that another input doesn't have
+ * are skipped over rather than read.
+ */
+@NotThreadSafe
+final class ZigZagJoinOperator implements BatchOperator {
+  /** The entries of an index with the same values, which only differ by id. */
+  private static final class Input {
+    private final Index index;
+    private final List<IndexValue> values;
+    private final ByteArray prefix;
+    private final IndexEntryDecoder decoder;
+    private final KeyValueStore.Cursor cursor;
+    private boolean started = false;
+    // The id the cursor is on, or null once it's past the end of the input.
+    @Nullable private DocId current = null;
+
+    private Input(
+        Index index, List<IndexValue> values, ByteArray prefix, KeyValueStore.Cursor cursor) {
+      this.index = index;
+      this.values = List.copyOf(values);
+      this.prefix = prefix;
+      this.decoder = new IndexEntryDecoder(index);
+      this.cursor = cursor;
+    }
+  }
+
+  private final List<Input> inputs = new ArrayList<>();
+  private final IndexEntryEncoder encoder = new IndexEntryEncoder();
+  private final CollectionId collection;
+  private final Batch batch;
+  @Nullable private DocId lastMatch;
+  private boolean done = false;
+
+  /**
+   * @param resumeAfter the id to start after, or null to start at the beginning.
+   */
+  ZigZagJoinOperator(
+      @Nonnull KeyValueStore.Cursor cursor,
+      @Nonnull ZigZagJoin join,
+      int batchSize,
+      @Nullable DocId resumeAfter) {
+    try {
+      for (PlanNode node : join.inputs()) {
+        inputs.add(toInput(node, cursor.fork()));
+      }
+    } catch (RuntimeException e) {
+      close();
+      throw e;
+    }
+    this.collection = inputs.get(0).index.collection();
+    this.batch = new Batch(batchSize);
+    // Resuming is the same as continuing after a match.
+    this.lastMatch = resumeAfter;
+  }
+
+  private Input toInput(PlanNode node, KeyValueStore.Cursor cursor) {
+    Index index;
+    List<IndexValue> values = new ArrayList<>();
+    ByteArray prefix;
+    if (node instanceof IndexScan scan) {
+      index = scan.index();
+      for (int i = 0; i < scan.equalities().size(); ++i) {
+        var direction = index.fields().get(i).direction();
+        values.add(new IndexValue(scan.equalities().get(i), direction));
+      }
+      prefix = encoder.encodeValuesPrefix(index.id(), values);
+    } else if (node instanceof HashLookup lookup) {
+      index = lookup.index();
+      for (Value value : lookup.values()) {
+        values.add(IndexValue.asc(value));
+      }
+      prefix = encoder.encodeHashPrefix(index.id(), lookup.values());
+    } else if (node instanceof WildcardScan scan) {
+      index = scan.index();
+      var filter = scan.filter();
+      values.add(new IndexValue(Value.of(filter.path().toString()), Direction.ASCENDING));
+      values.add(new IndexValue(filter.value(), index.wildcardDirection()));
+      prefix = encoder.encodeValuesPrefix(index.id(), values);
+    } else {
+      cursor.close();
+      throw new IllegalArgumentException("Cannot zig-zag join: " + node.describe());
+    }
+    return new Input(index, values, prefix, cursor);
+  }
+
+  @Override
+  @Nullable
+  public Batch next() {
+    batch.clear();
+    while (!done && !batch.isFull()) {
+      var match = nextMatch();
+      if (match == null) {
+        done = true;
+      } else {
+        batch.add(DocumentKeys.encode(new Path(collection, match)), match, null);
+      }
+    }
+    return batch.isEmpty() ? null : batch;
+  }
+
+  @Nullable
+  private DocId nextMatch() {
+    DocId candidate = null;
+    int agreed = 0;
+    for (int i = 0; ; i = (i + 1) % inputs.size()) {
+      var input = inputs.get(i);
+      // Until there's a candidate, look for anything after the last match.
+      var id =
+          candidate == null ? advance(input, lastMatch, true) : advance(input, candidate, false);
+      if (id == null) {
+        return null;
+      }
+      if (id.equals(candidate)) {
+        if (++agreed == inputs.size()) {
+          lastMatch = id;
+          return id;
+        }
+      } else {
+        candidate = id;
+        agreed = 1;
+      }
+    }
+  }
+
+  /**
+   * Move `input` to its first id after `bound`, or at it if not `exclusive`, and return it. Ids
+   * only increase, so an input that's already there doesn't move.
+   */
+  @Nullable
+  private DocId advance(Input input, @Nullable DocId bound, boolean exclusive) {
+    var cursor = input.cursor;
+    if (!input.started) {
+      input.started = true;
+      if (bound == null) {
+        cursor.seek(input.prefix);
+        return read(input);
+      }
+      seek(input, bound);
+    } else if (input.current == null) {
+      return null;
+    } else if (bound == null || input.current.compareTo(bound) > 0) {
+      return input.current;
+    } else if (input.current.compareTo(bound) < 0) {
+      seek(input, bound);
+    }
+    // The cursor is now at or after the bound.
+    if (exclusive && bound.equals(input.current)) {
+      cursor.next();
+      return read(input);
+    }
+    return input.current;
+  }
+
+  private void seek(Input input, DocId bound) {
+    var entry = new IndexEntry(input.index.id(), input.index.kind(), input.values, bound, null);
+    input.cursor.seek(encoder.encode(entry));
+    read(input);
+  }
+
+  @Nullable
+  private DocId read(Input input) {
+    input.current =
+        Cursors.hasPrefix(input.cursor, input.prefix)
+            ? input.decoder.decodeDocId(input.cursor.key())
+            : null;
+    return input.current;
+  }
+
+  @Override
+  public void close() {
+    for (Input input : inputs) {
+      input.cursor.close();
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package com.rockwotj.syllabusdb.core.stats;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * An equi-depth histogram over values in their total order: each bucket covers the values up to and
+ * including its upper bound (and after the previous bucket's), and buckets are chosen so each holds
+ * about the same number of values when the histogram is built.
+ *
+ * <p>Bucket counts are maintained incrementally as values are added and removed, but the bounds are
+ * only chosen when the histogram is built from a sample, so it drifts from equi-depth as the data
+ * changes until it's rebuilt.
+ */
+@NotThreadSafe
+public final class Histogram {
+  /** A bucket of the histogram, holding `count` values up to and including `upperBound`. */
+  public record Bucket(@Nonnull Value upperBound, long count) {
+    public Bucket {
+      Objects.requireNonNull(upperBound, "Missing required bucket upper bound");
+      if (count < 0) {
+        throw new IllegalArgumentException("Invalid bucket count: " + count);
+      }
+    }
+  }
+
+  private final List<Value> upperBounds = new ArrayList<>();
+  private final List<Long> counts = new ArrayList<>();
+  private long total = 0;
+
+  private Histogram() {}
+
+  public static Histogram empty() {
+    return new Histogram();
+  }
+
+  /**
+   * @throws IllegalArgumentException if the buckets' upper bounds are not strictly increasing.
+   */
+  public static Histogram fromBuckets(@Nonnull List<Bucket> buckets) {
+    var histogram = new Histogram();
+    for (Bucket bucket : buckets) {
+      if (!histogram.upperBounds.isEmpty()
+          && histogram
+                  .upperBounds
+                  .get(histogram.upperBounds.size() - 1)
+                  .compareTo(bucket.upperBound())
+              >= 0) {
+        throw new IllegalArgumentException("Histogram buckets must be in increasing order");
+      }
+      histogram.upperBounds.add(bucket.upperBound());
+      histogram.counts.add(bucket.count());
+      histogram.total += bucket.count();
+    }
+    return histogram;
+  }
+
+  /**
+   * Build a histogram with up to `maxBuckets` buckets from a uniform sample of a population of
+   * `populationSize` values. A value is never split across buckets, so frequent values may result
+   * in fewer buckets.
+   */
+  public static Histogram build(@Nonnull List<Value> sample, int maxBuckets, long populationSize) {
+    if (maxBuckets <= 0) {
+      throw new IllegalArgumentException("Invalid histogram bucket count: " + maxBuckets);
+    }
+    var histogram = new Histogram();
+    if (sample.isEmpty()) {
+      return histogram;
+    }
+    var sorted = new ArrayList<>(sample);
+    Collections.sort(sorted);
+    int n = sorted.size();
+    int buckets = Math.min(maxBuckets, n);
+    double scale = (double) populationSize / n;
+    int start = 0;
+    for (int i = 0; i < buckets && start < n; ++i) {
+      int end = Math.max(start, (int) ((long) (i + 1) * n / buckets) - 1);
+      var upper = sorted.get(end);
+      while (end + 1 < n && sorted.get(end + 1).equals(upper)) {
+        ++end;
+      }
+      long count = Math.round((end - start + 1) * scale);
+      histogram.upperBounds.add(upper);
+      histogram.counts.add(count);
+      histogram.total += count;
+      start = end + 1;
+    }
+    return histogram;
+  }
+
+  public long total() {
+    return total;
+  }
+
+  public List<Bucket> buckets() {
+    var buckets = new ArrayList<Bucket>(upperBounds.size());
+    for (int i = 0; i < upperBounds.size(); ++i) {
+      buckets.add(new Bucket(upperBounds.get(i), counts.get(i)));
+    }
+    return buckets;
+  }
+
+  public void add(@Nonnull Value value) {
+    int bucket = bucketOf(value);
+    if (bucket == upperBounds.size()) {
+      // Past the end, so grow the last bucket to cover it.
+      if (upperBounds.isEmpty()) {
+        upperBounds.add(value);
+        counts.add(0L);
+      } else {
+        upperBounds.set(--bucket, value);
+      }
+    }
+    counts.set(bucket, counts.get(bucket) + 1);
+    ++total;
+  }
+
+  public void remove(@Nonnull Value value) {
+    int bucket = bucketOf(value);
+    if (bucket == upperBounds.size() || counts.get(bucket) == 0) {
+      // The value was added before the histogram was last built and wasn't in the sample.
+      return;
+    }
+    counts.set(bucket, counts.get(bucket) - 1);
+    --total;
+  }
+
+  /**
+   * The estimated fraction of values that are less than (or equal to if `inclusive`) `value`.
+   * Values within a bucket are assumed to be spread evenly, so numbers count for the part of the
+   * bucket's range below them, and other values count for half the bucket.
+   */
+  public double fractionBelow(@Nonnull Value value, boolean inclusive) {
+    if (total == 0) {
+      return 0;
+    }
+    int bucket = bucketOf(value);
+    double below = 0;
+    for (int i = 0; i < bucket; ++i) {
+      below += counts.get(i);
+    }
+    if (bucket < upperBounds.size()) {
+      boolean whole = inclusive && upperBounds.get(bucket).equals(value);
+      below += whole ? counts.get(bucket) : counts.get(bucket) * fractionOfBucket(bucket, value);
+    }
+    return Math.min(1.0, below / total);
+  }
+
+  private double fractionOfBucket(int bucket, Value value) {
+    var upper = upperBounds.get(bucket);
+    var lower = bucket > 0 ? upperBounds.get(bucket - 1) : null;
+    if (lower == null
+        || !isFiniteNumber(lower)
+        || !isFiniteNumber(upper)
+        || !isFiniteNumber(value)) {
+      return 0.5;
+    }
+    // The bucket holds values in (lower, upper], and value is in that range.
+    return (value.asDouble() - lower.asDouble()) / (upper.asDouble() - lower.asDouble());
+  }
+
+  private static boolean isFiniteNumber(Value value) {
+    return value.type() == Value.Type.Number && Double.isFinite(value.asDouble());
+  }
+
+  /** The estimated fraction of values between two bounds, where a null bound is unbounded. */
+  public double fractionBetween(
+      @Nullable Value lower,
+      boolean lowerInclusive,
+      @Nullable Value upper,
+      boolean upperInclusive) {
+    double below = upper == null ? 1.0 : fractionBelow(upper, upperInclusive);
+    double excluded = lower == null ? 0.0 : fractionBelow(lower, !lowerInclusive);
+    return Math.max(0.0, below - excluded);
+  }
+
+  /** The index of the first bucket whose upper bound is at least `value`, or the bucket count. */
+  private int bucketOf(Value value) {
+    int index = Collections.binarySearch(upperBounds, value);
+    return index >= 0 ? index : -(index + 1);
+  }
+}
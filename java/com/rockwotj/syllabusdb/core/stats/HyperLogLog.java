@@ -0,0 +1,104 @@
+package com.rockwotj.syllabusdb.core.stats;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A HyperLogLog sketch, which estimates the number of distinct items added to it in a fixed amount
+ * of memory: 2^precision bytes, with a standard error of about 1.04 / sqrt(2^precision).
+ *
+ * <p>Items are added as 64 bit hashes, which must be well distributed. Items can't be removed, so
+ * after deletes the estimate is an upper bound until the sketch is rebuilt.
+ */
+@NotThreadSafe
+public final class HyperLogLog {
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 16;
+  public static final int DEFAULT_PRECISION = 12;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("Invalid HyperLogLog precision: " + precision);
+    }
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /** Restore a sketch from its {@link #registers()}. */
+  public static HyperLogLog fromRegisters(@Nonnull byte[] registers) {
+    int precision = Integer.numberOfTrailingZeros(registers.length);
+    if (registers.length != 1 << precision) {
+      throw new IllegalArgumentException("Invalid HyperLogLog size: " + registers.length);
+    }
+    var sketch = new HyperLogLog(precision);
+    System.arraycopy(registers, 0, sketch.registers, 0, registers.length);
+    return sketch;
+  }
+
+  public int precision() {
+    return precision;
+  }
+
+  /** A copy of the sketch's registers, which are its entire state. */
+  public byte[] registers() {
+    return registers.clone();
+  }
+
+  public void add(long hash) {
+    // The top bits pick the register, and the rest give the rank (the position of the first 1 bit).
+    int index = (int) (hash >>> (Long.SIZE - precision));
+    // Setting a sentinel bit bounds the rank when the remaining bits are all zero.
+    long rest = (hash << precision) | (1L << (precision - 1));
+    byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+    if (rank > registers[index]) {
+      registers[index] = rank;
+    }
+  }
+
+  /** Merge `other` into this sketch, after which it estimates the union of both. */
+  public void merge(@Nonnull HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException(
+          "Cannot merge HyperLogLogs of precision " + precision + " and " + other.precision);
+    }
+    for (int i = 0; i < registers.length; ++i) {
+      registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+    }
+  }
+
+  public long estimate() {
+    int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += Math.scalb(1.0, -register);
+      if (register == 0) ++zeros;
+    }
+    double alpha = 0.7213 / (1 + 1.079 / m);
+    double estimate = alpha * m * m / sum;
+    // Small cardinalities are better estimated by the number of empty registers. With 64 bit
+    // hashes there is no need for a large range correction.
+    if (estimate <= 2.5 * m && zeros > 0) {
+      estimate = m * Math.log((double) m / zeros);
+    }
+    return Math.round(estimate);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof HyperLogLog other && Arrays.equals(registers, other.registers);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(registers);
+  }
+}
@@ -0,0 +1,262 @@
+package com.rockwotj.syllabusdb.core.stats;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueDecoder;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueEncoder;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Statistics about the entries of a single index, used to estimate the cost of a query.
+ *
+ * <p>For an index on fields (a, b, c) this tracks the number of entries, the number of distinct
+ * values of each prefix (a), (a, b) and (a, b, c), and a histogram of the values of a. They are
+ * updated incrementally as entries are added and removed, and periodically rebuilt from the index
+ * itself by the {@link StatisticsSampler}, which corrects any drift.
+ */
+@ThreadSafe
+public final class IndexStatistics {
+  private static final HashFunction HASH = Hashing.murmur3_128();
+
+  /** An immutable copy of the statistics at a point in time. */
+  @Immutable
+  public record Snapshot(
+      long entryCount,
+      @Nonnull List<Long> distinctPrefixCounts,
+      @Nonnull List<Histogram.Bucket> histogram) {
+    public Snapshot {
+      distinctPrefixCounts = List.copyOf(distinctPrefixCounts);
+      histogram = List.copyOf(histogram);
+    }
+
+    /**
+     * The estimated number of distinct values of the first `length` fields of the index, which
+     * doesn't decrease when entries are removed until the statistics are refreshed.
+     */
+    public long distinctCount(int length) {
+      if (length < 1 || length > distinctPrefixCounts.size()) {
+        throw new IllegalArgumentException("Invalid index prefix length: " + length);
+      }
+      // A sketch may overestimate, but there can't be more distinct values than entries.
+      return Math.min(entryCount, distinctPrefixCounts.get(length - 1));
+    }
+
+    /**
+     * The estimated fraction of entries whose leading field matches the comparison, following the
+     * semantics of {@link com.rockwotj.syllabusdb.core.filter.FieldFilter}.
+     */
+    public double selectivity(@Nonnull Operator op, @Nonnull Value value) {
+      if (entryCount == 0) {
+        return 0;
+      }
+      if (op == Operator.EQUAL || op == Operator.ARRAY_CONTAINS) {
+        return 1.0 / Math.max(1, distinctCount(1));
+      }
+      var histogram = Histogram.fromBuckets(this.histogram);
+      // Ranges only match values of the same type. The bounds of the type are skipped when the end
+      // buckets are bounded by the same type, otherwise they'd count for half of those buckets.
+      var type = value.type();
+      var types = Value.Type.values();
+      Value typeMin = null;
+      Value nextTypeMin = null;
+      if (!this.histogram.isEmpty()) {
+        if (this.histogram.get(0).upperBound().type() != type) {
+          typeMin = minValue(type);
+        }
+        var last = this.histogram.get(this.histogram.size() - 1).upperBound().type();
+        if (last != type && type.ordinal() + 1 < types.length) {
+          nextTypeMin = minValue(types[type.ordinal() + 1]);
+        }
+      }
+      return switch (op) {
+        case EQUAL, ARRAY_CONTAINS -> throw new AssertionError();
+        case LESS_THAN -> histogram.fractionBetween(typeMin, true, value, false);
+        case LESS_THAN_OR_EQUAL -> histogram.fractionBetween(typeMin, true, value, true);
+        case GREATER_THAN -> histogram.fractionBetween(value, false, nextTypeMin, false);
+        case GREATER_THAN_OR_EQUAL -> histogram.fractionBetween(value, true, nextTypeMin, false);
+      };
+    }
+
+    private static Value minValue(Value.Type type) {
+      return switch (type) {
+        case Null -> Value.NULL;
+        case Boolean -> Value.FALSE;
+        case Number -> Value.NAN;
+        case String -> Value.EMPTY_STRING;
+        case List -> Value.EMPTY_LIST;
+        case Object -> Value.EMPTY_OBJECT;
+      };
+    }
+  }
+
+  @Nonnull private final Index index;
+
+  @GuardedBy("this")
+  private long entryCount;
+
+  // distinct[i] is the sketch of the prefixes of length i + 1.
+  @GuardedBy("this")
+  private final HyperLogLog[] distinct;
+
+  @GuardedBy("this")
+  private final Histogram histogram;
+
+  /** Empty statistics, for a new index. */
+  public IndexStatistics(@Nonnull Index index) {
+    this(index, 0, newSketches(index), Histogram.empty());
+  }
+
+  IndexStatistics(
+      @Nonnull Index index, long entryCount, HyperLogLog[] distinct, Histogram histogram) {
+    if (distinct.length != keyLength(index)) {
+      throw new IllegalArgumentException(
+          "Expected " + keyLength(index) + " distinct count sketches for " + index.name());
+    }
+    this.index = Objects.requireNonNull(index);
+    this.entryCount = entryCount;
+    this.distinct = distinct;
+    this.histogram = histogram;
+  }
+
+  /** The number of values in each entry, wildcard entries are a path and a value. */
+  static int keyLength(Index index) {
+    return index.kind() == IndexKind.WILDCARD ? 2 : index.fields().size();
+  }
+
+  static HyperLogLog[] newSketches(Index index) {
+    var sketches = new HyperLogLog[keyLength(index)];
+    for (int i = 0; i < sketches.length; ++i) {
+      sketches[i] = new HyperLogLog();
+    }
+    return sketches;
+  }
+
+  public Index index() {
+    return index;
+  }
+
+  public void add(@Nonnull IndexEntry entry) {
+    // Hash outside the lock, it's the most expensive part.
+    var hashes = prefixHashes(entry);
+    synchronized (this) {
+      ++entryCount;
+      for (int i = 0; i < distinct.length; ++i) {
+        distinct[i].add(hashes[i]);
+      }
+      histogram.add(entry.values().get(0).value());
+    }
+  }
+
+  public synchronized void remove(@Nonnull IndexEntry entry) {
+    entryCount = Math.max(0, entryCount - 1);
+    histogram.remove(entry.values().get(0).value());
+  }
+
+  public synchronized Snapshot snapshot() {
+    var counts = new ArrayList<Long>(distinct.length);
+    for (HyperLogLog sketch : distinct) {
+      counts.add(sketch.estimate());
+    }
+    return new Snapshot(entryCount, counts, histogram.buckets());
+  }
+
+  /**
+   * The hash of each prefix of the entry's values, which is added to that prefix's sketch.
+   *
+   * <p>Hash indexes only store the fingerprint of all the values, so that's used for every prefix,
+   * which is the same hash the sampler reads back from their keys.
+   */
+  static long[] prefixHashes(IndexEntry entry) {
+    var hashes = new long[entry.values().size()];
+    if (entry.kind() == IndexKind.HASH) {
+      Arrays.fill(
+          hashes,
+          new IndexEntryEncoder()
+              .fingerprint(entry.values().stream().map(IndexValue::value).toList()));
+      return hashes;
+    }
+    var encoder = new ValueEncoder();
+    for (int i = 0; i < hashes.length; ++i) {
+      // The direction doesn't matter for counting, so always use ascending.
+      encoder.asc().writeValue(entry.values().get(i).value());
+      var prefix = encoder.toByteArray();
+      var hasher = HASH.newHasher(prefix.length());
+      for (int j = 0; j < prefix.length(); ++j) {
+        hasher.putByte(prefix.get(j));
+      }
+      hashes[i] = hasher.hash().asLong();
+    }
+    return hashes;
+  }
+
+  synchronized ByteArray toBytes() {
+    var output = ByteArray.newOutput();
+    try (var out = new DataOutputStream(output)) {
+      out.writeLong(entryCount);
+      out.writeInt(distinct.length);
+      for (HyperLogLog sketch : distinct) {
+        var registers = sketch.registers();
+        out.writeInt(registers.length);
+        out.write(registers);
+      }
+      var buckets = histogram.buckets();
+      out.writeInt(buckets.size());
+      var encoder = new ValueEncoder();
+      for (Histogram.Bucket bucket : buckets) {
+        encoder.reset();
+        encoder.asc().writeValue(bucket.upperBound());
+        var bound = encoder.toByteArray();
+        out.writeInt(bound.length());
+        bound.writeTo(out);
+        out.writeLong(bucket.count());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return output.toByteArray();
+  }
+
+  static IndexStatistics fromBytes(@Nonnull Index index, @Nonnull ByteArray bytes) {
+    try (var in = new DataInputStream(bytes.toInputStream())) {
+      long entryCount = in.readLong();
+      var distinct = new HyperLogLog[in.readInt()];
+      for (int i = 0; i < distinct.length; ++i) {
+        distinct[i] = HyperLogLog.fromRegisters(in.readNBytes(in.readInt()));
+      }
+      var buckets = new ArrayList<Histogram.Bucket>();
+      int bucketCount = in.readInt();
+      for (int i = 0; i < bucketCount; ++i) {
+        var bound = in.readNBytes(in.readInt());
+        var upperBound = new ValueDecoder(ByteArray.wrap(bound).toInputStream()).asc().readValue();
+        buckets.add(new Histogram.Bucket(upperBound, in.readLong()));
+      }
+      return new IndexStatistics(index, entryCount, distinct, Histogram.fromBuckets(buckets));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return index.name() + ": " + snapshot();
+  }
+}
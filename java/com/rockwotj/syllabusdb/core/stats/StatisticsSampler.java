@@ -0,0 +1,155 @@
+package com.rockwotj.syllabusdb.core.stats;
+
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.core.index.text.TextIndexReader;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Rebuilds index statistics from the index entries in the store, correcting the drift of the
+ * incrementally maintained statistics (distinct counts never go down, and histogram bounds are
+ * never moved).
+ *
+ * <p>A refresh reads every entry of the index from a snapshot, but only keeps a fixed size uniform
+ * sample of the leading values in memory to build the histogram. It's meant to be run periodically
+ * on a background thread, for example via a {@link java.util.concurrent.ScheduledExecutorService}.
+ * Updates made by writes while an index is being sampled are lost, which the next refresh fixes.
+ */
+@ThreadSafe
+public final class StatisticsSampler {
+
+  /**
+   * @param sampleSize the number of leading values sampled to build the histogram.
+   * @param histogramBuckets the max number of buckets in the histogram.
+   */
+  public record Options(int sampleSize, int histogramBuckets) {
+    public static final Options DEFAULT = new Options(4096, 64);
+
+    public Options {
+      if (sampleSize <= 0) {
+        throw new IllegalArgumentException("Invalid sample size: " + sampleSize);
+      }
+      if (histogramBuckets <= 0) {
+        throw new IllegalArgumentException("Invalid histogram bucket count: " + histogramBuckets);
+      }
+    }
+  }
+
+  @Nonnull private final KeyValueStore store;
+  @Nonnull private final StatisticsStore statistics;
+  @Nonnull private final Options options;
+
+  public StatisticsSampler(
+      @Nonnull KeyValueStore store, @Nonnull StatisticsStore statistics, @Nonnull Options options) {
+    this.store = Objects.requireNonNull(store);
+    this.statistics = Objects.requireNonNull(statistics);
+    this.options = Objects.requireNonNull(options);
+  }
+
+  /** Refresh the statistics of every index in `indexes`. */
+  public void refreshAll(@Nonnull Collection<Index> indexes) {
+    for (Index index : indexes) {
+      refresh(index);
+    }
+  }
+
+  /** Rebuild the statistics of a single index, returning the new statistics. */
+  public IndexStatistics.Snapshot refresh(@Nonnull Index index) {
+    if (index.kind() == IndexKind.TEXT) {
+      return refreshText(index);
+    }
+    var prefix = new IndexEntryEncoder().encodePrefix(index.id());
+    var decoder = new IndexEntryDecoder(index);
+    var distinct = IndexStatistics.newSketches(index);
+    List<Value> sample = new ArrayList<>(options.sampleSize());
+    var random = new SplittableRandom();
+    long entryCount = 0;
+    try (var cursor = store.cursor()) {
+      for (cursor.seek(prefix); cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+        if (index.kind() == IndexKind.HASH) {
+          // Only a fingerprint of all the values is stored, which is good enough for equality
+          // estimates. Shorter prefixes are overestimated, and there is no histogram. It's the
+          // same hash IndexStatistics uses for hash index entries as they're added.
+          var fingerprint = decoder.decodeFingerprint(cursor.key());
+          for (HyperLogLog sketch : distinct) {
+            sketch.add(fingerprint);
+          }
+          ++entryCount;
+          continue;
+        }
+        var entry = decoder.decode(cursor.key(), cursor.value());
+        var hashes = IndexStatistics.prefixHashes(entry);
+        for (int i = 0; i < distinct.length; ++i) {
+          distinct[i].add(hashes[i]);
+        }
+        addToSample(sample, entry.values().get(0).value(), entryCount, random);
+        ++entryCount;
+      }
+    }
+    var histogram = Histogram.build(sample, options.histogramBuckets(), entryCount);
+    var stats = new IndexStatistics(index, entryCount, distinct, histogram);
+    statistics.replace(stats);
+    return stats.snapshot();
+  }
+
+  /**
+   * Text indexes are read a term at a time, since their postings are compressed into blocks. Each
+   * posting is an entry whose value is the term.
+   */
+  private IndexStatistics.Snapshot refreshText(Index index) {
+    var distinct = IndexStatistics.newSketches(index);
+    List<Value> sample = new ArrayList<>(options.sampleSize());
+    var random = new SplittableRandom();
+    var entryCount = new long[] {0};
+    new TextIndexReader(store, index)
+        .forEachTerm(
+            (term, postings) -> {
+              // Every posting of the term may have been removed since the last compaction.
+              if (postings.isEmpty()) return;
+              var value = Value.of(term);
+              var direction = index.fields().get(0).direction();
+              var entry =
+                  new IndexEntry(
+                      index.id(),
+                      index.kind(),
+                      List.of(new IndexValue(value, direction)),
+                      postings.get(0),
+                      null);
+              distinct[0].add(IndexStatistics.prefixHashes(entry)[0]);
+              for (int i = 0; i < postings.size(); ++i) {
+                addToSample(sample, value, entryCount[0]++, random);
+              }
+            });
+    var histogram = Histogram.build(sample, options.histogramBuckets(), entryCount[0]);
+    var stats = new IndexStatistics(index, entryCount[0], distinct, histogram);
+    statistics.replace(stats);
+    return stats.snapshot();
+  }
+
+  /**
+   * Reservoir sampling, so every entry has the same chance of being in the sample, where `seen` is
+   * the number of entries before this one.
+   */
+  private void addToSample(List<Value> sample, Value leading, long seen, SplittableRandom random) {
+    if (sample.size() < options.sampleSize()) {
+      sample.add(leading);
+    } else {
+      long slot = random.nextLong(seen + 1);
+      if (slot < options.sampleSize()) {
+        sample.set((int) slot, leading);
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.rockwotj.syllabusdb.core.stats;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.encoding.key.Keyspace;
+import com.rockwotj.syllabusdb.core.encoding.value.ValueEncoder;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * The statistics of every index, kept in memory and persisted to the statistics keyspace.
+ *
+ * <p>Pass the store as the {@link Indexer.Listener} of the write path's indexer so statistics are
+ * updated as entries are added and removed. Updates are only persisted by {@link #save}, which
+ * should be called periodically; statistics are estimates, so losing recent updates on a crash only
+ * makes them slightly stale.
+ */
+@ThreadSafe
+public final class StatisticsStore implements Indexer.Listener {
+  @Nonnull private final KeyValueStore store;
+  private final Map<IndexId, IndexStatistics> statistics = new ConcurrentHashMap<>();
+
+  private StatisticsStore(@Nonnull KeyValueStore store) {
+    this.store = Objects.requireNonNull(store);
+  }
+
+  /** Load the persisted statistics of `indexes`, starting empty for any that have none. */
+  public static StatisticsStore load(
+      @Nonnull KeyValueStore store, @Nonnull Collection<Index> indexes) {
+    var result = new StatisticsStore(store);
+    try (var cursor = store.cursor()) {
+      for (Index index : indexes) {
+        var key = key(index.id());
+        cursor.seek(key);
+        result.statistics.put(
+            index.id(),
+            cursor.valid() && cursor.key().equals(key)
+                ? IndexStatistics.fromBytes(index, cursor.value())
+                : new IndexStatistics(index));
+      }
+    }
+    return result;
+  }
+
+  /** Start tracking a newly created index. */
+  public void track(@Nonnull Index index) {
+    statistics.putIfAbsent(index.id(), new IndexStatistics(index));
+  }
+
+  /** Stop tracking a dropped index, and delete its persisted statistics. */
+  public void untrack(@Nonnull IndexId id) {
+    statistics.remove(id);
+    store.write(KeyValueStore.Write.delete(key(id)));
+  }
+
+  /** The current statistics for an index, or null if it isn't tracked. */
+  @Nullable
+  public IndexStatistics.Snapshot get(@Nonnull IndexId id) {
+    var stats = statistics.get(id);
+    return stats == null ? null : stats.snapshot();
+  }
+
+  /**
+   * Estimate the number of documents in `collection` from the statistics of its ready indexes, out
+   * of the current definitions in `indexes`. Indexes only count the documents that have their
+   * fields, so this is at most the true count, and zero if no index has an entry for every
+   * document.
+   */
+  public long estimateDocuments(
+      @Nonnull Collection<Index> indexes, @Nonnull CollectionId collection) {
+    long estimate = 0;
+    for (Index index : indexes) {
+      if (!index.collection().equals(collection)) continue;
+      if (index.state() != IndexState.READY || !index.hasEntryPerDocument()) continue;
+      var snapshot = get(index.id());
+      if (snapshot != null) {
+        estimate = Math.max(estimate, snapshot.entryCount());
+      }
+    }
+    return estimate;
+  }
+
+  @Override
+  public void added(@Nonnull IndexEntry entry) {
+    var stats = statistics.get(entry.id());
+    if (stats != null) {
+      stats.add(entry);
+    }
+  }
+
+  @Override
+  public void removed(@Nonnull IndexEntry entry) {
+    var stats = statistics.get(entry.id());
+    if (stats != null) {
+      stats.remove(entry);
+    }
+  }
+
+  /** Persist the statistics of every tracked index. */
+  public void save() {
+    var writes = new ArrayList<KeyValueStore.Write>();
+    for (var stats : statistics.values()) {
+      writes.add(KeyValueStore.Write.put(key(stats.index().id()), stats.toBytes()));
+    }
+    if (!writes.isEmpty()) {
+      store.write(writes);
+    }
+  }
+
+  /** Replace the statistics of an index with freshly computed ones, and persist them. */
+  void replace(@Nonnull IndexStatistics stats) {
+    // Don't resurrect an index that was dropped while it was being sampled.
+    if (statistics.replace(stats.index().id(), stats) != null) {
+      store.write(KeyValueStore.Write.put(key(stats.index().id()), stats.toBytes()));
+    }
+  }
+
+  private static ByteArray key(IndexId id) {
+    var encoder = new ValueEncoder();
+    encoder.asc().writeVarint(Keyspace.STATISTICS.id());
+    encoder.asc().writeVarint(id.raw());
+    return encoder.toByteArray();
+  }
+}
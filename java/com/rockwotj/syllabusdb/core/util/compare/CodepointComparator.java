@@ -17,14 +17,35 @@ public final class CodepointComparator implements Comparator<String> {
 
   @Override
   public int compare(String a, String b) {
-    var aIt = a.codePoints().iterator();
-    var bIt = b.codePoints().iterator();
-    while (aIt.hasNext() && bIt.hasNext()) {
-      var aElem = aIt.nextInt();
-      var bElem = bIt.nextInt();
-      var cmp = Integer.compareUnsigned(aElem, bElem);
-      if (cmp != 0) return cmp;
+    // Compare UTF-16 code units directly, which is fast and doesn't allocate, and only fix up the
+    // order at the first difference.
+    int length = Math.min(a.length(), b.length());
+    for (int i = 0; i < length; ++i) {
+      char aChar = a.charAt(i);
+      char bChar = b.charAt(i);
+      if (aChar != bChar) {
+        return Integer.compare(codepointOrder(aChar), codepointOrder(bChar));
+      }
+    }
+    // If one string is a prefix of the other, then the shorter one is first.
+    return Integer.compare(a.length(), b.length());
+  }
+
+  /**
+   * Code unit order only differs from codepoint order when a surrogate (0xD800-0xDFFF) is compared
+   * against a code unit above the surrogate range (0xE000-0xFFFF). Surrogates encode codepoints
+   * above 0xFFFF, so they need to sort after everything else, which we do by shifting them up above
+   * the rest of the BMP, and everything above the surrogate range down to fill the gap.
+   *
+   * <p>If both code units are surrogates, the shift keeps their relative order.
+   */
+  private static int codepointOrder(char c) {
+    if (c < Character.MIN_SURROGATE) {
+      return c;
+    } else if (c <= Character.MAX_SURROGATE) {
+      return c + 0x2000;
+    } else {
+      return c - 0x800;
     }
-    return Boolean.compare(aIt.hasNext(), bIt.hasNext());
   }
 }
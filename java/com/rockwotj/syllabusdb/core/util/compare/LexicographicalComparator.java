@@ -1,6 +1,8 @@
 package com.rockwotj.syllabusdb.core.util.compare;
 
 import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
 
 /** Compare 2 lists lexicographically. */
 public final class LexicographicalComparator<T> implements Comparator<Iterable<T>> {
@@ -24,6 +26,12 @@ public final class LexicographicalComparator<T> implements Comparator<Iterable<T
 
   @Override
   public int compare(Iterable<T> a, Iterable<T> b) {
+    if (a instanceof List<T> aList
+        && a instanceof RandomAccess
+        && b instanceof List<T> bList
+        && b instanceof RandomAccess) {
+      return compareRandomAccess(aList, bList);
+    }
     var aIt = a.iterator();
     var bIt = b.iterator();
     while (aIt.hasNext() && bIt.hasNext()) {
@@ -34,4 +42,14 @@ public final class LexicographicalComparator<T> implements Comparator<Iterable<T
     }
     return Boolean.compare(aIt.hasNext(), bIt.hasNext());
   }
+
+  /** Lists we use are almost always array backed, which can be compared without iterators. */
+  private int compareRandomAccess(List<T> a, List<T> b) {
+    int size = Math.min(a.size(), b.size());
+    for (int i = 0; i < size; ++i) {
+      var cmp = elementComparator.compare(a.get(i), b.get(i));
+      if (cmp != 0) return cmp;
+    }
+    return Integer.compare(a.size(), b.size());
+  }
 }
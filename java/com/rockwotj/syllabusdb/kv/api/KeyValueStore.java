@@ -1,7 +1,10 @@
 package com.rockwotj.syllabusdb.kv.api;
 
 import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -14,9 +17,12 @@ import javax.annotation.Nullable;
  * <ul>
  *   <li>A cursor that operates on a snapshot of the data.
  *   <li>An atomic batch write operation.
+ *   <li>Bulk ingestion of sorted data.
  * </ul>
  */
 public interface KeyValueStore {
+  /** The number of entries per write batch in the default implementation of `ingest`. */
+  int DEFAULT_INGEST_BATCH_SIZE = 1024;
 
   /**
    * Returning a cursor over a snapshot of the key/value store. This cursor will not be updated as
@@ -31,6 +37,35 @@ public interface KeyValueStore {
     write(List.of(batch));
   }
 
+  /**
+   * Insert a large amount of data that is already sorted by key, such as for an initial load.
+   * Existing keys are overwritten.
+   *
+   * <p>Stores should override this to build their structures directly from the sorted data, the
+   * default implementation just writes it in batches. Unlike `write` ingestion is not atomic.
+   *
+   * @throws IllegalArgumentException if the keys are not in strictly increasing order.
+   */
+  default void ingest(@Nonnull Iterator<Map.Entry<ByteArray, ByteArray>> sorted) {
+    var batch = new ArrayList<Write>();
+    ByteArray previous = null;
+    while (sorted.hasNext()) {
+      var entry = sorted.next();
+      if (previous != null && previous.compareTo(entry.getKey()) >= 0) {
+        throw new IllegalArgumentException("Ingested keys are not sorted at: " + entry.getKey());
+      }
+      previous = entry.getKey();
+      batch.add(Write.put(entry.getKey(), entry.getValue()));
+      if (batch.size() == DEFAULT_INGEST_BATCH_SIZE) {
+        write(batch);
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      write(batch);
+    }
+  }
+
   /**
    * A bidirectional iterator over a key/value store.
    *
@@ -82,6 +117,13 @@ public interface KeyValueStore {
     @Nonnull
     ByteArray value();
 
+    /**
+     * A new cursor over the same snapshot as this one, which isn't positioned and must be closed
+     * separately. Like iterators sharing a LevelDB snapshot, this lets several cursors each keep
+     * their own position in a consistent view of the store.
+     */
+    Cursor fork();
+
     @Override
     public void close();
   }
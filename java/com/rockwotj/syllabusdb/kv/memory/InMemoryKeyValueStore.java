@@ -1,7 +1,10 @@
 package com.rockwotj.syllabusdb.kv.memory;
 
+import com.google.common.collect.ImmutableSortedMap;
 import com.rockwotj.syllabusdb.core.bytes.ByteArray;
 import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -30,6 +33,46 @@ public final class InMemoryKeyValueStore implements KeyValueStore {
     }
     this.data = copy;
   }
+
+  @Override
+  public void ingest(@Nonnull Iterator<Map.Entry<ByteArray, ByteArray>> sorted) {
+    // Drain the input before taking the lock, as it may be coming from disk.
+    var incoming = new ArrayList<Map.Entry<ByteArray, ByteArray>>();
+    ByteArray previous = null;
+    while (sorted.hasNext()) {
+      var entry = sorted.next();
+      if (previous != null && previous.compareTo(entry.getKey()) >= 0) {
+        throw new IllegalArgumentException("Ingested keys are not sorted at: " + entry.getKey());
+      }
+      previous = entry.getKey();
+      incoming.add(Map.entry(entry.getKey(), entry.getValue()));
+    }
+    synchronized (this) {
+      // Merge with the existing data in a single pass. The builder's sort is linear for entries
+      // that are already in order, so the whole ingest is linear rather than an insert per entry.
+      var merged = ImmutableSortedMap.<ByteArray, ByteArray>naturalOrder();
+      var existing = data.entrySet().iterator();
+      var current = existing.hasNext() ? existing.next() : null;
+      for (var entry : incoming) {
+        while (current != null && current.getKey().compareTo(entry.getKey()) < 0) {
+          merged.put(current);
+          current = existing.hasNext() ? existing.next() : null;
+        }
+        if (current != null && current.getKey().equals(entry.getKey())) {
+          // Overwritten by the ingested value.
+          current = existing.hasNext() ? existing.next() : null;
+        }
+        merged.put(entry);
+      }
+      while (current != null) {
+        merged.put(current);
+        current = existing.hasNext() ? existing.next() : null;
+      }
+      // The data is never mutated in place, so an immutable map works as well as a TreeMap, and
+      // the next write copies it into a TreeMap in linear time.
+      this.data = merged.buildOrThrow();
+    }
+  }
 }
 
 final class InMemoryCursor implements KeyValueStore.Cursor {
@@ -95,6 +138,11 @@ final class InMemoryCursor implements KeyValueStore.Cursor {
     return this.current.getValue();
   }
 
+  @Override
+  public KeyValueStore.Cursor fork() {
+    return new InMemoryCursor(this.data);
+  }
+
   @Override
   public void close() {
     // Nothing to do for now.
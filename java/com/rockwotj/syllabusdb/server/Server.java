@@ -1,24 +1,45 @@
 package com.rockwotj.syllabusdb.server;
 
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.catalog.IndexCatalog;
+import com.rockwotj.syllabusdb.core.query.PlanNode;
+import com.rockwotj.syllabusdb.core.query.converter.QueryConverter;
+import com.rockwotj.syllabusdb.core.query.exec.QueryExecutor;
+import com.rockwotj.syllabusdb.core.stats.StatisticsStore;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import com.rockwotj.syllabusdb.server.operations.query.QueryOperation;
 import io.javalin.Javalin;
+import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
 import io.javalin.http.ServiceUnavailableResponse;
+import java.io.IOException;
+import javax.annotation.Nonnull;
 
 /** The server! */
 public final class Server implements AutoCloseable {
 
   private final Javalin app;
+  private final QueryOperation queryOperation;
 
-  private Server() {
+  private Server(@Nonnull KeyValueStore store) {
+    var catalog = IndexCatalog.load(store);
+    var statistics = StatisticsStore.load(store, catalog.all());
+    this.queryOperation = new QueryOperation(catalog, statistics, new QueryExecutor(store));
     this.app =
         Javalin.create()
             .post("/lookup", this::lookup)
             .post("/query", this::query)
+            .post("/aggregate", this::aggregate)
             .post("/write", this::write);
   }
 
   public static Server create() {
-    return new Server();
+    return create(new InMemoryKeyValueStore());
+  }
+
+  public static Server create(@Nonnull KeyValueStore store) {
+    return new Server(store);
   }
 
   public static void main(String[] args) {
@@ -34,8 +55,29 @@ public final class Server implements AutoCloseable {
     throw new ServiceUnavailableResponse();
   }
 
-  private void query(Context context) {
-    throw new ServiceUnavailableResponse();
+  private void query(Context context) throws IOException {
+    // Invalid queries are rejected before any of the response is written.
+    QueryOperation.Prepared prepared;
+    try {
+      var query = QueryConverter.fromBytes(ByteArray.wrap(context.bodyAsBytes()));
+      prepared = queryOperation.prepare(query, context.queryParam("continuation"));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestResponse(e.getMessage());
+    }
+    context.contentType(QueryOperation.CONTENT_TYPE);
+    queryOperation.stream(prepared, context.outputStream());
+  }
+
+  private void aggregate(Context context) throws IOException {
+    PlanNode plan;
+    try {
+      var aggregation = QueryConverter.aggregateFromBytes(ByteArray.wrap(context.bodyAsBytes()));
+      plan = queryOperation.prepare(aggregation);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestResponse(e.getMessage());
+    }
+    context.contentType(QueryOperation.CONTENT_TYPE);
+    queryOperation.streamAggregate(plan, context.outputStream());
   }
 
   private void write(Context context) {
@@ -0,0 +1,193 @@
+package com.rockwotj.syllabusdb.server.operations.query;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.catalog.IndexCatalog;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.query.AggregateQuery;
+import com.rockwotj.syllabusdb.core.query.PlanNode;
+import com.rockwotj.syllabusdb.core.query.Query;
+import com.rockwotj.syllabusdb.core.query.QueryPlanner;
+import com.rockwotj.syllabusdb.core.query.exec.Continuation;
+import com.rockwotj.syllabusdb.core.query.exec.QueryExecutor;
+import com.rockwotj.syllabusdb.core.stats.StatisticsStore;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Runs a query and streams its results as newline delimited JSON, one document per line.
+ *
+ * <p>Documents are written as each batch is produced instead of being collected into a single
+ * response, so the memory used by a request is bounded by a batch, the output buffer and any sort
+ * buffers, no matter how many documents match. Writes block while the client isn't reading, which
+ * in turn stops the query from reading ahead of it.
+ *
+ * <p>The query's snapshot of the store is only held open while its results are being streamed.
+ *
+ * <p>Results are paged with the query's limit. When a page is full, its last line is a {@code
+ * {"continuation": "..."}} object instead of a document, holding an opaque token for the next page.
+ * The next page is requested with the same query and token, and seeks straight past the end of the
+ * previous page, so every page costs about the same as the first. Pages don't share a snapshot, so
+ * they reflect any writes made in between.
+ *
+ * <p>Aggregations are streamed the same way, with a {@code {"group": ..., "values": [...]}} line
+ * for each group, where the values are in the order of the aggregation's functions and a MIN or MAX
+ * over no values is null. Ungrouped aggregations have a single line without a group.
+ */
+@ThreadSafe
+public final class QueryOperation {
+  public static final String CONTENT_TYPE = "application/x-ndjson";
+
+  private static final int OUTPUT_BUFFER_BYTES = 64 << 10;
+  private static final FieldName GROUP = FieldName.of("group");
+  private static final FieldName VALUES = FieldName.of("values");
+
+  /**
+   * A query and the plan to run it with.
+   *
+   * @param after where the previous page ended, or null for the first page.
+   */
+  public record Prepared(
+      @Nonnull Query query, @Nonnull PlanNode plan, @Nullable Continuation after) {}
+
+  @Nonnull private final IndexCatalog catalog;
+  @Nonnull private final StatisticsStore statistics;
+  @Nonnull private final QueryExecutor executor;
+
+  public QueryOperation(
+      @Nonnull IndexCatalog catalog,
+      @Nonnull StatisticsStore statistics,
+      @Nonnull QueryExecutor executor) {
+    this.catalog = Objects.requireNonNull(catalog);
+    this.statistics = Objects.requireNonNull(statistics);
+    this.executor = Objects.requireNonNull(executor);
+  }
+
+  /**
+   * Plan `query` against the current indexes, before anything is written.
+   *
+   * @param continuation the token from the end of the previous page, or null for the first page.
+   * @throws IllegalArgumentException if the token is invalid, or its plan can no longer be used
+   *     because an index it reads was dropped.
+   */
+  public Prepared prepare(@Nonnull Query query, @Nullable String continuation) {
+    var candidates = new QueryPlanner(catalog.all(), statistics::get).candidates(query);
+    if (continuation != null) {
+      var after = decodeToken(continuation);
+      // The cheapest plan can change between pages as statistics do, so stick with the first.
+      for (PlanNode plan : candidates) {
+        if (Continuation.fingerprint(plan) == after.plan()) {
+          return new Prepared(query, plan, after);
+        }
+      }
+      throw new IllegalArgumentException("Continuation has expired");
+    }
+    if (query.hasLimit()) {
+      // Only full pages have a continuation, so only they need a plan that can be resumed.
+      for (PlanNode plan : candidates) {
+        if (QueryExecutor.canResume(plan)) {
+          return new Prepared(query, plan, null);
+        }
+      }
+    }
+    return new Prepared(query, candidates.get(0), null);
+  }
+
+  /**
+   * Execute a prepared query and write every result to `out`, followed by the continuation if the
+   * page is full. If writing fails part way through, the query is stopped and the error is
+   * rethrown; the response can only be aborted at that point.
+   *
+   * @return the number of documents written.
+   */
+  public long stream(@Nonnull Prepared prepared, @Nonnull OutputStream out) throws IOException {
+    var buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_BYTES);
+    long count = 0;
+    try (var results = executor.execute(prepared.plan(), List.of(), prepared.after())) {
+      for (var batch = results.next(); batch != null; batch = results.next()) {
+        for (int i = 0; i < batch.size(); ++i) {
+          DocConverter.toBytes(batch.document(i)).writeTo(buffered);
+          buffered.write('\n');
+        }
+        count += batch.size();
+        // Send each batch as it's ready, rather than waiting for the whole result.
+        buffered.flush();
+      }
+      var query = prepared.query();
+      var continuation = results.continuation();
+      if (query.hasLimit()
+          && count == query.limit()
+          && continuation != null
+          && QueryExecutor.canResume(prepared.plan())) {
+        var line = "{\"continuation\":\"" + encodeToken(continuation) + "\"}\n";
+        buffered.write(line.getBytes(StandardCharsets.UTF_8));
+        buffered.flush();
+      }
+    }
+    return count;
+  }
+
+  /** Plan `aggregation` against the current indexes, before anything is written. */
+  public PlanNode prepare(@Nonnull AggregateQuery aggregation) {
+    return new QueryPlanner(catalog.all(), statistics::get).plan(aggregation);
+  }
+
+  /**
+   * Execute an aggregate plan and write each group to `out`.
+   *
+   * @return the number of groups written.
+   */
+  public long streamAggregate(@Nonnull PlanNode plan, @Nonnull OutputStream out)
+      throws IOException {
+    var buffered = new BufferedOutputStream(out, OUTPUT_BUFFER_BYTES);
+    long count = 0;
+    try (var results = executor.aggregate(plan)) {
+      for (var group = results.next(); group != null; group = results.next()) {
+        var fields = new TreeMap<FieldName, Value>();
+        if (group.key() != null) {
+          fields.put(GROUP, group.key());
+        }
+        List<Value> values = new ArrayList<>();
+        for (Value value : group.values()) {
+          values.add(value == null ? Value.NULL : value);
+        }
+        fields.put(VALUES, Value.of(values));
+        DocConverter.toBytes(Value.of(fields)).writeTo(buffered);
+        buffered.write('\n');
+        ++count;
+        // Streamed groups are only produced as their input is read, so send each one right away.
+        buffered.flush();
+      }
+    }
+    return count;
+  }
+
+  /** Tokens are URL safe, so they can be passed as a query parameter. */
+  private static String encodeToken(Continuation continuation) {
+    var bytes = continuation.toBytes();
+    var output = new ByteArrayOutputStream(bytes.length());
+    try {
+      bytes.writeTo(output);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(output.toByteArray());
+  }
+
+  private static Continuation decodeToken(String token) {
+    return Continuation.fromBytes(ByteArray.wrap(Base64.getUrlDecoder().decode(token)));
+  }
+}
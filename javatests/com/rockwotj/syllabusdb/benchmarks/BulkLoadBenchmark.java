@@ -0,0 +1,97 @@
+package com.rockwotj.syllabusdb.benchmarks;
+
+import com.rockwotj.syllabusdb.core.bulk.BulkLoader;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares an initial load of documents through batched writes against the bulk loader.
+ *
+ * <p>Run with: bazel run //javatests/com/rockwotj/syllabusdb/benchmarks:BulkLoadBenchmark
+ */
+public final class BulkLoadBenchmark {
+  private static final int DOCUMENTS = 100_000;
+  private static final int BATCH_SIZE = 1_000;
+  private static final CollectionId USERS = new CollectionId("users");
+
+  public static void main(String[] args) throws IOException {
+    var random = new Random(42);
+    var documents = new ArrayList<Document>();
+    for (int i = 0; i < DOCUMENTS; ++i) {
+      var fields =
+          Map.of(
+              FieldName.of("age"), Value.of(random.nextInt(100)),
+              FieldName.of("name"), Value.of("user" + random.nextInt()));
+      documents.add(new Document(new DocId("user" + i), USERS, fields));
+    }
+    // Imports rarely arrive in key order.
+    Collections.shuffle(documents, random);
+    var indexer =
+        new Indexer(
+            List.of(
+                new Index(
+                    new IndexId(1),
+                    new IndexName("byAge"),
+                    USERS,
+                    List.of(new IndexField(FieldPath.parse("age"), Direction.ASCENDING))),
+                new Index(
+                    new IndexId(2),
+                    new IndexName("byName"),
+                    USERS,
+                    List.of(new IndexField(FieldPath.parse("name"), Direction.DESCENDING)))));
+
+    for (int round = 0; round < 3; ++round) {
+      long start = System.nanoTime();
+      var store = new InMemoryKeyValueStore();
+      var batch = new ArrayList<KeyValueStore.Write>();
+      for (var document : documents) {
+        batch.add(
+            KeyValueStore.Write.put(
+                DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+        batch.addAll(indexer.diff(null, document));
+        if (batch.size() >= BATCH_SIZE) {
+          store.write(batch);
+          batch.clear();
+        }
+      }
+      store.write(batch);
+      long writes = System.nanoTime() - start;
+
+      var spillDirectory = Files.createTempDirectory("bulkload");
+      start = System.nanoTime();
+      var loader =
+          new BulkLoader(
+              new InMemoryKeyValueStore(),
+              indexer,
+              new BulkLoader.Options(spillDirectory, /* maxBufferedBytes= */ 64 << 20));
+      loader.load(documents.iterator());
+      long bulk = System.nanoTime() - start;
+      Files.delete(spillDirectory);
+
+      System.out.printf(
+          "round %d: batched writes %6d ms   bulk load %6d ms%n",
+          round, writes / 1_000_000, bulk / 1_000_000);
+    }
+  }
+}
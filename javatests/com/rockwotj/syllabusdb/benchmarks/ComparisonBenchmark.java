@@ -0,0 +1,130 @@
+package com.rockwotj.syllabusdb.benchmarks;
+
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Microbenchmarks for comparing values and field names, which is the hot path for sorting index
+ * entries and any ordered lookups.
+ *
+ * <p>Run with: bazel run //javatests/com/rockwotj/syllabusdb/benchmarks:ComparisonBenchmark
+ */
+public final class ComparisonBenchmark {
+  private static final int SIZE = 10_000;
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int MEASURED_ROUNDS = 20;
+
+  // Results are accumulated here so the JIT can't eliminate the benchmarked code.
+  private static long blackhole = 0;
+
+  public static void main(String[] args) {
+    var random = new Random(42);
+    var values = randomValues(random);
+    var names = randomNames(random);
+
+    run(
+        "sort Value[]",
+        SIZE,
+        () -> {
+          var copy = values.clone();
+          Arrays.sort(copy);
+          return copy[0].hashCode();
+        });
+
+    var valueMap = new TreeMap<Value, Integer>();
+    for (int i = 0; i < values.length; ++i) {
+      valueMap.put(values[i], i);
+    }
+    run(
+        "TreeMap<Value, ?>#get",
+        SIZE,
+        () -> {
+          int found = 0;
+          for (var value : values) {
+            if (valueMap.get(value) != null) ++found;
+          }
+          return found;
+        });
+
+    var nameMap = new TreeMap<FieldName, Integer>();
+    for (int i = 0; i < names.length; ++i) {
+      nameMap.put(names[i], i);
+    }
+    // Look up using distinct (non-interned) instances so the comparisons can't short circuit.
+    var lookups = new FieldName[names.length];
+    for (int i = 0; i < names.length; ++i) {
+      lookups[i] = new FieldName(names[i].raw());
+    }
+    run(
+        "TreeMap<FieldName, ?>#get",
+        SIZE,
+        () -> {
+          int found = 0;
+          for (var name : lookups) {
+            if (nameMap.get(name) != null) ++found;
+          }
+          return found;
+        });
+
+    System.out.println("(ignore) " + blackhole);
+  }
+
+  private static void run(String name, int opsPerRound, IntSupplier round) {
+    for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+      blackhole += round.getAsInt();
+    }
+    long best = Long.MAX_VALUE;
+    long total = 0;
+    for (int i = 0; i < MEASURED_ROUNDS; ++i) {
+      long start = System.nanoTime();
+      blackhole += round.getAsInt();
+      long elapsed = System.nanoTime() - start;
+      best = Math.min(best, elapsed);
+      total += elapsed;
+    }
+    System.out.printf(
+        "%-28s avg %8.1f ns/op   best %8.1f ns/op%n",
+        name, (double) total / MEASURED_ROUNDS / opsPerRound, (double) best / opsPerRound);
+  }
+
+  private static Value[] randomValues(Random random) {
+    var values = new Value[SIZE];
+    for (int i = 0; i < SIZE; ++i) {
+      values[i] =
+          switch (i % 4) {
+            case 0 -> Value.of(random.nextDouble());
+            case 1 -> Value.of(randomString(random));
+            case 2 -> Value.of(List.of(Value.of(randomString(random)), Value.of(i)));
+            default -> Value.of(
+                FieldName.of("name"),
+                Value.of(randomString(random)),
+                FieldName.of("rank"),
+                Value.of(i));
+          };
+    }
+    return values;
+  }
+
+  private static FieldName[] randomNames(Random random) {
+    var names = new ArrayList<FieldName>();
+    for (int i = 0; i < SIZE; ++i) {
+      names.add(new FieldName("field_" + randomString(random)));
+    }
+    return names.toArray(FieldName[]::new);
+  }
+
+  /** Strings with a long shared prefix, which is common for ids and makes comparisons expensive. */
+  private static String randomString(Random random) {
+    var builder = new StringBuilder("users_");
+    for (int i = 0; i < 12; ++i) {
+      builder.append((char) ('a' + random.nextInt(26)));
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,84 @@
+package com.rockwotj.syllabusdb.core.bulk;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ExternalSorterTest {
+  private Path spillDirectory;
+
+  @Before
+  public void setup() throws IOException {
+    spillDirectory = Files.createTempDirectory("sorter");
+  }
+
+  @After
+  public void teardown() throws IOException {
+    Files.delete(spillDirectory);
+  }
+
+  @Test
+  public void sortsAcrossSpilledRuns() throws IOException {
+    var random = new Random(42);
+    var expected = new TreeMap<ByteArray, ByteArray>();
+    var keys = new ArrayList<Integer>();
+    for (int i = 0; i < 1000; ++i) {
+      keys.add(i);
+    }
+    Collections.shuffle(keys, random);
+    try (var sorter = new ExternalSorter(spillDirectory, /* maxBufferedBytes= */ 4096)) {
+      for (int key : keys) {
+        sorter.add(bytes("key" + key), bytes("value" + key));
+        expected.put(bytes("key" + key), bytes("value" + key));
+      }
+      // Overwrite some keys, which should take the last value even across runs.
+      for (int i = 0; i < 1000; i += 7) {
+        sorter.add(bytes("key" + i), bytes("updated" + i));
+        expected.put(bytes("key" + i), bytes("updated" + i));
+      }
+      assertThat(sorter.spilledRuns()).isGreaterThan(1);
+      assertThat(drain(sorter)).containsExactlyElementsIn(expected.entrySet()).inOrder();
+    }
+    try (var files = Files.list(spillDirectory)) {
+      assertThat(files.count()).isEqualTo(0L);
+    }
+  }
+
+  @Test
+  public void sortsInMemory() {
+    try (var sorter = new ExternalSorter(spillDirectory, Long.MAX_VALUE)) {
+      sorter.add(bytes("b"), bytes("2"));
+      sorter.add(bytes("a"), bytes("1"));
+      sorter.add(bytes("b"), bytes("3"));
+      assertThat(sorter.spilledRuns()).isEqualTo(0);
+      assertThat(drain(sorter))
+          .containsExactly(Map.entry(bytes("a"), bytes("1")), Map.entry(bytes("b"), bytes("3")))
+          .inOrder();
+    }
+  }
+
+  private static List<Map.Entry<ByteArray, ByteArray>> drain(ExternalSorter sorter) {
+    var entries = new ArrayList<Map.Entry<ByteArray, ByteArray>>();
+    sorter.sorted().forEachRemaining(entries::add);
+    return entries;
+  }
+
+  private static ByteArray bytes(String s) {
+    return ByteArray.copyUtf8(s);
+  }
+}
@@ -0,0 +1,100 @@
+package com.rockwotj.syllabusdb.core.catalog;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.converter.IndexConverter;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IndexCatalogTest {
+  private static final CollectionId USERS = new CollectionId("users");
+  private static final List<IndexField> FIELDS =
+      List.of(
+          new IndexField(FieldPath.parse("name"), Direction.ASCENDING),
+          new IndexField(FieldPath.parse("address.zip"), Direction.DESCENDING));
+
+  private KeyValueStore store;
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+  }
+
+  @Test
+  public void assignsIncreasingIds() {
+    var catalog = IndexCatalog.load(store);
+    var byName = catalog.create(new IndexName("byName"), USERS, FIELDS);
+    var byAge = catalog.create(new IndexName("byAge"), USERS, FIELDS);
+    assertThat(byName.id()).isEqualTo(new IndexId(1));
+    assertThat(byAge.id()).isEqualTo(new IndexId(2));
+    assertThat(catalog.all()).containsExactly(byName, byAge).inOrder();
+    assertThat(catalog.get(new IndexName("byAge"))).isEqualTo(byAge);
+  }
+
+  @Test
+  public void persistsAcrossLoads() {
+    var catalog = IndexCatalog.load(store);
+    var byName = catalog.create(new IndexName("byName"), USERS, FIELDS);
+    var reloaded = IndexCatalog.load(store);
+    assertThat(reloaded.all()).containsExactly(byName);
+    assertThat(reloaded.create(new IndexName("byAge"), USERS, FIELDS).id())
+        .isEqualTo(new IndexId(2));
+  }
+
+  @Test
+  public void neverReusesIds() {
+    var catalog = IndexCatalog.load(store);
+    catalog.create(new IndexName("first"), USERS, FIELDS);
+    var second = catalog.create(new IndexName("second"), USERS, FIELDS);
+    catalog.drop(second.name());
+    var reloaded = IndexCatalog.load(store);
+    assertThat(reloaded.get(second.name())).isNull();
+    assertThat(reloaded.create(new IndexName("third"), USERS, FIELDS).id())
+        .isEqualTo(new IndexId(3));
+  }
+
+  @Test
+  public void rejectsDuplicateNames() {
+    var catalog = IndexCatalog.load(store);
+    catalog.create(new IndexName("byName"), USERS, FIELDS);
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> catalog.create(new IndexName("byName"), USERS, FIELDS));
+    assertThrows(IllegalArgumentException.class, () -> catalog.drop(new IndexName("missing")));
+  }
+
+  @Test
+  public void converterRoundTrips() {
+    var fields =
+        List.of(
+            new IndexField(FieldPath.parse("name"), Direction.ASCENDING),
+            new IndexField(FieldPath.parse("tags"), Direction.DESCENDING, true));
+    var included = List.of(FieldPath.parse("address.city"), FieldPath.parse("age"));
+    var filter =
+        new Filter(
+            new FieldFilter(FieldPath.parse("active"), Operator.EQUAL, Value.TRUE),
+            new FieldFilter(FieldPath.parse("age"), Operator.GREATER_THAN_OR_EQUAL, Value.of(18)));
+    var index =
+        IndexCatalog.load(store)
+            .create(new IndexName("byTags"), USERS, IndexKind.ORDERED, fields, included, filter);
+    assertThat(IndexConverter.fromBytes(IndexConverter.toBytes(index))).isEqualTo(index);
+  }
+}
@@ -0,0 +1,84 @@
+package com.rockwotj.syllabusdb.core.document.converter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.Path;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.testdata.Values;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class Utf8JsonParserTest {
+  private final Utf8JsonParser parser = new Utf8JsonParser();
+
+  @Test
+  public void parsesDocument() {
+    var doc =
+        parser.parseDocument(
+            ByteArray.copyUtf8(
+                "{\"b\": [1, -2.5, 1e3, \"\\u00e9\\n\"], \"_id\": \"users/bob\", \"a\": {\"z\": 1,"
+                    + " \"y\": null, \"z\": true}}"));
+    var expected =
+        new Document(
+            new Path(new CollectionId("users"), new DocId("bob")),
+            Map.of(
+                new FieldName("a"),
+                Value.of(new FieldName("y"), Value.NULL, new FieldName("z"), Value.TRUE),
+                new FieldName("b"),
+                Value.ofList(Value.of(1), Value.of(-2.5), Value.of(1000), Value.of("é\n"))));
+    assertThat(doc).isEqualTo(expected);
+  }
+
+  @Test
+  public void roundTripsValues() {
+    for (var value : Values.TOTAL_ORDER) {
+      // Gson refuses to serialize non-finite numbers.
+      if (value.type() == Value.Type.Number && !Double.isFinite(value.asDouble())) continue;
+      assertThat(parser.parseValue(DocConverter.toBytes(value))).isEqualTo(value);
+    }
+  }
+
+  @Test
+  public void parsesNumbersExactly() {
+    for (var raw : new String[] {"0.1", "3.14159", "-2.5e-3", "123456789012345678901", "1E22"}) {
+      assertThat(parser.parseValue(ByteArray.copyUtf8(raw)).asDouble())
+          .isEqualTo(Double.parseDouble(raw));
+    }
+  }
+
+  @Test
+  public void rejectsInvalidJson() {
+    for (var raw :
+        new String[] {"", "[1,]", "01", "{\"a\" 1}", "\"\\q\"", "tru", "1 2", "{\"1a\": 1}"}) {
+      assertThrows(
+          IllegalArgumentException.class, () -> parser.parseValue(ByteArray.copyUtf8(raw)));
+    }
+  }
+
+  @Test
+  public void sharesNestedFieldNames() {
+    var first = parser.parseValue(ByteArray.copyUtf8("{\"outer\": {\"inner\": 1}}"));
+    var second = parser.parseValue(ByteArray.copyUtf8("{\"outer\": {\"inner\": 2}}"));
+    var inner = first.asObject().get(FieldName.of("outer")).asObject().keySet().iterator().next();
+    var again = second.asObject().get(FieldName.of("outer")).asObject().keySet().iterator().next();
+    assertThat(again).isSameInstanceAs(inner);
+    assertThat(second.asObject().keySet().iterator().next())
+        .isSameInstanceAs(first.asObject().keySet().iterator().next());
+  }
+
+  @Test
+  public void requiresDocumentId() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> parser.parseDocument(ByteArray.copyUtf8("{\"a\": 1}")));
+  }
+}
@@ -16,14 +16,25 @@ public class Values {
           Value.NAN,
           Value.of(Double.NEGATIVE_INFINITY),
           Value.of(-Double.MAX_VALUE),
+          Value.of(-1024),
           Value.of(-Math.PI),
+          Value.of(-3),
+          Value.of(-2.5),
+          Value.of(-2),
+          Value.of(-1),
           Value.of(-Double.MIN_NORMAL),
           Value.of(-Double.MIN_VALUE),
           Value.of(-0.0),
           Value.of(+0.0),
           Value.of(Double.MIN_VALUE),
           Value.of(Double.MIN_NORMAL),
+          Value.of(1),
+          Value.of(1 + Math.ulp(1.0)),
+          Value.of(2),
+          Value.of(2.5),
+          Value.of(3),
           Value.of(Math.PI),
+          Value.of(1024),
           Value.of(Double.MAX_VALUE),
           Value.of(Double.POSITIVE_INFINITY),
           Value.of(""),
@@ -32,7 +43,11 @@ public class Values {
           Value.of(codepoints(0x61)),
           Value.of(codepoints(0x20ac)),
           Value.of(codepoints(0xFF61)),
+          Value.of(codepoints(0xFFFF)),
           Value.of(codepoints(0x10002)),
+          Value.of(codepoints(0x10002, 0x61)),
+          Value.of(codepoints(0x10002, 0xFF61)),
+          Value.of(codepoints(0x10002, 0x10000)),
           Value.of(codepoints(0x23456)),
           Value.EMPTY_LIST,
           Value.ofList(Value.NULL),
@@ -49,6 +49,45 @@ public class ValueTest {
     }
   }
 
+  @Test
+  public void integersAreCompact() {
+    // tag + number marker + 2 bytes + separator
+    assertThat(EncodedValue.asc(Value.of(42)).encoded().length()).isEqualTo(7);
+    assertThat(EncodedValue.desc(Value.of(-42)).encoded().length()).isEqualTo(7);
+  }
+
+  @Test
+  public void decodesLegacyDoubles() throws IOException {
+    // The original fixed width encoding of 1.0 (0xBFF0_0000_0000_0000 with 0x00 escaped).
+    var asc =
+        new byte[] {
+          0x05, (byte) 0xBF, (byte) 0xF0, 0, -1, 0, -1, 0, -1, 0, -1, 0, -1, 0, -1,
+        };
+    var decoder = new ValueDecoder(ByteArray.wrap(asc).toInputStream());
+    assertThat(decoder.asc().readValue()).isEqualTo(Value.of(1.0));
+    // The same value in descending order (with 0xFF escaped).
+    var desc =
+        new byte[] {
+          (byte) 0xFA, 0x40, 0x0F, -1, 0, -1, 0, -1, 0, -1, 0, -1, 0, -1, 0,
+        };
+    decoder = new ValueDecoder(ByteArray.wrap(desc).toInputStream());
+    assertThat(decoder.desc().readValue()).isEqualTo(Value.of(1.0));
+  }
+
+  @Test
+  public void varintOrderAndRoundTrip() throws IOException {
+    var encoded = new ArrayList<ByteArray>();
+    for (long v : new long[] {0, 1, 0xF7, 0xF8, 0xFF, 0x100, 0xFFFF, 1L << 40, Long.MAX_VALUE}) {
+      var encoder = new ValueEncoder();
+      encoder.asc().writeVarint(v);
+      var bytes = encoder.toByteArray();
+      assertThat(new ValueDecoder(bytes.toInputStream()).asc().readVarint()).isEqualTo(v);
+      encoded.add(bytes);
+    }
+    assertThat(encoded).isInStrictOrder();
+    assertThat(encoded.get(1).length()).isEqualTo(1);
+  }
+
   private record EncodedValue(Value value, ByteArray encoded) implements Comparable<EncodedValue> {
     public static EncodedValue asc(Value value) {
       var encoder = new ValueEncoder();
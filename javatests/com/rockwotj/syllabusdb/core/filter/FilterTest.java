@@ -0,0 +1,89 @@
+package com.rockwotj.syllabusdb.core.filter;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class FilterTest {
+  private static final FieldPath AGE = FieldPath.parse("age");
+  private static final FieldPath STATUS = FieldPath.parse("status");
+
+  private static FieldFilter age(Operator op, double value) {
+    return new FieldFilter(AGE, op, Value.of(value));
+  }
+
+  private static Document user(Value age) {
+    return new Document(
+        new DocId("user"),
+        new CollectionId("users"),
+        Map.of(FieldName.of("age"), age, FieldName.of("status"), Value.of("active")));
+  }
+
+  @Test
+  public void rangesOnlyMatchTheSameType() {
+    var adults = new Filter(age(Operator.GREATER_THAN_OR_EQUAL, 18));
+    assertThat(adults.matches(user(Value.of(18)))).isTrue();
+    assertThat(adults.matches(user(Value.of(17)))).isFalse();
+    // Strings sort after numbers, but aren't in range of a number.
+    assertThat(adults.matches(user(Value.of("old")))).isFalse();
+    assertThat(new Filter(age(Operator.EQUAL, 18)).matches(user(Value.of("18")))).isFalse();
+    assertThat(Filter.ALL.matches(user(Value.NULL))).isTrue();
+  }
+
+  @Test
+  public void containmentMatchesListElements() {
+    var contains = age(Operator.ARRAY_CONTAINS, 18);
+    var ages = Value.of(List.of(Value.of(18), Value.of("18")));
+    assertThat(contains.matches(ages)).isTrue();
+    assertThat(contains.matches(Value.of(18))).isFalse();
+    assertThat(contains.matches(Value.of(List.of(Value.of("18"))))).isFalse();
+    // Equality compares the whole list.
+    assertThat(age(Operator.EQUAL, 18).matches(ages)).isFalse();
+    assertThat(new FieldFilter(AGE, Operator.EQUAL, ages).implies(contains)).isTrue();
+    assertThat(contains.implies(age(Operator.ARRAY_CONTAINS, 18))).isTrue();
+    assertThat(contains.implies(age(Operator.EQUAL, 18))).isFalse();
+    assertThat(age(Operator.EQUAL, 18).implies(contains)).isFalse();
+  }
+
+  @Test
+  public void missingFieldsNeverMatch() {
+    var filter = new Filter(new FieldFilter(FieldPath.parse("name"), Operator.EQUAL, Value.NULL));
+    assertThat(filter.matches(user(Value.of(1)))).isFalse();
+  }
+
+  @Test
+  public void narrowerRangesImplyWiderRanges() {
+    assertThat(age(Operator.LESS_THAN, 5).implies(age(Operator.LESS_THAN, 10))).isTrue();
+    assertThat(age(Operator.LESS_THAN, 5).implies(age(Operator.LESS_THAN_OR_EQUAL, 5))).isTrue();
+    assertThat(age(Operator.LESS_THAN_OR_EQUAL, 5).implies(age(Operator.LESS_THAN, 5))).isFalse();
+    assertThat(age(Operator.LESS_THAN, 10).implies(age(Operator.LESS_THAN, 5))).isFalse();
+    assertThat(age(Operator.GREATER_THAN, 30).implies(age(Operator.GREATER_THAN_OR_EQUAL, 18)))
+        .isTrue();
+    assertThat(age(Operator.GREATER_THAN, 30).implies(age(Operator.LESS_THAN, 100))).isFalse();
+    assertThat(age(Operator.EQUAL, 20).implies(age(Operator.GREATER_THAN, 18))).isTrue();
+    assertThat(age(Operator.EQUAL, 20).implies(age(Operator.EQUAL, 21))).isFalse();
+  }
+
+  @Test
+  public void queriesImplyFiltersTheyNarrow() {
+    var active = new FieldFilter(STATUS, Operator.EQUAL, Value.of("active"));
+    var index = new Filter(active, age(Operator.GREATER_THAN_OR_EQUAL, 18));
+
+    assertThat(new Filter(age(Operator.GREATER_THAN, 30), active).implies(index)).isTrue();
+    assertThat(new Filter(age(Operator.GREATER_THAN, 30)).implies(index)).isFalse();
+    assertThat(Filter.ALL.implies(index)).isFalse();
+    assertThat(Filter.ALL.implies(Filter.ALL)).isTrue();
+    assertThat(index.implies(Filter.ALL)).isTrue();
+  }
+}
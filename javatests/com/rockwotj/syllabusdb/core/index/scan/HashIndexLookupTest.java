@@ -0,0 +1,115 @@
+package com.rockwotj.syllabusdb.core.index.scan;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.index.converter.IndexConverter;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HashIndexLookupTest {
+  private static final CollectionId USERS = new CollectionId("users");
+  private static final FieldName EMAIL = FieldName.of("email");
+  private static final Index BY_EMAIL =
+      new Index(
+          new IndexId(1),
+          new IndexName("byEmail"),
+          USERS,
+          IndexKind.HASH,
+          List.of(new IndexField(FieldPath.parse("email"), Direction.ASCENDING)),
+          List.of(),
+          Filter.ALL,
+          IndexState.READY);
+
+  private KeyValueStore store;
+  private Indexer indexer;
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+    indexer = new Indexer(List.of(BY_EMAIL));
+  }
+
+  private static Document user(String id, String email) {
+    return new Document(new DocId(id), USERS, Map.of(EMAIL, Value.of(email)));
+  }
+
+  private void write(Document document) {
+    var writes = new ArrayList<KeyValueStore.Write>();
+    writes.add(
+        KeyValueStore.Write.put(
+            DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+    writes.addAll(indexer.diff(null, document));
+    store.write(writes);
+  }
+
+  @Test
+  public void findsDocumentsByEquality() {
+    var alice = user("alice", "alice@example.com");
+    var bob = user("bob", "bob@example.com");
+    var bobAgain = user("bob2", "bob@example.com");
+    write(alice);
+    write(bob);
+    write(bobAgain);
+
+    var lookup = new HashIndexLookup(store, BY_EMAIL);
+    assertThat(lookup.lookup(List.of(Value.of("bob@example.com"))))
+        .containsExactly(bob, bobAgain)
+        .inOrder();
+    assertThat(lookup.lookup(List.of(Value.of("alice@example.com")))).containsExactly(alice);
+    assertThat(lookup.lookup(List.of(Value.of("carol@example.com")))).isEmpty();
+  }
+
+  @Test
+  public void keysAreFixedWidth() {
+    var longEmail = "x".repeat(1000) + "@example.com";
+    var writes = indexer.diff(null, user("a", longEmail));
+    var shortWrites = indexer.diff(null, user("b", "b@example.com"));
+    // Keyspace and index id, the fingerprint, and the document id.
+    assertThat(writes.get(0).key().length()).isEqualTo(2 + Long.BYTES + 3);
+    assertThat(shortWrites.get(0).key().length()).isEqualTo(writes.get(0).key().length());
+  }
+
+  @Test
+  public void verifiesCandidatesAgainstTheDocument() {
+    write(user("alice", "alice@example.com"));
+    // Change the document without updating the index, like a colliding entry would look.
+    var changed = user("alice", "alice@example.org");
+    store.write(
+        KeyValueStore.Write.put(
+            DocumentKeys.encode(changed.path()), DocConverter.toBytes(changed)));
+
+    var lookup = new HashIndexLookup(store, BY_EMAIL);
+    assertThat(lookup.lookup(List.of(Value.of("alice@example.com")))).isEmpty();
+  }
+
+  @Test
+  public void kindRoundTrips() {
+    assertThat(IndexConverter.fromBytes(IndexConverter.toBytes(BY_EMAIL))).isEqualTo(BY_EMAIL);
+    assertThat(IndexConverter.toBytes(BY_EMAIL).toUtf8()).contains("\"kind\":\"hash\"");
+  }
+}
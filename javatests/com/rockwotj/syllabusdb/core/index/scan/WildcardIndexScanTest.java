@@ -0,0 +1,197 @@
+package com.rockwotj.syllabusdb.core.index.scan;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.index.converter.IndexConverter;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WildcardIndexScanTest {
+  private static final CollectionId PRODUCTS = new CollectionId("products");
+  private static final FieldName NAME = FieldName.of("name");
+  private static final FieldName ATTRS = FieldName.of("attrs");
+
+  private static Index wildcard(long id, List<IndexField> fields) {
+    return new Index(
+        new IndexId(id),
+        new IndexName("wildcard" + id),
+        PRODUCTS,
+        IndexKind.WILDCARD,
+        fields,
+        List.of(),
+        Filter.ALL,
+        IndexState.READY);
+  }
+
+  private static final Index ALL_FIELDS = wildcard(1, List.of());
+  private static final Index ATTRS_DESC =
+      wildcard(2, List.of(new IndexField(FieldPath.parse("attrs"), Direction.DESCENDING)));
+
+  private KeyValueStore store;
+  private Indexer indexer;
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+    indexer = new Indexer(List.of(ALL_FIELDS, ATTRS_DESC));
+  }
+
+  private static Document product(String id, String name, Map<FieldName, Value> attrs) {
+    return new Document(
+        new DocId(id),
+        PRODUCTS,
+        Map.of(NAME, Value.of(name), ATTRS, Value.of(new TreeMap<>(attrs))));
+  }
+
+  private void write(@Nullable Document before, Document after) {
+    var writes = new ArrayList<KeyValueStore.Write>();
+    writes.add(
+        KeyValueStore.Write.put(DocumentKeys.encode(after.path()), DocConverter.toBytes(after)));
+    writes.addAll(indexer.diff(before, after));
+    store.write(writes);
+  }
+
+  private static FieldFilter filter(String path, Operator op, Value value) {
+    return new FieldFilter(FieldPath.parse(path), op, value);
+  }
+
+  @Test
+  public void findsDocumentsByAnyPath() {
+    var lamp =
+        product(
+            "lamp",
+            "Lamp",
+            Map.<FieldName, Value>of(
+                FieldName.of("color"), Value.of("red"),
+                FieldName.of("watts"), Value.of(60)));
+    var desk =
+        product(
+            "desk",
+            "Desk",
+            Map.<FieldName, Value>of(
+                FieldName.of("color"),
+                Value.of(List.of(Value.of("brown"), Value.of("red"))),
+                FieldName.of("size"),
+                Value.of(new TreeMap<>(Map.of(FieldName.of("width"), Value.of(120))))));
+    var bulb = product("bulb", "Bulb", Map.of(FieldName.of("watts"), Value.of(9)));
+    write(null, lamp);
+    write(null, desk);
+    write(null, bulb);
+
+    for (var index : List.of(ALL_FIELDS, ATTRS_DESC)) {
+      var scan = new WildcardIndexScan(store, index);
+      assertThat(scan.find(filter("attrs.color", Operator.EQUAL, Value.of("red"))))
+          .containsExactly(lamp);
+      assertThat(scan.find(filter("attrs.color", Operator.ARRAY_CONTAINS, Value.of("red"))))
+          .containsExactly(desk);
+      assertThat(scan.find(filter("attrs.size.width", Operator.GREATER_THAN, Value.of(100))))
+          .containsExactly(desk);
+      assertThat(scan.find(filter("attrs.watts", Operator.LESS_THAN_OR_EQUAL, Value.of(60))))
+          .containsExactly(bulb, lamp)
+          .inOrder();
+      assertThat(scan.find(filter("attrs.watts", Operator.GREATER_THAN, Value.of(9))))
+          .containsExactly(lamp);
+      assertThat(scan.find(filter("attrs.watts", Operator.LESS_THAN, Value.of("a")))).isEmpty();
+    }
+    assertThat(
+            new WildcardIndexScan(store, ALL_FIELDS)
+                .find(filter("name", Operator.GREATER_THAN_OR_EQUAL, Value.of("C"))))
+        .containsExactly(desk, lamp)
+        .inOrder();
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new WildcardIndexScan(store, ATTRS_DESC)
+                .find(filter("name", Operator.EQUAL, Value.of("Desk"))));
+  }
+
+  @Test
+  public void rangesOnlyMatchTheirType() {
+    var values =
+        List.of(
+            Value.NULL,
+            Value.of(false),
+            Value.of(true),
+            Value.of(-1),
+            Value.of(5),
+            Value.of(10),
+            Value.of(""),
+            Value.of("m"),
+            Value.of("z"),
+            Value.of(List.of(Value.of(5), Value.of("m"))),
+            Value.of(List.of(Value.of(true))));
+    var products = new ArrayList<Document>();
+    for (int i = 0; i < values.size(); ++i) {
+      var product = product("p" + i, "P" + i, Map.of(FieldName.of("v"), values.get(i)));
+      products.add(product);
+      write(null, product);
+    }
+
+    var constants = List.of(Value.NULL, Value.of(true), Value.of(5), Value.of("m"));
+    for (var index : List.of(ALL_FIELDS, ATTRS_DESC)) {
+      var scan = new WildcardIndexScan(store, index);
+      for (var op : Operator.values()) {
+        for (var constant : constants) {
+          var filter = filter("attrs.v", op, constant);
+          var expected = new ArrayList<Document>();
+          for (int i = 0; i < values.size(); ++i) {
+            if (filter.matches(values.get(i))) {
+              expected.add(products.get(i));
+            }
+          }
+          assertThat(scan.find(filter)).containsExactlyElementsIn(expected);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void updatesRemoveStaleEntries() {
+    var before = product("lamp", "Lamp", Map.of(FieldName.of("color"), Value.of("red")));
+    write(null, before);
+    var after = product("lamp", "Lamp", Map.of(FieldName.of("color"), Value.of("blue")));
+    write(before, after);
+
+    var scan = new WildcardIndexScan(store, ALL_FIELDS);
+    assertThat(scan.find(filter("attrs.color", Operator.EQUAL, Value.of("red")))).isEmpty();
+    assertThat(scan.find(filter("attrs.color", Operator.EQUAL, Value.of("blue"))))
+        .containsExactly(after);
+  }
+
+  @Test
+  public void kindRoundTrips() {
+    for (var index : List.of(ALL_FIELDS, ATTRS_DESC)) {
+      assertThat(IndexConverter.fromBytes(IndexConverter.toBytes(index))).isEqualTo(index);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.rockwotj.syllabusdb.core.index.text;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Value;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PostingListsTest {
+
+  private static List<DocId> ids(int... numbers) {
+    return IntStream.of(numbers)
+        .mapToObj((n) -> new DocId(String.format("doc%05d", n)))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void tokenizesWords() {
+    assertThat(Tokenizer.tokenize("The quick, brown FOX -- the end!"))
+        .containsExactly("brown", "end", "fox", "quick", "the")
+        .inOrder();
+    assertThat(Tokenizer.terms(Value.of(List.of(Value.of("Hello world"), Value.of(1)))))
+        .containsExactly("hello", "world");
+    assertThat(Tokenizer.terms(Value.of(42))).isEmpty();
+    assertThat(Tokenizer.tokenize("a" + "b".repeat(Tokenizer.MAX_TERM_LENGTH) + " c"))
+        .containsExactly("c");
+  }
+
+  @Test
+  public void blocksRoundTrip() {
+    var postings = new ArrayList<DocId>();
+    for (int i = 0; i < 500; i += 3) {
+      postings.add(new DocId(String.format("doc%05d", i)));
+    }
+    var block = PostingBlock.encode(postings);
+    assertThat(PostingBlock.decode(block)).isEqualTo(postings);
+    // Front coding shares the "doc00" prefix, so each id takes a few bytes rather than 8.
+    assertThat(block.length()).isLessThan(postings.size() * 6);
+    assertThat(PostingBlock.decode(PostingBlock.encode(List.of()))).isEmpty();
+  }
+
+  @Test
+  public void intersects() {
+    assertThat(PostingLists.intersect(ids(1, 3, 5, 7, 9), ids(2, 3, 4, 9, 10)))
+        .containsExactlyElementsIn(ids(3, 9))
+        .inOrder();
+    assertThat(PostingLists.intersect(ids(), ids(1, 2))).isEmpty();
+    assertThat(PostingLists.intersect(ids(5), ids(1, 2, 3))).isEmpty();
+  }
+
+  @Test
+  public void intersectsRareAndCommonLists() {
+    var common = ids(IntStream.range(0, 10000).toArray());
+    var rare = ids(0, 17, 4096, 9999);
+    assertThat(PostingLists.intersect(rare, common)).containsExactlyElementsIn(rare).inOrder();
+    assertThat(PostingLists.intersect(common, rare)).containsExactlyElementsIn(rare).inOrder();
+    var evens = ids(IntStream.range(0, 5000).map((i) -> i * 2).toArray());
+    assertThat(PostingLists.intersect(ids(1, 2, 3, 9998, 9999), evens))
+        .containsExactlyElementsIn(ids(2, 9998))
+        .inOrder();
+  }
+
+  @Test
+  public void unions() {
+    assertThat(PostingLists.union(ids(1, 3, 5), ids(2, 3, 6)))
+        .containsExactlyElementsIn(ids(1, 2, 3, 5, 6))
+        .inOrder();
+    assertThat(PostingLists.union(ids(), ids(4))).containsExactlyElementsIn(ids(4));
+  }
+}
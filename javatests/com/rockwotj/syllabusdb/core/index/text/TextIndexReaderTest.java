@@ -0,0 +1,130 @@
+package com.rockwotj.syllabusdb.core.index.text;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.index.converter.IndexConverter;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.core.util.concurrent.UpgradableLock;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TextIndexReaderTest {
+  private static final CollectionId POSTS = new CollectionId("posts");
+  private static final FieldName BODY = FieldName.of("body");
+  private static final Index BY_BODY =
+      new Index(
+          new IndexId(1),
+          new IndexName("byBody"),
+          POSTS,
+          IndexKind.TEXT,
+          List.of(new IndexField(FieldPath.parse("body"), Direction.ASCENDING)),
+          List.of(),
+          Filter.ALL,
+          IndexState.READY);
+
+  private KeyValueStore store;
+  private Indexer indexer;
+  private TextIndexReader reader;
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+    indexer = new Indexer(List.of(BY_BODY));
+    reader = new TextIndexReader(store, BY_BODY);
+  }
+
+  private static Document post(String id, String body) {
+    return new Document(new DocId(id), POSTS, Map.of(BODY, Value.of(body)));
+  }
+
+  private static List<DocId> ids(String... ids) {
+    return List.of(ids).stream().map(DocId::new).toList();
+  }
+
+  private void compact(int blockSize) {
+    var lock = UpgradableLock.createWithTimeout(Duration.ofSeconds(1)).writeLock();
+    new PostingListCompactor(store, BY_BODY, lock, blockSize).run();
+  }
+
+  @Test
+  public void matchesAllAndAnyTerms() {
+    store.write(indexer.diff(null, post("a", "The quick brown fox")));
+    store.write(indexer.diff(null, post("b", "A quick brown dog")));
+    store.write(indexer.diff(null, post("c", "Lazy dogs sleep")));
+
+    assertThat(reader.matchAll("quick brown")).isEqualTo(ids("a", "b"));
+    assertThat(reader.matchAll("BROWN fox")).isEqualTo(ids("a"));
+    assertThat(reader.matchAll("brown cat")).isEmpty();
+    assertThat(reader.matchAll("...")).isEmpty();
+    assertThat(reader.matchAny("fox dogs")).isEqualTo(ids("a", "c"));
+  }
+
+  @Test
+  public void updatesRemoveStalePostings() {
+    var before = post("a", "red green");
+    store.write(indexer.diff(null, before));
+    var after = post("a", "green blue");
+    store.write(indexer.diff(before, after));
+
+    assertThat(reader.postings("red")).isEmpty();
+    assertThat(reader.postings("green")).isEqualTo(ids("a"));
+    assertThat(reader.postings("blue")).isEqualTo(ids("a"));
+  }
+
+  @Test
+  public void compactionPreservesPostings() {
+    for (int i = 0; i < 20; ++i) {
+      store.write(indexer.diff(null, post("p" + i, i % 2 == 0 ? "even number" : "odd number")));
+    }
+    compact(4);
+    assertThat(reader.postings("number")).hasSize(20);
+    assertThat(reader.matchAll("even number")).hasSize(10);
+    // Everything is in blocks now, so there's a key per block rather than per posting.
+    int keys = 0;
+    try (var cursor = store.cursor()) {
+      for (cursor.seek(ByteArray.EMPTY); cursor.valid(); cursor.next()) {
+        ++keys;
+      }
+    }
+    assertThat(keys).isEqualTo(5 + 3 + 3);
+
+    // Removing a document that's in a block masks it until the next compaction.
+    var removed = post("p0", "even number");
+    store.write(indexer.diff(removed, null));
+    store.write(indexer.diff(null, post("p0", "odd")));
+    assertThat(reader.postings("even")).hasSize(9);
+    assertThat(reader.postings("odd")).hasSize(11);
+    compact(4);
+    assertThat(reader.postings("even")).hasSize(9);
+    assertThat(reader.postings("odd")).hasSize(11);
+    assertThat(reader.postings("number")).hasSize(19);
+  }
+
+  @Test
+  public void kindRoundTrips() {
+    assertThat(IndexConverter.fromBytes(IndexConverter.toBytes(BY_BODY))).isEqualTo(BY_BODY);
+  }
+}
@@ -0,0 +1,169 @@
+package com.rockwotj.syllabusdb.core.indexer;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.catalog.IndexCatalog;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.util.concurrent.UpgradableLock;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IndexBackfillTest {
+  private static final CollectionId USERS = new CollectionId("users");
+  private static final CollectionId OTHER = new CollectionId("other");
+  private static final FieldName AGE = FieldName.of("age");
+
+  private KeyValueStore store;
+  private IndexCatalog catalog;
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+    catalog = IndexCatalog.load(store);
+  }
+
+  @Test
+  public void backfillsExistingDocuments() {
+    var documents = new ArrayList<Document>();
+    for (int i = 0; i < 25; ++i) {
+      documents.add(new Document(new DocId("user" + i), USERS, Map.of(AGE, Value.of(i))));
+    }
+    // Documents in other collections shouldn't be indexed.
+    documents.add(new Document(new DocId("user0"), OTHER, Map.of(AGE, Value.of(0))));
+    for (var document : documents) {
+      store.write(
+          KeyValueStore.Write.put(
+              DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+    }
+    var index =
+        catalog.create(
+            new IndexName("byAge"),
+            USERS,
+            List.of(new IndexField(FieldPath.parse("age"), Direction.ASCENDING)));
+
+    var added = new ArrayList<IndexEntry>();
+    var backfill =
+        new IndexBackfill(
+            store,
+            catalog,
+            index,
+            UpgradableLock.createWithTimeout(Duration.ofSeconds(1)).writeLock(),
+            new IndexBackfill.Options(/* batchSize= */ 10, /* documentsPerSecond= */ 1e6),
+            new Indexer.Listener() {
+              @Override
+              public void added(IndexEntry entry) {
+                added.add(entry);
+              }
+
+              @Override
+              public void removed(IndexEntry entry) {
+                throw new AssertionError("Backfills only add entries");
+              }
+            },
+            /* estimatedTotal= */ 20);
+    assertThat(backfill.progress().fraction()).isEqualTo(0.0);
+    var ready = backfill.run();
+
+    assertThat(ready.state()).isEqualTo(IndexState.READY);
+    assertThat(catalog.get(index.name())).isEqualTo(ready);
+    var progress = backfill.progress();
+    assertThat(progress.processed()).isEqualTo(25L);
+    assertThat(progress.total()).isEqualTo(20L);
+    assertThat(progress.done()).isTrue();
+    assertThat(progress.fraction()).isEqualTo(1.0);
+    assertThat(progress.eta()).isEqualTo(Duration.ZERO);
+    assertThat(added).hasSize(25);
+
+    var expected = new TreeSet<ByteArray>();
+    var indexer = new Indexer(List.of(index));
+    for (var document : documents) {
+      for (var write : indexer.diff(null, document)) {
+        expected.add(write.key());
+      }
+    }
+    assertThat(indexKeys(index.id())).containsExactlyElementsIn(expected).inOrder();
+    assertThat(expected).hasSize(25);
+  }
+
+  @Test
+  public void skipsEntriesTheWritePathAlreadyAdded() {
+    var documents = new ArrayList<Document>();
+    for (int i = 0; i < 5; ++i) {
+      documents.add(new Document(new DocId("user" + i), USERS, Map.of(AGE, Value.of(i))));
+    }
+    for (var document : documents) {
+      store.write(
+          KeyValueStore.Write.put(
+              DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+    }
+    var index =
+        catalog.create(
+            new IndexName("byAge"),
+            USERS,
+            List.of(new IndexField(FieldPath.parse("age"), Direction.ASCENDING)));
+    // The write path indexes a document while the index is building.
+    for (var write : new Indexer(List.of(index)).diff(null, documents.get(2))) {
+      store.write(write);
+    }
+
+    var added = new ArrayList<IndexEntry>();
+    new IndexBackfill(
+            store,
+            catalog,
+            index,
+            UpgradableLock.createWithTimeout(Duration.ofSeconds(1)).writeLock(),
+            new IndexBackfill.Options(/* batchSize= */ 2, /* documentsPerSecond= */ 1e6),
+            new Indexer.Listener() {
+              @Override
+              public void added(IndexEntry entry) {
+                added.add(entry);
+              }
+
+              @Override
+              public void removed(IndexEntry entry) {
+                throw new AssertionError("Backfills only add entries");
+              }
+            },
+            /* estimatedTotal= */ 0)
+        .run();
+
+    assertThat(added).hasSize(4);
+    assertThat(indexKeys(index.id())).hasSize(5);
+  }
+
+  private List<ByteArray> indexKeys(IndexId id) {
+    var keys = new ArrayList<ByteArray>();
+    var prefix = new IndexEntryEncoder().encodePrefix(id);
+    try (var cursor = store.cursor()) {
+      for (cursor.seek(prefix); cursor.valid() && cursor.key().startsWith(prefix); cursor.next()) {
+        keys.add(cursor.key());
+      }
+    }
+    return keys;
+  }
+}
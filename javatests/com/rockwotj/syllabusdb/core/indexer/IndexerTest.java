@@ -0,0 +1,293 @@
+package com.rockwotj.syllabusdb.core.indexer;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryDecoder;
+import com.rockwotj.syllabusdb.core.encoding.index.IndexEntryEncoder;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.index.IndexValue;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IndexerTest {
+  private static final CollectionId POSTS = new CollectionId("posts");
+  private static final IndexId ID = new IndexId(1);
+  private static final FieldName TAGS = FieldName.of("tags");
+  private static final FieldName AUTHOR = FieldName.of("author");
+  private static final FieldName ARCHIVED = FieldName.of("archived");
+  private static final DocId DOC = new DocId("post");
+
+  private static Document post(Value tags) {
+    return new Document(new DocId("post"), POSTS, Map.of(TAGS, tags, AUTHOR, Value.of("alice")));
+  }
+
+  private static Index index(IndexField... fields) {
+    return new Index(ID, new IndexName("byTags"), POSTS, List.of(fields));
+  }
+
+  @Test
+  public void indexesListsAsSingleValue() {
+    var indexer =
+        new Indexer(List.of(index(new IndexField(FieldPath.parse("tags"), Direction.ASCENDING))));
+    var tags = Value.ofList(Value.of("a"), Value.of("b"));
+    assertThat(indexer.index(post(tags)))
+        .containsExactly(new IndexEntry(ID, List.of(IndexValue.asc(tags)), DOC));
+  }
+
+  @Test
+  public void indexesEachDistinctElementOfMultikeyField() {
+    var indexer =
+        new Indexer(
+            List.of(
+                index(
+                    new IndexField(FieldPath.parse("author"), Direction.ASCENDING),
+                    new IndexField(FieldPath.parse("tags"), Direction.DESCENDING, true))));
+    var tags = Value.ofList(Value.of("b"), Value.of("a"), Value.of("b"));
+    var author = IndexValue.asc(Value.of("alice"));
+    assertThat(indexer.index(post(tags)))
+        .containsExactly(
+            new IndexEntry(ID, List.of(author, IndexValue.desc(Value.of("a"))), DOC),
+            new IndexEntry(ID, List.of(author, IndexValue.desc(Value.of("b"))), DOC));
+  }
+
+  @Test
+  public void multikeyFieldEdgeCases() {
+    var indexer =
+        new Indexer(
+            List.of(index(new IndexField(FieldPath.parse("tags"), Direction.ASCENDING, true))));
+    assertThat(indexer.index(post(Value.EMPTY_LIST))).isEmpty();
+    assertThat(indexer.index(post(Value.of("solo"))))
+        .containsExactly(new IndexEntry(ID, List.of(IndexValue.asc(Value.of("solo"))), DOC));
+  }
+
+  @Test
+  public void resolvesNestedPathsSharedAcrossIndexes() {
+    var city = new IndexField(FieldPath.parse("address.city"), Direction.ASCENDING);
+    var zip = new IndexField(FieldPath.parse("address.zip"), Direction.ASCENDING);
+    var address = new IndexField(FieldPath.parse("address"), Direction.ASCENDING);
+    var indexer =
+        new Indexer(
+            List.of(
+                new Index(new IndexId(1), new IndexName("byCity"), POSTS, List.of(city, zip)),
+                new Index(new IndexId(2), new IndexName("byZip"), POSTS, List.of(zip)),
+                new Index(new IndexId(3), new IndexName("byAddress"), POSTS, List.of(address))));
+    var value =
+        Value.of(
+            FieldName.of("city"), Value.of("Springfield"), FieldName.of("zip"), Value.of(12345));
+    var doc = new Document(DOC, POSTS, Map.of(FieldName.of("address"), value));
+    assertThat(indexer.index(doc))
+        .containsExactly(
+            new IndexEntry(
+                new IndexId(1), List.of(asc("Springfield"), IndexValue.asc(Value.of(12345))), DOC),
+            new IndexEntry(new IndexId(2), List.of(IndexValue.asc(Value.of(12345))), DOC),
+            new IndexEntry(new IndexId(3), List.of(IndexValue.asc(value)), DOC))
+        .inOrder();
+
+    // Paths through values that aren't objects don't exist.
+    var flat = new Document(DOC, POSTS, Map.of(FieldName.of("address"), Value.of("Springfield")));
+    assertThat(indexer.index(flat))
+        .containsExactly(new IndexEntry(new IndexId(3), List.of(asc("Springfield")), DOC));
+  }
+
+  @Test
+  public void diffSkipsUnchangedIndexes() {
+    var byAuthor =
+        new Index(
+            new IndexId(2),
+            new IndexName("byAuthor"),
+            POSTS,
+            List.of(new IndexField(FieldPath.parse("author"), Direction.ASCENDING)));
+    var byTags = index(new IndexField(FieldPath.parse("tags"), Direction.ASCENDING, true));
+    var indexer = new Indexer(List.of(byAuthor, byTags));
+    var before = post(Value.ofList(Value.of("a"), Value.of("b")));
+    var after = post(Value.ofList(Value.of("b"), Value.of("c")));
+
+    // Only the tag that was removed and the tag that was added change.
+    assertThat(indexer.diff(before, after))
+        .containsExactly(
+            KeyValueStore.Write.delete(encode(new IndexEntry(ID, List.of(asc("a")), DOC))),
+            KeyValueStore.Write.put(
+                encode(new IndexEntry(ID, List.of(asc("c")), DOC)), ByteArray.EMPTY))
+        .inOrder();
+    assertThat(indexer.diff(before, before)).isEmpty();
+  }
+
+  @Test
+  public void diffInsertsAndDeletes() {
+    var indexer =
+        new Indexer(List.of(index(new IndexField(FieldPath.parse("author"), Direction.ASCENDING))));
+    var doc = post(Value.EMPTY_LIST);
+    var key = encode(new IndexEntry(ID, List.of(asc("alice")), DOC));
+    assertThat(indexer.diff(null, doc))
+        .containsExactly(KeyValueStore.Write.put(key, ByteArray.EMPTY));
+    assertThat(indexer.diff(doc, null)).containsExactly(KeyValueStore.Write.delete(key));
+  }
+
+  @Test
+  public void indexAllProducesSortedRuns() {
+    var byAuthor =
+        new Index(
+            new IndexId(2),
+            new IndexName("byAuthor"),
+            POSTS,
+            List.of(new IndexField(FieldPath.parse("author"), Direction.DESCENDING)));
+    var byTags = index(new IndexField(FieldPath.parse("tags"), Direction.ASCENDING, true));
+    var indexer = new Indexer(List.of(byAuthor, byTags));
+    var documents = new ArrayList<Document>();
+    for (int i = 0; i < 1000; ++i) {
+      var fields =
+          Map.of(
+              AUTHOR,
+              Value.of("author" + (i % 7)),
+              TAGS,
+              Value.ofList(Value.of(i % 3), Value.of(i % 5)));
+      documents.add(new Document(new DocId("post" + i), POSTS, fields));
+    }
+
+    var expected = new HashMap<IndexId, TreeSet<ByteArray>>();
+    for (var document : documents) {
+      for (var entry : indexer.index(document)) {
+        expected.computeIfAbsent(entry.id(), (id) -> new TreeSet<>()).add(encode(entry));
+      }
+    }
+    var runs = indexer.indexAll(documents.stream());
+    assertThat(runs.keySet()).containsExactly(ID, byAuthor.id());
+    assertThat(keys(runs.get(ID))).containsExactlyElementsIn(expected.get(ID)).inOrder();
+    assertThat(keys(runs.get(byAuthor.id())))
+        .containsExactlyElementsIn(expected.get(byAuthor.id()))
+        .inOrder();
+  }
+
+  @Test
+  public void storesIncludedFieldsInEntries() {
+    var index =
+        new Index(
+            ID,
+            new IndexName("byAuthor"),
+            POSTS,
+            IndexKind.ORDERED,
+            List.of(new IndexField(FieldPath.parse("author"), Direction.ASCENDING)),
+            List.of(FieldPath.parse("address.city"), FieldPath.parse("tags")),
+            Filter.ALL,
+            IndexState.READY);
+    var indexer = new Indexer(List.of(index));
+    var address =
+        Value.of(
+            FieldName.of("city"), Value.of("Springfield"), FieldName.of("zip"), Value.of(12345));
+    var document =
+        new Document(
+            DOC, POSTS, Map.of(AUTHOR, Value.of("alice"), FieldName.of("address"), address));
+
+    // Missing included fields are left out, and only the included parts of objects are kept.
+    var projection =
+        Value.of(FieldName.of("address"), Value.of(FieldName.of("city"), Value.of("Springfield")));
+    var expected = new IndexEntry(ID, List.of(asc("alice")), DOC, projection);
+    assertThat(indexer.index(document)).containsExactly(expected);
+
+    var encoder = new IndexEntryEncoder();
+    var decoded =
+        new IndexEntryDecoder(index)
+            .decode(encoder.encode(expected), encoder.encodeValue(expected));
+    assertThat(decoded).isEqualTo(expected);
+  }
+
+  @Test
+  public void diffRewritesEntriesWhenIncludedFieldsChange() {
+    var index =
+        new Index(
+            ID,
+            new IndexName("byTags"),
+            POSTS,
+            IndexKind.ORDERED,
+            List.of(new IndexField(FieldPath.parse("tags"), Direction.ASCENDING, true)),
+            List.of(FieldPath.parse("author")),
+            Filter.ALL,
+            IndexState.READY);
+    var indexer = new Indexer(List.of(index));
+    var tags = Value.ofList(Value.of("a"));
+    var before = post(tags);
+    var after = new Document(DOC, POSTS, Map.of(TAGS, tags, AUTHOR, Value.of("bob")));
+
+    var entry = new IndexEntry(ID, List.of(asc("a")), DOC, Value.of(AUTHOR, Value.of("bob")));
+    var encoder = new IndexEntryEncoder();
+    assertThat(indexer.diff(before, after))
+        .containsExactly(
+            KeyValueStore.Write.put(encoder.encode(entry), encoder.encodeValue(entry)));
+  }
+
+  @Test
+  public void partialIndexesSkipDocumentsNotMatchingFilter() {
+    var filter =
+        new Filter(new FieldFilter(FieldPath.parse("archived"), Operator.EQUAL, Value.FALSE));
+    var index =
+        new Index(
+            ID,
+            new IndexName("activeByAuthor"),
+            POSTS,
+            IndexKind.ORDERED,
+            List.of(new IndexField(FieldPath.parse("author"), Direction.ASCENDING)),
+            List.of(),
+            filter,
+            IndexState.READY);
+    var indexer = new Indexer(List.of(index));
+    var active = new Document(DOC, POSTS, Map.of(AUTHOR, Value.of("alice"), ARCHIVED, Value.FALSE));
+    var archived =
+        new Document(DOC, POSTS, Map.of(AUTHOR, Value.of("alice"), ARCHIVED, Value.TRUE));
+
+    var entry = new IndexEntry(ID, List.of(asc("alice")), DOC);
+    assertThat(indexer.index(active)).containsExactly(entry);
+    assertThat(indexer.index(archived)).isEmpty();
+    assertThat(indexer.index(post(Value.EMPTY_LIST))).isEmpty();
+    // Archiving a document removes it from the index.
+    assertThat(indexer.diff(active, archived))
+        .containsExactly(KeyValueStore.Write.delete(encode(entry)));
+  }
+
+  private static List<ByteArray> keys(List<Map.Entry<ByteArray, ByteArray>> entries) {
+    return entries.stream().map(Map.Entry::getKey).toList();
+  }
+
+  private static IndexValue asc(String value) {
+    return IndexValue.asc(Value.of(value));
+  }
+
+  private static ByteArray encode(IndexEntry entry) {
+    return new IndexEntryEncoder().encode(entry);
+  }
+
+  @Test
+  public void atMostOneMultikeyField() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            index(
+                new IndexField(FieldPath.parse("author"), Direction.ASCENDING, true),
+                new IndexField(FieldPath.parse("tags"), Direction.ASCENDING, true)));
+  }
+}
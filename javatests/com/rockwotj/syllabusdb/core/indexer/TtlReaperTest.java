@@ -0,0 +1,217 @@
+package com.rockwotj.syllabusdb.core.indexer;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.catalog.IndexCatalog;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexEntry;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.converter.IndexConverter;
+import com.rockwotj.syllabusdb.core.util.concurrent.UpgradableLock;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TtlReaperTest {
+  private static final CollectionId SESSIONS = new CollectionId("sessions");
+  private static final FieldName LAST_SEEN = FieldName.of("lastSeen");
+  private static final FieldName USER = FieldName.of("user");
+  private static final Duration TTL = Duration.ofMinutes(30);
+  private static final long NOW = 1_700_000_000_000L;
+
+  private KeyValueStore store;
+  private IndexCatalog catalog;
+  private Index byLastSeen;
+  private Indexer indexer;
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+    catalog = IndexCatalog.load(store);
+    byLastSeen =
+        catalog.create(
+            new IndexName("byLastSeen"),
+            SESSIONS,
+            IndexKind.ORDERED,
+            List.of(new IndexField(FieldPath.parse("lastSeen"), Direction.ASCENDING)),
+            List.of(),
+            Filter.ALL,
+            TTL);
+    catalog.create(
+        new IndexName("byUser"),
+        SESSIONS,
+        List.of(new IndexField(FieldPath.parse("user"), Direction.ASCENDING)));
+    indexer = new Indexer(catalog.all());
+  }
+
+  private void write(String id, Value lastSeen) {
+    var document =
+        new Document(new DocId(id), SESSIONS, Map.of(LAST_SEEN, lastSeen, USER, Value.of(id)));
+    var writes = new ArrayList<KeyValueStore.Write>();
+    writes.add(
+        KeyValueStore.Write.put(
+            DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+    writes.addAll(indexer.diff(null, document));
+    store.write(writes);
+  }
+
+  private TtlReaper reaper(int batchSize) {
+    return new TtlReaper(
+        store,
+        catalog,
+        byLastSeen,
+        UpgradableLock.createWithTimeout(Duration.ofSeconds(1)).writeLock(),
+        new TtlReaper.Options(batchSize, /* documentsPerSecond= */ 1e6),
+        Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC),
+        Indexer.Listener.NONE);
+  }
+
+  private List<ByteArray> allKeys() {
+    var keys = new ArrayList<ByteArray>();
+    try (var cursor = store.cursor()) {
+      for (cursor.seek(ByteArray.EMPTY); cursor.valid(); cursor.next()) {
+        keys.add(cursor.key());
+      }
+    }
+    return keys;
+  }
+
+  @Test
+  public void deletesExpiredDocumentsAndTheirEntries() {
+    var catalogKeys = allKeys().size();
+    for (int i = 0; i < 25; ++i) {
+      write("expired" + i, Value.of(NOW - TTL.toMillis() - i * 1000));
+    }
+    write("fresh", Value.of(NOW));
+    write("never", Value.of("not a timestamp"));
+    write("nan", Value.NAN);
+
+    assertThat(reaper(/* batchSize= */ 10).run()).isEqualTo(25L);
+
+    // Each remaining document has its own key and an entry in both indexes.
+    assertThat(allKeys()).hasSize(catalogKeys + 3 * 3);
+    assertThat(reaper(/* batchSize= */ 10).run()).isEqualTo(0L);
+  }
+
+  @Test
+  public void deletesDocumentsWithSeveralEntriesOnce() {
+    var byLastSeenAndTag =
+        catalog.create(
+            new IndexName("byLastSeenAndTag"),
+            SESSIONS,
+            IndexKind.ORDERED,
+            List.of(
+                new IndexField(FieldPath.parse("lastSeen"), Direction.ASCENDING),
+                new IndexField(FieldPath.parse("tags"), Direction.ASCENDING, true)),
+            List.of(),
+            Filter.ALL,
+            TTL);
+    indexer = new Indexer(catalog.all());
+    var tags = Value.of(List.of(Value.of("a"), Value.of("b"), Value.of("c")));
+    for (int i = 0; i < 5; ++i) {
+      var document =
+          new Document(
+              new DocId("expired" + i),
+              SESSIONS,
+              Map.of(
+                  LAST_SEEN,
+                  Value.of(NOW - TTL.toMillis() - i * 1000),
+                  USER,
+                  Value.of("u" + i),
+                  FieldName.of("tags"),
+                  tags));
+      var writes = new ArrayList<KeyValueStore.Write>();
+      writes.add(
+          KeyValueStore.Write.put(
+              DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+      writes.addAll(indexer.diff(null, document));
+      store.write(writes);
+    }
+    var catalogKeys = allKeys().size() - 5 * (1 + 1 + 1 + 3);
+    var removed = new AtomicInteger();
+    var reaper =
+        new TtlReaper(
+            store,
+            catalog,
+            byLastSeenAndTag,
+            UpgradableLock.createWithTimeout(Duration.ofSeconds(1)).writeLock(),
+            new TtlReaper.Options(/* batchSize= */ 10, /* documentsPerSecond= */ 1e6),
+            Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC),
+            new Indexer.Listener() {
+              @Override
+              public void added(IndexEntry entry) {
+                throw new AssertionError("Reaping only removes entries");
+              }
+
+              @Override
+              public void removed(IndexEntry entry) {
+                removed.incrementAndGet();
+              }
+            });
+
+    assertThat(reaper.run()).isEqualTo(5L);
+
+    // Each document had an entry in byLastSeen and byUser, and one per tag.
+    assertThat(removed.get()).isEqualTo(5 * (1 + 1 + 3));
+    assertThat(allKeys()).hasSize(catalogKeys);
+  }
+
+  @Test
+  public void requiresOrderedTtlIndex() {
+    var byUser = catalog.get(new IndexName("byUser"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            new TtlReaper(
+                store,
+                catalog,
+                byUser,
+                UpgradableLock.createWithTimeout(Duration.ofSeconds(1)).writeLock(),
+                new TtlReaper.Options(10, 1),
+                Clock.systemUTC(),
+                Indexer.Listener.NONE));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            catalog.create(
+                new IndexName("byLastSeenDesc"),
+                SESSIONS,
+                IndexKind.ORDERED,
+                List.of(new IndexField(FieldPath.parse("lastSeen"), Direction.DESCENDING)),
+                List.of(),
+                Filter.ALL,
+                TTL));
+  }
+
+  @Test
+  public void ttlRoundTrips() {
+    assertThat(IndexConverter.fromBytes(IndexConverter.toBytes(byLastSeen))).isEqualTo(byLastSeen);
+    assertThat(catalog.get(byLastSeen.name()).ttl()).isEqualTo(TTL);
+  }
+}
@@ -0,0 +1,355 @@
+package com.rockwotj.syllabusdb.core.query;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.stats.IndexStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class QueryPlannerTest {
+  private static final CollectionId USERS = new CollectionId("users");
+  private static final long USER_COUNT = 10_000;
+
+  private final Map<IndexId, IndexStatistics.Snapshot> statistics = new HashMap<>();
+
+  @Before
+  public void setup() {
+    statistics.clear();
+  }
+
+  private Index index(long id, IndexKind kind, Filter filter, String... fields) {
+    var indexFields =
+        List.of(fields).stream()
+            .map((field) -> new IndexField(FieldPath.parse(field), Direction.ASCENDING))
+            .toList();
+    return new Index(
+        new IndexId(id),
+        new IndexName("index" + id),
+        USERS,
+        kind,
+        indexFields,
+        List.of(),
+        filter,
+        IndexState.READY);
+  }
+
+  private Index ordered(long id, long... distinct) {
+    var fields = new String[distinct.length];
+    for (int i = 0; i < distinct.length; ++i) {
+      fields[i] = "f" + id + "_" + i;
+    }
+    var index = index(id, IndexKind.ORDERED, Filter.ALL, fields);
+    track(index, distinct);
+    return index;
+  }
+
+  private void track(Index index, long... distinct) {
+    var prefixes = LongStream.of(distinct).boxed().toList();
+    statistics.put(index.id(), new IndexStatistics.Snapshot(USER_COUNT, prefixes, List.of()));
+  }
+
+  private static FieldFilter eq(String path, Object value) {
+    return new FieldFilter(FieldPath.parse(path), Operator.EQUAL, toValue(value));
+  }
+
+  private static Value toValue(Object value) {
+    return value instanceof String s ? Value.of(s) : Value.of(((Number) value).doubleValue());
+  }
+
+  private QueryPlanner planner(Index... indexes) {
+    return new QueryPlanner(List.of(indexes), statistics::get);
+  }
+
+  /** The access path of a plan, below the fetch if it has one. */
+  private static PlanNode accessPath(PlanNode plan) {
+    var node = plan;
+    while (!(node instanceof Fetch) && !node.inputs().isEmpty()) {
+      node = node.inputs().get(0);
+    }
+    return node instanceof Fetch fetch ? fetch.input() : node;
+  }
+
+  @Test
+  public void scansWithoutIndexes() {
+    var plan = planner().plan(new Query(USERS, new Filter(eq("name", "a"))));
+    assertThat(plan).isInstanceOf(Select.class);
+    assertThat(plan.inputs().get(0)).isInstanceOf(CollectionScan.class);
+  }
+
+  @Test
+  public void usesSelectiveIndex() {
+    var byEmail = ordered(1, /* distinct= */ USER_COUNT);
+    var plan = planner(byEmail).plan(new Query(USERS, new Filter(eq("f1_0", "a@b.c"))));
+    var scan = (IndexScan) accessPath(plan);
+    assertThat(scan.index()).isEqualTo(byEmail);
+    assertThat(scan.equalities()).containsExactly(Value.of("a@b.c"));
+    assertThat(scan.rows()).isWithin(0.01).of(1.0);
+    assertThat(plan.explain()).contains("IndexScan index1 f1_0 == a@b.c");
+  }
+
+  @Test
+  public void scansWhenIndexIsNotSelective() {
+    var byActive = ordered(1, /* distinct= */ 2);
+    var plan = planner(byActive).plan(new Query(USERS, new Filter(eq("f1_0", 1))));
+    assertThat(accessPath(plan)).isInstanceOf(CollectionScan.class);
+  }
+
+  @Test
+  public void usesLongestPrefixAndRange() {
+    var compound = ordered(1, 100, 10_000);
+    var plan =
+        planner(compound)
+            .plan(
+                new Query(
+                    USERS,
+                    new Filter(
+                        eq("f1_0", 5),
+                        new FieldFilter(
+                            FieldPath.parse("f1_1"), Operator.GREATER_THAN, Value.of(3)),
+                        new FieldFilter(
+                            FieldPath.parse("f1_1"), Operator.LESS_THAN_OR_EQUAL, Value.of(9)),
+                        new FieldFilter(
+                            FieldPath.parse("f1_1"), Operator.GREATER_THAN, Value.of(4)))));
+    var scan = (IndexScan) accessPath(plan);
+    assertThat(scan.equalities()).containsExactly(Value.of(5));
+    assertThat(scan.range()).isEqualTo(new KeyRange(Value.of(4), false, Value.of(9), true));
+  }
+
+  @Test
+  public void indexOrderAvoidsSortForLimitedQueries() {
+    var byAge = ordered(1, 100);
+    var query =
+        new Query(
+            USERS,
+            Filter.ALL,
+            new Order(FieldPath.parse("f1_0"), Direction.ASCENDING),
+            /* limit= */ 10);
+    var plan = planner(byAge).plan(query);
+    assertThat(plan).isInstanceOf(Limit.class);
+    assertThat(fetches(plan)).isTrue();
+    assertThat(plan.rows()).isEqualTo(10.0);
+
+    var descending =
+        new Query(
+            USERS,
+            Filter.ALL,
+            new Order(FieldPath.parse("f1_0"), Direction.DESCENDING),
+            /* limit= */ 10);
+    plan = planner(byAge).plan(descending);
+    assertThat(plan.inputs().get(0)).isInstanceOf(Sort.class);
+  }
+
+  @Test
+  public void zigZagJoinsEqualities() {
+    var byA = ordered(1, 10);
+    var byB = ordered(2, 20);
+    var plan = planner(byA, byB).plan(new Query(USERS, new Filter(eq("f1_0", 1), eq("f2_0", 2))));
+    var join = (ZigZagJoin) accessPath(plan);
+    // The most selective input is first.
+    assertThat(((IndexScan) join.inputs().get(0)).index()).isEqualTo(byB);
+    assertThat(join.rows()).isWithin(0.01).of(50.0);
+  }
+
+  @Test
+  public void intersectsRanges() {
+    var byA = ordered(1, 4);
+    // Without statistics, so its range is estimated to match a third of the collection.
+    var byB = index(2, IndexKind.ORDERED, Filter.ALL, "f2_0");
+    var plan =
+        planner(byA, byB)
+            .plan(
+                new Query(
+                    USERS,
+                    new Filter(
+                        eq("f1_0", 1),
+                        new FieldFilter(
+                            FieldPath.parse("f2_0"), Operator.GREATER_THAN, Value.of(5)))));
+    var intersection = (Intersection) accessPath(plan);
+    assertThat(intersection.inputs()).hasSize(2);
+  }
+
+  @Test
+  public void prefersSingleIndexOverJoiningSkewedIndexes() {
+    var byA = ordered(1, 2_000);
+    var byB = ordered(2, 4);
+    var plan = planner(byA, byB).plan(new Query(USERS, new Filter(eq("f1_0", 1), eq("f2_0", 2))));
+    // Fetching the few documents matching the selective index is cheaper than joining.
+    assertThat(((IndexScan) accessPath(plan)).index()).isEqualTo(byA);
+  }
+
+  @Test
+  public void usesHashIndexForEquality() {
+    var byEmail = index(1, IndexKind.HASH, Filter.ALL, "email");
+    track(byEmail, USER_COUNT);
+    var plan = planner(byEmail).plan(new Query(USERS, new Filter(eq("email", "a@b.c"))));
+    assertThat(accessPath(plan)).isInstanceOf(HashLookup.class);
+  }
+
+  @Test
+  public void usesWildcardIndexWithoutStatistics() {
+    var wildcard = index(1, IndexKind.WILDCARD, Filter.ALL);
+    var plan = planner(wildcard).plan(new Query(USERS, new Filter(eq("attrs.color", "red"))));
+    assertThat(accessPath(plan)).isInstanceOf(WildcardScan.class);
+  }
+
+  @Test
+  public void skipsUnusableIndexes() {
+    var partial = index(1, IndexKind.ORDERED, new Filter(eq("active", 1)), "email");
+    track(partial, USER_COUNT);
+    var building = ordered(2, USER_COUNT).withState(IndexState.BUILDING);
+    var plan =
+        planner(partial, building)
+            .plan(new Query(USERS, new Filter(eq("email", "a"), eq("f2_0", "b"))));
+    assertThat(accessPath(plan)).isInstanceOf(CollectionScan.class);
+
+    plan = planner(partial).plan(new Query(USERS, new Filter(eq("email", "a"), eq("active", 1))));
+    assertThat(((IndexScan) accessPath(plan)).index()).isEqualTo(partial);
+  }
+
+  @Test
+  public void skipsIndexesMissingDocuments() {
+    // Documents without the second field aren't in the index.
+    var compound = ordered(1, USER_COUNT, USER_COUNT);
+    var plan = planner(compound).plan(new Query(USERS, new Filter(eq("f1_0", "a"))));
+    assertThat(accessPath(plan)).isInstanceOf(CollectionScan.class);
+  }
+
+  @Test
+  public void candidatesAreSortedByCost() {
+    var byA = ordered(1, 20);
+    var candidates = planner(byA).candidates(new Query(USERS, new Filter(eq("f1_0", 1))));
+    assertThat(candidates).hasSize(2);
+    assertThat(candidates.get(0).cost()).isAtMost(candidates.get(1).cost());
+  }
+
+  private static AggregateQuery aggregate(Filter filter, AggregateFunction... functions) {
+    return new AggregateQuery(USERS, filter, null, List.of(functions));
+  }
+
+  private static AggregateFunction function(AggregateFunction.Kind kind, String path) {
+    return new AggregateFunction(kind, FieldPath.parse(path));
+  }
+
+  private static boolean fetches(PlanNode plan) {
+    return plan instanceof Fetch || plan.inputs().stream().anyMatch(QueryPlannerTest::fetches);
+  }
+
+  @Test
+  public void readsEndpointsForMinAndMax() {
+    var byA = ordered(1, 20, 100);
+    var plan =
+        planner(byA)
+            .plan(
+                aggregate(
+                    new Filter(eq("f1_0", 1)),
+                    function(AggregateFunction.Kind.MIN, "f1_1"),
+                    function(AggregateFunction.Kind.MAX, "f1_1")));
+    var endpoints = (IndexEndpoints) plan.inputs().get(0);
+    assertThat(endpoints.index()).isEqualTo(byA);
+    assertThat(endpoints.first()).isTrue();
+    assertThat(endpoints.last()).isTrue();
+
+    // Sums need every value.
+    plan =
+        planner(byA)
+            .plan(
+                aggregate(
+                    new Filter(eq("f1_0", 1)),
+                    function(AggregateFunction.Kind.MIN, "f1_1"),
+                    function(AggregateFunction.Kind.SUM, "f1_1")));
+    assertThat(plan.inputs().get(0) instanceof IndexEndpoints).isFalse();
+  }
+
+  @Test
+  public void countsKeys() {
+    var plan = planner(ordered(1, 20)).plan(aggregate(Filter.ALL, AggregateFunction.count()));
+    assertThat(plan.inputs().get(0)).isInstanceOf(KeyScan.class);
+  }
+
+  @Test
+  public void aggregatesWithoutFetching() {
+    var byA = ordered(1, 20);
+    var plan =
+        planner(byA)
+            .plan(
+                aggregate(
+                    new Filter(eq("f1_0", 1)),
+                    AggregateFunction.count(),
+                    function(AggregateFunction.Kind.SUM, "f1_0")));
+    assertThat(fetches(plan)).isFalse();
+    assertThat(((IndexScan) accessPath(plan)).index()).isEqualTo(byA);
+
+    // The index doesn't have the summed field.
+    plan =
+        planner(byA)
+            .plan(aggregate(new Filter(eq("f1_0", 1)), function(AggregateFunction.Kind.SUM, "x")));
+    assertThat(fetches(plan)).isTrue();
+  }
+
+  @Test
+  public void coversWithIncludedFields() {
+    var email = FieldPath.parse("email");
+    var covering =
+        new Index(
+            new IndexId(1),
+            new IndexName("index1"),
+            USERS,
+            IndexKind.ORDERED,
+            List.of(new IndexField(FieldPath.parse("f1_0"), Direction.ASCENDING)),
+            List.of(email),
+            Filter.ALL,
+            IndexState.READY);
+    track(covering, 20);
+    var query = new Query(USERS, new Filter(eq("f1_0", 1)), null, 10);
+
+    var plan = planner(covering).plan(query, List.of(email));
+    assertThat(fetches(plan)).isFalse();
+    assertThat(((IndexScan) accessPath(plan)).index()).isEqualTo(covering);
+    assertThat(plan.cost()).isLessThan(planner(covering).plan(query).cost());
+    // Whole documents, or fields the index doesn't have, need the documents.
+    assertThat(fetches(planner(covering).plan(query))).isTrue();
+    assertThat(fetches(planner(covering).plan(query, List.of(FieldPath.parse("name"))))).isTrue();
+
+    plan =
+        planner(covering)
+            .plan(
+                aggregate(
+                    new Filter(eq("f1_0", 1)), function(AggregateFunction.Kind.MAX, "email")));
+    assertThat(fetches(plan)).isFalse();
+  }
+
+  @Test
+  public void streamsGroupsFromIndexOrder() {
+    var byA = ordered(1, 20);
+    var grouped =
+        new AggregateQuery(
+            USERS, Filter.ALL, FieldPath.parse("f1_0"), List.of(AggregateFunction.count()));
+    var plan = (Aggregate) planner(byA).plan(grouped);
+    assertThat(plan.streaming()).isTrue();
+    assertThat(((IndexScan) plan.input()).index()).isEqualTo(byA);
+
+    plan = (Aggregate) planner().plan(grouped);
+    assertThat(plan.streaming()).isFalse();
+    assertThat(plan.input()).isInstanceOf(CollectionScan.class);
+  }
+}
@@ -0,0 +1,78 @@
+package com.rockwotj.syllabusdb.core.query.converter;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.query.AggregateFunction;
+import com.rockwotj.syllabusdb.core.query.AggregateQuery;
+import com.rockwotj.syllabusdb.core.query.Order;
+import com.rockwotj.syllabusdb.core.query.Query;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class QueryConverterTest {
+  private static final CollectionId USERS = new CollectionId("users");
+  private static final Filter ADULTS =
+      new Filter(
+          List.of(
+              new FieldFilter(
+                  FieldPath.parse("age"), Operator.GREATER_THAN_OR_EQUAL, Value.of(18))));
+
+  @Test
+  public void roundTripsQueries() {
+    var query =
+        new Query(USERS, ADULTS, new Order(FieldPath.parse("age"), Direction.DESCENDING), 10);
+    assertThat(QueryConverter.fromBytes(QueryConverter.toBytes(query))).isEqualTo(query);
+  }
+
+  @Test
+  public void roundTripsAggregations() {
+    var aggregation =
+        new AggregateQuery(
+            USERS,
+            ADULTS,
+            FieldPath.parse("country"),
+            List.of(
+                AggregateFunction.count(),
+                new AggregateFunction(AggregateFunction.Kind.MAX, FieldPath.parse("age"))));
+    assertThat(QueryConverter.aggregateFromBytes(QueryConverter.toBytes(aggregation)))
+        .isEqualTo(aggregation);
+  }
+
+  @Test
+  public void rejectsMissingFields() {
+    var queries =
+        List.of(
+            "{}",
+            "{\"collection\": \"users\", \"order\": {\"type\": \"asc\"}}",
+            "{\"collection\": \"users\", \"filter\": [{\"op\": \"==\", \"value\": 1}]}",
+            "{\"collection\": \"users\", \"filter\": [{\"field\": \"a\", \"value\": 1}]}",
+            "{\"collection\": \"users\", \"filter\": [{\"field\": \"a\", \"op\": \"==\"}]}");
+    for (String query : queries) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> QueryConverter.fromBytes(ByteArray.copyUtf8(query)));
+    }
+    var aggregations =
+        List.of(
+            "{\"aggregate\": [{\"op\": \"count\"}]}",
+            "{\"collection\": \"users\", \"aggregate\": [{\"field\": \"a\"}]}",
+            "{\"collection\": \"users\", \"aggregate\": [{\"op\": \"sum\"}]}");
+    for (String aggregation : aggregations) {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> QueryConverter.aggregateFromBytes(ByteArray.copyUtf8(aggregation)));
+    }
+  }
+}
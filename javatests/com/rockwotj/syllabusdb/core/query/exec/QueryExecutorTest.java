@@ -0,0 +1,546 @@
+package com.rockwotj.syllabusdb.core.query.exec;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth.assertWithMessage;
+import static org.junit.Assert.assertThrows;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.core.query.AggregateFunction;
+import com.rockwotj.syllabusdb.core.query.AggregateQuery;
+import com.rockwotj.syllabusdb.core.query.CollectionScan;
+import com.rockwotj.syllabusdb.core.query.Fetch;
+import com.rockwotj.syllabusdb.core.query.IndexEndpoints;
+import com.rockwotj.syllabusdb.core.query.IndexScan;
+import com.rockwotj.syllabusdb.core.query.Order;
+import com.rockwotj.syllabusdb.core.query.PlanNode;
+import com.rockwotj.syllabusdb.core.query.Query;
+import com.rockwotj.syllabusdb.core.query.QueryPlanner;
+import com.rockwotj.syllabusdb.core.query.Select;
+import com.rockwotj.syllabusdb.core.query.WildcardScan;
+import com.rockwotj.syllabusdb.core.query.ZigZagJoin;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class QueryExecutorTest {
+  private static final CollectionId ITEMS = new CollectionId("items");
+  private static final int DOCUMENTS = 200;
+
+  private static Index index(long id, IndexKind kind, IndexField... fields) {
+    return new Index(
+        new IndexId(id),
+        new IndexName("index" + id),
+        ITEMS,
+        kind,
+        List.of(fields),
+        List.of(),
+        Filter.ALL,
+        IndexState.READY);
+  }
+
+  private static IndexField asc(String path) {
+    return new IndexField(FieldPath.parse(path), Direction.ASCENDING);
+  }
+
+  private static IndexField desc(String path) {
+    return new IndexField(FieldPath.parse(path), Direction.DESCENDING);
+  }
+
+  private static final List<Index> INDEXES =
+      List.of(
+          index(1, IndexKind.ORDERED, asc("a")),
+          index(2, IndexKind.ORDERED, desc("b")),
+          index(3, IndexKind.ORDERED, asc("a"), asc("b")),
+          index(4, IndexKind.HASH, asc("name")),
+          index(5, IndexKind.WILDCARD),
+          index(
+              6,
+              IndexKind.ORDERED,
+              asc("a"),
+              new IndexField(FieldPath.parse("tags"), Direction.ASCENDING, true)),
+          new Index(
+              new IndexId(7),
+              new IndexName("index7"),
+              ITEMS,
+              IndexKind.ORDERED,
+              List.of(asc("name")),
+              List.of(FieldPath.parse("a"), FieldPath.parse("b")),
+              Filter.ALL,
+              IndexState.READY));
+
+  private KeyValueStore store;
+  private final List<Document> documents = new ArrayList<>();
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+    var indexer = new Indexer(INDEXES);
+    var colors = List.of("red", "green", "blue");
+    for (int i = 0; i < DOCUMENTS; ++i) {
+      Map<FieldName, Value> fields = new HashMap<>();
+      fields.put(FieldName.of("a"), Value.of(i % 7));
+      // Some documents are missing b, and some have a string instead.
+      if (i % 11 == 3) {
+        fields.put(FieldName.of("b"), Value.of("b" + i));
+      } else if (i % 11 != 0) {
+        fields.put(FieldName.of("b"), Value.of(i % 5));
+      }
+      fields.put(FieldName.of("name"), Value.of("n" + (i % 40)));
+      fields.put(
+          FieldName.of("tags"),
+          Value.of(List.of(Value.of(colors.get(i % 3)), Value.of(colors.get(i % 2)))));
+      var document = new Document(new DocId(String.format("d%03d", i)), ITEMS, fields);
+      documents.add(document);
+      var writes = new ArrayList<KeyValueStore.Write>();
+      writes.add(
+          KeyValueStore.Write.put(
+              DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+      writes.addAll(indexer.diff(null, document));
+      store.write(writes);
+    }
+  }
+
+  private static FieldFilter filter(String path, Operator op, Object value) {
+    var constant =
+        value instanceof String s ? Value.of(s) : Value.of(((Number) value).doubleValue());
+    return new FieldFilter(FieldPath.parse(path), op, constant);
+  }
+
+  private List<Document> run(PlanNode plan, int batchSize) {
+    List<Document> results = new ArrayList<>();
+    try (var execution = new QueryExecutor(store, batchSize).execute(plan)) {
+      for (var batch = execution.next(); batch != null; batch = execution.next()) {
+        assertThat(batch.isEmpty()).isFalse();
+        for (int i = 0; i < batch.size(); ++i) {
+          results.add(batch.document(i));
+        }
+      }
+    }
+    return results;
+  }
+
+  /** The values of the ordered field, or ids if there's no order, of the expected results. */
+  private List<Object> expected(Query query) {
+    var stream = documents.stream().filter(query.filter()::matches);
+    var order = query.order();
+    if (order != null) {
+      Comparator<Document> comparator = Comparator.comparing((doc) -> doc.get(order.path()));
+      stream =
+          stream
+              .filter((doc) -> doc.get(order.path()) != null)
+              .sorted(order.direction().isAsc() ? comparator : comparator.reversed());
+    }
+    return stream.limit(query.limit()).map((doc) -> key(query, doc)).collect(Collectors.toList());
+  }
+
+  private static Object key(Query query, Document document) {
+    return query.order() == null ? document.id() : document.get(query.order().path());
+  }
+
+  /** Every plan the planner considers for `query` must return the right results. */
+  private void assertAllPlansAgree(Query query) {
+    var expected = expected(query);
+    var candidates = new QueryPlanner(INDEXES, (id) -> null).candidates(query);
+    for (PlanNode plan : candidates) {
+      for (int batchSize : List.of(1, 4, QueryExecutor.DEFAULT_BATCH_SIZE)) {
+        var results = run(plan, batchSize);
+        var message = plan.explain() + "batch size " + batchSize;
+        for (Document document : results) {
+          assertWithMessage(message).that(query.filter().matches(document)).isTrue();
+        }
+        List<Object> actual =
+            results.stream().map((doc) -> key(query, doc)).collect(Collectors.toList());
+        if (query.order() != null) {
+          assertWithMessage(message).that(actual).containsExactlyElementsIn(expected).inOrder();
+        } else if (query.hasLimit()) {
+          assertWithMessage(message).that(actual).hasSize(expected.size());
+          assertWithMessage(message).that(new HashSet<>(actual)).hasSize(expected.size());
+        } else {
+          assertWithMessage(message).that(actual).containsExactlyElementsIn(expected);
+        }
+      }
+    }
+  }
+
+  private static Query query(FieldFilter... conjuncts) {
+    return new Query(ITEMS, new Filter(conjuncts));
+  }
+
+  @Test
+  public void equalityPlans() {
+    assertAllPlansAgree(query(filter("a", Operator.EQUAL, 3)));
+    assertAllPlansAgree(query(filter("name", Operator.EQUAL, "n7")));
+    assertAllPlansAgree(query(filter("a", Operator.EQUAL, 3), filter("b", Operator.EQUAL, 2)));
+    assertAllPlansAgree(
+        query(filter("a", Operator.EQUAL, 1), filter("name", Operator.EQUAL, "n15")));
+  }
+
+  @Test
+  public void containmentPlans() {
+    var queries =
+        List.of(
+            query(filter("tags", Operator.ARRAY_CONTAINS, "blue")),
+            query(filter("a", Operator.EQUAL, 1), filter("tags", Operator.ARRAY_CONTAINS, "red")),
+            query(
+                new FieldFilter(
+                    FieldPath.parse("tags"),
+                    Operator.EQUAL,
+                    Value.of(List.of(Value.of("green"), Value.of("green"))))));
+    for (Query query : queries) {
+      assertWithMessage(query.toString()).that(expected(query)).isNotEmpty();
+      assertAllPlansAgree(query);
+    }
+    // Equality compares the whole list.
+    var blue = query(filter("tags", Operator.EQUAL, "blue"));
+    assertThat(expected(blue)).isEmpty();
+    assertAllPlansAgree(blue);
+  }
+
+  @Test
+  public void rangePlans() {
+    assertAllPlansAgree(
+        query(filter("b", Operator.GREATER_THAN_OR_EQUAL, 1), filter("b", Operator.LESS_THAN, 3)));
+    assertAllPlansAgree(query(filter("b", Operator.GREATER_THAN, 2)));
+    assertAllPlansAgree(query(filter("b", Operator.LESS_THAN_OR_EQUAL, 2)));
+    assertAllPlansAgree(query(filter("b", Operator.GREATER_THAN, "b100")));
+    assertAllPlansAgree(query(filter("a", Operator.EQUAL, 4), filter("b", Operator.LESS_THAN, 3)));
+    assertAllPlansAgree(query(filter("a", Operator.EQUAL, 4), filter("b", Operator.LESS_THAN, -1)));
+  }
+
+  @Test
+  public void orderedAndLimitedPlans() {
+    var byA = new Order(FieldPath.parse("a"), Direction.DESCENDING);
+    var byB = new Order(FieldPath.parse("b"), Direction.ASCENDING);
+    assertAllPlansAgree(new Query(ITEMS, Filter.ALL, byA, 5));
+    assertAllPlansAgree(new Query(ITEMS, Filter.ALL, byB, Query.NO_LIMIT));
+    assertAllPlansAgree(new Query(ITEMS, new Filter(filter("a", Operator.EQUAL, 2)), byB, 10));
+    var red = new Query(ITEMS, new Filter(filter("tags", Operator.ARRAY_CONTAINS, "red")), null, 7);
+    assertThat(expected(red)).hasSize(7);
+    assertAllPlansAgree(red);
+  }
+
+  @Test
+  public void zigZagJoinsInIdOrder() {
+    var a = new IndexScan(INDEXES.get(0), List.of(Value.of(3)), null, 0, 0);
+    var b = new IndexScan(INDEXES.get(1), List.of(Value.of(2)), null, 0, 0);
+    var red =
+        new WildcardScan(INDEXES.get(4), filter("tags", Operator.ARRAY_CONTAINS, "red"), 0, 0);
+    var join = new ZigZagJoin(List.of(a, b, red), 0, 0);
+    List<DocId> ids = new ArrayList<>();
+    try (var execution = new QueryExecutor(store, 3).execute(join)) {
+      for (var batch = execution.next(); batch != null; batch = execution.next()) {
+        for (int i = 0; i < batch.size(); ++i) {
+          ids.add(batch.id(i));
+        }
+      }
+    }
+    var filter =
+        new Filter(
+            filter("a", Operator.EQUAL, 3),
+            filter("b", Operator.EQUAL, 2),
+            filter("tags", Operator.ARRAY_CONTAINS, "red"));
+    var expected = new ArrayList<DocId>();
+    for (Document document : documents) {
+      if (filter.matches(document)) {
+        expected.add(document.id());
+      }
+    }
+    assertThat(expected).isNotEmpty();
+    assertThat(ids).containsExactlyElementsIn(expected).inOrder();
+  }
+
+  /** Reads `plan` one batch per execution, resuming each from the end of the one before. */
+  private List<DocId> runResumingEachBatch(PlanNode plan, int batchSize) {
+    var executor = new QueryExecutor(store, batchSize);
+    List<DocId> ids = new ArrayList<>();
+    Continuation after = null;
+    while (true) {
+      try (var execution = executor.execute(plan, List.of(), after)) {
+        var batch = execution.next();
+        if (batch == null) {
+          return ids;
+        }
+        for (int i = 0; i < batch.size(); ++i) {
+          ids.add(batch.id(i));
+        }
+        after = execution.continuation();
+      }
+    }
+  }
+
+  @Test
+  public void resumesFromContinuations() {
+    var byA = new Order(FieldPath.parse("a"), Direction.DESCENDING);
+    var byB = new Order(FieldPath.parse("b"), Direction.ASCENDING);
+    var queries =
+        List.of(
+            query(filter("a", Operator.EQUAL, 3)),
+            query(filter("name", Operator.EQUAL, "n7")),
+            query(filter("tags", Operator.ARRAY_CONTAINS, "blue")),
+            query(filter("a", Operator.EQUAL, 3), filter("b", Operator.EQUAL, 2)),
+            query(filter("b", Operator.GREATER_THAN, 2)),
+            new Query(ITEMS, Filter.ALL, byA, Query.NO_LIMIT),
+            new Query(ITEMS, new Filter(filter("a", Operator.EQUAL, 2)), byB, Query.NO_LIMIT));
+    int resumed = 0;
+    for (Query query : queries) {
+      for (PlanNode plan : new QueryPlanner(INDEXES, (id) -> null).candidates(query)) {
+        if (!QueryExecutor.canResume(plan)) continue;
+        var expected =
+            run(plan, QueryExecutor.DEFAULT_BATCH_SIZE).stream()
+                .map(Document::id)
+                .collect(Collectors.toList());
+        assertWithMessage(plan.explain())
+            .that(runResumingEachBatch(plan, 4))
+            .containsExactlyElementsIn(expected)
+            .inOrder();
+        ++resumed;
+      }
+    }
+    assertThat(resumed).isGreaterThan(queries.size());
+  }
+
+  @Test
+  public void cannotResumeScansWithDuplicates() {
+    var byA = new IndexScan(INDEXES.get(5), List.of(Value.of(1)), null, 0, 0);
+    var byTag = new IndexScan(INDEXES.get(5), List.of(Value.of(1), Value.of("red")), null, 0, 0);
+    assertThat(QueryExecutor.canResume(byA)).isFalse();
+    assertThat(QueryExecutor.canResume(byTag)).isTrue();
+  }
+
+  @Test
+  public void rejectsContinuationsFromOtherPlans() {
+    var executor = new QueryExecutor(store, 4);
+    var scan = new CollectionScan(ITEMS, DOCUMENTS, 0);
+    Continuation after;
+    try (var execution = executor.execute(scan)) {
+      execution.next();
+      after = execution.continuation();
+    }
+    var other = new IndexScan(INDEXES.get(0), List.of(Value.of(3)), null, 0, 0);
+    assertThrows(IllegalArgumentException.class, () -> executor.execute(other, List.of(), after));
+    var bytes = after.toBytes();
+    assertThat(Continuation.fromBytes(bytes)).isEqualTo(after);
+  }
+
+  @Test
+  public void projectsColumns() {
+    var plan =
+        new Select(
+            new CollectionScan(ITEMS, DOCUMENTS, 0),
+            new Filter(filter("a", Operator.EQUAL, 0)),
+            DOCUMENTS,
+            0);
+    var b = FieldPath.parse("b");
+    List<Value> values = new ArrayList<>();
+    try (var execution = new QueryExecutor(store, 8).execute(plan, List.of(b))) {
+      for (var batch = execution.next(); batch != null; batch = execution.next()) {
+        for (int i = 0; i < batch.size(); ++i) {
+          values.add(batch.value(b, i));
+          assertThat(batch.key(i)).isEqualTo(DocumentKeys.encode(batch.document(i).path()));
+        }
+      }
+    }
+    var expected =
+        documents.stream()
+            .filter((doc) -> doc.get(FieldPath.parse("a")).equals(Value.of(0)))
+            .map((doc) -> doc.get(b))
+            .collect(Collectors.toList());
+    assertThat(values).isEqualTo(expected);
+  }
+
+  private static boolean fetches(PlanNode plan) {
+    return plan instanceof Fetch || plan.inputs().stream().anyMatch(QueryExecutorTest::fetches);
+  }
+
+  @Test
+  public void projectsFromIndexes() {
+    var projection = List.of(FieldPath.parse("a"), FieldPath.parse("b"));
+    var queries =
+        List.of(
+            query(filter("name", Operator.EQUAL, "n5")),
+            query(filter("name", Operator.GREATER_THAN, "n3"), filter("b", Operator.EQUAL, 2)),
+            query(filter("a", Operator.EQUAL, 3), filter("b", Operator.LESS_THAN, 3)));
+    for (Query query : queries) {
+      var expected =
+          documents.stream()
+              .filter(query.filter()::matches)
+              .map((doc) -> projection.stream().map(doc::get).toList())
+              .toList();
+      var candidates = new QueryPlanner(INDEXES, (id) -> null).candidates(query, projection);
+      // The index on name has every field, so it doesn't need the documents.
+      assertThat(candidates.stream().anyMatch((plan) -> !fetches(plan))).isTrue();
+      for (PlanNode plan : candidates) {
+        for (int batchSize : List.of(1, 4, QueryExecutor.DEFAULT_BATCH_SIZE)) {
+          List<List<Value>> actual = new ArrayList<>();
+          try (var execution = new QueryExecutor(store, batchSize).execute(plan, projection)) {
+            for (var batch = execution.next(); batch != null; batch = execution.next()) {
+              for (int i = 0; i < batch.size(); ++i) {
+                List<Value> row = new ArrayList<>();
+                for (FieldPath path : projection) {
+                  row.add(batch.value(path, i));
+                }
+                actual.add(row);
+              }
+            }
+          }
+          assertWithMessage(plan.explain() + "batch size " + batchSize)
+              .that(actual)
+              .containsExactlyElementsIn(expected);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void readsFromSnapshot() {
+    var plan = new CollectionScan(ITEMS, DOCUMENTS, 0);
+    int read = 0;
+    try (var execution = new QueryExecutor(store, 16).execute(plan)) {
+      var batch = execution.next();
+      read += batch.size();
+      store.write(KeyValueStore.Write.delete(DocumentKeys.encode(documents.get(199).path())));
+      for (batch = execution.next(); batch != null; batch = execution.next()) {
+        read += batch.size();
+      }
+    }
+    assertThat(read).isEqualTo(DOCUMENTS);
+  }
+
+  /** The groups of `aggregation` computed directly from the documents, by group. */
+  private Map<Value, List<Value>> expected(AggregateQuery aggregation) {
+    Map<Value, List<Document>> groups = new TreeMap<>();
+    for (Document document : documents) {
+      if (!aggregation.filter().matches(document)) continue;
+      var groupBy = aggregation.groupBy();
+      var key = groupBy == null ? Value.NULL : document.get(groupBy);
+      if (key == null) continue;
+      groups.computeIfAbsent(key, (unused) -> new ArrayList<>()).add(document);
+    }
+    if (aggregation.groupBy() == null) {
+      groups.putIfAbsent(Value.NULL, List.of());
+    }
+    Map<Value, List<Value>> expected = new HashMap<>();
+    for (var entry : groups.entrySet()) {
+      List<Value> values = new ArrayList<>();
+      for (AggregateFunction function : aggregation.functions()) {
+        var path = function.path();
+        var present =
+            entry.getValue().stream()
+                .map((doc) -> path == null ? Value.NULL : doc.get(path))
+                .filter(Objects::nonNull)
+                .toList();
+        values.add(
+            switch (function.kind()) {
+              case COUNT -> Value.of(present.size());
+              case SUM -> Value.of(
+                  present.stream()
+                      .filter((value) -> value.type() == Value.Type.Number)
+                      .mapToDouble(Value::asDouble)
+                      .sum());
+              case MIN -> present.stream().min(Comparator.naturalOrder()).orElse(null);
+              case MAX -> present.stream().max(Comparator.naturalOrder()).orElse(null);
+            });
+      }
+      expected.put(entry.getKey(), values);
+    }
+    return expected;
+  }
+
+  /** Every plan the planner considers for `aggregation` must compute the same groups. */
+  private void assertAllPlansAgree(AggregateQuery aggregation) {
+    var expected = expected(aggregation);
+    var candidates = new QueryPlanner(INDEXES, (id) -> null).candidates(aggregation);
+    for (PlanNode plan : candidates) {
+      for (int batchSize : List.of(1, 4, QueryExecutor.DEFAULT_BATCH_SIZE)) {
+        var message = plan.explain() + "batch size " + batchSize;
+        Map<Value, List<Value>> actual = new HashMap<>();
+        try (var results = new QueryExecutor(store, batchSize).aggregate(plan)) {
+          for (var group = results.next(); group != null; group = results.next()) {
+            var key = group.key() == null ? Value.NULL : group.key();
+            assertWithMessage(message).that(actual.put(key, group.values())).isNull();
+          }
+        }
+        assertWithMessage(message).that(actual).isEqualTo(expected);
+      }
+    }
+  }
+
+  private static AggregateFunction function(AggregateFunction.Kind kind, String path) {
+    return new AggregateFunction(kind, FieldPath.parse(path));
+  }
+
+  private static final List<AggregateFunction> FUNCTIONS =
+      List.of(
+          AggregateFunction.count(),
+          function(AggregateFunction.Kind.COUNT, "b"),
+          function(AggregateFunction.Kind.SUM, "b"),
+          function(AggregateFunction.Kind.MIN, "b"),
+          function(AggregateFunction.Kind.MAX, "b"));
+
+  @Test
+  public void aggregates() {
+    var filters =
+        List.of(
+            Filter.ALL,
+            new Filter(filter("a", Operator.EQUAL, 3)),
+            new Filter(filter("a", Operator.GREATER_THAN, 4)),
+            new Filter(filter("name", Operator.EQUAL, "n5")),
+            new Filter(filter("a", Operator.EQUAL, 3), filter("a", Operator.EQUAL, 4)));
+    for (Filter filter : filters) {
+      for (AggregateFunction function : FUNCTIONS) {
+        assertAllPlansAgree(new AggregateQuery(ITEMS, filter, null, List.of(function)));
+      }
+      assertAllPlansAgree(new AggregateQuery(ITEMS, filter, null, FUNCTIONS));
+      for (String groupBy : List.of("a", "b", "name")) {
+        assertAllPlansAgree(new AggregateQuery(ITEMS, filter, FieldPath.parse(groupBy), FUNCTIONS));
+      }
+    }
+  }
+
+  @Test
+  public void aggregatesEndpoints() {
+    var minMax =
+        List.of(
+            function(AggregateFunction.Kind.MIN, "b"), function(AggregateFunction.Kind.MAX, "b"));
+    var aggregation =
+        new AggregateQuery(ITEMS, new Filter(filter("a", Operator.EQUAL, 2)), null, minMax);
+    var plan = new QueryPlanner(INDEXES, (id) -> null).plan(aggregation);
+    assertThat(plan.inputs().get(0)).isInstanceOf(IndexEndpoints.class);
+    assertAllPlansAgree(aggregation);
+    // No document has this value of a, so there's no min or max.
+    assertAllPlansAgree(
+        new AggregateQuery(ITEMS, new Filter(filter("a", Operator.EQUAL, 100)), null, minMax));
+    assertAllPlansAgree(new AggregateQuery(ITEMS, Filter.ALL, null, minMax.subList(0, 1)));
+  }
+}
@@ -0,0 +1,45 @@
+package com.rockwotj.syllabusdb.core.stats;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.SplittableRandom;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HyperLogLogTest {
+
+  @Test
+  public void estimatesWithinErrorBounds() {
+    var random = new SplittableRandom(42);
+    for (int cardinality : new int[] {0, 10, 1000, 100_000}) {
+      var sketch = new HyperLogLog();
+      for (int i = 0; i < cardinality; ++i) {
+        long hash = random.nextLong();
+        // Duplicates don't change the estimate.
+        sketch.add(hash);
+        sketch.add(hash);
+      }
+      // The standard error at the default precision is about 1.6%.
+      assertThat((double) Math.abs(sketch.estimate() - cardinality))
+          .isAtMost(cardinality * 0.05 + 1);
+    }
+  }
+
+  @Test
+  public void mergeEstimatesTheUnion() {
+    var random = new SplittableRandom(7);
+    var a = new HyperLogLog();
+    var b = new HyperLogLog();
+    var union = new HyperLogLog();
+    for (int i = 0; i < 5000; ++i) {
+      long hash = random.nextLong();
+      (i % 2 == 0 ? a : b).add(hash);
+      union.add(hash);
+    }
+    a.merge(b);
+    assertThat(a).isEqualTo(union);
+    assertThat(HyperLogLog.fromRegisters(a.registers())).isEqualTo(a);
+  }
+}
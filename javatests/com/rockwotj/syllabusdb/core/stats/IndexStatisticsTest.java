@@ -0,0 +1,157 @@
+package com.rockwotj.syllabusdb.core.stats;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.index.Index;
+import com.rockwotj.syllabusdb.core.index.IndexField;
+import com.rockwotj.syllabusdb.core.index.IndexId;
+import com.rockwotj.syllabusdb.core.index.IndexKind;
+import com.rockwotj.syllabusdb.core.index.IndexName;
+import com.rockwotj.syllabusdb.core.index.IndexState;
+import com.rockwotj.syllabusdb.core.indexer.Indexer;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IndexStatisticsTest {
+  private static final CollectionId USERS = new CollectionId("users");
+  private static final FieldName AGE = FieldName.of("age");
+  private static final FieldName CITY = FieldName.of("city");
+  private static final Index INDEX =
+      new Index(
+          new IndexId(1),
+          new IndexName("byAgeAndCity"),
+          USERS,
+          List.of(
+              new IndexField(FieldPath.parse("age"), Direction.ASCENDING),
+              new IndexField(FieldPath.parse("city"), Direction.DESCENDING)));
+
+  private KeyValueStore store;
+  private StatisticsStore statistics;
+  private Indexer indexer;
+
+  @Before
+  public void setup() {
+    store = new InMemoryKeyValueStore();
+    statistics = StatisticsStore.load(store, List.of(INDEX));
+    indexer = new Indexer(List.of(INDEX), statistics);
+  }
+
+  private static Document user(int i) {
+    // 100 distinct ages, and 700 distinct (age, city) pairs.
+    var fields = Map.of(AGE, Value.of(i % 100), CITY, Value.of("city" + (i % 7)));
+    return new Document(new DocId("user" + i), USERS, fields);
+  }
+
+  private void insertUsers(int count) {
+    var writes = new ArrayList<KeyValueStore.Write>();
+    for (int i = 0; i < count; ++i) {
+      writes.addAll(indexer.diff(null, user(i)));
+    }
+    store.write(writes);
+  }
+
+  @Test
+  public void maintainedAsEntriesChange() {
+    insertUsers(1000);
+    var stats = statistics.get(INDEX.id());
+    assertThat(stats.entryCount()).isEqualTo(1000L);
+    assertThat((double) stats.distinctCount(1)).isWithin(5).of(100);
+    assertThat((double) stats.distinctCount(2)).isWithin(35).of(700);
+    assertThat(stats.selectivity(Operator.EQUAL, Value.of(25))).isWithin(0.001).of(0.01);
+
+    indexer.diff(user(0), null);
+    assertThat(statistics.get(INDEX.id()).entryCount()).isEqualTo(999L);
+  }
+
+  @Test
+  public void persistedAcrossLoads() {
+    insertUsers(100);
+    var before = statistics.get(INDEX.id());
+    statistics.save();
+    assertThat(StatisticsStore.load(store, List.of(INDEX)).get(INDEX.id())).isEqualTo(before);
+  }
+
+  @Test
+  public void samplerRebuildsFromTheIndex() {
+    insertUsers(1000);
+    // Deletes that bypass the listener leave the incremental statistics stale.
+    var writes = new ArrayList<KeyValueStore.Write>();
+    var unlistened = new Indexer(List.of(INDEX));
+    for (int i = 0; i < 500; ++i) {
+      writes.addAll(unlistened.diff(user(i), null));
+    }
+    store.write(writes);
+    assertThat(statistics.get(INDEX.id()).entryCount()).isEqualTo(1000L);
+
+    var sampler = new StatisticsSampler(store, statistics, new StatisticsSampler.Options(100, 10));
+    var refreshed = sampler.refresh(INDEX);
+    assertThat(refreshed.entryCount()).isEqualTo(500L);
+    assertThat(refreshed.histogram()).hasSize(10);
+    // Ages are uniform in [0, 100), so about a quarter are less than 25.
+    assertThat(refreshed.selectivity(Operator.LESS_THAN, Value.of(25))).isWithin(0.1).of(0.25);
+    assertThat(refreshed.selectivity(Operator.GREATER_THAN, Value.of(25))).isWithin(0.1).of(0.75);
+    // A string bound doesn't match any numbers.
+    assertThat(refreshed.selectivity(Operator.LESS_THAN, Value.of("z"))).isEqualTo(0.0);
+    assertThat(statistics.get(INDEX.id())).isEqualTo(refreshed);
+    assertThat(StatisticsStore.load(store, List.of(INDEX)).get(INDEX.id())).isEqualTo(refreshed);
+  }
+
+  @Test
+  public void hashIndexesCountTheSameWhenAddedAndSampled() {
+    var hashIndex =
+        new Index(
+            new IndexId(2),
+            new IndexName("byAgeAndCityHash"),
+            USERS,
+            IndexKind.HASH,
+            INDEX.fields(),
+            List.of(),
+            Filter.ALL,
+            IndexState.READY);
+    statistics = StatisticsStore.load(store, List.of(hashIndex));
+    var hashIndexer = new Indexer(List.of(hashIndex), statistics);
+    var writes = new ArrayList<KeyValueStore.Write>();
+    for (int i = 0; i < 1000; ++i) {
+      writes.addAll(hashIndexer.diff(null, user(i)));
+    }
+    store.write(writes);
+    var added = statistics.get(hashIndex.id());
+
+    var sampler = new StatisticsSampler(store, statistics, new StatisticsSampler.Options(100, 10));
+    var sampled = sampler.refresh(hashIndex);
+    // Only the fingerprint of both values is stored, so every prefix counts the pairs.
+    assertThat(sampled.distinctPrefixCounts()).isEqualTo(added.distinctPrefixCounts());
+    assertThat((double) sampled.distinctCount(1)).isWithin(35).of(700);
+  }
+
+  @Test
+  public void histogramsKeepEqualValuesInOneBucket() {
+    var sample = new ArrayList<Value>();
+    for (int i = 0; i < 90; ++i) {
+      sample.add(Value.of(1));
+    }
+    for (int i = 0; i < 10; ++i) {
+      sample.add(Value.of(i + 2));
+    }
+    var histogram = Histogram.build(sample, 10, 1000);
+    assertThat(histogram.buckets().get(0)).isEqualTo(new Histogram.Bucket(Value.of(1), 900));
+    assertThat(histogram.fractionBelow(Value.of(1), true)).isWithin(0.01).of(0.9);
+  }
+}
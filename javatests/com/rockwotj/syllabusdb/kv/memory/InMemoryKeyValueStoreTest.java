@@ -1,6 +1,7 @@
 package com.rockwotj.syllabusdb.kv.memory;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
 
 import com.rockwotj.syllabusdb.core.bytes.ByteArray;
 import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
@@ -28,6 +29,28 @@ public class InMemoryKeyValueStoreTest {
   private static final ByteArray QUX = ByteArray.copyUtf8("qux");
   private static final ByteArray THUD = ByteArray.copyUtf8("thud");
 
+  @Test
+  public void ingestMergesWithExistingData() {
+    store.write(KeyValueStore.Write.put(BAZ, FIZZ), KeyValueStore.Write.put(FOO, BAR));
+    var snapshot = store.cursor();
+    store.ingest(
+        List.of(Map.entry(BAR, QUX), Map.entry(FOO, THUD), Map.entry(QUX, BAZ)).iterator());
+    assertThat(fullScan())
+        .containsExactly(
+            Map.entry(BAR, QUX), Map.entry(BAZ, FIZZ), Map.entry(FOO, THUD), Map.entry(QUX, BAZ))
+        .inOrder();
+    // Existing snapshots are unaffected.
+    snapshot.seek(FOO);
+    assertThat(snapshot.value()).isEqualTo(BAR);
+  }
+
+  @Test
+  public void ingestRequiresSortedKeys() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> store.ingest(List.of(Map.entry(FOO, BAR), Map.entry(BAZ, FIZZ)).iterator()));
+  }
+
   @Test
   public void canWriteAndRead() {
     store.write(
@@ -52,6 +75,20 @@ public class InMemoryKeyValueStoreTest {
     assertThat(fullScan()).containsExactly(Map.entry(BAZ, FIZZ), Map.entry(QUX, THUD)).inOrder();
   }
 
+  @Test
+  public void forkSharesSnapshot() {
+    store.write(KeyValueStore.Write.put(BAZ, FIZZ), KeyValueStore.Write.put(QUX, THUD));
+    var snapshot = store.cursor();
+    snapshot.seek(QUX);
+    store.write(KeyValueStore.Write.put(FOO, BAR));
+    var fork = snapshot.fork();
+    assertThat(fullScan(fork))
+        .containsExactly(Map.entry(BAZ, FIZZ), Map.entry(QUX, THUD))
+        .inOrder();
+    // The original keeps its own position.
+    assertThat(snapshot.key()).isEqualTo(QUX);
+  }
+
   @Test
   public void keepsSnapshot() {
     store.write(KeyValueStore.Write.put(BAZ, FIZZ), KeyValueStore.Write.put(QUX, THUD));
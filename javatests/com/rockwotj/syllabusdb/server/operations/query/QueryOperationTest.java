@@ -0,0 +1,337 @@
+package com.rockwotj.syllabusdb.server.operations.query;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.gson.JsonParser;
+import com.rockwotj.syllabusdb.core.bytes.ByteArray;
+import com.rockwotj.syllabusdb.core.catalog.IndexCatalog;
+import com.rockwotj.syllabusdb.core.document.CollectionId;
+import com.rockwotj.syllabusdb.core.document.DocId;
+import com.rockwotj.syllabusdb.core.document.Document;
+import com.rockwotj.syllabusdb.core.document.FieldName;
+import com.rockwotj.syllabusdb.core.document.FieldPath;
+import com.rockwotj.syllabusdb.core.document.Value;
+import com.rockwotj.syllabusdb.core.document.converter.DocConverter;
+import com.rockwotj.syllabusdb.core.encoding.key.DocumentKeys;
+import com.rockwotj.syllabusdb.core.filter.FieldFilter;
+import com.rockwotj.syllabusdb.core.filter.Filter;
+import com.rockwotj.syllabusdb.core.filter.Operator;
+import com.rockwotj.syllabusdb.core.index.Direction;
+import com.rockwotj.syllabusdb.core.query.AggregateFunction;
+import com.rockwotj.syllabusdb.core.query.AggregateQuery;
+import com.rockwotj.syllabusdb.core.query.Order;
+import com.rockwotj.syllabusdb.core.query.Query;
+import com.rockwotj.syllabusdb.core.query.exec.QueryExecutor;
+import com.rockwotj.syllabusdb.core.stats.StatisticsStore;
+import com.rockwotj.syllabusdb.kv.api.KeyValueStore;
+import com.rockwotj.syllabusdb.kv.memory.InMemoryKeyValueStore;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class QueryOperationTest {
+  private static final CollectionId ITEMS = new CollectionId("items");
+  private static final int DOCUMENTS = 500;
+
+  private final AtomicInteger openCursors = new AtomicInteger();
+  private KeyValueStore store;
+  private IndexCatalog catalog;
+  private StatisticsStore statistics;
+
+  @Before
+  public void setup() {
+    var backing = new InMemoryKeyValueStore();
+    for (int i = 0; i < DOCUMENTS; ++i) {
+      var document =
+          new Document(
+              new DocId(String.format("d%03d", i)),
+              ITEMS,
+              Map.of(FieldName.of("a"), Value.of(i % 7), FieldName.of("b"), Value.of(i)));
+      backing.write(
+          KeyValueStore.Write.put(
+              DocumentKeys.encode(document.path()), DocConverter.toBytes(document)));
+    }
+    store = trackingCursors(backing);
+    catalog = IndexCatalog.load(store);
+    statistics = StatisticsStore.load(store, catalog.all());
+  }
+
+  /** Wraps a store so the number of open cursors can be checked. */
+  private KeyValueStore trackingCursors(KeyValueStore delegate) {
+    return new KeyValueStore() {
+      @Override
+      public Cursor cursor() {
+        var cursor = delegate.cursor();
+        openCursors.incrementAndGet();
+        return (Cursor)
+            Proxy.newProxyInstance(
+                Cursor.class.getClassLoader(),
+                new Class<?>[] {Cursor.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("close")) {
+                    openCursors.decrementAndGet();
+                  }
+                  try {
+                    return method.invoke(cursor, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+                });
+      }
+
+      @Override
+      public void write(List<Write> batch) {
+        delegate.write(batch);
+      }
+    };
+  }
+
+  private QueryOperation operation(int batchSize, long sortBufferBytes) {
+    return new QueryOperation(
+        catalog, statistics, new QueryExecutor(store, batchSize, sortBufferBytes));
+  }
+
+  private static List<Document> parse(ByteArrayOutputStream out) {
+    var text = out.toString(StandardCharsets.UTF_8);
+    assertThat(text.endsWith("\n")).isTrue();
+    List<Document> documents = new ArrayList<>();
+    for (String line : text.split("\n")) {
+      documents.add(DocConverter.fromBytes(ByteArray.copyUtf8(line)));
+    }
+    return documents;
+  }
+
+  @Test
+  public void streamsOneDocumentPerLine() throws IOException {
+    var operation = operation(64, QueryExecutor.DEFAULT_SORT_BUFFER_BYTES);
+    var query =
+        new Query(
+            ITEMS,
+            new Filter(
+                List.of(new FieldFilter(FieldPath.parse("a"), Operator.EQUAL, Value.of(3)))));
+    var out = new ByteArrayOutputStream();
+
+    var count = operation.stream(operation.prepare(query, null), out);
+
+    var documents = parse(out);
+    assertThat(count).isEqualTo(documents.size());
+    assertThat(documents).hasSize((DOCUMENTS + 3) / 7);
+    for (Document document : documents) {
+      assertThat(document.get(FieldPath.parse("a"))).isEqualTo(Value.of(3));
+    }
+    assertThat(openCursors.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void streamsSortsThatSpillToDisk() throws IOException {
+    var operation = operation(16, 1024);
+    var query =
+        new Query(
+            ITEMS,
+            Filter.ALL,
+            new Order(FieldPath.parse("b"), Direction.DESCENDING),
+            Query.NO_LIMIT);
+    var out = new ByteArrayOutputStream();
+
+    operation.stream(operation.prepare(query, null), out);
+
+    var documents = parse(out);
+    assertThat(documents).hasSize(DOCUMENTS);
+    for (int i = 0; i < DOCUMENTS; ++i) {
+      assertThat(documents.get(i).get(FieldPath.parse("b"))).isEqualTo(Value.of(DOCUMENTS - 1 - i));
+    }
+  }
+
+  /** The documents of a page, and the continuation on its last line if there is one. */
+  private record Page(List<Document> documents, @Nullable String continuation) {}
+
+  private static Page parsePage(ByteArrayOutputStream out) {
+    var text = out.toString(StandardCharsets.UTF_8);
+    List<Document> documents = new ArrayList<>();
+    String continuation = null;
+    for (String line : text.lines().collect(Collectors.toList())) {
+      assertThat(continuation).isNull();
+      var json = JsonParser.parseString(line).getAsJsonObject();
+      if (json.has("continuation")) {
+        continuation = json.get("continuation").getAsString();
+      } else {
+        documents.add(DocConverter.fromBytes(ByteArray.copyUtf8(line)));
+      }
+    }
+    return new Page(documents, continuation);
+  }
+
+  private List<Document> readAllPages(QueryOperation operation, Query query) throws IOException {
+    List<Document> documents = new ArrayList<>();
+    String continuation = null;
+    do {
+      var out = new ByteArrayOutputStream();
+      operation.stream(operation.prepare(query, continuation), out);
+      var page = parsePage(out);
+      assertThat(page.documents().size()).isAtMost(query.limit());
+      documents.addAll(page.documents());
+      continuation = page.continuation();
+    } while (continuation != null);
+    return documents;
+  }
+
+  @Test
+  public void pagesWithContinuations() throws IOException {
+    var operation = operation(16, QueryExecutor.DEFAULT_SORT_BUFFER_BYTES);
+    var filter =
+        new Filter(List.of(new FieldFilter(FieldPath.parse("a"), Operator.EQUAL, Value.of(3))));
+    var everything = parse(output(operation, new Query(ITEMS, filter)));
+
+    var pages = readAllPages(operation, new Query(ITEMS, filter, null, 10));
+
+    assertThat(pages).containsExactlyElementsIn(everything).inOrder();
+  }
+
+  @Test
+  public void pagesSortedResults() throws IOException {
+    var operation = operation(16, 1024);
+    var order = new Order(FieldPath.parse("a"), Direction.DESCENDING);
+    var everything = parse(output(operation, new Query(ITEMS, Filter.ALL, order, Query.NO_LIMIT)));
+
+    // Pages can change size part way through.
+    var first = output(operation, new Query(ITEMS, Filter.ALL, order, 7));
+    var page = parsePage(first);
+    var rest = new ByteArrayOutputStream();
+    operation.stream(
+        operation.prepare(new Query(ITEMS, Filter.ALL, order, Query.NO_LIMIT), page.continuation()),
+        rest);
+    List<Document> documents = new ArrayList<>(page.documents());
+    documents.addAll(parse(rest));
+
+    assertThat(documents).containsExactlyElementsIn(everything).inOrder();
+  }
+
+  @Test
+  public void rejectsInvalidContinuations() throws IOException {
+    var operation = operation(16, QueryExecutor.DEFAULT_SORT_BUFFER_BYTES);
+    var page = parsePage(output(operation, new Query(ITEMS, Filter.ALL, null, 10)));
+    var other =
+        new Query(
+            ITEMS,
+            new Filter(List.of(new FieldFilter(FieldPath.parse("a"), Operator.EQUAL, Value.of(3)))),
+            null,
+            10);
+
+    assertThrows(IllegalArgumentException.class, () -> operation.prepare(other, "!"));
+    assertThrows(IllegalArgumentException.class, () -> operation.prepare(other, "AQ"));
+    assertThrows(
+        IllegalArgumentException.class, () -> operation.prepare(other, page.continuation()));
+  }
+
+  private static ByteArrayOutputStream output(QueryOperation operation, Query query)
+      throws IOException {
+    var out = new ByteArrayOutputStream();
+    operation.stream(operation.prepare(query, null), out);
+    return out;
+  }
+
+  @Test
+  public void flushesEachBatch() throws IOException {
+    var operation = operation(100, QueryExecutor.DEFAULT_SORT_BUFFER_BYTES);
+    var flushes = new AtomicInteger();
+    var out =
+        new ByteArrayOutputStream() {
+          @Override
+          public void flush() {
+            flushes.incrementAndGet();
+          }
+        };
+
+    operation.stream(operation.prepare(new Query(ITEMS, Filter.ALL), null), out);
+
+    assertThat(flushes.get()).isAtLeast(DOCUMENTS / 100);
+    assertThat(parse(out)).hasSize(DOCUMENTS);
+  }
+
+  @Test
+  public void closesSnapshotWhenClientDisconnects() {
+    var operation = operation(16, QueryExecutor.DEFAULT_SORT_BUFFER_BYTES);
+    var prepared = operation.prepare(new Query(ITEMS, Filter.ALL), null);
+    var out =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("Connection reset");
+          }
+        };
+
+    assertThrows(IOException.class, () -> operation.stream(prepared, out));
+    assertThat(openCursors.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void streamsAggregateGroups() throws IOException {
+    var operation = operation(64, QueryExecutor.DEFAULT_SORT_BUFFER_BYTES);
+    var b = FieldPath.parse("b");
+    var aggregation =
+        new AggregateQuery(
+            ITEMS,
+            Filter.ALL,
+            FieldPath.parse("a"),
+            List.of(
+                AggregateFunction.count(),
+                new AggregateFunction(AggregateFunction.Kind.SUM, b),
+                new AggregateFunction(AggregateFunction.Kind.MAX, b)));
+    var out = new ByteArrayOutputStream();
+
+    var count = operation.streamAggregate(operation.prepare(aggregation), out);
+
+    var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(count).isEqualTo(7);
+    assertThat(lines.length).isEqualTo(7);
+    for (int a = 0; a < 7; ++a) {
+      var group = JsonParser.parseString(lines[a]).getAsJsonObject();
+      assertThat(group.get("group").getAsInt()).isEqualTo(a);
+      var values = group.getAsJsonArray("values");
+      long documents = (DOCUMENTS - a + 6) / 7;
+      assertThat(values.get(0).getAsLong()).isEqualTo(documents);
+      assertThat(values.get(1).getAsLong())
+          .isEqualTo(documents * (a + a + 7 * (documents - 1)) / 2);
+      assertThat(values.get(2).getAsInt()).isEqualTo(a + 7 * (documents - 1));
+    }
+    assertThat(openCursors.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void streamsEmptyAggregates() throws IOException {
+    var operation = operation(64, QueryExecutor.DEFAULT_SORT_BUFFER_BYTES);
+    var aggregation =
+        new AggregateQuery(
+            ITEMS,
+            new Filter(
+                List.of(new FieldFilter(FieldPath.parse("a"), Operator.EQUAL, Value.of(100)))),
+            null,
+            List.of(
+                AggregateFunction.count(),
+                new AggregateFunction(AggregateFunction.Kind.MIN, FieldPath.parse("b"))));
+    var out = new ByteArrayOutputStream();
+
+    operation.streamAggregate(operation.prepare(aggregation), out);
+
+    var result = JsonParser.parseString(out.toString(StandardCharsets.UTF_8)).getAsJsonObject();
+    assertThat(result.has("group")).isFalse();
+    var values = result.getAsJsonArray("values");
+    assertThat(values.get(0).getAsLong()).isEqualTo(0);
+    assertThat(values.get(1).isJsonNull()).isTrue();
+  }
+}